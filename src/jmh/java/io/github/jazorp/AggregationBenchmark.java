@@ -0,0 +1,145 @@
+package io.github.jazorp;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.jazorp.Validators.*;
+
+/**
+ * Validates a chain of {@code depth} nested objects, each with a list of {@code items} elements, through an
+ * {@link Aggregation}, a {@link Plan} and {@link Validator#revalidate} of a single changed field.
+ * When {@code valid} is false, one field of every object and every tenth element fail.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class AggregationBenchmark {
+
+    public static final class Item {
+
+        private final String sku;
+        public String getSku() { return sku; }
+
+        private final long quantity;
+        public long getQuantity() { return quantity; }
+
+        Item(String sku, long quantity) {
+            this.sku = sku;
+            this.quantity = quantity;
+        }
+    }
+
+    public static final class Node {
+
+        private String name;
+        public String getName() { return name; }
+
+        private final String email;
+        public String getEmail() { return email; }
+
+        private final long weight;
+        public long getWeight() { return weight; }
+
+        private final Node child;
+        public Node getChild() { return child; }
+
+        private final List<Item> items;
+        public List<Item> getItems() { return items; }
+
+        Node(String name, String email, long weight, Node child, List<Item> items) {
+            this.name = name;
+            this.email = email;
+            this.weight = weight;
+            this.child = child;
+            this.items = items;
+        }
+    }
+
+    private static final Validator<Item> ITEM = i -> Aggregation.of(
+            notBlank("sku", i.getSku()),
+            positive("quantity", i.getQuantity()));
+
+    private static final Validator<Node> NODE = new Validator<Node>() {
+        @Override
+        public Aggregation collect(Node n) {
+            Aggregation aggregation = Aggregation.of(
+                    notBlank("name", n.getName()),
+                    email("email", n.getEmail()),
+                    positive("weight", n.getWeight()))
+                    .nestedList("items", ITEM, n.getItems());
+            return n.getChild() == null ? aggregation : aggregation.nested("child", this, n.getChild());
+        }
+    };
+
+    @Param({"1", "3", "5"})
+    public int depth;
+
+    @Param({"0", "10", "100", "1000"})
+    public int items;
+
+    @Param({"true", "false"})
+    public boolean valid;
+
+    private Node root;
+    private Plan<Node> plan;
+    private Result previous;
+    private Collection<String> changed;
+    private Env env;
+
+    @Setup
+    public void setup() {
+        Plan<Item> itemPlan = new Plan.Builder<Item>()
+                .notBlank("sku", Item::getSku)
+                .positive("quantity", Item::getQuantity)
+                .build();
+        Plan<Node> child = null;
+        for (int d = 0; d < depth; d++) {
+            Plan.Builder<Node> builder = new Plan.Builder<Node>()
+                    .notBlank("name", Node::getName)
+                    .email("email", Node::getEmail)
+                    .positive("weight", Node::getWeight)
+                    .nestedList("items", Node::getItems, itemPlan);
+            if (child != null) {
+                builder.nested("child", Node::getChild, child);
+            }
+            child = builder.build();
+        }
+        plan = child;
+
+        Node node = null;
+        for (int d = 0; d < depth; d++) {
+            List<Item> list = new ArrayList<>(items);
+            for (int i = 0; i < items; i++) {
+                list.add(new Item("SKU-" + i, !valid && i % 10 == 0 ? 0 : i + 1));
+            }
+            node = new Node("node" + d, valid ? "node" + d + "@jazorp.io" : "node" + d, d + 1, node, list);
+        }
+        root = node;
+        env = Env.empty();
+
+        root.name = "";
+        previous = NODE.validate(root, new Env.Builder().trace().build());
+        root.name = "root";
+        changed = Collections.singleton("name");
+    }
+
+    @Benchmark
+    public Result aggregation() {
+        return NODE.validate(root, env);
+    }
+
+    @Benchmark
+    public Result plan() {
+        return plan.validate(root, env);
+    }
+
+    @Benchmark
+    public Result revalidate() {
+        return NODE.revalidate(previous, changed, root, env);
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.jazorp;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.jazorp.Validators.*;
+
+/**
+ * Validates {@code size} objects, one in ten of them failing, with a {@link Validator#validate} loop,
+ * as a nested list in parallel, and through a {@link CachingValidator} over {@code size / 10} distinct objects.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+
+    public static final class Account {
+
+        private final String email;
+        public String getEmail() { return email; }
+
+        private final String currency;
+        public String getCurrency() { return currency; }
+
+        Account(String email, String currency) {
+            this.email = email;
+            this.currency = currency;
+        }
+    }
+
+    private static final Validator<Account> ACCOUNT = a -> Aggregation.of(
+            email("email", a.getEmail()),
+            length("currency", a.getCurrency(), 3));
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private List<Account> accounts;
+    private List<Account> repeated;
+    private Env env;
+    private Env parallel;
+    private ExecutorService executor;
+    private CachingValidator<Account> cached;
+
+    @Setup
+    public void setup() {
+        accounts = new ArrayList<>(size);
+        repeated = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            accounts.add(new Account(i % 10 == 3 ? "user" + i : "user" + i + "@jazorp.io", "EUR"));
+            repeated.add(accounts.get(i % Math.max(1, size / 10)));
+        }
+        env = Env.empty();
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        parallel = new Env.Builder().parallel(executor, 1000).build();
+        cached = new CachingValidator.Builder<>(ACCOUNT)
+                .key(Account::getEmail)
+                .maximumSize(size)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public void loop(Blackhole blackhole) {
+        for (Account account : accounts) {
+            blackhole.consume(ACCOUNT.validate(account, env));
+        }
+    }
+
+    @Benchmark
+    public Result nestedListParallel() {
+        return Aggregation.of().nestedList("account", ACCOUNT, accounts).validate(parallel);
+    }
+
+    @Benchmark
+    public void cached(Blackhole blackhole) {
+        for (Account account : repeated) {
+            blackhole.consume(cached.validate(account, env));
+        }
+    }
+}
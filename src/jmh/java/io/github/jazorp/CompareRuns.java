@@ -0,0 +1,159 @@
+package io.github.jazorp;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Compares two JMH runs written with {@code -rf csv}, e.g. one of the base branch and one of a change:
+ *
+ * <pre>
+ * java io.github.jazorp.CompareRuns build/jmh/baseline.csv build/jmh/candidate.csv
+ * </pre>
+ *
+ * Prints every benchmark and secondary metric present in both runs with its relative change. A change is
+ * marked with {@code *} when the two 99.9% confidence intervals reported by JMH do not overlap, which
+ * needs more than one measurement iteration.
+ * Both runs should come from the same machine, JDK and JMH options.
+ */
+public final class CompareRuns {
+
+    private CompareRuns() {
+    }
+
+    private static final class Score {
+
+        final String unit;
+        final double score;
+        final double error;
+
+        Score(String unit, double score, double error) {
+            this.unit = unit;
+            this.score = score;
+            this.error = error;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: CompareRuns <baseline.csv> <candidate.csv>");
+            System.exit(2);
+        }
+        Map<String, Score> baseline = read(args[0]);
+        Map<String, Score> candidate = read(args[1]);
+
+        int width = 9;
+        for (String key : baseline.keySet()) {
+            width = Math.max(width, key.length());
+        }
+        String format = "%-" + width + "s  %-12s %14s %12s %14s %12s %9s%n";
+        System.out.printf(format, "Benchmark", "Unit", "Baseline", "Error", "Candidate", "Error", "Change");
+        for (Map.Entry<String, Score> entry : baseline.entrySet()) {
+            Score before = entry.getValue();
+            Score after = candidate.get(entry.getKey());
+            if (after == null || !before.unit.equals(after.unit)) {
+                continue;
+            }
+            double change = before.score == 0 ? 0 : (after.score - before.score) / before.score * 100;
+            boolean significant = !Double.isNaN(before.error) && !Double.isNaN(after.error)
+                    && Math.abs(after.score - before.score) > before.error + after.error;
+            System.out.printf(format, entry.getKey(), before.unit,
+                    number(before.score), number(before.error), number(after.score), number(after.error),
+                    String.format(Locale.ROOT, "%+.1f%%%s", change, significant ? "*" : ""));
+        }
+        for (String key : candidate.keySet()) {
+            if (!baseline.containsKey(key)) {
+                System.out.println("only in candidate: " + key);
+            }
+        }
+    }
+
+    private static String number(double value) {
+        return Double.isNaN(value) ? "-" : String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    /**
+     * Reads the rows of a JMH csv result, keyed by benchmark, mode, threads and parameters.
+     */
+    private static Map<String, Score> read(String file) throws IOException {
+        List<String> lines = Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8);
+        if (lines.isEmpty()) {
+            throw new IOException(file + " is empty");
+        }
+        List<String> header = split(lines.get(0));
+        int benchmark = column(header, "Benchmark", file);
+        int mode = column(header, "Mode", file);
+        int threads = column(header, "Threads", file);
+        int score = column(header, "Score", file);
+        int error = column(header, "Score Error (99.9%)", file);
+        int unit = column(header, "Unit", file);
+
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            List<String> row = split(line);
+            StringJoiner params = new StringJoiner(", ", " (", ")").setEmptyValue("");
+            for (int i = unit + 1; i < row.size() && i < header.size(); i++) {
+                if (!row.get(i).isEmpty()) {
+                    params.add(header.get(i).replace("Param: ", "") + '=' + row.get(i));
+                }
+            }
+            String key = shortName(row.get(benchmark)) + params
+                    + " [" + row.get(mode) + ", " + row.get(threads) + " threads]";
+            scores.put(key, new Score(row.get(unit), parse(row.get(score)), parse(row.get(error))));
+        }
+        return scores;
+    }
+
+    private static int column(List<String> header, String name, String file) throws IOException {
+        int index = header.indexOf(name);
+        if (index < 0) {
+            throw new IOException(file + " has no '" + name + "' column, was it written with -rf csv?");
+        }
+        return index;
+    }
+
+    private static String shortName(String benchmark) {
+        String prefix = CompareRuns.class.getPackage().getName() + '.';
+        return benchmark.startsWith(prefix) ? benchmark.substring(prefix.length()) : benchmark;
+    }
+
+    private static double parse(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Splits a csv line on commas outside of double quotes, removing the quotes.
+     */
+    private static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == ',' && !quoted) {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.jazorp;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.github.jazorp.Validators.*;
+
+/**
+ * Builds and runs aggregations of {@code thunks} passing checks, with the default priority or with
+ * mixed priorities, and composes them with {@link Aggregation#compose} and {@link Validator#compose}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ComposeBenchmark {
+
+    @Param({"5", "50", "500"})
+    public int thunks;
+
+    @Param({"false", "true"})
+    public boolean priorities;
+
+    private String[] fields;
+    private String value;
+    private Env env;
+    private Aggregation first;
+    private Aggregation second;
+    private Validator<String> composed;
+
+    @Setup
+    public void setup() {
+        fields = new String[thunks];
+        for (int i = 0; i < thunks; i++) {
+            fields[i] = "field" + i;
+        }
+        value = "Portal Gun!";
+        env = Env.empty();
+        first = Aggregation.of(thunks(value));
+        second = Aggregation.of(thunks(value));
+        Validator<String> validator = s -> Aggregation.of(thunks(s));
+        composed = validator.compose(validator).compose(validator).compose(validator);
+    }
+
+    private ValidationThunk[] thunks(String s) {
+        ValidationThunk[] thunks = new ValidationThunk[this.thunks];
+        for (int i = 0; i < thunks.length; i++) {
+            ValidationThunk thunk = notBlank(fields[i], s);
+            thunks[i] = priorities ? thunk.priority(i % 7) : thunk;
+        }
+        return thunks;
+    }
+
+    @Benchmark
+    public Aggregation build() {
+        return Aggregation.of(thunks(value));
+    }
+
+    @Benchmark
+    public Result buildAndValidate() {
+        return Aggregation.of(thunks(value)).validate(env);
+    }
+
+    @Benchmark
+    public Result composeAggregations() {
+        return first.compose(second).validate(env);
+    }
+
+    @Benchmark
+    public Result composeValidators() {
+        return composed.validate(value, env);
+    }
+}
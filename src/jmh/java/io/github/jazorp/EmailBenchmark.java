@@ -0,0 +1,55 @@
+package io.github.jazorp;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the e-mail scanner with the regular expression it replaced, on a typical address,
+ * an invalid one and a long one with many domain labels that fails on its last character.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class EmailBenchmark {
+
+    private static final Pattern EMAIL_PATTERN = Pattern.compile(
+            "^[\\w!#$%&'*+/=?`{|}~^-]+(?:\\.[\\w!#$%&'*+/=?`{|}~^-]+)*@(?:[a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,6}$");
+
+    @Param({"valid", "invalid", "long"})
+    public String input;
+
+    private String email;
+
+    @Setup
+    public void setup() {
+        switch (input) {
+            case "valid":
+                email = "rick.sanchez@council.citadel.com";
+                break;
+            case "invalid":
+                email = "rick.sanchez@citadel";
+                break;
+            default:
+                StringBuilder sb = new StringBuilder("rick.sanchez@");
+                for (int i = 0; i < 40; i++) {
+                    sb.append("dimension-c").append(i).append('.');
+                }
+                email = sb.append("citadel1").toString();
+        }
+    }
+
+    @Benchmark
+    public boolean scanner() {
+        return Email.isValid(email);
+    }
+
+    @Benchmark
+    public boolean regex() {
+        return EMAIL_PATTERN.matcher(email).matches();
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.jazorp;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formats a stock message through {@link ErrorFormatter#format}, in the default table or in an overridden
+ * locale, and compares its precompiled template with {@link String#format(String, Object...)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ErrorFormatterBenchmark {
+
+    @Param({"NOT_BLANK", "MIN_LENGTH"})
+    public ErrorType type;
+
+    @Param({"", "el-GR"})
+    public String locale;
+
+    private String message;
+    private MessageTemplate template;
+    private Env env;
+    private Object[] args;
+
+    @Setup
+    public void setup() {
+        ErrorFormatter formatter = ErrorFormatter.getInstance();
+        formatter.reset();
+        message = type == ErrorType.NOT_BLANK ? "%s cannot be blank" : "%s must have at least %3$s characters";
+        Env.Builder builder = new Env.Builder();
+        if (!locale.isEmpty()) {
+            message = type == ErrorType.NOT_BLANK ? "Το %s δεν μπορεί να είναι κενό"
+                    : "Το %s πρέπει να έχει τουλάχιστον %3$s χαρακτήρες";
+            formatter.override(Locale.forLanguageTag("el"), Collections.singletonMap(type, message));
+            builder.set(ErrorFormatter.LOCALE, locale);
+        }
+        template = MessageTemplate.compile(message);
+        env = builder.build();
+        args = new Object[]{"name", "Rick", 5};
+    }
+
+    @TearDown
+    public void tearDown() {
+        ErrorFormatter.getInstance().reset();
+    }
+
+    @Benchmark
+    public String format() {
+        return ErrorFormatter.getInstance().format(type, env, args);
+    }
+
+    @Benchmark
+    public String template() {
+        return template.format(args);
+    }
+
+    @Benchmark
+    public String stringFormat() {
+        return String.format(message, args);
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.jazorp;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures validating a generated file of {@code records} NDJSON orders with a {@link FileValidator} on
+ * {@code threads} threads, one in a hundred orders being invalid. The report is discarded.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class FileBenchmark {
+
+    private static final JsonValidator ORDERS = new JsonValidator(Arrays.asList(
+            Rule.of("id", ErrorType.NOT_BLANK),
+            Rule.of("items[].sku", ErrorType.LENGTH, 8),
+            Rule.of("items[].quantity", ErrorType.POSITIVE)));
+
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Param({"100000"})
+    public int records;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private Path file;
+    private FileValidator validator;
+
+    @Setup
+    public void setup() throws IOException {
+        file = Files.createTempFile("orders", ".ndjson");
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < records; i++) {
+                out.write("{\"id\":\"A-" + i + "\",\"currency\":\"EUR\",\"items\":[{\"sku\":\""
+                        + (i % 100 == 0 ? "X" : "ABCDEFGH") + "\",\"name\":\"Plumbus\",\"quantity\":" + (1 + i % 10)
+                        + "}]}\n");
+            }
+        }
+        validator = new FileValidator.Builder().ndjson(ORDERS).threads(threads).chunkSize(1 << 20).build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public FileValidator.Summary ndjson() throws IOException {
+        return validator.validate(file, DISCARD, Env.empty());
+    }
+}
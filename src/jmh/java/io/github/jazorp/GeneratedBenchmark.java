@@ -0,0 +1,149 @@
+package io.github.jazorp;
+
+import io.github.jazorp.annotation.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.jazorp.Validators.*;
+
+/**
+ * Compares the validator generated from annotations and the {@link BeanValidator} reading the same annotations
+ * with the equivalent hand-written validator and {@link Plan}, on a person with an address and two pets that is either valid or fails every check.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class GeneratedBenchmark {
+
+    public static final class Person {
+
+        @NotBlank @MinLength(3)
+        final String name;
+        public String getName() { return name; }
+
+        // io.github.jazorp.Email shadows the import in this package
+        @io.github.jazorp.annotation.Email
+        final String email;
+        public String getEmail() { return email; }
+
+        @Positive @Less(150)
+        final long age;
+        public long getAge() { return age; }
+
+        @Nested
+        final Address address;
+        public Address getAddress() { return address; }
+
+        @Nested
+        final List<Pet> pets;
+        public List<Pet> getPets() { return pets; }
+
+        Person(String name, String email, long age, Address address, List<Pet> pets) {
+            this.name = name;
+            this.email = email;
+            this.age = age;
+            this.address = address;
+            this.pets = pets;
+        }
+    }
+
+    public static final class Address {
+
+        @NotBlank
+        final String street;
+        public String getStreet() { return street; }
+
+        @Length(5)
+        final String zip;
+        public String getZip() { return zip; }
+
+        Address(String street, String zip) {
+            this.street = street;
+            this.zip = zip;
+        }
+    }
+
+    public static final class Pet {
+
+        @NotBlank
+        final String name;
+        public String getName() { return name; }
+
+        Pet(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final Validator<Address> ADDRESS = a -> Aggregation.of(
+            notBlank("street", a.getStreet()),
+            length("zip", a.getZip(), 5));
+
+    private static final Validator<Pet> PET = p -> Aggregation.of(notBlank("name", p.getName()));
+
+    private static final Validator<Person> VALIDATOR = p -> Aggregation.of(
+            notBlank("name", p.getName()),
+            minLength("name", p.getName(), 3),
+            email("email", p.getEmail()),
+            positive("age", p.getAge()),
+            less("age", p.getAge(), 150L))
+            .nested("address", ADDRESS, p.getAddress())
+            .nestedList("pets", PET, p.getPets());
+
+    private static final Plan<Person> PLAN = new Plan.Builder<Person>()
+            .notBlank("name", Person::getName)
+            .minLength("name", Person::getName, 3)
+            .email("email", Person::getEmail)
+            .positive("age", Person::getAge)
+            .less("age", Person::getAge, 150L)
+            .nested("address", Person::getAddress, new Plan.Builder<Address>()
+                    .notBlank("street", Address::getStreet)
+                    .length("zip", Address::getZip, 5)
+                    .build())
+            .nestedList("pets", Person::getPets, new Plan.Builder<Pet>()
+                    .notBlank("name", Pet::getName)
+                    .build())
+            .build();
+
+    private static final Validator<Person> GENERATED = GeneratedBenchmark_Person_Validator.INSTANCE;
+
+    private static final Validator<Person> BEAN = BeanValidator.of(Person.class);
+
+    @Param({"true", "false"})
+    public boolean valid;
+
+    private Person person;
+
+    @Setup
+    public void setup() {
+        person = valid
+                ? new Person("Rick", "rick@citadel.com", 70, new Address("Citadel", "12345"),
+                        Arrays.asList(new Pet("Snuffles"), new Pet("Mr. Meeseeks")))
+                : new Person("", "rick", 0, new Address(" ", "123"), Arrays.asList(new Pet(""), new Pet(" ")));
+    }
+
+    @Benchmark
+    public Result handWritten() {
+        return VALIDATOR.validate(person);
+    }
+
+    @Benchmark
+    public Result plan() {
+        return PLAN.validate(person);
+    }
+
+    @Benchmark
+    public Result generated() {
+        return GENERATED.validate(person);
+    }
+
+    @Benchmark
+    public Result bean() {
+        return BEAN.validate(person);
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.jazorp;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures validating an order of {@code items} items as JSON bytes with a {@link JsonValidator}, compared to
+ * validating the already bound order with a {@link RuleSet} of the same rules. The invalid order has an invalid
+ * id, so that fail-fast can stop right after it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    public static final class Order {
+
+        private final String id;
+        public String getId() { return id; }
+
+        private final List<Item> items;
+        public List<Item> getItems() { return items; }
+
+        Order(String id, List<Item> items) {
+            this.id = id;
+            this.items = items;
+        }
+    }
+
+    public static final class Item {
+
+        private final String sku;
+        public String getSku() { return sku; }
+
+        private final long quantity;
+        public long getQuantity() { return quantity; }
+
+        Item(String sku, long quantity) {
+            this.sku = sku;
+            this.quantity = quantity;
+        }
+    }
+
+    private static final List<Rule> RULES = Arrays.asList(
+            Rule.of("id", ErrorType.NOT_BLANK),
+            Rule.of("items[].sku", ErrorType.LENGTH, 8),
+            Rule.of("items[].quantity", ErrorType.POSITIVE),
+            Rule.of("items[].quantity", ErrorType.LESS, 100L));
+
+    @Param({"1", "100"})
+    public int items;
+
+    @Param({"true", "false"})
+    public boolean valid;
+
+    private final JsonValidator validator = new JsonValidator(RULES);
+    private final RuleSet<Order> ruleSet = new RuleSet<>(Order.class, RULES);
+    private final Env failFast = new Env.Builder().failFast().build();
+
+    private byte[] json;
+    private Order order;
+
+    @Setup
+    public void setup() {
+        String id = valid ? "A-1" : "";
+        List<Item> list = new ArrayList<>();
+        StringBuilder builder = new StringBuilder("{\"id\":\"").append(id).append("\",\"currency\":\"EUR\",\"items\":[");
+        for (int i = 0; i < items; i++) {
+            list.add(new Item("ABCDEFGH", 1 + i % 10));
+            builder.append(i == 0 ? "" : ",").append("{\"sku\":\"ABCDEFGH\",\"name\":\"Plumbus\",\"quantity\":")
+                    .append(1 + i % 10).append('}');
+        }
+        json = builder.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+        order = new Order(id, list);
+    }
+
+    @Benchmark
+    public Result json() {
+        return validator.validate(json);
+    }
+
+    @Benchmark
+    public Result jsonFailFast() {
+        return validator.validate(json, failFast);
+    }
+
+    @Benchmark
+    public Result boundRuleSet() {
+        return ruleSet.validate(order);
+    }
+}
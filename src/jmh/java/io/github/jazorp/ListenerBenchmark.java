@@ -0,0 +1,89 @@
+package io.github.jazorp;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static io.github.jazorp.Validators.*;
+
+/**
+ * Measures the cost of a {@link ValidationListener} on an aggregation and a plan of five checks:
+ * none installed, a listener that ignores every event, and {@link ValidationMetrics}. Comparing
+ * {@code listener=none} with a run of the revision before listeners existed shows the cost of the
+ * listener checks themselves.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ListenerBenchmark {
+
+    public static final class Person {
+
+        private final String name;
+        public String getName() { return name; }
+
+        private final String email;
+        public String getEmail() { return email; }
+
+        private final long age;
+        public long getAge() { return age; }
+
+        Person(String name, String email, long age) {
+            this.name = name;
+            this.email = email;
+            this.age = age;
+        }
+    }
+
+    private static final Validator<Person> VALIDATOR = p -> Aggregation.of(
+            notBlank("name", p.getName()),
+            minLength("name", p.getName(), 3),
+            email("email", p.getEmail()),
+            positive("age", p.getAge()),
+            less("age", p.getAge(), 150L));
+
+    private static final Plan<Person> PLAN = new Plan.Builder<Person>()
+            .notBlank("name", Person::getName)
+            .minLength("name", Person::getName, 3)
+            .email("email", Person::getEmail)
+            .positive("age", Person::getAge)
+            .less("age", Person::getAge, 150L)
+            .build();
+
+    @Param({"none", "noop", "metrics"})
+    public String listener;
+
+    @Param({"true", "false"})
+    public boolean valid;
+
+    private Person person;
+    private Env env;
+
+    @Setup
+    public void setup() {
+        person = valid ? new Person("Rick", "rick@citadel.com", 70) : new Person("", "rick", 0);
+        switch (listener) {
+            case "noop":
+                env = new Env.Builder().listener((field, type, v, blocking, nanos) -> { }).build();
+                break;
+            case "metrics":
+                env = new Env.Builder().listener(new ValidationMetrics()).build();
+                break;
+            default:
+                env = Env.empty();
+        }
+    }
+
+    @Benchmark
+    public Result aggregation() {
+        return VALIDATOR.validate(person, env);
+    }
+
+    @Benchmark
+    public Result plan() {
+        return PLAN.validate(person, env);
+    }
+}
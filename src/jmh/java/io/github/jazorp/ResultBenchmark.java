@@ -0,0 +1,71 @@
+package io.github.jazorp;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.jazorp.Validators.*;
+
+/**
+ * Reads a failed result with {@code 2 * failures} errors: as JSON through {@link JsonEncoder}, through the
+ * map view of {@link Result#getErrors()}, and through the flat accessors that do not build the map view.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ResultBenchmark {
+
+    private static final Validator<String> ELEMENT = s -> Aggregation.of(
+            notBlank("name", s),
+            email("email", s));
+
+    @Param({"1", "100", "10000"})
+    public int failures;
+
+    private Validator<List<String>> validator;
+    private List<String> values;
+    private Result result;
+
+    @Setup
+    public void setup() {
+        ErrorFormatter.getInstance().reset();
+        values = new ArrayList<>(failures);
+        for (int i = 0; i < failures; i++) {
+            values.add("");
+        }
+        validator = l -> Aggregation.of(notNull("values", l)).nestedList("values", ELEMENT, l);
+        result = validator.validate(values);
+    }
+
+    @Benchmark
+    public Result validate() {
+        return validator.validate(values);
+    }
+
+    @Benchmark
+    public byte[] json() {
+        return JsonEncoder.toBytes(result);
+    }
+
+    @Benchmark
+    public byte[] validateAndJson() {
+        return JsonEncoder.toBytes(validator.validate(values));
+    }
+
+    @Benchmark
+    public String validateAndMap() {
+        Map<String, Object> errors = validator.validate(values).getErrors();
+        return errors.toString();
+    }
+
+    @Benchmark
+    public int errorCount() {
+        return validator.validate(values).errorCount();
+    }
+}
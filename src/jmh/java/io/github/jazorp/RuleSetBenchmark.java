@@ -0,0 +1,117 @@
+package io.github.jazorp;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.jazorp.Validators.*;
+
+/**
+ * Measures compiling a {@link RuleSet} once the accessors of the class exist, and validating with it
+ * compared to the equivalent hand-written validator and {@link Plan}. {@code rules} repeats the five
+ * rules of a person, so validation costs grow with it as well.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RuleSetBenchmark {
+
+    public static final class Person {
+
+        private final String name;
+        public String getName() { return name; }
+
+        private final String email;
+        public String getEmail() { return email; }
+
+        private final long age;
+        public long getAge() { return age; }
+
+        Person(String name, String email, long age) {
+            this.name = name;
+            this.email = email;
+            this.age = age;
+        }
+    }
+
+    private static final List<Rule> PERSON = Arrays.asList(
+            Rule.of("name", ErrorType.NOT_BLANK),
+            Rule.of("name", ErrorType.MIN_LENGTH, 3),
+            Rule.of("email", ErrorType.EMAIL),
+            Rule.of("age", ErrorType.POSITIVE),
+            Rule.of("age", ErrorType.LESS, 150L));
+
+    @Param({"5", "50"})
+    public int rules;
+
+    @Param({"true", "false"})
+    public boolean valid;
+
+    private List<Rule> ruleList;
+    private RuleSet<Person> ruleSet;
+    private Plan<Person> plan;
+    private Validator<Person> validator;
+    private Person person;
+
+    @Setup
+    public void setup() {
+        ruleList = new ArrayList<>();
+        Plan.Builder<Person> builder = new Plan.Builder<>();
+        int copies = rules / PERSON.size();
+        for (int i = 0; i < copies; i++) {
+            ruleList.addAll(PERSON);
+            builder.notBlank("name", Person::getName)
+                    .minLength("name", Person::getName, 3)
+                    .email("email", Person::getEmail)
+                    .positive("age", Person::getAge)
+                    .less("age", Person::getAge, 150L);
+        }
+        ruleSet = new RuleSet<>(Person.class, ruleList);
+        plan = builder.build();
+        validator = p -> {
+            Aggregation aggregation = Aggregation.of();
+            for (int i = 0; i < copies; i++) {
+                aggregation = aggregation.compose(Aggregation.of(
+                        notBlank("name", p.getName()),
+                        minLength("name", p.getName(), 3),
+                        email("email", p.getEmail()),
+                        positive("age", (Number) p.getAge()),
+                        less("age", (Number) p.getAge(), 150L)));
+            }
+            return aggregation;
+        };
+        person = valid ? new Person("Rick", "rick@citadel.com", 70) : new Person("", "rick", 0);
+    }
+
+    @Benchmark
+    public RuleSet<Person> compile() {
+        return new RuleSet<>(Person.class, ruleList);
+    }
+
+    @Benchmark
+    public RuleSet<Person> update() {
+        ruleSet.update(ruleList);
+        return ruleSet;
+    }
+
+    @Benchmark
+    public Result ruleSet() {
+        return ruleSet.validate(person);
+    }
+
+    @Benchmark
+    public Result plan() {
+        return plan.validate(person);
+    }
+
+    @Benchmark
+    public Result handWritten() {
+        return validator.validate(person);
+    }
+}
@@ -0,0 +1,117 @@
+package io.github.jazorp;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static io.github.jazorp.Validators.*;
+
+/**
+ * Creates and evaluates a single check of every {@link Validators} family, on a passing and on a failing input.
+ * {@code message} additionally formats the message of a failing check.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ValidatorsBenchmark {
+
+    @FunctionalInterface
+    interface Check {
+        ValidationThunk collect(ValidatorsBenchmark input);
+    }
+
+    private static final Map<String, Check> CHECKS = new HashMap<>();
+
+    static {
+        CHECKS.put("notNull", in -> notNull("field", in.object));
+        CHECKS.put("notBlank", in -> notBlank("field", in.text));
+        CHECKS.put("minLength", in -> minLength("field", in.text, 5));
+        CHECKS.put("maxLength", in -> maxLength("field", in.longText, 16));
+        CHECKS.put("length", in -> length("field", in.text, 11));
+        CHECKS.put("email", in -> email("field", in.email));
+        CHECKS.put("strictEmail", in -> strictEmail("field", in.email));
+        CHECKS.put("positive.long", in -> positive("field", in.primitive));
+        CHECKS.put("positive.double", in -> positive("field", in.real));
+        CHECKS.put("positive.Number", in -> positive("field", in.boxed));
+        CHECKS.put("positive.BigDecimal", in -> positive("field", in.decimal));
+        CHECKS.put("equal.long", in -> equal("field", in.primitive, 42L));
+        CHECKS.put("equal.Number", in -> equal("field", in.boxed, (Number) 42L));
+        CHECKS.put("less.long", in -> less("field", in.bounded, 100L));
+        CHECKS.put("less.double", in -> less("field", (double) in.bounded, 100.0));
+        CHECKS.put("lessEqual.BigInteger", in -> lessEqual("field", in.integer, BigInteger.valueOf(100)));
+        CHECKS.put("greater.Number", in -> greater("field", in.boxed, (Number) 0L));
+        CHECKS.put("greaterEqual.BigDecimal", in -> greaterEqual("field", in.decimal, BigDecimal.ZERO));
+        CHECKS.put("memberOf.varargs", in -> memberOf("field", in.text, "red", "green", "blue", "Portal Gun!"));
+        CHECKS.put("memberOf.Iterable", in -> memberOf("field", in.text, in.values));
+        CHECKS.put("memberOf.Membership", in -> memberOf("field", in.text, in.membership));
+        CHECKS.put("memberOf.long", in -> memberOf("field", in.primitive, in.longs));
+    }
+
+    @Param({"notNull", "notBlank", "minLength", "maxLength", "length", "email", "strictEmail",
+            "positive.long", "positive.double", "positive.Number", "positive.BigDecimal",
+            "equal.long", "equal.Number", "less.long", "less.double", "lessEqual.BigInteger",
+            "greater.Number", "greaterEqual.BigDecimal",
+            "memberOf.varargs", "memberOf.Iterable", "memberOf.Membership", "memberOf.long"})
+    public String check;
+
+    @Param({"true", "false"})
+    public boolean valid;
+
+    private Check collector;
+    private Env env;
+
+    Object object;
+    String text;
+    String longText;
+    String email;
+    long primitive;
+    long bounded;
+    double real;
+    Number boxed;
+    BigDecimal decimal;
+    BigInteger integer;
+    Iterable<Object> values;
+    Membership<?> membership;
+    Membership<?> longs;
+
+    @Setup
+    public void setup() {
+        collector = CHECKS.get(check);
+        env = Env.empty();
+        object = valid ? "value" : null;
+        text = valid ? "Portal Gun!" : "";
+        longText = valid ? "Portal Gun!" : "Portal Gun! Portal Gun!";
+        email = valid ? "rick.sanchez@citadel.com" : "rick.sanchez@citadel";
+        primitive = valid ? 42 : -1;
+        bounded = valid ? 42 : 1000;
+        real = valid ? 42.0 : -1.0;
+        boxed = primitive;
+        decimal = BigDecimal.valueOf(primitive);
+        integer = valid ? BigInteger.valueOf(42) : BigInteger.valueOf(1000);
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            list.add("value" + i);
+        }
+        list.add("Portal Gun!");
+        values = list;
+        membership = Membership.of(list);
+        longs = Membership.ofLongs(1, 2, 3, 42, 100, 1000);
+    }
+
+    @Benchmark
+    public Validation validate() {
+        return collector.collect(this).validate(env);
+    }
+
+    @Benchmark
+    public String message() {
+        Validation validation = collector.collect(this).validate(env);
+        return validation.isValid() ? null : validation.getError().getError();
+    }
+}
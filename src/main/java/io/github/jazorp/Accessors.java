@@ -0,0 +1,157 @@
+package io.github.jazorp;
+
+import java.lang.invoke.*;
+import java.lang.reflect.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The property accessors of a class, created on first use and cached per class. Public getters of public
+ * classes are bound through {@link LambdaMetafactory}, so that calling them costs the same as a method
+ * reference. Other getters and fields go through a {@link MethodHandle}.
+ */
+final class Accessors {
+
+    private static final ClassValue<Accessors> CACHE = new ClassValue<Accessors>() {
+        @Override
+        protected Accessors computeValue(Class<?> type) {
+            return new Accessors(type);
+        }
+    };
+
+    private static final MethodType FUNCTION = MethodType.methodType(Object.class, Object.class);
+
+    private final Class<?> type;
+    private final ConcurrentHashMap<String, Accessor> accessors = new ConcurrentHashMap<>();
+
+    private Accessors(Class<?> type) {
+        this.type = type;
+    }
+
+    /**
+     * Returns the accessor of {@code property} of {@code type}.
+     *
+     * @throws IllegalArgumentException when {@code type} has no such property or it cannot be accessed
+     */
+    static Accessor of(Class<?> type, String property) {
+        Accessors accessors = CACHE.get(type);
+        Accessor accessor = accessors.accessors.get(property);
+        if (accessor == null) {
+            accessor = accessors.accessors.computeIfAbsent(property, accessors::create);
+        }
+        return accessor;
+    }
+
+    static final class Accessor {
+
+        final Function<Object, Object> function;
+        final Class<?> type;
+        final Type genericType;
+
+        private Accessor(Function<Object, Object> function, Class<?> type, Type genericType) {
+            this.function = function;
+            this.type = type;
+            this.genericType = genericType;
+        }
+    }
+
+    private Accessor create(String property) {
+        Method getter = getter(property);
+        if (getter != null) {
+            return new Accessor(function(getter), getter.getReturnType(), getter.getGenericReturnType());
+        }
+        Field field = field(property);
+        if (field != null) {
+            return new Accessor(function(field), field.getType(), field.getGenericType());
+        }
+        throw new IllegalArgumentException(type.getName() + " has no property '" + property + "'");
+    }
+
+    private Method getter(String property) {
+        String suffix = Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        for (String name : new String[]{"get" + suffix, "is" + suffix, property}) {
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                try {
+                    Method method = c.getDeclaredMethod(name);
+                    if (!Modifier.isStatic(method.getModifiers()) && method.getReturnType() != void.class) {
+                        return method;
+                    }
+                } catch (NoSuchMethodException ignored) {
+                    // look further up
+                }
+            }
+        }
+        return null;
+    }
+
+    private Field field(String property) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            try {
+                Field field = c.getDeclaredField(property);
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    return field;
+                }
+            } catch (NoSuchFieldException ignored) {
+                // look further up
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Function<Object, Object> function(Method getter) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        if (isPublic(getter.getDeclaringClass()) && isPublic(type) && Modifier.isPublic(getter.getModifiers())) {
+            try {
+                MethodHandle handle = lookup.unreflect(getter);
+                CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                        MethodType.methodType(Function.class), FUNCTION, handle,
+                        MethodType.methodType(box(getter.getReturnType()), type));
+                return (Function<Object, Object>) site.getTarget().invoke();
+            } catch (Throwable ignored) {
+                // fall back to a method handle
+            }
+        }
+        try {
+            getter.setAccessible(true);
+            return function(lookup.unreflect(getter));
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new IllegalArgumentException("Cannot access " + getter, e);
+        }
+    }
+
+    private Function<Object, Object> function(Field field) {
+        try {
+            field.setAccessible(true);
+            return function(MethodHandles.lookup().unreflectGetter(field));
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new IllegalArgumentException("Cannot access " + field, e);
+        }
+    }
+
+    private static Function<Object, Object> function(MethodHandle handle) {
+        MethodHandle adapted = handle.asType(FUNCTION);
+        return t -> {
+            try {
+                return adapted.invokeExact(t);
+            } catch (RuntimeException | java.lang.Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        };
+    }
+
+    private static boolean isPublic(Class<?> type) {
+        for (Class<?> c = type; c != null; c = c.getEnclosingClass()) {
+            if (!Modifier.isPublic(c.getModifiers())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static Class<?> box(Class<?> type) {
+        return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+    }
+}
@@ -1,95 +1,598 @@
 package io.github.jazorp;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 public class Aggregation {
 
-    private Set<ValidationThunk> validations;
-    private Map<String, Aggregation> nested = new TreeMap<>();
+    private Schedule schedule;
+    private Map<String, Nested> nested = new LinkedHashMap<>();
 
-    private Aggregation(Set<ValidationThunk> validations) {
-        this.validations = validations;
+    private Aggregation(Schedule schedule) {
+        this.schedule = schedule;
     }
 
-    private Aggregation(Set<ValidationThunk> validations, Map<String, Aggregation> nested) {
-        this.validations = validations;
+    private Aggregation(Schedule schedule, Map<String, Nested> nested) {
+        this.schedule = schedule;
         this.nested = nested;
     }
 
+    /**
+     * Collects {@code thunks}, which run in the order described in {@link ValidationThunk}.
+     */
     public static Aggregation of(ValidationThunk... thunks) {
-        return new Aggregation(new TreeSet<>(Arrays.asList(thunks)));
+        return new Aggregation(Schedule.of(thunks));
     }
 
     public Aggregation nested(String field, Aggregation aggregation) {
-        nested.put(field, aggregation);
+        nested.put(field, new NestedAggregation(aggregation));
         return this;
     }
 
+    /**
+     * Validates {@code t} under {@code field}. The nested aggregation is only collected when
+     * this aggregation is validated.
+     */
     public <T> Aggregation nested(String field, Validator<T> validator, T t) {
-        nested.put(field, validator.collect(t));
+        nested.put(field, new NestedValue<>(validator, t));
         return this;
     }
 
+    /**
+     * Validates every element of {@code ts}, reporting failures under {@code field[index]}.
+     * Elements are collected and validated one by one when this aggregation is validated,
+     * so only failing elements are retained. A null list is skipped.
+     */
     public <T> Aggregation nestedList(String field, Validator<T> validator, List<T> ts) {
-        for (int i=0; i<ts.size(); i++) {
-            nested(field + "[" + i + "]", validator, ts.get(i));
-        }
+        return nestedList(field, validator, (Iterable<T>) ts);
+    }
+
+    public <T> Aggregation nestedList(String field, Validator<T> validator, Iterable<T> ts) {
+        nested.put(field, new NestedElements<>(validator, ts));
         return this;
     }
 
+    /**
+     * Same as {@link #nestedList(String, Validator, Iterable)} for a stream, which is consumed
+     * when this aggregation is validated. The aggregation can then only be validated once, a
+     * second validation throws an {@link IllegalStateException}.
+     */
+    public <T> Aggregation nestedList(String field, Validator<T> validator, Stream<T> ts) {
+        return nestedList(field, validator, ts == null ? null : ts.spliterator());
+    }
+
+    /**
+     * Same as {@link #nestedList(String, Validator, Iterable)} for a spliterator, which is consumed
+     * when this aggregation is validated. The aggregation can then only be validated once, a
+     * second validation throws an {@link IllegalStateException}.
+     */
+    public <T> Aggregation nestedList(String field, Validator<T> validator, Spliterator<T> ts) {
+        nested.put(field, new NestedElements<>(validator, ts == null ? null : new OneShot<>(field, ts)));
+        return this;
+    }
+
+    /**
+     * Returns an aggregation with the thunks and nested validations of both aggregations. Thunks keep
+     * their run order, with the thunks of this aggregation first within a priority.
+     */
     public Aggregation compose(Aggregation other) {
-        Set<ValidationThunk> composedValidations = new HashSet<>(validations);
-        composedValidations.addAll(other.validations);
-        Map<String, Aggregation> composedNested = new HashMap<>(nested);
+        Map<String, Nested> composedNested = new LinkedHashMap<>(nested);
         composedNested.putAll(other.nested);
-        return new Aggregation(composedValidations, composedNested);
+        return new Aggregation(schedule.concat(other.schedule), composedNested);
     }
 
     public Result validate(Env env) {
+        return validate(env, Budget.of(env));
+    }
+
+    /**
+     * Returns whether any thunk of this aggregation resolves its value through a {@link BatchLookup}.
+     */
+    boolean isBatched() {
+        return schedule.isBatched();
+    }
+
+    Result validate(Env env, Budget budget) {
+        ValidationListener listener = env.getListener();
+        if (listener == null) {
+            return validateImpl(env, budget);
+        }
+        long start = System.nanoTime();
+        Result result = validateImpl(env, budget);
+        listener.onAggregation(result.errorCount(), result.wasBlocked(), System.nanoTime() - start);
+        return result;
+    }
+
+    private Result validateImpl(Env env, Budget budget) {
+
+        ValidationThunk[] thunks = schedule.thunks();
+        ErrorTable errors = null;
+        boolean blocked = false;
+        boolean traced = env.isTraced() && budget.unlimited();
+        Trace trace = traced && !nested.isEmpty() ? new Trace(thunks.length) : null;
+
+        for (int i = 0; i < thunks.length; i++) {
+            ValidationThunk thunk = thunks[i];
+            if (budget.exhausted()) {
+                break;
+            }
+            Validation validation = thunk.validate(env);
+            if (!validation.isValid()) {
+                errors = ErrorTable.add(errors, validation.getError());
+                budget.spend();
+                if (traced) {
+                    if (trace == null) {
+                        trace = new Trace(thunks.length);
+                    }
+                    trace.fail(i, validation.getError());
+                }
+            }
+            if (thunk.isBlocking()) {
+                blocked = true;
+                break;
+            }
+        }
+
+        if (!blocked) {
+            if (Parallel.enabled(env, nested.size())) {
+                errors = validateNestedInParallel(errors, env, budget, trace);
+            } else {
+                for (Map.Entry<String, Nested> entry : nested.entrySet()) {
+                    if (budget.exhausted()) {
+                        break;
+                    }
+                    errors = entry.getValue().validate(errors, entry.getKey(), env, budget, trace);
+                }
+            }
+        }
 
-        Result result = validateImpl(this, env);
+        return Result.of(errors, blocked, trace);
+    }
 
-        if (!result.wasBlocked()) {
-            for (Map.Entry<String, Aggregation> entry : nested.entrySet()) {
+    /**
+     * Validates this aggregation, collected from a changed version of the value that produced {@code previous},
+     * keeping the errors of the thunks and nested validations that {@code changes} does not affect.
+     * Falls back to {@link #validate(Env)} when {@code previous} was blocked or not traced, or when this
+     * aggregation does not have the same thunks. The error budget of {@code env} must be unlimited.
+     */
+    Result revalidate(Result previous, ChangedPaths changes, Env env) {
+        ValidationThunk[] thunks = schedule.thunks();
+        Trace trace = previous.trace();
+        if (changes == ChangedPaths.ALL || previous.wasBlocked() || (trace == null && !previous.isValid())
+                || (trace != null && trace.thunks() != thunks.length)
+                || (thunks.length > 0 && thunks[0].isBlocking())) {
+            return validate(env, Budget.of(env));
+        }
+
+        ErrorTable errors = null;
+        Trace next = new Trace(thunks.length);
+        for (int i = 0; i < thunks.length; i++) {
+            Error error;
+            if (changes.affects(thunks[i])) {
+                Validation validation = thunks[i].validate(env);
+                error = validation.isValid() ? null : validation.getError();
+            } else {
+                error = trace == null ? null : trace.error(i);
+            }
+            if (error != null) {
+                errors = ErrorTable.add(errors, error);
+                next.fail(i, error);
+            }
+        }
+
+        for (Map.Entry<String, Nested> entry : nested.entrySet()) {
+            errors = entry.getValue().revalidate(errors, entry.getKey(), trace, changes, env, next);
+        }
+
+        return Result.of(errors, false, next);
+    }
+
+    /**
+     * Revalidates {@code t} with {@code validator}, see {@link #revalidate(Result, ChangedPaths, Env)}.
+     * Untraced results, e.g. the results of a {@link Plan}, are validated again in full.
+     */
+    static <T> Result revalidate(Validator<T> validator, T t, Result previous, ChangedPaths changes, Env env) {
+        if (changes == ChangedPaths.ALL || previous.wasBlocked() || (previous.trace() == null && !previous.isValid())) {
+            return Plan.evaluate(validator, t, env, Budget.of(env));
+        }
+        return validator.collect(t).revalidate(previous, changes, env);
+    }
+
+    /**
+     * Validates like {@link #validate(Env)}, but runs the asynchronous thunks of this aggregation and of
+     * its nested aggregations concurrently on {@code executor}, at most {@link Env#getAsyncLimit()} at a time.
+     * A blocking thunk still completes before anything else starts. At most {@link Env#getMaxErrors()} errors
+     * are reported: thunks that have not started once it is reached are skipped, and the errors of those
+     * still in flight are dropped.
+     */
+    public CompletionStage<Result> validateAsync(Env env, Executor executor) {
+        return validateAsync(env, new AsyncLimiter(executor, env.getAsyncLimit()), Budget.of(env));
+    }
+
+    CompletableFuture<Result> validateAsync(Env env, AsyncLimiter limiter, Budget budget) {
+        ValidationListener listener = env.getListener();
+        if (listener == null) {
+            return validateAsyncImpl(env, limiter, budget);
+        }
+        long start = System.nanoTime();
+        return validateAsyncImpl(env, limiter, budget).thenApply(result -> {
+            listener.onAggregation(result.errorCount(), result.wasBlocked(), System.nanoTime() - start);
+            return result;
+        });
+    }
+
+    private CompletableFuture<Result> validateAsyncImpl(Env env, AsyncLimiter limiter, Budget budget) {
+        ValidationThunk[] thunks = schedule.thunks();
+        if (budget.exhausted()) {
+            return CompletableFuture.completedFuture(Result.valid());
+        }
+
+        if (thunks.length > 0 && thunks[0].isBlocking()) {
+            return limiter.run(thunks[0], env, budget).thenApply(validation -> {
+                ErrorTable errors = null;
+                if (!validation.isValid() && budget.trySpend()) {
+                    errors = ErrorTable.add(null, validation.getError());
+                }
+                return Result.of(errors, true);
+            });
+        }
+
+        List<CompletableFuture<Validation>> validations = new ArrayList<>(thunks.length);
+        for (ValidationThunk thunk : thunks) {
+            if (budget.exhausted()) {
+                break;
+            }
+            // errors of thunks in flight when the budget runs out are dropped
+            validations.add(limiter.run(thunk, env, budget).thenApply(validation ->
+                    validation.isValid() || budget.trySpend() ? validation : Valid.valid()));
+        }
+
+        List<CompletableFuture<ErrorTable>> nestedErrors = new ArrayList<>(nested.size());
+        for (Map.Entry<String, Nested> entry : nested.entrySet()) {
+            if (budget.exhausted()) {
+                break;
+            }
+            nestedErrors.add(entry.getValue().validateAsync(entry.getKey(), env, limiter, budget));
+        }
+
+        CompletableFuture<?>[] all = new CompletableFuture<?>[validations.size() + nestedErrors.size()];
+        int i = 0;
+        for (CompletableFuture<?> future : validations) {
+            all[i++] = future;
+        }
+        for (CompletableFuture<?> future : nestedErrors) {
+            all[i++] = future;
+        }
+        return CompletableFuture.allOf(all).thenApply(ignored -> {
+            ErrorTable errors = null;
+            for (CompletableFuture<Validation> validation : validations) {
+                if (!validation.join().isValid()) {
+                    errors = ErrorTable.add(errors, validation.join().getError());
+                }
+            }
+            for (CompletableFuture<ErrorTable> table : nestedErrors) {
+                errors = ErrorTable.merge(errors, table.join());
+            }
+            return Result.of(errors, false);
+        });
+    }
+
+    /**
+     * Validates {@code t} with {@code validator} asynchronously. Plans are collected into aggregations.
+     */
+    static <T> CompletableFuture<Result> validateAsync(Validator<T> validator, T t, Env env,
+                                                       AsyncLimiter limiter, Budget budget) {
+        return validator.collect(t).validateAsync(env, limiter, budget);
+    }
+
+    private static <T> CompletableFuture<ErrorTable> validateElementsAsync(String field, Validator<T> validator,
+                                                                           Iterable<? extends T> ts, Env env,
+                                                                           AsyncLimiter limiter, Budget budget) {
+        List<CompletableFuture<Result>> results = new ArrayList<>();
+        Iterator<? extends T> iterator = ts.iterator();
+        while (iterator.hasNext() && !budget.exhausted()) {
+            results.add(validateAsync(validator, iterator.next(), env, limiter, budget));
+        }
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            ErrorTable errors = null;
+            for (int i = 0; i < results.size(); i++) {
+                errors = ErrorTable.addNested(errors, index(field, i), results.get(i).join());
+            }
+            return errors;
+        });
+    }
+
+    private ErrorTable validateNestedInParallel(ErrorTable errors, Env env, Budget budget, Trace trace) {
+        String[] keys = nested.keySet().toArray(new String[0]);
+        Nested[] entries = nested.values().toArray(new Nested[0]);
+        Trace[] traces = new Trace[keys.length];
+        Result[] results = Parallel.validate(env, keys.length, (i, sequential) -> {
+            if (budget.exhausted()) {
+                return Result.valid();
+            }
+            traces[i] = trace == null ? null : new Trace(0);
+            return Result.of(entries[i].validate(null, keys[i], sequential, budget, traces[i]), false);
+        });
+        for (int i = 0; i < results.length; i++) {
+            errors = ErrorTable.merge(errors, results[i].table());
+            if (traces[i] != null) {
+                trace.merge(traces[i]);
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Validates the elements of {@code ts} one by one, adding failures under {@code field[index]}.
+     * Random access lists are validated in parallel when {@code env} allows it.
+     * Elements with batched lookups are collected ahead, see {@link Lookahead}, within each parallel chunk.
+     * Failing elements are recorded in {@code trace} when it is not null.
+     */
+    static <T> ErrorTable validateElements(ErrorTable errors, String field, Validator<T> validator,
+                                           Iterable<? extends T> ts, Env env, Budget budget, Trace trace) {
+        if (ts instanceof List && ts instanceof RandomAccess) {
+            List<? extends T> list = (List<? extends T>) ts;
+            if (Parallel.enabled(env, list.size())) {
+                Result[] results = Parallel.validateChunks(env, list.size(), (from, to, sequential, chunk) -> {
+                    Lookahead<T> lookahead = new Lookahead<>(validator, list.subList(from, to).iterator());
+                    for (int i = from; i < to; i++) {
+                        chunk[i] = budget.exhausted() ? Result.valid() : lookahead.next(sequential, budget);
+                    }
+                });
+                for (int i = 0; i < results.length; i++) {
+                    if (!results[i].isValid()) {
+                        errors = ErrorTable.addNested(errors, index(field, i), results[i]);
+                        trace(trace, index(field, i), results[i]);
+                    }
+                }
+                return errors;
+            }
+            if (validator instanceof DirectValidator) {
+                for (int i = 0; i < list.size() && !budget.exhausted(); i++) {
+                    Result result = Plan.evaluate(validator, list.get(i), env, budget);
+                    if (!result.isValid()) {
+                        errors = ErrorTable.addNested(errors, index(field, i), result);
+                        trace(trace, index(field, i), result);
+                    }
+                }
+                return errors;
+            }
+        }
+
+        Lookahead<T> lookahead = new Lookahead<>(validator, ts.iterator());
+        for (int i = 0; lookahead.hasNext() && !budget.exhausted(); i++) {
+            Result result = lookahead.next(env, budget);
+            if (!result.isValid()) {
+                errors = ErrorTable.addNested(errors, index(field, i), result);
+                trace(trace, index(field, i), result);
+            }
+        }
+        return errors;
+    }
+
+    private static void trace(Trace trace, String key, Result result) {
+        if (trace != null) {
+            trace.nested(key, result);
+        }
+    }
+
+    /**
+     * Revalidates the elements of {@code ts} whose paths changed and keeps the previous results of the others.
+     * Elements are matched by index, so insertions and removals should be reported as a change of the list.
+     */
+    private static <T> ErrorTable revalidateElements(ErrorTable errors, String field, Validator<T> validator,
+                                                     Iterable<? extends T> ts, Trace previous,
+                                                     ChangedPaths changes, Env env, Trace next) {
+        if (changes != null && changes.allElements()) {
+            return validateElements(errors, field, validator, ts, env, Budget.of(env), next);
+        }
+        TreeMap<Integer, Result> results = new TreeMap<>();
+        if (previous != null) {
+            String prefix = field + "[";
+            for (Map.Entry<String, Result> entry : previous.nested().entrySet()) {
                 String key = entry.getKey();
-                Aggregation nestedAggr = entry.getValue();
-                Result validate = nestedAggr.validate(env);
-                if (!validate.isValid()) {
-                    result.put(key, validate);
+                if (key.startsWith(prefix) && key.endsWith("]")) {
+                    results.put(Integer.parseInt(key.substring(prefix.length(), key.length() - 1)), entry.getValue());
                 }
             }
         }
+        if (changes != null) {
+            List<? extends T> list = ts instanceof List && ts instanceof RandomAccess ? (List<? extends T>) ts : null;
+            Iterator<? extends T> iterator = list == null ? ts.iterator() : null;
+            int position = 0;
+            for (int i : changes.elements()) {
+                T t = null;
+                boolean present;
+                if (list != null) {
+                    present = i < list.size();
+                    t = present ? list.get(i) : null;
+                } else {
+                    while (position < i && iterator.hasNext()) {
+                        iterator.next();
+                        position++;
+                    }
+                    present = position == i && iterator.hasNext();
+                    if (present) {
+                        t = iterator.next();
+                        position++;
+                    }
+                }
+                Result result = present ? revalidate(validator, t, results.getOrDefault(i, Result.valid()),
+                        changes.element(i), env) : Result.valid();
+                if (result.isValid()) {
+                    results.remove(i);
+                } else {
+                    results.put(i, result);
+                }
+            }
+        }
+        for (Map.Entry<Integer, Result> entry : results.entrySet()) {
+            String key = index(field, entry.getKey());
+            errors = ErrorTable.addNested(errors, key, entry.getValue());
+            next.nested(key, entry.getValue());
+        }
+        return errors;
+    }
 
-        return result;
+    static String index(String field, int i) {
+        return field + "[" + i + "]";
     }
 
-    private Result validateImpl(Aggregation aggregation, Env env) {
+    /**
+     * Iterates a stream or spliterator at most once. Without the check, a second validation
+     * would find the source drained and silently report its elements as valid.
+     */
+    private static final class OneShot<T> implements Iterable<T> {
+
+        private final String field;
+        private final Spliterator<T> source;
+        private final AtomicBoolean consumed = new AtomicBoolean();
 
-        boolean proceed = true;
+        private OneShot(String field, Spliterator<T> source) {
+            this.field = field;
+            this.source = source;
+        }
 
-        Iterator<ValidationThunk> iterator = aggregation.validations.iterator();
+        @Override
+        public Iterator<T> iterator() {
+            if (consumed.getAndSet(true)) {
+                throw new IllegalStateException("The elements of '" + field + "' come from a stream or "
+                        + "spliterator that was already consumed, nest a list to validate them again");
+            }
+            return Spliterators.iterator(source);
+        }
+    }
 
-        List<Validation> errors = new ArrayList<>();
+    private abstract static class Nested {
 
-        while(proceed && iterator.hasNext()) {
-            ValidationThunk thunk = iterator.next();
-            Validation validation = thunk.validate(env);
-            if (!validation.isValid()) {
-                errors.add(validation);
+        /**
+         * Adds the errors found under {@code field} to {@code errors}, recording the failed nested
+         * results in {@code trace} when it is not null.
+         */
+        abstract ErrorTable validate(ErrorTable errors, String field, Env env, Budget budget, Trace trace);
+
+        /**
+         * Adds the errors under {@code field}, revalidating what {@code changes} affects and keeping the
+         * results recorded in {@code previous} otherwise, and records the new results in {@code next}.
+         */
+        abstract ErrorTable revalidate(ErrorTable errors, String field, Trace previous, ChangedPaths changes,
+                                       Env env, Trace next);
+
+        /**
+         * Completes with the errors found under {@code field}, or null.
+         */
+        abstract CompletableFuture<ErrorTable> validateAsync(String field, Env env, AsyncLimiter limiter,
+                                                             Budget budget);
+    }
+
+    private static class NestedAggregation extends Nested {
+
+        private final Aggregation aggregation;
+
+        private NestedAggregation(Aggregation aggregation) {
+            this.aggregation = aggregation;
+        }
+
+        @Override
+        ErrorTable validate(ErrorTable errors, String field, Env env, Budget budget, Trace trace) {
+            Result result = aggregation.validate(env, budget);
+            trace(trace, field, result);
+            return ErrorTable.addNested(errors, field, result);
+        }
+
+        @Override
+        ErrorTable revalidate(ErrorTable errors, String field, Trace previous, ChangedPaths changes,
+                              Env env, Trace next) {
+            Result result = previous == null ? Result.valid() : previous.nested(field);
+            ChangedPaths nestedChanges = changes.get(field);
+            if (nestedChanges != null) {
+                result = aggregation.revalidate(result, nestedChanges, env);
             }
-            if (thunk.isBlocking()) {
-                proceed = false;
+            next.nested(field, result);
+            return ErrorTable.addNested(errors, field, result);
+        }
+
+        @Override
+        CompletableFuture<ErrorTable> validateAsync(String field, Env env, AsyncLimiter limiter, Budget budget) {
+            return aggregation.validateAsync(env, limiter, budget)
+                    .thenApply(result -> ErrorTable.addNested(null, field, result));
+        }
+    }
+
+    private static class NestedValue<T> extends Nested {
+
+        private final Validator<T> validator;
+        private final T value;
+
+        private NestedValue(Validator<T> validator, T value) {
+            this.validator = validator;
+            this.value = value;
+        }
+
+        @Override
+        ErrorTable validate(ErrorTable errors, String field, Env env, Budget budget, Trace trace) {
+            Result result = Plan.evaluate(validator, value, env, budget);
+            trace(trace, field, result);
+            return ErrorTable.addNested(errors, field, result);
+        }
+
+        @Override
+        ErrorTable revalidate(ErrorTable errors, String field, Trace previous, ChangedPaths changes,
+                              Env env, Trace next) {
+            Result result = previous == null ? Result.valid() : previous.nested(field);
+            ChangedPaths nestedChanges = changes.get(field);
+            if (nestedChanges != null) {
+                result = Aggregation.revalidate(validator, value, result, nestedChanges, env);
             }
+            next.nested(field, result);
+            return ErrorTable.addNested(errors, field, result);
         }
 
-        Map<String, List<Validation>> collect = errors.stream().collect(Collectors.groupingBy(v -> v.getError().getField()));
+        @Override
+        CompletableFuture<ErrorTable> validateAsync(String field, Env env, AsyncLimiter limiter, Budget budget) {
+            return Aggregation.validateAsync(validator, value, env, limiter, budget)
+                    .thenApply(result -> ErrorTable.addNested(null, field, result));
+        }
+    }
+
+    private static class NestedElements<T> extends Nested {
 
-        Map<String, Object> collect1 = new TreeMap<>(collect.entrySet().stream().collect(
-                Collectors.toMap(Map.Entry::getKey, e -> e.getValue().stream().map(Validation::getError)
-                        .map(Error::getError).collect(Collectors.toSet()))));
+        private final Validator<T> validator;
+        private final Iterable<T> values;
+
+        private NestedElements(Validator<T> validator, Iterable<T> values) {
+            this.validator = validator;
+            this.values = values;
+        }
 
-        return new Result(collect1, !proceed);
+        @Override
+        ErrorTable validate(ErrorTable errors, String field, Env env, Budget budget, Trace trace) {
+            if (values == null) {
+                return errors;
+            }
+            return validateElements(errors, field, validator, values, env, budget, trace);
+        }
+
+        @Override
+        ErrorTable revalidate(ErrorTable errors, String field, Trace previous, ChangedPaths changes,
+                              Env env, Trace next) {
+            if (values == null) {
+                return errors;
+            }
+            return revalidateElements(errors, field, validator, values, previous, changes.get(field), env, next);
+        }
+
+        @Override
+        CompletableFuture<ErrorTable> validateAsync(String field, Env env, AsyncLimiter limiter, Budget budget) {
+            if (values == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return validateElementsAsync(field, validator, values, env, limiter, budget);
+        }
     }
 
 }
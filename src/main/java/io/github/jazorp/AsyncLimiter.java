@@ -0,0 +1,144 @@
+package io.github.jazorp;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+/**
+ * Starts the asynchronous thunks of one {@link Validator#validateAsync} call on an executor,
+ * with at most {@link Env#getAsyncLimit()} of them in flight. Synchronous thunks run on the caller's thread.
+ * Queued thunks are skipped as valid when the error budget is exhausted by the time they would start.
+ */
+final class AsyncLimiter {
+
+    private final Executor executor;
+    private final int limit;
+
+    private int running;
+    private final Queue<Pending> queued = new ArrayDeque<>();
+
+    AsyncLimiter(Executor executor, int limit) {
+        if (executor == null) {
+            throw new IllegalArgumentException("executor cannot be null");
+        }
+        this.executor = executor;
+        this.limit = limit == 0 ? Integer.MAX_VALUE : limit;
+    }
+
+    CompletableFuture<Validation> run(ValidationThunk thunk, Env env, Budget budget) {
+        CompletableFuture<Validation> result = new CompletableFuture<>();
+        if (!thunk.isAsync()) {
+            try {
+                result.complete(thunk.validate(env));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+            return result;
+        }
+
+        Pending pending = new Pending(thunk, env, budget, result);
+        synchronized (this) {
+            if (running == limit) {
+                queued.add(pending);
+                return result;
+            }
+            running++;
+        }
+        if (!start(pending)) {
+            release();
+        }
+        return result;
+    }
+
+    /**
+     * Hands {@code pending} to the executor, returns false when it could not be started,
+     * in which case its slot is still taken.
+     */
+    private boolean start(Pending pending) {
+        try {
+            executor.execute(() -> {
+                CompletionStage<Validation> stage;
+                try {
+                    stage = pending.thunk.validateAsync(pending.env);
+                } catch (Throwable e) {
+                    pending.result.completeExceptionally(e);
+                    release();
+                    return;
+                }
+                // completed before the release, so that its error is spent before a queued thunk starts
+                stage.whenComplete((validation, e) -> {
+                    if (e != null) {
+                        pending.result.completeExceptionally(e);
+                    } else {
+                        pending.result.complete(validation);
+                    }
+                    release();
+                });
+            });
+            return true;
+        } catch (Throwable e) {
+            pending.result.completeExceptionally(e);
+            return false;
+        }
+    }
+
+    /**
+     * Passes a finished thunk's slot on to the next queued thunk. Queued thunks that are skipped or
+     * cannot be started are drained in a loop, so a long queue does not deepen the stack.
+     */
+    private void release() {
+        try {
+            while (true) {
+                Pending next;
+                synchronized (this) {
+                    next = queued.poll();
+                    if (next == null) {
+                        running--;
+                        return;
+                    }
+                }
+                if (next.budget.exhausted()) {
+                    next.result.complete(Valid.valid());
+                } else if (start(next)) {
+                    return;
+                }
+            }
+        } catch (Throwable e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Completes every queued thunk exceptionally, so that the validation waiting for them fails
+     * instead of never completing.
+     */
+    private void fail(Throwable e) {
+        Pending next;
+        while (true) {
+            synchronized (this) {
+                next = queued.poll();
+            }
+            if (next == null) {
+                return;
+            }
+            next.result.completeExceptionally(e);
+        }
+    }
+
+    private static final class Pending {
+
+        private final ValidationThunk thunk;
+        private final Env env;
+        private final Budget budget;
+        private final CompletableFuture<Validation> result;
+
+        private Pending(ValidationThunk thunk, Env env, Budget budget, CompletableFuture<Validation> result) {
+            this.thunk = thunk;
+            this.env = env;
+            this.budget = budget;
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package io.github.jazorp;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A {@link Thunk} that completes later, e.g. after a lookup in a remote store.
+ */
+@FunctionalInterface
+public interface AsyncThunk {
+
+    CompletionStage<Validation> eval(Env env, boolean optional);
+}
@@ -0,0 +1,188 @@
+package io.github.jazorp;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Resolves the values of lookup based checks in batches, e.g. the customers referenced by a list of orders.
+ *
+ * Every check registers its key when it is created. When the first check whose key has not been
+ * loaded is evaluated, all registered keys are loaded together with at most {@code maxBatchSize}
+ * distinct keys per call of the loader. Nested lists collect elements ahead when they contain batched
+ * checks, so that the keys of many elements share a call.
+ *
+ * At most {@link #MAX_PENDING} keys wait to be loaded, the keys of checks created beyond that are
+ * loaded when the checks are evaluated.
+ *
+ * Loaded values are kept for the lifetime of the lookup, so create one per validation call or batch.
+ * It is safe to use from parallel validations. The loader is called without holding a lock, and a
+ * thread evaluating a check whose key is being loaded by another thread waits for that load.
+ */
+public final class BatchLookup<K, V> {
+
+    private final Function<Set<K>, Map<K, V>> loader;
+    private final int maxBatchSize;
+
+    static final int MAX_PENDING = 65_536;
+
+    private final Set<K> pending = new LinkedHashSet<>();
+    private final Set<K> loading = new HashSet<>();
+    private final Map<K, V> values = new HashMap<>();
+
+    private long lookups;
+    private long batchCalls;
+    private long loadedKeys;
+
+    public BatchLookup(Function<Set<K>, Map<K, V>> loader) {
+        this(loader, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param loader returns the values of the keys it is given, keys without a value may be omitted
+     * @param maxBatchSize the maximum number of keys per call of {@code loader}
+     */
+    public BatchLookup(Function<Set<K>, Map<K, V>> loader, int maxBatchSize) {
+        if (loader == null) {
+            throw new IllegalArgumentException("loader cannot be null");
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive");
+        }
+        this.loader = loader;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Checks that {@code key} has a value.
+     */
+    public ValidationThunk exists(String field, K key) {
+        return check(field, key, v -> true, ErrorType.EXISTS);
+    }
+
+    /**
+     * Checks the value of {@code key}. The check fails when {@code key} is null or has no value,
+     * unless it is {@link ValidationThunk#optional() optional} and {@code key} is null.
+     */
+    public ValidationThunk check(String field, K key, Predicate<? super V> predicate, ErrorType error, Object... args) {
+        if (key != null) {
+            register(key);
+        }
+        return ValidationThunk.of((env, optional) -> {
+            if (key == null) {
+                return optional ? Valid.valid() : Invalid.of(field, error, env, null, args);
+            }
+            V value = get(key);
+            if (value == null || !predicate.test(value)) {
+                return Invalid.of(field, error, env, key, args);
+            }
+            return Valid.valid();
+        }).batched().field(field).type(error);
+    }
+
+    /**
+     * Returns the value of {@code key}, loading it along with every other registered key if needed.
+     */
+    public V get(K key) {
+        List<K> keys;
+        synchronized (this) {
+            lookups++;
+            awaitLoad(key);
+            if (values.containsKey(key)) {
+                return values.get(key);
+            }
+            pending.add(key);
+            keys = new ArrayList<>(pending.size());
+            for (K k : pending) {
+                if (!values.containsKey(k) && loading.add(k)) {
+                    keys.add(k);
+                }
+            }
+            pending.clear();
+        }
+        load(keys);
+        synchronized (this) {
+            return values.get(key);
+        }
+    }
+
+    private void awaitLoad(K key) {
+        boolean interrupted = false;
+        while (loading.contains(key)) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void register(K key) {
+        if (!values.containsKey(key) && pending.size() < MAX_PENDING) {
+            pending.add(key);
+        }
+    }
+
+    /**
+     * Loads {@code keys}, which this thread has marked as loading, in batches of at most {@code maxBatchSize}.
+     * Keys that could not be loaded are released so that their lookups retry.
+     */
+    private void load(List<K> keys) {
+        int from = 0;
+        try {
+            while (from < keys.size()) {
+                Set<K> batch = new LinkedHashSet<>(keys.subList(from, (int) Math.min(keys.size(),
+                        (long) from + maxBatchSize)));
+                Map<K, V> loaded = loader.apply(Collections.unmodifiableSet(batch));
+                synchronized (this) {
+                    batchCalls++;
+                    loadedKeys += batch.size();
+                    for (K key : batch) {
+                        values.put(key, loaded == null ? null : loaded.get(key));
+                    }
+                    loading.removeAll(batch);
+                    notifyAll();
+                }
+                from += batch.size();
+            }
+        } finally {
+            if (from < keys.size()) {
+                synchronized (this) {
+                    loading.removeAll(keys.subList(from, keys.size()));
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the loaded values and registered keys, the statistics are kept.
+     */
+    public synchronized void clear() {
+        pending.clear();
+        values.clear();
+    }
+
+    /**
+     * The number of values resolved by checks or {@link #get(Object)}.
+     */
+    public synchronized long getLookups() { return lookups; }
+
+    /**
+     * The number of calls of the loader.
+     */
+    public synchronized long getBatchCalls() { return batchCalls; }
+
+    /**
+     * The number of distinct keys loaded.
+     */
+    public synchronized long getLoadedKeys() { return loadedKeys; }
+
+    /**
+     * The number of loader calls saved compared to loading every lookup on its own.
+     */
+    public synchronized long getSavedCalls() { return lookups - batchCalls; }
+}
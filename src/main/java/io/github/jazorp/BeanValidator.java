@@ -0,0 +1,224 @@
+package io.github.jazorp;
+
+import io.github.jazorp.annotation.*;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A {@link Validator} of any object annotated with the annotations of {@link io.github.jazorp.annotation},
+ * for classes that are not worth a hand-written or generated validator:
+ * <pre>
+ * Result result = BeanValidator.getInstance().validate(person);
+ * Validator&lt;Person&gt; personValidator = BeanValidator.of(Person.class);
+ * </pre>
+ *
+ * The annotated fields and then getters of a class, superclasses first, are found once and compiled into a
+ * {@link Plan} that is cached per class, so validating does not use reflection. The results and messages are
+ * those of the equivalent {@link Validators} calls. A property annotated both on its field and on its getter
+ * is validated once, with the annotations of its field; one annotated on several getters, e.g. an override,
+ * with those of the getter declared first, superclasses first. {@link Nested} values are validated by this validator
+ * for their runtime class, so types may refer to themselves or to each other. Object graphs must not be
+ * cyclic. Null values are valid, their properties are checked with {@link NotNull}.
+ */
+public final class BeanValidator extends DirectValidator<Object> implements Validator<Object> {
+
+    private static final BeanValidator INSTANCE = new BeanValidator();
+
+    private static final ClassValue<Plan<Object>> PLANS = new ClassValue<Plan<Object>>() {
+        @Override
+        protected Plan<Object> computeValue(Class<?> type) {
+            return compile(type);
+        }
+    };
+
+    private BeanValidator() {
+    }
+
+    public static BeanValidator getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the bean validator typed for {@code type}, e.g. to nest it in other validators, and compiles
+     * the plan of {@code type} up front.
+     *
+     * @throws IllegalArgumentException when an annotation does not fit the type of its property
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Validator<T> of(Class<T> type) {
+        INSTANCE.plan(type);
+        return (Validator<T>) (Validator<?>) INSTANCE;
+    }
+
+    /**
+     * Returns the plan of {@code type}, compiling it on first use.
+     *
+     * @throws IllegalArgumentException when an annotation does not fit the type of its property
+     */
+    Plan<Object> plan(Class<?> type) {
+        return PLANS.get(type);
+    }
+
+    @Override
+    public Aggregation collect(Object t) {
+        return t == null ? Aggregation.of() : plan(t.getClass()).collect(t);
+    }
+
+    @Override
+    public Result validate(Object t, Env env) {
+        return validate(t, env, Budget.of(env));
+    }
+
+    @Override
+    Result validate(Object t, Env env, Budget budget) {
+        return t == null ? Result.valid() : plan(t.getClass()).validate(t, env, budget);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Plan<Object> compile(Class<?> type) {
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            hierarchy.add(0, c);
+        }
+        Set<String> fields = new HashSet<>();
+        for (Class<?> c : hierarchy) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic() && isAnnotated(field)) {
+                    fields.add(field.getName());
+                }
+            }
+        }
+        Plan.Builder<Object> builder = new Plan.Builder<>();
+        Set<String> compiled = new HashSet<>();
+        for (Class<?> c : hierarchy) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic() && isAnnotated(field)
+                        && compiled.add(field.getName())) {
+                    property(builder, (Class<Object>) type, field.getName(), field.getAnnotations());
+                }
+            }
+            for (Method method : c.getDeclaredMethods()) {
+                String name = property(method.getName());
+                if (!Modifier.isStatic(method.getModifiers()) && !method.isSynthetic()
+                        && method.getParameterCount() == 0 && method.getReturnType() != void.class
+                        && isAnnotated(method) && !fields.contains(name) && compiled.add(name)) {
+                    property(builder, (Class<Object>) type, name, method.getAnnotations());
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static boolean isAnnotated(AnnotatedElement element) {
+        for (Annotation annotation : element.getAnnotations()) {
+            if (Nested.class.getPackage().equals(annotation.annotationType().getPackage())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void property(Plan.Builder<Object> builder, Class<Object> type, String field,
+                                 Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            try {
+                if (annotation instanceof Nested) {
+                    Accessors.Accessor accessor = Accessors.of(type, field);
+                    Function<Object, Object> function = accessor.function;
+                    if (List.class.isAssignableFrom(accessor.type)) {
+                        builder.nestedList(field, t -> (List<Object>) function.apply(t), INSTANCE);
+                    } else if (Iterable.class.isAssignableFrom(accessor.type)) {
+                        throw new IllegalArgumentException("@Nested on an Iterable that is not a List");
+                    } else {
+                        builder.nested(field, function, INSTANCE);
+                    }
+                    continue;
+                }
+                Rule rule = rule(field, annotation);
+                if (rule != null) {
+                    RuleSet.check(builder, type, rule, field);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Cannot validate '" + field + "' of " + type.getName() + ": "
+                        + e.getMessage(), e);
+            }
+        }
+    }
+
+    private static Rule rule(String field, Annotation annotation) {
+        if (annotation instanceof NotNull) {
+            return Rule.of(field, ErrorType.NOT_NULL);
+        }
+        if (annotation instanceof NotBlank) {
+            return Rule.of(field, ErrorType.NOT_BLANK);
+        }
+        if (annotation instanceof Positive) {
+            return Rule.of(field, ErrorType.POSITIVE);
+        }
+        if (annotation instanceof MinLength) {
+            return Rule.of(field, ErrorType.MIN_LENGTH, ((MinLength) annotation).value());
+        }
+        if (annotation instanceof MaxLength) {
+            return Rule.of(field, ErrorType.MAX_LENGTH, ((MaxLength) annotation).value());
+        }
+        if (annotation instanceof Length) {
+            return Rule.of(field, ErrorType.LENGTH, ((Length) annotation).value());
+        }
+        // io.github.jazorp.Email shadows the annotation in this package
+        if (annotation instanceof io.github.jazorp.annotation.Email) {
+            return Rule.of(field, ErrorType.EMAIL, ((io.github.jazorp.annotation.Email) annotation).strict());
+        }
+        if (annotation instanceof Equal) {
+            return Rule.of(field, ErrorType.EQUAL, bound(((Equal) annotation).value()));
+        }
+        if (annotation instanceof Less) {
+            return Rule.of(field, ErrorType.LESS, bound(((Less) annotation).value()));
+        }
+        if (annotation instanceof LessEqual) {
+            return Rule.of(field, ErrorType.LESS_EQUAL, bound(((LessEqual) annotation).value()));
+        }
+        if (annotation instanceof Greater) {
+            return Rule.of(field, ErrorType.GREATER, bound(((Greater) annotation).value()));
+        }
+        if (annotation instanceof GreaterEqual) {
+            return Rule.of(field, ErrorType.GREATER_EQUAL, bound(((GreaterEqual) annotation).value()));
+        }
+        return null;
+    }
+
+    /**
+     * Returns whole bounds as a {@code Long}, so that messages read "less than 150" like those of the
+     * generated validators.
+     */
+    private static Number bound(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("the bound must be finite");
+        }
+        return value == Math.rint(value) && Math.abs(value) < 0x1p63 ? (Number) (long) value : (Number) value;
+    }
+
+    /**
+     * Returns the bean property name of a getter, e.g. {@code name} for {@code getName}.
+     */
+    private static String property(String getter) {
+        String name;
+        if (getter.startsWith("get") && getter.length() > 3) {
+            name = getter.substring(3);
+        } else if (getter.startsWith("is") && getter.length() > 2) {
+            name = getter.substring(2);
+        } else {
+            return getter;
+        }
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+}
@@ -0,0 +1,45 @@
+package io.github.jazorp;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks the errors found during a single validation call against {@link Env#getMaxErrors()}.
+ * It is shared by the tasks of a parallel validation, hence the atomic counter.
+ */
+class Budget {
+
+    private static final Budget UNLIMITED = new Budget(0);
+
+    private final int max;
+    private final AtomicInteger spent = new AtomicInteger();
+
+    private Budget(int max) {
+        this.max = max;
+    }
+
+    static Budget of(Env env) {
+        return env.getMaxErrors() > 0 ? new Budget(env.getMaxErrors()) : UNLIMITED;
+    }
+
+    void spend() {
+        if (max > 0) {
+            spent.incrementAndGet();
+        }
+    }
+
+    /**
+     * Spends the budget for an error unless it is exhausted, for errors found concurrently, e.g. by
+     * asynchronous thunks in flight. Returns whether the error fits in the budget and should be kept.
+     */
+    boolean trySpend() {
+        return max == 0 || spent.getAndIncrement() < max;
+    }
+
+    boolean unlimited() {
+        return max == 0;
+    }
+
+    boolean exhausted() {
+        return max > 0 && spent.get() >= max;
+    }
+}
@@ -0,0 +1,287 @@
+package io.github.jazorp;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * A {@link Validator} that remembers the results of another validator for repeated inputs:
+ * <pre>
+ * Validator&lt;Order&gt; cached = new CachingValidator.Builder&lt;&gt;(orderValidator)
+ *         .key(Order::getId)
+ *         .maximumSize(10_000)
+ *         .expireAfterWrite(1, TimeUnit.MINUTES)
+ *         .build();
+ * </pre>
+ *
+ * Entries are keyed by the extracted key, or by the input itself using {@code equals} and {@code hashCode},
+ * together with the error budget, the {@link ErrorFormatter#LOCALE locale} and the configured {@link Env}
+ * entries. Inputs must not change while they are cached. Entries created before the last
+ * {@link ErrorFormatter} override or reset are never returned. Messages are formatted before a result is
+ * cached, so that the threads sharing it only read it.
+ *
+ * The cache is split into lock-striped LRU segments. Validations run outside the locks, so concurrent
+ * misses on the same key may validate more than once. Only calls with an unlimited error budget are
+ * cached when the validator is nested in another one.
+ */
+public final class CachingValidator<T> extends DirectValidator<T> implements Validator<T> {
+
+    private final Validator<T> validator;
+    private final Function<? super T, ?> key;
+    private final String[] envKeys;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+
+    private final Segment[] segments;
+    private final int mask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private CachingValidator(Builder<T> builder) {
+        this.validator = builder.validator;
+        this.key = builder.key;
+        this.envKeys = builder.envKeys;
+        this.ttlNanos = builder.ttlNanos;
+        this.clock = builder.clock;
+        int stripes = Math.min(builder.stripes, builder.maximumSize);
+        int segmentCount = Integer.highestOneBit(Math.max(1, stripes));
+        this.segments = new Segment[segmentCount];
+        int segmentSize = (builder.maximumSize + segmentCount - 1) / segmentCount;
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentSize, evictions);
+        }
+        this.mask = segmentCount - 1;
+    }
+
+    @Override
+    public Aggregation collect(T t) {
+        return validator.collect(t);
+    }
+
+    @Override
+    public Result validate(T t, Env env) {
+        Object k = t == null ? null : key.apply(t);
+        if (k == null) {
+            return Plan.evaluate(validator, t, env, Budget.of(env));
+        }
+        Key cacheKey = new Key(k, env, envKeys);
+        Segment segment = segments[spread(cacheKey.hashCode()) & mask];
+        long version = ErrorFormatter.getInstance().snapshot().version();
+
+        CachedResult entry = segment.get(cacheKey);
+        if (entry != null && isFresh(entry, version)) {
+            hits.increment();
+            return entry.result.copy();
+        }
+        misses.increment();
+        Result result = Plan.evaluate(validator, t, env, Budget.of(env));
+        if (result.table() != null) {
+            result.table().prepare();
+        }
+        segment.put(cacheKey, new CachedResult(result, version, ttlNanos == 0 ? 0 : clock.getAsLong()));
+        return result.copy();
+    }
+
+    /**
+     * Only uses the cache under an unlimited budget, as results cut short by a budget depend on it.
+     */
+    @Override
+    Result validate(T t, Env env, Budget budget) {
+        return budget.unlimited() ? validate(t, env) : Plan.evaluate(validator, t, env, budget);
+    }
+
+    private boolean isFresh(CachedResult entry, long version) {
+        return entry.version == version && (ttlNanos == 0 || clock.getAsLong() - entry.created < ttlNanos);
+    }
+
+    public long getHitCount() { return hits.sum(); }
+
+    public long getMissCount() { return misses.sum(); }
+
+    /**
+     * The number of entries removed to respect the maximum size, or replaced because they had expired
+     * or were created before an {@link ErrorFormatter} change.
+     */
+    public long getEvictionCount() { return evictions.sum(); }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Key {
+
+        private final Object key;
+        private final int maxErrors;
+        private final String locale;
+        private final String[] env;
+        private final int hash;
+
+        private Key(Object key, Env env, String[] envKeys) {
+            this.key = key;
+            this.maxErrors = env.getMaxErrors();
+            this.locale = env.get(ErrorFormatter.LOCALE);
+            this.env = new String[envKeys.length];
+            for (int i = 0; i < envKeys.length; i++) {
+                this.env[i] = env.get(envKeys[i]);
+            }
+            this.hash = 31 * (31 * (31 * key.hashCode() + maxErrors) + Objects.hashCode(locale)) + Arrays.hashCode(this.env);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash && maxErrors == other.maxErrors && key.equals(other.key)
+                    && Objects.equals(locale, other.locale) && Arrays.equals(env, other.env);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class CachedResult {
+
+        private final Result result;
+        private final long version;
+        private final long created;
+
+        private CachedResult(Result result, long version, long created) {
+            this.result = result;
+            this.version = version;
+            this.created = created;
+        }
+    }
+
+    private static final class Segment {
+
+        private final LinkedHashMap<Key, CachedResult> entries;
+        private final LongAdder evictions;
+
+        private Segment(int maximumSize, LongAdder evictions) {
+            this.evictions = evictions;
+            this.entries = new LinkedHashMap<Key, CachedResult>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, CachedResult> eldest) {
+                    if (size() > maximumSize) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized CachedResult get(Key key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(Key key, CachedResult entry) {
+            if (entries.put(key, entry) != null) {
+                evictions.increment();
+            }
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        synchronized void clear() {
+            entries.clear();
+        }
+    }
+
+    public static class Builder<T> {
+
+        private final Validator<T> validator;
+        private Function<? super T, ?> key = Function.identity();
+        private String[] envKeys = new String[0];
+        private int maximumSize = 1024;
+        private long ttlNanos;
+        private int stripes = 16;
+        private LongSupplier clock = System::nanoTime;
+
+        public Builder(Validator<T> validator) {
+            if (validator == null) {
+                throw new IllegalArgumentException("validator cannot be null");
+            }
+            this.validator = validator;
+        }
+
+        /**
+         * Caches results by {@code key} instead of by the input itself. Inputs with a null key are not cached.
+         */
+        public Builder<T> key(Function<? super T, ?> key) {
+            this.key = key;
+            return this;
+        }
+
+        /**
+         * Adds the values of {@link Env} entries that change the result to the cache key.
+         */
+        public Builder<T> envKeys(String... envKeys) {
+            this.envKeys = envKeys.clone();
+            return this;
+        }
+
+        public Builder<T> maximumSize(int maximumSize) {
+            if (maximumSize < 1) {
+                throw new IllegalArgumentException("maximumSize must be positive");
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        public Builder<T> expireAfterWrite(long duration, TimeUnit unit) {
+            if (duration <= 0) {
+                throw new IllegalArgumentException("duration must be positive");
+            }
+            this.ttlNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * The number of independently locked segments, rounded down to a power of two.
+         */
+        public Builder<T> stripes(int stripes) {
+            if (stripes < 1) {
+                throw new IllegalArgumentException("stripes must be positive");
+            }
+            this.stripes = stripes;
+            return this;
+        }
+
+        Builder<T> clock(LongSupplier clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public CachingValidator<T> build() {
+            return new CachingValidator<>(this);
+        }
+    }
+}
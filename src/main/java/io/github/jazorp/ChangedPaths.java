@@ -0,0 +1,138 @@
+package io.github.jazorp;
+
+import java.util.*;
+
+/**
+ * The tree of changed field paths passed to {@link Validator#revalidate}. A path such as
+ * {@code pet[2].name} is split into the segments {@code pet}, {@code [2]} and {@code name}, and a
+ * path that ends at a segment marks everything below it as changed.
+ */
+final class ChangedPaths {
+
+    /**
+     * Everything at and below a segment changed.
+     */
+    static final ChangedPaths ALL = new ChangedPaths();
+
+    private final Map<String, ChangedPaths> children = new HashMap<>();
+
+    private ChangedPaths() {
+    }
+
+    static ChangedPaths of(Collection<String> paths) {
+        ChangedPaths root = new ChangedPaths();
+        for (String path : paths) {
+            root = root.add(segments(path), 0);
+        }
+        return root;
+    }
+
+    private ChangedPaths add(List<String> segments, int i) {
+        if (this == ALL) {
+            return ALL;
+        }
+        if (i == segments.size()) {
+            return ALL;
+        }
+        ChangedPaths child = children.get(segments.get(i));
+        children.put(segments.get(i), (child == null ? new ChangedPaths() : child).add(segments, i + 1));
+        return this;
+    }
+
+    /**
+     * Returns the changes below {@code segment}, or null when nothing below it changed.
+     */
+    ChangedPaths get(String segment) {
+        return this == ALL ? ALL : children.get(segment);
+    }
+
+    ChangedPaths element(int index) {
+        return get("[" + index + "]");
+    }
+
+    /**
+     * Returns whether every element of a list changed, that is the list itself or a path below it
+     * other than an element.
+     */
+    boolean allElements() {
+        if (this == ALL) {
+            return true;
+        }
+        for (String segment : children.keySet()) {
+            if (segment.charAt(0) != '[') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the indices of the changed elements of a list, in ascending order.
+     */
+    int[] elements() {
+        int[] elements = new int[children.size()];
+        int size = 0;
+        for (String segment : children.keySet()) {
+            elements[size++] = Integer.parseInt(segment.substring(1, segment.length() - 1));
+        }
+        Arrays.sort(elements, 0, size);
+        return Arrays.copyOf(elements, size);
+    }
+
+    /**
+     * Returns whether {@code thunk} has to run again. Thunks that did not declare what they read always do.
+     */
+    boolean affects(ValidationThunk thunk) {
+        if (this == ALL) {
+            return true;
+        }
+        String[] reads = thunk.getReads();
+        if (reads == null) {
+            return true;
+        }
+        for (String read : reads) {
+            if (affects(read)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean affects(String read) {
+        if (read.indexOf('.') < 0 && read.indexOf('[') < 0) {
+            return children.containsKey(read);
+        }
+        ChangedPaths changes = this;
+        for (String segment : segments(read)) {
+            changes = changes.get(segment);
+            if (changes == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> segments(String path) {
+        List<String> segments = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= path.length(); i++) {
+            char c = i < path.length() ? path.charAt(i) : '.';
+            if (c == '.' || c == '[') {
+                if (i > start) {
+                    segments.add(path.substring(start, i));
+                }
+                start = i;
+                if (c == '.') {
+                    start++;
+                }
+            } else if (c == ']') {
+                segments.add(path.substring(start, i + 1));
+                start = i + 1;
+            }
+        }
+        if (segments.isEmpty()) {
+            throw new IllegalArgumentException("Empty path: '" + path + "'");
+        }
+        return segments;
+    }
+}
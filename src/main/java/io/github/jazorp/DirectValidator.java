@@ -0,0 +1,16 @@
+package io.github.jazorp;
+
+/**
+ * A {@link Validator} that validates under an existing error budget without collecting an {@link Aggregation},
+ * e.g. a compiled {@link Plan}. Nested values, list elements and batches are validated through this method
+ * when their validator extends this class, see {@link Plan#evaluate}.
+ *
+ * A class rather than an interface, so that the method stays package-private and the dispatch is a class check.
+ */
+abstract class DirectValidator<T> implements Validator<T> {
+
+    /**
+     * Validates {@code t}, spending {@code budget} for every error found.
+     */
+    abstract Result validate(T t, Env env, Budget budget);
+}
@@ -0,0 +1,100 @@
+package io.github.jazorp;
+
+/**
+ * A single pass e-mail address scanner. It accepts exactly the addresses matched by
+ * <pre>
+ * ^[\w!#$%&amp;'*+/=?`{|}~^-]+(?:\.[\w!#$%&amp;'*+/=?`{|}~^-]+)*@(?:[a-zA-Z0-9-]+\.)+[a-zA-Z]{2,6}$
+ * </pre>
+ * in linear time, without allocating and rejecting on the first illegal character.
+ */
+final class Email {
+
+    private static final int MAX_LOCAL_PART = 64;
+    private static final int MAX_DOMAIN = 255;
+    private static final int MAX_LABEL = 63;
+    private static final int MAX_ADDRESS = 254;
+
+    private static final boolean[] LOCAL = new boolean[128];
+    private static final boolean[] DOMAIN = new boolean[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            LOCAL[c] = DOMAIN[c] = true;
+            LOCAL[Character.toUpperCase(c)] = DOMAIN[Character.toUpperCase(c)] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            LOCAL[c] = DOMAIN[c] = true;
+        }
+        DOMAIN['-'] = true;
+        for (char c : "_!#$%&'*+/=?`{|}~^-".toCharArray()) {
+            LOCAL[c] = true;
+        }
+    }
+
+    private Email() {
+    }
+
+    static boolean isValid(String s) {
+        return scan(s, false);
+    }
+
+    /**
+     * Additionally enforces the RFC 5321 limits: 64 characters for the local part, 63 per
+     * domain label, 255 for the domain and 254 for the whole address.
+     */
+    static boolean isValidStrict(String s) {
+        return scan(s, true);
+    }
+
+    private static boolean scan(String s, boolean strict) {
+        int length = s.length();
+        if (strict && length > MAX_ADDRESS) {
+            return false;
+        }
+
+        // local part: atoms of LOCAL characters separated by single dots
+        int i = 0;
+        boolean atom = false;
+        for (; i < length; i++) {
+            char c = s.charAt(i);
+            if (c < 128 && LOCAL[c]) {
+                atom = true;
+            } else if (c == '.' && atom) {
+                atom = false;
+            } else if (c == '@' && atom) {
+                break;
+            } else {
+                return false;
+            }
+        }
+        if (i == length || (strict && i > MAX_LOCAL_PART)) {
+            return false;
+        }
+
+        // domain: at least two labels of DOMAIN characters, the last one 2 to 6 letters
+        int domainStart = ++i;
+        int labels = 0;
+        int label = 0;
+        boolean letters = true;
+        for (; i < length; i++) {
+            char c = s.charAt(i);
+            if (c < 128 && DOMAIN[c]) {
+                label++;
+                if (strict && label > MAX_LABEL) {
+                    return false;
+                }
+                letters &= c > '9' && c != '-';
+            } else if (c == '.' && label > 0) {
+                labels++;
+                label = 0;
+                letters = true;
+            } else {
+                return false;
+            }
+        }
+        if (strict && length - domainStart > MAX_DOMAIN) {
+            return false;
+        }
+        return labels > 0 && letters && label >= 2 && label <= 6;
+    }
+}
@@ -1,35 +1,192 @@
 package io.github.jazorp;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 public class Env {
 
+    private static final Env EMPTY = new Env(Collections.emptyMap(), 0, null, 0, 0, null, false);
+
     private Map<String, String> env;
 
-    private Env(Map<String, String> env) {
+    private int maxErrors;
+
+    private Executor executor;
+
+    private int parallelThreshold;
+
+    private int asyncLimit;
+
+    private ValidationListener listener;
+
+    private boolean traced;
+
+    private Env(Map<String, String> env, int maxErrors, Executor executor, int parallelThreshold, int asyncLimit,
+                ValidationListener listener, boolean traced) {
         this.env = env;
+        this.maxErrors = maxErrors;
+        this.executor = executor;
+        this.parallelThreshold = parallelThreshold;
+        this.asyncLimit = asyncLimit;
+        this.listener = listener;
+        this.traced = traced;
     }
 
     public static Env empty() {
-        return new Env(new HashMap<>());
+        return EMPTY;
     }
 
     public String get(String key) {
         return env.get(key);
     }
 
+    /**
+     * The number of errors after which the whole validation tree stops, or 0 if it is unbounded.
+     */
+    public int getMaxErrors() { return maxErrors; }
+
+    /**
+     * The executor used for nested validations, or null if validation runs on the caller's thread.
+     */
+    public Executor getExecutor() { return executor; }
+
+    /**
+     * The minimum number of nested aggregations or list elements that are validated in parallel.
+     */
+    public int getParallelThreshold() { return parallelThreshold; }
+
+    /**
+     * The maximum number of asynchronous checks in flight per {@link Validator#validateAsync} call,
+     * or 0 if it is unbounded.
+     */
+    public int getAsyncLimit() { return asyncLimit; }
+
+    /**
+     * The listener notified of every evaluated thunk and aggregation, or null.
+     */
+    public ValidationListener getListener() { return listener; }
+
+    /**
+     * Whether failing results record how their errors were found, see {@link Builder#trace()}.
+     */
+    public boolean isTraced() { return traced; }
+
+    /**
+     * Returns a copy of this environment that validates on the caller's thread.
+     */
+    Env sequential() {
+        return executor == null ? this : new Env(env, maxErrors, null, 0, asyncLimit, listener, traced);
+    }
+
+    /**
+     * Returns a copy of this environment that traces failing results, used by {@link Validator#revalidate}
+     * so that its results can be revalidated in turn.
+     */
+    Env traced() {
+        return traced ? this : new Env(env, maxErrors, executor, parallelThreshold, asyncLimit, listener, true);
+    }
+
     public static class Builder {
 
         private Map<String, String> env = new HashMap<>();
 
+        private int maxErrors;
+
+        private Executor executor;
+
+        private int parallelThreshold;
+
+        private int asyncLimit;
+
+        private ValidationListener listener;
+
+        private boolean traced;
+
         public Builder set(String key, String value) {
             env.put(key, value);
             return this;
         }
 
+        /**
+         * Stops validating the remaining thunks, nested aggregations and list elements once
+         * {@code maxErrors} errors have been found. 0 means no limit.
+         */
+        public Builder maxErrors(int maxErrors) {
+            if (maxErrors < 0) {
+                throw new IllegalArgumentException("maxErrors cannot be negative");
+            }
+            this.maxErrors = maxErrors;
+            return this;
+        }
+
+        /**
+         * Stops validating after the first error, same as {@code maxErrors(1)}.
+         */
+        public Builder failFast() {
+            return maxErrors(1);
+        }
+
+        /**
+         * Validates nested aggregations and list elements on the common fork-join pool when
+         * there are at least {@code threshold} of them.
+         */
+        public Builder parallel(int threshold) {
+            return parallel(ForkJoinPool.commonPool(), threshold);
+        }
+
+        /**
+         * Validates nested aggregations and list elements on {@code executor} when there are
+         * at least {@code threshold} of them. Results are merged in the same order as a
+         * sequential validation.
+         */
+        public Builder parallel(Executor executor, int threshold) {
+            if (executor == null) {
+                throw new IllegalArgumentException("executor cannot be null");
+            }
+            if (threshold < 1) {
+                throw new IllegalArgumentException("threshold must be positive");
+            }
+            this.executor = executor;
+            this.parallelThreshold = threshold;
+            return this;
+        }
+
+        /**
+         * Runs at most {@code limit} asynchronous checks at a time per {@link Validator#validateAsync} call,
+         * queueing the rest. 0 means no limit.
+         */
+        public Builder asyncLimit(int limit) {
+            if (limit < 0) {
+                throw new IllegalArgumentException("limit cannot be negative");
+            }
+            this.asyncLimit = limit;
+            return this;
+        }
+
+        /**
+         * Notifies {@code listener} of every thunk, plan check and aggregation evaluated with this environment,
+         * see {@link ValidationListener}.
+         */
+        public Builder listener(ValidationListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Records in failing results which checks and nested validations produced their errors, so that
+         * {@link Validator#revalidate} only runs again what the changed paths affect. Failing results
+         * validated without it are revalidated in full. Only validations without an error budget are traced.
+         */
+        public Builder trace() {
+            this.traced = true;
+            return this;
+        }
+
         public Env build() {
-            return new Env(env);
+            return new Env(env, maxErrors, executor, parallelThreshold, asyncLimit, listener, traced);
         }
 
     }
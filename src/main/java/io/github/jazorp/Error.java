@@ -7,23 +7,61 @@ public class Error {
     public void setField(String field) { this.field = field; }
 
     private String error;
-    public String getError() { return error; }
+    public String getError() {
+	if (error == null && type != null) {
+	    error = formatter.format(type, env, args());
+	}
+	return error;
+    }
     public void setError(String error) { this.error = error; }
 
+    private ErrorType type;
+    public ErrorType getType() { return type; }
+
+    private Env env;
+    private Object value;
+    private Object[] args;
+    private ErrorFormatter.Snapshot formatter;
+
     public Error(String field, String error) {
 	this.field = field;
 	this.error = error;
     }
 
+    /**
+     * Creates an error whose message is only formatted when {@link #getError()} is first called,
+     * using the {@link ErrorFormatter} configuration current at creation time.
+     */
+    public Error(String field, ErrorType type, Env env, Object value, Object[] args) {
+	this.field = field;
+	this.type = type;
+	this.env = env;
+	this.value = value;
+	this.args = args;
+	this.formatter = ErrorFormatter.getInstance().snapshot();
+    }
+
     public static Error of(String field, String error) {
 	return new Error(field, error);
     }
 
+    public static Error of(String field, ErrorType type, Env env, Object value, Object... args) {
+	return new Error(field, type, env, value, args);
+    }
+
+    private Object[] args() {
+	Object[] result = new Object[args.length + 2];
+	result[0] = field;
+	result[1] = value;
+	System.arraycopy(args, 0, result, 2, args.length);
+	return result;
+    }
+
     @Override
     public String toString() {
 	return "Error{" +
 	    "field='" + field + '\'' +
-	    ", error='" + error + '\'' +
+	    ", error='" + getError() + '\'' +
 	    '}';
     }
 }
@@ -1,10 +1,23 @@
 package io.github.jazorp;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Formats error messages from per-locale message tables or from a custom {@link ErrorFormattingFunc}.
+ *
+ * The configuration is an immutable snapshot that {@code override} and {@code reset} replace
+ * atomically, so formatting only reads a reference and is safe while other threads override
+ * messages. Messages are looked up in the table of the {@link #LOCALE} entry of the {@link Env}
+ * (e.g. {@code el-GR}, then {@code el}), falling back to the default table.
+ */
 public class ErrorFormatter {
 
+    /**
+     * The {@link Env} key holding the language tag used to pick a message table.
+     */
+    public static final String LOCALE = "locale";
+
     private static final Map<ErrorType, String> STOCK_ERROR_MESSAGES = new HashMap<>();
 
     static {
@@ -21,41 +34,116 @@ public class ErrorFormatter {
         STOCK_ERROR_MESSAGES.put(ErrorType.GREATER, "%s must be grater than %3$s");
         STOCK_ERROR_MESSAGES.put(ErrorType.GREATER_EQUAL, "%s must be grater or equal to %3$s");
         STOCK_ERROR_MESSAGES.put(ErrorType.MEMBER_OF, "%s is not a member of %3$s");
+        STOCK_ERROR_MESSAGES.put(ErrorType.EXISTS, "%s does not exist");
     }
 
-    private static ErrorFormatter instance;
+    private static final ErrorFormatter INSTANCE = new ErrorFormatter();
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
 
     private ErrorFormatter() {
         reset();
     }
 
     public static ErrorFormatter getInstance() {
-        if (instance == null) {
-            instance = new ErrorFormatter();
-        }
-        return instance;
+        return INSTANCE;
     }
 
-    private Map<ErrorType, String> errorMap = new HashMap<>();
-    private ErrorFormattingFunc fmtFunc;
-
     public void reset() {
-        errorMap = new HashMap<>(STOCK_ERROR_MESSAGES);
-        fmtFunc = (error, env, args) -> String.format(errorMap.get(error), args);
+        snapshot.updateAndGet(s -> new Snapshot(s == null ? 0 : s.version + 1,
+                compile(new EnumMap<>(ErrorType.class), STOCK_ERROR_MESSAGES), Collections.emptyMap(), null));
     }
 
     public void override(Map<ErrorType, String> customErrors) {
-        for(Map.Entry<ErrorType, String> error : customErrors.entrySet()) {
-            errorMap.put(error.getKey(), error.getValue());
-        }
+        snapshot.updateAndGet(s -> new Snapshot(s.version + 1, compile(s.defaults, customErrors), s.locales, s.fmtFunc));
+    }
 
+    /**
+     * Overrides messages for the given locale only, e.g. {@code Locale.forLanguageTag("el")}.
+     * Messages that are not overridden for the locale come from the default table.
+     */
+    public void override(Locale locale, Map<ErrorType, String> customErrors) {
+        String tag = locale.toLanguageTag();
+        snapshot.updateAndGet(s -> {
+            Map<String, EnumMap<ErrorType, MessageTemplate>> locales = new HashMap<>(s.locales);
+            EnumMap<ErrorType, MessageTemplate> table = locales.get(tag);
+            locales.put(tag, compile(table == null ? new EnumMap<>(ErrorType.class) : table, customErrors));
+            return new Snapshot(s.version + 1, s.defaults, locales, s.fmtFunc);
+        });
     }
 
     public void override(ErrorFormattingFunc fmtFunc) {
-        this.fmtFunc = fmtFunc;
+        snapshot.updateAndGet(s -> new Snapshot(s.version + 1, s.defaults, s.locales, fmtFunc));
     }
 
     public String format(ErrorType error, Env env, Object... args) {
-        return fmtFunc.format(error, env, args);
+        return snapshot.get().format(error, env, args);
+    }
+
+    /**
+     * Returns the current configuration. Errors hold on to it so that their lazily formatted
+     * message does not depend on overrides made after they were created.
+     */
+    Snapshot snapshot() {
+        return snapshot.get();
+    }
+
+    private static EnumMap<ErrorType, MessageTemplate> compile(EnumMap<ErrorType, MessageTemplate> table,
+                                                               Map<ErrorType, String> messages) {
+        EnumMap<ErrorType, MessageTemplate> copy = new EnumMap<>(table);
+        for (Map.Entry<ErrorType, String> message : messages.entrySet()) {
+            copy.put(message.getKey(), MessageTemplate.compile(message.getValue()));
+        }
+        return copy;
+    }
+
+    static final class Snapshot {
+
+        private final long version;
+        private final EnumMap<ErrorType, MessageTemplate> defaults;
+        private final Map<String, EnumMap<ErrorType, MessageTemplate>> locales;
+        private final ErrorFormattingFunc fmtFunc;
+
+        private Snapshot(long version, EnumMap<ErrorType, MessageTemplate> defaults,
+                         Map<String, EnumMap<ErrorType, MessageTemplate>> locales, ErrorFormattingFunc fmtFunc) {
+            this.version = version;
+            this.defaults = defaults;
+            this.locales = locales;
+            this.fmtFunc = fmtFunc;
+        }
+
+        /**
+         * Increases with every override or reset.
+         */
+        long version() {
+            return version;
+        }
+
+        String format(ErrorType error, Env env, Object[] args) {
+            if (fmtFunc != null) {
+                return fmtFunc.format(error, env, args);
+            }
+            return template(error, env).format(args);
+        }
+
+        private MessageTemplate template(ErrorType error, Env env) {
+            if (!locales.isEmpty()) {
+                String tag = env.get(LOCALE);
+                while (tag != null) {
+                    EnumMap<ErrorType, MessageTemplate> table = locales.get(tag);
+                    MessageTemplate template = table == null ? null : table.get(error);
+                    if (template != null) {
+                        return template;
+                    }
+                    int dash = tag.lastIndexOf('-');
+                    tag = dash > 0 ? tag.substring(0, dash) : null;
+                }
+            }
+            MessageTemplate template = defaults.get(error);
+            if (template == null) {
+                throw new IllegalArgumentException("No message for " + error);
+            }
+            return template;
+        }
     }
 }
@@ -0,0 +1,307 @@
+package io.github.jazorp;
+
+import java.util.*;
+
+/**
+ * The flat form of a failed {@link Result}. Field paths are interned into a table of
+ * {@code (parent id, name)} pairs and every error is an entry of {@code (path id, error)}, whose
+ * {@link Error} holds the {@link ErrorType} and the lazily formatted message.
+ *
+ * A path is only interned when an error is added at or below it. Parents are always interned
+ * before their children, so a path id is greater than the id of its parent.
+ */
+final class ErrorTable {
+
+    static final int ROOT = -1;
+
+    private int[] parents = new int[4];
+    private String[] names = new String[4];
+    private int paths;
+
+    /**
+     * Open addressing index of path ids plus one, zero marks an empty slot.
+     */
+    private int[] slots = new int[8];
+
+    private int[] entryPaths = new int[4];
+    private Error[] entryErrors = new Error[4];
+    private int size;
+
+    private String[] qualifiedNames;
+
+    /**
+     * Adds an error to a lazily created table and returns the table.
+     */
+    static ErrorTable add(ErrorTable table, Error error) {
+        if (table == null) {
+            table = new ErrorTable();
+        }
+        table.add(table.intern(ROOT, error.getField()), error);
+        return table;
+    }
+
+    /**
+     * Adds the errors of {@code nested} under {@code field} to a lazily created table and returns the table.
+     * Results created from a map, e.g. by a caller's {@link Result#put}, are copied from their map.
+     */
+    static ErrorTable addNested(ErrorTable table, String field, Result nested) {
+        if (nested.isValid()) {
+            return table;
+        }
+        ErrorTable errors = nested.table();
+        if (errors == null && !hasMessages(nested.getErrors())) {
+            return table;
+        }
+        if (table == null) {
+            table = new ErrorTable();
+        }
+        int base = table.intern(ROOT, field);
+        if (errors != null) {
+            table.copy(errors, base);
+        } else {
+            table.copy(nested.getErrors(), base);
+        }
+        return table;
+    }
+
+    /**
+     * Adds every error of {@code other} at the same paths to a lazily created table and returns the table.
+     */
+    static ErrorTable merge(ErrorTable table, ErrorTable other) {
+        if (other == null) {
+            return table;
+        }
+        if (table == null) {
+            table = new ErrorTable();
+        }
+        table.copy(other, ROOT);
+        return table;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int paths() {
+        return paths;
+    }
+
+    int parent(int path) {
+        return parents[path];
+    }
+
+    String name(int path) {
+        return names[path];
+    }
+
+    int path(int entry) {
+        return entryPaths[entry];
+    }
+
+    Error error(int entry) {
+        return entryErrors[entry];
+    }
+
+    /**
+     * Returns whether there are errors at or below {@code path}.
+     */
+    boolean contains(String... path) {
+        int id = ROOT;
+        for (String name : path) {
+            id = find(id, name);
+            if (id == ROOT) {
+                return false;
+            }
+        }
+        return id != ROOT || size > 0;
+    }
+
+    void forEach(ErrorVisitor visitor) {
+        for (int i = 0; i < size; i++) {
+            Error error = entryErrors[i];
+            visitor.visit(qualifiedName(entryPaths[i]), error.getType(), error.getError());
+        }
+    }
+
+    /**
+     * Formats every message and qualified name up front, so that a table shared between threads,
+     * as by {@link CachingValidator}, is only read afterwards.
+     */
+    void prepare() {
+        for (int i = 0; i < size; i++) {
+            entryErrors[i].getError();
+        }
+        for (int id = 0; id < paths; id++) {
+            qualifiedName(id);
+        }
+    }
+
+    /**
+     * Builds the nested map view of {@link Result#getErrors()}. When a path has both errors and
+     * nested errors, the nested errors are shown, as they were added last.
+     */
+    @SuppressWarnings("unchecked")
+    Map<String, Object> toMap() {
+        boolean[] hasChildren = new boolean[paths];
+        for (int i = 0; i < paths; i++) {
+            if (parents[i] != ROOT) {
+                hasChildren[parents[i]] = true;
+            }
+        }
+        Object[] nodes = new Object[paths];
+        Map<String, Object> root = new TreeMap<>();
+        for (int i = 0; i < size; i++) {
+            int path = entryPaths[i];
+            if (hasChildren[path]) {
+                continue;
+            }
+            Set<String> messages = (Set<String>) nodes[path];
+            if (messages == null) {
+                messages = new HashSet<>();
+                nodes[path] = messages;
+                parentMap(nodes, root, path).put(names[path], messages);
+            }
+            messages.add(entryErrors[i].getError());
+        }
+        return root;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> parentMap(Object[] nodes, Map<String, Object> root, int path) {
+        int parent = parents[path];
+        if (parent == ROOT) {
+            return root;
+        }
+        Map<String, Object> map = (Map<String, Object>) nodes[parent];
+        if (map == null) {
+            map = new TreeMap<>();
+            nodes[parent] = map;
+            parentMap(nodes, root, parent).put(names[parent], map);
+        }
+        return map;
+    }
+
+    /**
+     * Returns the dot separated path of {@code id}, e.g. {@code pet[1].name}.
+     */
+    private String qualifiedName(int id) {
+        if (qualifiedNames == null || qualifiedNames.length < paths) {
+            qualifiedNames = qualifiedNames == null ? new String[paths] : Arrays.copyOf(qualifiedNames, paths);
+        }
+        String name = qualifiedNames[id];
+        if (name == null) {
+            int parent = parents[id];
+            name = parent == ROOT ? names[id] : qualifiedName(parent) + '.' + names[id];
+            qualifiedNames[id] = name;
+        }
+        return name;
+    }
+
+    private void add(int path, Error error) {
+        if (size == entryPaths.length) {
+            entryPaths = Arrays.copyOf(entryPaths, size * 2);
+            entryErrors = Arrays.copyOf(entryErrors, size * 2);
+        }
+        entryPaths[size] = path;
+        entryErrors[size] = error;
+        size++;
+    }
+
+    private void copy(ErrorTable other, int base) {
+        int[] ids = new int[other.paths];
+        for (int i = 0; i < other.paths; i++) {
+            int parent = other.parents[i];
+            ids[i] = intern(parent == ROOT ? base : ids[parent], other.names[i]);
+        }
+        for (int i = 0; i < other.size; i++) {
+            add(ids[other.entryPaths[i]], other.entryErrors[i]);
+        }
+    }
+
+    /**
+     * Adds the already formatted messages of a map result below {@code base}.
+     */
+    @SuppressWarnings("unchecked")
+    private void copy(Map<String, Object> errors, int base) {
+        for (Map.Entry<String, Object> entry : errors.entrySet()) {
+            Object value = entry.getValue();
+            if (!hasMessages(value)) {
+                continue;
+            }
+            int path = intern(base, entry.getKey());
+            if (value instanceof Map) {
+                copy((Map<String, Object>) value, path);
+            } else {
+                for (Object message : (Collection<?>) value) {
+                    add(path, Error.of(entry.getKey(), String.valueOf(message)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether a value of a map result holds messages, so that no path is interned without errors.
+     */
+    private static boolean hasMessages(Object value) {
+        if (value instanceof Map) {
+            for (Object nested : ((Map<?, ?>) value).values()) {
+                if (hasMessages(nested)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return value instanceof Collection && !((Collection<?>) value).isEmpty();
+    }
+
+    private int find(int parent, String name) {
+        int mask = slots.length - 1;
+        for (int slot = hash(parent, name) & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id == ROOT || (parents[id] == parent && names[id].equals(name))) {
+                return id;
+            }
+        }
+    }
+
+    private int intern(int parent, String name) {
+        int id = find(parent, name);
+        if (id != ROOT) {
+            return id;
+        }
+        if (paths == parents.length) {
+            parents = Arrays.copyOf(parents, paths * 2);
+            names = Arrays.copyOf(names, paths * 2);
+        }
+        id = paths++;
+        parents[id] = parent;
+        names[id] = name;
+        if (paths * 2 > slots.length) {
+            slots = new int[slots.length * 2];
+            for (int i = 0; i < paths; i++) {
+                index(i);
+            }
+        } else {
+            index(id);
+        }
+        return id;
+    }
+
+    private void index(int id) {
+        int mask = slots.length - 1;
+        int slot = hash(parents[id], names[id]) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = id + 1;
+    }
+
+    private static int hash(int parent, String name) {
+        int h = name.hashCode() * 31 + parent;
+        return h ^ (h >>> 16);
+    }
+}
@@ -2,5 +2,5 @@ package io.github.jazorp;
 
 public enum ErrorType {
 	MEMBER_OF, NOT_NULL, NOT_BLANK, POSITIVE, MIN_LENGTH, MAX_LENGTH, LENGTH,
-    EQUAL, LESS, LESS_EQUAL, GREATER, GREATER_EQUAL, EMAIL
+    EQUAL, LESS, LESS_EQUAL, GREATER, GREATER_EQUAL, EMAIL, EXISTS
 }
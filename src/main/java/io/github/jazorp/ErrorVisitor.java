@@ -0,0 +1,15 @@
+package io.github.jazorp;
+
+/**
+ * Receives the errors of a {@link Result}, see {@link Result#forEachError(ErrorVisitor)}.
+ */
+@FunctionalInterface
+public interface ErrorVisitor {
+
+    /**
+     * @param path the dot separated field path, e.g. {@code address.zip} or {@code pet[1].name}
+     * @param type the type of the error, or null for errors created from a plain message
+     * @param message the formatted message
+     */
+    void visit(String path, ErrorType type, String message);
+}
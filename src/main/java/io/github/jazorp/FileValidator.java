@@ -0,0 +1,433 @@
+package io.github.jazorp;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Validates every record of a newline-delimited JSON or CSV file and writes the errors to a report:
+ * <pre>
+ * FileValidator orders = new FileValidator.Builder()
+ *         .ndjson(new JsonValidator(rules))
+ *         .threads(4)
+ *         .build();
+ * FileValidator.Summary summary = orders.validate(Paths.get("orders.ndjson"), Paths.get("errors.ndjson"), env);
+ * </pre>
+ *
+ * The file is cut into chunks of about {@link Builder#chunkSize(int)} bytes that end at a line break. Each chunk
+ * is memory-mapped and its records are parsed and validated on a pool of {@link Builder#threads(int)} threads,
+ * with at most two chunks per thread in flight. The report is written in file order while later chunks are still
+ * being validated, so memory use depends on the chunk size and not on the size of the file.
+ * <p>
+ * Every error is one line of the report, e.g.
+ * {@code {"line":12,"path":"items[3].sku","message":"sku must be exactly 8 characters long"}}, where
+ * {@code line} counts from 1 and includes blank lines and the header. Records whose parsing, mapping or
+ * validation throws are reported with an empty path and the message of the exception, and the rest of the file
+ * is still validated. The error budget of the {@link Env} applies to each record.
+ * <p>
+ * Records end with {@code \n} or {@code \r\n}, so CSV fields may be quoted but cannot contain line breaks.
+ * Blank lines are skipped.
+ */
+public final class FileValidator {
+
+    private static final int DEFAULT_CHUNK_SIZE = 4 << 20;
+
+    private final Format format;
+    private final boolean header;
+    private final int threads;
+    private final int chunkSize;
+
+    private FileValidator(Builder builder) {
+        this.format = builder.format;
+        this.header = builder.header;
+        this.threads = builder.threads;
+        this.chunkSize = builder.chunkSize;
+    }
+
+    /**
+     * Validates {@code input} and writes the report to {@code report}, replacing it if it exists.
+     */
+    public Summary validate(Path input, Path report, Env env) throws IOException {
+        try (OutputStream out = Files.newOutputStream(report)) {
+            return validate(input, out, env);
+        }
+    }
+
+    /**
+     * Validates {@code input} and writes the report to {@code report}, which is not closed.
+     */
+    public Summary validate(Path input, OutputStream report, Env env) throws IOException {
+        JsonEncoder.Sink sink = JsonEncoder.sink(report);
+        Env sequential = env.sequential();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "jazorp-file-validator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer probe = ByteBuffer.allocate(8192);
+            Deque<Future<Chunk>> window = new ArrayDeque<>();
+            Summary summary = new Summary();
+            long start = 0;
+            while (start < size || !window.isEmpty()) {
+                while (start < size && window.size() < threads * 2) {
+                    long from = start;
+                    long to = end(channel, probe, from, size);
+                    window.add(pool.submit(() -> chunk(channel, from, to, sequential)));
+                    start = to;
+                }
+                Chunk chunk = await(window.poll());
+                write(sink, summary.lines, chunk);
+                summary.add(chunk);
+            }
+            sink.flush();
+            return summary;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the offset after the first line break at or after {@code start + chunkSize - 1}, or {@code size}.
+     */
+    private long end(FileChannel channel, ByteBuffer probe, long start, long size) throws IOException {
+        long position = start + chunkSize - 1;
+        while (position < size) {
+            probe.clear();
+            int n = channel.read(probe, position);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += n;
+            if (position - start > Integer.MAX_VALUE) {
+                throw new IOException("The line at byte " + start + " or after is longer than 2 GB");
+            }
+        }
+        return size;
+    }
+
+    private Chunk chunk(FileChannel channel, long start, long end, Env env) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        Chunk chunk = new Chunk();
+        byte[] record = new byte[256];
+        while (buffer.hasRemaining()) {
+            int length = 0;
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if (b == '\n') {
+                    break;
+                }
+                if (length == record.length) {
+                    record = Arrays.copyOf(record, length * 2);
+                }
+                record[length++] = b;
+            }
+            chunk.lines++;
+            if (length > 0 && record[length - 1] == '\r') {
+                length--;
+            }
+            if (length == 0 || header && start == 0 && chunk.lines == 1) {
+                continue;
+            }
+            chunk.records++;
+            try {
+                Result result = format.validate(record, length, env);
+                if (!result.isValid()) {
+                    chunk.failures.add(new Failure(chunk.lines, result, null));
+                }
+            } catch (RuntimeException e) {
+                String message = e instanceof IllegalArgumentException ? e.getMessage() : e.toString();
+                chunk.failures.add(new Failure(chunk.lines, null, message));
+            }
+        }
+        return chunk;
+    }
+
+    private static Chunk await(Future<Chunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while validating");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof java.lang.Error) {
+                throw (java.lang.Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static void write(JsonEncoder.Sink sink, long before, Chunk chunk) throws IOException {
+        for (Failure failure : chunk.failures) {
+            long line = before + failure.line;
+            if (failure.result == null) {
+                write(sink, line, "", failure.message);
+                continue;
+            }
+            try {
+                failure.result.forEachError((path, type, message) -> {
+                    try {
+                        write(sink, line, path, message);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static void write(JsonEncoder.Sink sink, long line, String path, String message) throws IOException {
+        sink.ascii('{');
+        sink.key("line");
+        String number = Long.toString(line);
+        for (int i = 0; i < number.length(); i++) {
+            sink.ascii(number.charAt(i));
+        }
+        sink.ascii(',');
+        sink.key("path");
+        sink.string(path);
+        sink.ascii(',');
+        sink.key("message");
+        sink.string(message);
+        sink.ascii('}');
+        sink.ascii('\n');
+    }
+
+    /**
+     * Splits one CSV record into its fields. Quoted fields may contain the delimiter and quotes written twice.
+     *
+     * @throws IllegalArgumentException when a quoted field is not closed or not followed by a delimiter
+     */
+    static String[] fields(byte[] record, int length, char delimiter) {
+        List<String> fields = new ArrayList<>();
+        int i = 0;
+        while (true) {
+            if (i < length && record[i] == '"') {
+                byte[] field = new byte[length - i];
+                int n = 0;
+                int open = i++;
+                while (true) {
+                    if (i == length) {
+                        throw new IllegalArgumentException("Malformed CSV at byte " + open + ": unterminated quote");
+                    }
+                    if (record[i] == '"') {
+                        if (i + 1 < length && record[i + 1] == '"') {
+                            field[n++] = '"';
+                            i += 2;
+                            continue;
+                        }
+                        i++;
+                        break;
+                    }
+                    field[n++] = record[i++];
+                }
+                if (i < length && record[i] != delimiter) {
+                    throw new IllegalArgumentException("Malformed CSV at byte " + i + ": expected '" + delimiter
+                            + "' after a quoted field");
+                }
+                fields.add(new String(field, 0, n, StandardCharsets.UTF_8));
+            } else {
+                int from = i;
+                while (i < length && record[i] != delimiter) {
+                    i++;
+                }
+                fields.add(new String(record, from, i - from, StandardCharsets.UTF_8));
+            }
+            if (i == length) {
+                return fields.toArray(new String[0]);
+            }
+            i++;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Format {
+
+        Result validate(byte[] record, int length, Env env);
+    }
+
+    private static final class Failure {
+
+        /**
+         * The line within its chunk, from 1.
+         */
+        final int line;
+
+        /**
+         * The invalid result, or null when the record could not be validated.
+         */
+        final Result result;
+        final String message;
+
+        Failure(int line, Result result, String message) {
+            this.line = line;
+            this.result = result;
+            this.message = message;
+        }
+    }
+
+    private static final class Chunk {
+
+        int lines;
+        int records;
+        final List<Failure> failures = new ArrayList<>();
+    }
+
+    /**
+     * The counts of one {@link #validate(Path, Path, Env)} run.
+     */
+    public static final class Summary {
+
+        private long lines;
+        public long getLines() { return lines; }
+
+        private long records;
+        public long getRecords() { return records; }
+
+        private long invalidRecords;
+        public long getInvalidRecords() { return invalidRecords; }
+
+        private long errorCount;
+        public long getErrorCount() { return errorCount; }
+
+        private Summary() {
+        }
+
+        public boolean isValid() {
+            return invalidRecords == 0;
+        }
+
+        private void add(Chunk chunk) {
+            lines += chunk.lines;
+            records += chunk.records;
+            invalidRecords += chunk.failures.size();
+            for (Failure failure : chunk.failures) {
+                errorCount += failure.result == null ? 1 : failure.result.errorCount();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Summary{lines=" + lines + ", records=" + records + ", invalidRecords=" + invalidRecords
+                    + ", errorCount=" + errorCount + '}';
+        }
+    }
+
+    public static class Builder {
+
+        private Format format;
+
+        private boolean header;
+
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+        private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+        /**
+         * Reads one JSON object per line and validates it with {@code validator}.
+         */
+        public Builder ndjson(JsonValidator validator) {
+            if (validator == null) {
+                throw new IllegalArgumentException("validator cannot be null");
+            }
+            this.format = (record, length, env) -> validator.validate(record, 0, length, env);
+            return this;
+        }
+
+        /**
+         * Reads comma separated records, maps their fields to a {@code T} and validates it with {@code validator}.
+         */
+        public <T> Builder csv(Function<String[], T> mapper, Validator<T> validator) {
+            return csv(',', mapper, validator);
+        }
+
+        /**
+         * Reads records separated by {@code delimiter}, an ASCII character, maps their fields to a {@code T}
+         * and validates it with {@code validator}.
+         */
+        public <T> Builder csv(char delimiter, Function<String[], T> mapper, Validator<T> validator) {
+            if (delimiter >= 0x80 || delimiter == '"' || delimiter == '\r' || delimiter == '\n') {
+                throw new IllegalArgumentException(
+                        "delimiter must be an ASCII character other than a quote or line break");
+            }
+            if (mapper == null || validator == null) {
+                throw new IllegalArgumentException("mapper and validator cannot be null");
+            }
+            this.format = (record, length, env) ->
+                    validator.validate(mapper.apply(fields(record, length, delimiter)), env);
+            return this;
+        }
+
+        /**
+         * Skips the first line of the file.
+         */
+        public Builder header() {
+            this.header = true;
+            return this;
+        }
+
+        /**
+         * Validates on a pool of {@code threads} threads that is created for each file. Defaults to the number of
+         * processors.
+         */
+        public Builder threads(int threads) {
+            if (threads < 1) {
+                throw new IllegalArgumentException("threads must be positive");
+            }
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Maps and validates the file in chunks of about {@code bytes} bytes, 4 MB by default. A chunk always
+         * ends at a line break, so it is longer when a line crosses the nominal end.
+         */
+        public Builder chunkSize(int bytes) {
+            if (bytes < 1) {
+                throw new IllegalArgumentException("chunkSize must be positive");
+            }
+            this.chunkSize = bytes;
+            return this;
+        }
+
+        public FileValidator build() {
+            if (format == null) {
+                throw new IllegalStateException("No format has been set, call ndjson(...) or csv(...)");
+            }
+            return new FileValidator(this);
+        }
+    }
+}
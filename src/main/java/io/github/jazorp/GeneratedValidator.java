@@ -0,0 +1,118 @@
+package io.github.jazorp;
+
+import io.github.jazorp.processor.ValidatorProcessor;
+
+/**
+ * The base class of the validators generated by {@link ValidatorProcessor} from annotated fields and getters,
+ * it is not meant to be extended by hand.
+ *
+ * A generated validator reads every annotated member once and evaluates its checks inline, in declaration
+ * order, without building an {@link Aggregation}. The {@link Result} and the messages are the same as those
+ * of the equivalent {@link Validators} calls, which {@link #collect} returns for composition. When the
+ * {@link Env} has a {@link ValidationListener}, the validation goes through {@link #collect} so that every
+ * check is reported.
+ */
+public abstract class GeneratedValidator<T> extends DirectValidator<T> implements Validator<T> {
+
+    @Override
+    public Result validate(T t, Env env) {
+        return validate(t, env, Budget.of(env));
+    }
+
+    @Override
+    final Result validate(T t, Env env, Budget budget) {
+        if (env.getListener() != null) {
+            return collect(t).validate(env, budget);
+        }
+        Context context = new Context(env, budget);
+        if (!budget.exhausted()) {
+            check(t, context);
+        }
+        return Result.of(context.errors, false);
+    }
+
+    /**
+     * Evaluates the checks of {@code t}, stopping as soon as a call to the context returns true.
+     */
+    protected abstract void check(T t, Context context);
+
+    /**
+     * Collects the errors of a single validation.
+     */
+    public static final class Context {
+
+        private final Env env;
+        private final Budget budget;
+        private ErrorTable errors;
+
+        private Context(Env env, Budget budget) {
+            this.env = env;
+            this.budget = budget;
+        }
+
+        /**
+         * Records a failed check, returns whether the error budget is exhausted.
+         */
+        public boolean fail(String field, ErrorType type, Object value, Object... args) {
+            errors = ErrorTable.add(errors, Error.of(field, type, env, value, args));
+            budget.spend();
+            return budget.exhausted();
+        }
+
+        /**
+         * Validates {@code value} under {@code field} unless it is null, returns whether the error budget is exhausted.
+         */
+        public <U> boolean nested(String field, Validator<U> validator, U value) {
+            if (value != null) {
+                errors = ErrorTable.addNested(errors, field, Plan.evaluate(validator, value, env, budget));
+            }
+            return budget.exhausted();
+        }
+
+        /**
+         * Validates every element of {@code values} under {@code field[index]} unless it is null, returns
+         * whether the error budget is exhausted.
+         */
+        public <U> boolean nestedList(String field, Validator<U> validator, Iterable<? extends U> values) {
+            if (values != null) {
+                errors = Aggregation.validateElements(errors, field, validator, values, env, budget, null);
+            }
+            return budget.exhausted();
+        }
+    }
+
+    // =====================
+    // Inlined predicates, the same as those of the Validators overloads for the field type
+
+    protected static boolean isBlank(String value) {
+        return !Validators.IS_NOT_BLANK.test(value);
+    }
+
+    protected static boolean isEmail(String value) {
+        return Email.isValid(value);
+    }
+
+    protected static boolean isStrictEmail(String value) {
+        return Email.isValidStrict(value);
+    }
+
+    protected static boolean isEqual(double value, double ref) {
+        return Validators.doubleEquals(value, ref, Validators.EPSILON);
+    }
+
+    protected static boolean isLess(double value, double max) {
+        return !Validators.doubleEquals(value, max, Validators.EPSILON) && value - max < Validators.EPSILON;
+    }
+
+    protected static boolean isLessEqual(double value, double max) {
+        return Validators.doubleEquals(value, max, Validators.EPSILON) || value - max < Validators.EPSILON;
+    }
+
+    protected static boolean isGreater(double value, double min) {
+        return !Validators.doubleEquals(value, min, Validators.EPSILON) && value - min > Validators.EPSILON;
+    }
+
+    protected static boolean isGreaterEqual(double value, double min) {
+        return Validators.doubleEquals(value, min, Validators.EPSILON) || value - min > Validators.EPSILON;
+    }
+}
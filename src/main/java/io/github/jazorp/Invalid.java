@@ -12,6 +12,10 @@ public class Invalid implements Validation {
 	return new Invalid(Error.of(field, error));
     }
 
+    public static Invalid of(String field, ErrorType type, Env env, Object value, Object... args) {
+	return new Invalid(Error.of(field, type, env, value, args));
+    }
+
     @Override
     public boolean isValid() {
 	return false;
@@ -0,0 +1,477 @@
+package io.github.jazorp;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Writes the errors of a {@link Result} as JSON, in the shape of {@link Result#getErrors()}:
+ * <pre>{"address":{"zip":["zip must be exactly 5 characters long"]},"name":["name cannot be blank"]}</pre>
+ *
+ * Keys and the messages of each field are sorted, so identical results are encoded to identical bytes.
+ * Results are encoded straight from their flat form, without building the nested map view.
+ * Field names, except list element names, are UTF-8 encoded once and cached. Targets are neither flushed nor closed.
+ */
+public final class JsonEncoder {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * The maximum number of cached field names. List element names like {@code pet[1]} are never cached,
+     * as there is one per index and they would crowd out the stable names.
+     */
+    private static final int KEY_CACHE_SIZE = 4096;
+
+    static final ConcurrentMap<String, byte[]> KEYS = new ConcurrentHashMap<>();
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private JsonEncoder() {
+    }
+
+    public static void write(Result result, OutputStream out) throws IOException {
+        encode(result, sink(out));
+    }
+
+    public static void write(Result result, Writer out) throws IOException {
+        encode(result, new Chars(out));
+    }
+
+    /**
+     * Writes to {@code out} from its current position.
+     *
+     * @throws java.nio.BufferOverflowException if there is not enough space remaining in {@code out}
+     */
+    public static void write(Result result, ByteBuffer out) {
+        try {
+            encode(result, new Bytes() {
+                @Override
+                void drain(byte[] bytes, int length) {
+                    out.put(bytes, 0, length);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static byte[] toBytes(Result result) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            write(result, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public static String toJson(Result result) {
+        StringWriter out = new StringWriter();
+        try {
+            write(result, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    private static void encode(Result result, Sink sink) throws IOException {
+        ErrorTable table = result.table();
+        if (table != null) {
+            new TableEncoder(table, sink).encode();
+        } else {
+            Map<String, Object> errors = result.getErrors();
+            encode(errors == null ? Collections.emptyMap() : errors, sink);
+        }
+        sink.flush();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void encode(Map<String, Object> errors, Sink sink) throws IOException {
+        String[] keys = errors.keySet().toArray(new String[0]);
+        if (!(errors instanceof SortedMap && ((SortedMap<String, Object>) errors).comparator() == null)) {
+            Arrays.sort(keys);
+        }
+        sink.ascii('{');
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                sink.ascii(',');
+            }
+            sink.key(keys[i]);
+            Object value = errors.get(keys[i]);
+            if (value instanceof Map) {
+                encode((Map<String, Object>) value, sink);
+            } else if (value instanceof Collection) {
+                Collection<?> collection = (Collection<?>) value;
+                String[] messages = new String[collection.size()];
+                int count = 0;
+                for (Object message : collection) {
+                    messages[count++] = String.valueOf(message);
+                }
+                encode(messages, count, sink);
+            } else {
+                encode(new String[]{String.valueOf(value)}, 1, sink);
+            }
+        }
+        sink.ascii('}');
+    }
+
+    /**
+     * Writes the first {@code count} messages sorted and without duplicates.
+     */
+    private static void encode(String[] messages, int count, Sink sink) throws IOException {
+        Arrays.sort(messages, 0, count);
+        sink.ascii('[');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                if (messages[i].equals(messages[i - 1])) {
+                    continue;
+                }
+                sink.ascii(',');
+            }
+            sink.string(messages[i]);
+        }
+        sink.ascii(']');
+    }
+
+    /**
+     * Walks an {@link ErrorTable} as a tree, with the children of every path sorted by name.
+     */
+    private static final class TableEncoder {
+
+        private final ErrorTable table;
+        private final Sink sink;
+
+        /**
+         * The children of path {@code p} are {@code children[childStart[p + 1] .. childStart[p + 2])},
+         * the children of the root start at {@code childStart[0]}.
+         */
+        private final int[] childStart;
+        private final int[] children;
+
+        /**
+         * The entries of path {@code p} are {@code entries[entryStart[p] .. entryStart[p + 1])}.
+         */
+        private final int[] entryStart;
+        private final int[] entries;
+
+        private String[] messages = new String[4];
+
+        private TableEncoder(ErrorTable table, Sink sink) {
+            this.table = table;
+            this.sink = sink;
+            int paths = table.paths();
+
+            childStart = new int[paths + 2];
+            for (int p = 0; p < paths; p++) {
+                childStart[table.parent(p) + 2]++;
+            }
+            for (int i = 1; i < childStart.length; i++) {
+                childStart[i] += childStart[i - 1];
+            }
+            children = new int[paths];
+            int[] next = Arrays.copyOf(childStart, childStart.length);
+            for (int p = 0; p < paths; p++) {
+                children[next[table.parent(p) + 1]++] = p;
+            }
+            for (int i = 0; i + 1 < childStart.length; i++) {
+                sortByName(childStart[i], childStart[i + 1]);
+            }
+
+            entryStart = new int[paths + 1];
+            for (int i = 0; i < table.size(); i++) {
+                entryStart[table.path(i) + 1]++;
+            }
+            for (int i = 1; i < entryStart.length; i++) {
+                entryStart[i] += entryStart[i - 1];
+            }
+            entries = new int[table.size()];
+            next = Arrays.copyOf(entryStart, entryStart.length);
+            for (int i = 0; i < table.size(); i++) {
+                entries[next[table.path(i)]++] = i;
+            }
+        }
+
+        private void encode() throws IOException {
+            encodeChildren(ErrorTable.ROOT);
+        }
+
+        private void encodeChildren(int path) throws IOException {
+            sink.ascii('{');
+            for (int i = childStart[path + 1]; i < childStart[path + 2]; i++) {
+                if (i > childStart[path + 1]) {
+                    sink.ascii(',');
+                }
+                int child = children[i];
+                sink.key(table.name(child));
+                // as in Result#getErrors(), nested errors hide the errors of the field itself
+                if (childStart[child + 1] < childStart[child + 2]) {
+                    encodeChildren(child);
+                } else {
+                    encodeMessages(child);
+                }
+            }
+            sink.ascii('}');
+        }
+
+        private void encodeMessages(int path) throws IOException {
+            int count = entryStart[path + 1] - entryStart[path];
+            if (messages.length < count) {
+                messages = new String[Math.max(count, messages.length * 2)];
+            }
+            for (int i = 0; i < count; i++) {
+                messages[i] = table.error(entries[entryStart[path] + i]).getError();
+            }
+            JsonEncoder.encode(messages, count, sink);
+        }
+
+        /**
+         * Insertion sort for the common short runs, merge sort otherwise.
+         */
+        private void sortByName(int from, int to) {
+            if (to - from < 16) {
+                for (int i = from + 1; i < to; i++) {
+                    int id = children[i];
+                    String name = table.name(id);
+                    int j = i - 1;
+                    while (j >= from && table.name(children[j]).compareTo(name) > 0) {
+                        children[j + 1] = children[j];
+                        j--;
+                    }
+                    children[j + 1] = id;
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            sortByName(from, middle);
+            sortByName(middle, to);
+            int[] left = Arrays.copyOfRange(children, from, middle);
+            int i = 0;
+            int j = middle;
+            int k = from;
+            while (i < left.length && j < to) {
+                children[k++] = table.name(left[i]).compareTo(table.name(children[j])) <= 0 ? left[i++] : children[j++];
+            }
+            while (i < left.length) {
+                children[k++] = left[i++];
+            }
+        }
+    }
+
+    /**
+     * Returns a sink that writes UTF-8 to {@code out}, for other JSON output of this package.
+     */
+    static Sink sink(OutputStream out) {
+        return new Bytes() {
+            @Override
+            void drain(byte[] bytes, int length) throws IOException {
+                out.write(bytes, 0, length);
+            }
+        };
+    }
+
+    abstract static class Sink {
+
+        abstract void ascii(char c) throws IOException;
+
+        /**
+         * Writes {@code "key":}.
+         */
+        abstract void key(String key) throws IOException;
+
+        abstract void string(String s) throws IOException;
+
+        abstract void flush() throws IOException;
+    }
+
+    /**
+     * UTF-8 output through a fixed buffer.
+     */
+    private abstract static class Bytes extends Sink {
+
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+
+        abstract void drain(byte[] bytes, int length) throws IOException;
+
+        @Override
+        void ascii(char c) throws IOException {
+            ensure(1);
+            buffer[position++] = (byte) c;
+        }
+
+        @Override
+        void key(String key) throws IOException {
+            byte[] bytes = KEYS.get(key);
+            if (bytes == null) {
+                bytes = encodeKey(key);
+                if (key.indexOf('[') < 0 && KEYS.size() < KEY_CACHE_SIZE) {
+                    KEYS.putIfAbsent(key, bytes);
+                }
+            }
+            if (bytes.length > buffer.length) {
+                flush();
+                drain(bytes, bytes.length);
+                return;
+            }
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        @Override
+        void string(String s) throws IOException {
+            ascii('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    if (c >= 0x20 && c != '"' && c != '\\') {
+                        ensure(1);
+                        buffer[position++] = (byte) c;
+                    } else {
+                        escape(c);
+                    }
+                } else if (c < 0x800) {
+                    ensure(2);
+                    buffer[position++] = (byte) (0xc0 | c >> 6);
+                    buffer[position++] = (byte) (0x80 | c & 0x3f);
+                } else if (Character.isSurrogate(c)) {
+                    if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                        int cp = Character.toCodePoint(c, s.charAt(++i));
+                        ensure(4);
+                        buffer[position++] = (byte) (0xf0 | cp >> 18);
+                        buffer[position++] = (byte) (0x80 | cp >> 12 & 0x3f);
+                        buffer[position++] = (byte) (0x80 | cp >> 6 & 0x3f);
+                        buffer[position++] = (byte) (0x80 | cp & 0x3f);
+                    } else {
+                        // unpaired surrogates are replaced like String#getBytes does
+                        ascii('?');
+                    }
+                } else {
+                    ensure(3);
+                    buffer[position++] = (byte) (0xe0 | c >> 12);
+                    buffer[position++] = (byte) (0x80 | c >> 6 & 0x3f);
+                    buffer[position++] = (byte) (0x80 | c & 0x3f);
+                }
+            }
+            ascii('"');
+        }
+
+        private void escape(char c) throws IOException {
+            char escaped = escaped(c);
+            ensure(6);
+            buffer[position++] = '\\';
+            if (escaped != 0) {
+                buffer[position++] = (byte) escaped;
+            } else {
+                buffer[position++] = 'u';
+                buffer[position++] = '0';
+                buffer[position++] = '0';
+                buffer[position++] = (byte) HEX[c >> 4];
+                buffer[position++] = (byte) HEX[c & 0xf];
+            }
+        }
+
+        private void ensure(int length) throws IOException {
+            if (position + length > buffer.length) {
+                flush();
+            }
+        }
+
+        @Override
+        void flush() throws IOException {
+            if (position > 0) {
+                drain(buffer, position);
+                position = 0;
+            }
+        }
+
+        private static byte[] encodeKey(String key) {
+            StringWriter out = new StringWriter(key.length() + 3);
+            try {
+                Chars chars = new Chars(out);
+                chars.key(key);
+                chars.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class Chars extends Sink {
+
+        private final Writer out;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private int position;
+
+        private Chars(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        void ascii(char c) throws IOException {
+            if (position == buffer.length) {
+                flush();
+            }
+            buffer[position++] = c;
+        }
+
+        @Override
+        void key(String key) throws IOException {
+            string(key);
+            ascii(':');
+        }
+
+        @Override
+        void string(String s) throws IOException {
+            ascii('"');
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    ascii(c);
+                } else {
+                    char escaped = escaped(c);
+                    ascii('\\');
+                    if (escaped != 0) {
+                        ascii(escaped);
+                    } else {
+                        ascii('u');
+                        ascii('0');
+                        ascii('0');
+                        ascii(HEX[c >> 4]);
+                        ascii(HEX[c & 0xf]);
+                    }
+                }
+            }
+            ascii('"');
+        }
+
+        @Override
+        void flush() throws IOException {
+            if (position > 0) {
+                out.write(buffer, 0, position);
+                position = 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the character following the backslash of a short escape, or 0 for a {@code \}{@code u00XX} escape.
+     */
+    private static char escaped(char c) {
+        switch (c) {
+            case '"': return '"';
+            case '\\': return '\\';
+            case '\n': return 'n';
+            case '\r': return 'r';
+            case '\t': return 't';
+            case '\b': return 'b';
+            case '\f': return 'f';
+            default: return 0;
+        }
+    }
+}
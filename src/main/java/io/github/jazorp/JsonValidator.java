@@ -0,0 +1,953 @@
+package io.github.jazorp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Validates JSON documents against {@link Rule}s in a single streaming pass, without binding them to objects:
+ * <pre>
+ * JsonValidator orders = new JsonValidator(Arrays.asList(
+ *         Rule.of("id", ErrorType.NOT_BLANK),
+ *         Rule.of("items[].sku", ErrorType.LENGTH, 8),
+ *         Rule.of("items[].quantity", ErrorType.POSITIVE)));
+ * ...
+ * Result result = orders.validate(request.getInputStream(), env);
+ * </pre>
+ *
+ * The results and messages are those of a {@link RuleSet} with the same rules validating the bound object, e.g.
+ * the {@code sku} of the fourth item is reported at {@code items[3].sku}. Only the values of properties with
+ * rules are read into objects, the rest of the document is checked to be well-formed and skipped. Numbers are
+ * read as a {@code Long} when they are whole and as a {@code Double} otherwise. A value of a JSON type that a
+ * check does not apply to, e.g. a string for {@code POSITIVE}, fails the check, nested rules skip values that
+ * are not objects.
+ *
+ * The checks of an object run when it ends, after those of its nested objects. When the {@link Env} has an
+ * error budget, e.g. under {@link Env.Builder#failFast()}, the checks of a property run as soon as its value is
+ * read instead, unless the object has blocking rules, and the rest of the document is not read once the budget
+ * is spent.
+ */
+public final class JsonValidator {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * The maximum nesting of objects and arrays, deeper documents are rejected instead of overflowing the stack.
+     */
+    private static final int MAX_DEPTH = 512;
+
+    /**
+     * Stand in for objects and arrays in the checks of their property.
+     */
+    private static final Object OBJECT = new Composite("{...}");
+    private static final Object ARRAY = new Composite("[...]");
+
+    private final List<Rule> rules;
+    private final Node root;
+
+    /**
+     * @throws IllegalArgumentException when a rule has an invalid path or arguments
+     */
+    public JsonValidator(Collection<Rule> rules) {
+        List<Rule> copy = Collections.unmodifiableList(new ArrayList<>(rules));
+        List<String[]> paths = new ArrayList<>();
+        for (Rule rule : copy) {
+            paths.add(RuleSet.segments(rule.getPath()));
+        }
+        this.rules = copy;
+        this.root = compile(copy, paths, 0);
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public Result validate(byte[] json) {
+        return validate(json, Env.empty());
+    }
+
+    /**
+     * @throws IllegalArgumentException when {@code json} is not a well-formed JSON object
+     */
+    public Result validate(byte[] json, Env env) {
+        return validate(new Parser(json, 0, json.length, null, null, env));
+    }
+
+    /**
+     * Validates {@code length} bytes of {@code json} from {@code offset}, e.g. one line of a larger buffer.
+     *
+     * @throws IllegalArgumentException when those bytes are not a well-formed JSON object
+     */
+    Result validate(byte[] json, int offset, int length, Env env) {
+        return validate(new Parser(json, offset, offset + length, null, null, env));
+    }
+
+    /**
+     * Validates the bytes between the position and the limit of {@code json}, which are left unchanged.
+     *
+     * @throws IllegalArgumentException when {@code json} is not a well-formed JSON object
+     */
+    public Result validate(ByteBuffer json, Env env) {
+        if (json.hasArray()) {
+            int offset = json.arrayOffset();
+            return validate(new Parser(json.array(), offset + json.position(), offset + json.limit(), null, null, env));
+        }
+        return validate(new Parser(new byte[BUFFER_SIZE], 0, 0, null, json.duplicate(), env));
+    }
+
+    /**
+     * Reads {@code in} up to the end of the document, or less once the error budget is spent. The stream is not
+     * closed.
+     *
+     * @throws IllegalArgumentException when the document is not a well-formed JSON object
+     */
+    public Result validate(InputStream in, Env env) throws IOException {
+        return new Parser(new byte[BUFFER_SIZE], 0, 0, in, null, env).document(root);
+    }
+
+    private Result validate(Parser parser) {
+        try {
+            return parser.document(root);
+        } catch (IOException e) {
+            // only streams throw
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The rules of the objects at one path, e.g. the elements of {@code items}.
+     */
+    private static final class Node {
+
+        /**
+         * The properties with rules, hashed by their UTF-8 name with linear probing.
+         */
+        private final Property[] table;
+
+        /**
+         * The properties with nested rules, in the order {@link Plan} validates nested values.
+         */
+        private final Property[] nested;
+
+        private final int size;
+        private final Plan<Object[]> plan;
+
+        /**
+         * The checks of every value, or null when the object has blocking rules.
+         */
+        private final List<Plan<Object[]>> checks;
+
+        private Node(Collection<Property> properties, Property[] nested, int size, Plan<Object[]> plan,
+                     List<Plan<Object[]>> checks) {
+            this.table = new Property[Integer.highestOneBit(Math.max(properties.size(), 1) * 2 - 1) << 1];
+            for (Property property : properties) {
+                int mask = table.length - 1;
+                int i = spread(property.hash) & mask;
+                while (table[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                table[i] = property;
+            }
+            this.nested = nested;
+            this.size = size;
+            this.plan = plan;
+            this.checks = checks;
+        }
+
+        private Property property(byte[] name, int length, int hash) {
+            int mask = table.length - 1;
+            for (int i = spread(hash) & mask; ; i = (i + 1) & mask) {
+                Property property = table[i];
+                if (property == null || property.hash == hash && property.is(name, length)) {
+                    return property;
+                }
+            }
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+    private static final class Property {
+
+        private final String name;
+        private final byte[] utf8;
+        private final int hash;
+
+        /**
+         * The index of the value read for the checks of the property, or -1.
+         */
+        private final int value;
+
+        /**
+         * The index of the result of the nested rules, or -1.
+         */
+        private final int result;
+
+        private final Node node;
+        private final boolean list;
+
+        private Property(String name, int value, int result, Node node, boolean list) {
+            this.name = name;
+            this.utf8 = name.getBytes(StandardCharsets.UTF_8);
+            this.hash = hash(utf8, utf8.length);
+            this.value = value;
+            this.result = result;
+            this.node = node;
+            this.list = list;
+        }
+
+        private boolean is(byte[] name, int length) {
+            if (length != utf8.length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (name[i] != utf8[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static int hash(byte[] bytes, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        return hash;
+    }
+
+    private static final class Composite {
+
+        private final String text;
+
+        private Composite(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    /**
+     * Compiles the rules whose paths continue below {@code depth}. The values read for checks come first in the
+     * array of an object, followed by the results of its nested rules.
+     */
+    private static Node compile(List<Rule> rules, List<String[]> paths, int depth) {
+        Map<String, Integer> values = new HashMap<>();
+        for (int i = 0; i < rules.size(); i++) {
+            String[] path = paths.get(i);
+            if (path.length == depth + 1) {
+                if (path[depth].endsWith("[]")) {
+                    throw new IllegalArgumentException(rules.get(i) + " must name a property of the elements");
+                }
+                values.putIfAbsent(path[depth], values.size());
+            }
+        }
+
+        Plan.Builder<Object[]> builder = new Plan.Builder<>();
+        List<Plan.Builder<Object[]>> builders = new ArrayList<>();
+        for (int i = 0; i < values.size(); i++) {
+            builders.add(new Plan.Builder<>());
+        }
+        boolean blocking = false;
+        Map<String, List<Integer>> nested = new TreeMap<>();
+        Map<String, Boolean> lists = new HashMap<>();
+        for (int i = 0; i < rules.size(); i++) {
+            String[] path = paths.get(i);
+            String segment = path[depth];
+            if (path.length == depth + 1) {
+                int index = values.get(segment);
+                check(builder, rules.get(i), segment, index);
+                check(builders.get(index), rules.get(i), segment, index);
+                blocking |= rules.get(i).isBlocking();
+                continue;
+            }
+            boolean list = segment.endsWith("[]");
+            String name = list ? segment.substring(0, segment.length() - 2) : segment;
+            if (lists.getOrDefault(name, list) != list) {
+                throw new IllegalArgumentException("'" + name + "' is used both as an object and as a list");
+            }
+            lists.put(name, list);
+            nested.computeIfAbsent(name, k -> new ArrayList<>()).add(i);
+        }
+
+        Map<String, Property> properties = new HashMap<>();
+        List<Property> nestedProperties = new ArrayList<>();
+        int size = values.size();
+        for (Map.Entry<String, List<Integer>> entry : nested.entrySet()) {
+            List<Rule> nestedRules = new ArrayList<>();
+            List<String[]> nestedPaths = new ArrayList<>();
+            for (int i : entry.getValue()) {
+                nestedRules.add(rules.get(i));
+                nestedPaths.add(paths.get(i));
+            }
+            String name = entry.getKey();
+            Property property = new Property(name, values.getOrDefault(name, -1), size++,
+                    compile(nestedRules, nestedPaths, depth + 1), lists.get(name));
+            properties.put(name, property);
+            nestedProperties.add(property);
+        }
+        for (Map.Entry<String, Integer> entry : values.entrySet()) {
+            properties.putIfAbsent(entry.getKey(), new Property(entry.getKey(), entry.getValue(), -1, null, false));
+        }
+        List<Plan<Object[]>> checks = null;
+        if (!blocking) {
+            checks = new ArrayList<>();
+            for (Plan.Builder<Object[]> b : builders) {
+                checks.add(b.build());
+            }
+        }
+        return new Node(properties.values(), nestedProperties.toArray(new Property[0]), size, builder.build(),
+                checks);
+    }
+
+    private static void check(Plan.Builder<Object[]> builder, Rule rule, String field, int index) {
+        Function<Object[], Object> value = values -> values[index];
+        switch (rule.getType()) {
+            case MEMBER_OF:
+                List<Object> members = new ArrayList<>();
+                for (Object arg : rule.args()) {
+                    members.add(arg instanceof Number ? normalize((Number) arg) : arg);
+                }
+                builder.memberOf(field, value, members);
+                break;
+            case NOT_NULL:
+                RuleSet.arguments(rule, 0);
+                builder.notNull(field, value);
+                break;
+            case NOT_BLANK:
+                RuleSet.arguments(rule, 0);
+                builder.check(field, value, string(Validators.IS_NOT_BLANK), ErrorType.NOT_BLANK);
+                break;
+            case EMAIL:
+                builder.check(field, value, string(RuleSet.strict(rule) ? Email::isValidStrict : Validators.IS_EMAIL),
+                        ErrorType.EMAIL);
+                break;
+            case POSITIVE:
+                RuleSet.arguments(rule, 0);
+                builder.check(field, value, number(Validators.IS_POSITIVE), ErrorType.POSITIVE);
+                break;
+            case MIN_LENGTH: {
+                int min = RuleSet.length(rule);
+                builder.check(field, value, string(v -> v.length() >= min), ErrorType.MIN_LENGTH, min);
+                break;
+            }
+            case MAX_LENGTH: {
+                int max = RuleSet.length(rule);
+                builder.check(field, value, string(v -> v.length() <= max), ErrorType.MAX_LENGTH, max);
+                break;
+            }
+            case LENGTH: {
+                int length = RuleSet.length(rule);
+                builder.check(field, value, string(v -> v.length() == length), ErrorType.LENGTH, length);
+                break;
+            }
+            case EQUAL: {
+                Number ref = RuleSet.bound(rule);
+                builder.check(field, value, number(Validators.isEqual(ref, Validators.EPSILON)), ErrorType.EQUAL, ref);
+                break;
+            }
+            case LESS: {
+                Number max = RuleSet.bound(rule);
+                builder.check(field, value, number(Validators.isLess(max, Validators.EPSILON)), ErrorType.LESS, max);
+                break;
+            }
+            case LESS_EQUAL: {
+                Number max = RuleSet.bound(rule);
+                builder.check(field, value, number(Validators.isLessEqual(max, Validators.EPSILON)),
+                        ErrorType.LESS_EQUAL, max);
+                break;
+            }
+            case GREATER: {
+                Number min = RuleSet.bound(rule);
+                builder.check(field, value, number(Validators.isGreater(min, Validators.EPSILON)),
+                        ErrorType.GREATER, min);
+                break;
+            }
+            case GREATER_EQUAL: {
+                Number min = RuleSet.bound(rule);
+                builder.check(field, value, number(Validators.isGreaterEqual(min, Validators.EPSILON)),
+                        ErrorType.GREATER_EQUAL, min);
+                break;
+            }
+            default:
+                throw new IllegalArgumentException(rule + " cannot be declared");
+        }
+        if (rule.isBlocking()) {
+            builder.blocking();
+        }
+        if (rule.getPriority() != ValidationThunk.DEFAULT_PRIORITY) {
+            builder.priority(rule.getPriority());
+        }
+        if (rule.isOptional()) {
+            builder.optional();
+        }
+    }
+
+    private static Predicate<Object> string(Predicate<String> predicate) {
+        return v -> v instanceof String && predicate.test((String) v);
+    }
+
+    private static Predicate<Object> number(Predicate<Number> predicate) {
+        return v -> v instanceof Number && predicate.test((Number) v);
+    }
+
+    /**
+     * Returns whole numbers as a {@code Long} and others as a {@code Double}, like the numbers read from JSON.
+     */
+    private static Number normalize(Number number) {
+        if (number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte) {
+            return number.longValue();
+        }
+        return normalize(number.doubleValue());
+    }
+
+    private static Number normalize(double value) {
+        return value == Math.rint(value) && Math.abs(value) < 0x1p63 ? (Number) (long) value : (Number) value;
+    }
+
+    /**
+     * Reads a single document from an array, a direct buffer or a stream.
+     */
+    private static final class Parser {
+
+        private final InputStream in;
+        private final ByteBuffer source;
+        private final Env env;
+        private final Budget budget;
+
+        private final byte[] buf;
+        private int pos;
+        private int limit;
+
+        /**
+         * The number of document bytes before {@code buf[0]}, for error messages.
+         */
+        private long before;
+
+        /**
+         * The unescaped bytes of the last string or number that was kept, and the hash of those of a string.
+         */
+        private byte[] scratch = new byte[64];
+        private int length;
+        private int hash;
+
+        /**
+         * An escaped high surrogate waiting for the low one.
+         */
+        private int surrogate = -1;
+
+        private int depth;
+
+        private Parser(byte[] buf, int pos, int limit, InputStream in, ByteBuffer source, Env env) {
+            this.buf = buf;
+            this.pos = pos;
+            this.limit = limit;
+            this.before = -pos;
+            this.in = in;
+            this.source = source;
+            this.env = env;
+            this.budget = Budget.of(env);
+        }
+
+        private Result document(Node root) throws IOException {
+            if (next() != '{') {
+                throw malformed("expected an object");
+            }
+            Result result = object(root);
+            if (!budget.exhausted() && next() != -1) {
+                throw malformed("expected the end of the document");
+            }
+            return result;
+        }
+
+        /**
+         * Reads an object after its opening brace and validates it.
+         */
+        private Result object(Node node) throws IOException {
+            enter();
+            Object[] values = new Object[node.size];
+            boolean eager = node.checks != null && !budget.unlimited();
+            boolean[] checked = eager ? new boolean[node.checks.size()] : null;
+            ErrorTable errors = null;
+            int c = next();
+            if (c != '}') {
+                while (true) {
+                    if (c != '"') {
+                        throw malformed("expected a name");
+                    }
+                    string(true);
+                    Property property = node.property(scratch, length, hash);
+                    if (next() != ':') {
+                        throw malformed("expected ':'");
+                    }
+                    c = next();
+                    if (property == null) {
+                        skip(c);
+                    } else {
+                        value(property, values, c);
+                        if (eager && property.value >= 0 && !checked[property.value]) {
+                            checked[property.value] = true;
+                            errors = ErrorTable.merge(errors,
+                                    node.checks.get(property.value).validate(values, env, budget).table());
+                        }
+                    }
+                    if (budget.exhausted()) {
+                        break;
+                    }
+                    c = next();
+                    if (c == '}') {
+                        break;
+                    }
+                    if (c != ',') {
+                        throw malformed("expected ',' or '}'");
+                    }
+                    c = next();
+                }
+            }
+            depth--;
+
+            if (eager) {
+                for (int i = 0; i < checked.length && !budget.exhausted(); i++) {
+                    if (!checked[i]) {
+                        errors = ErrorTable.merge(errors, node.checks.get(i).validate(values, env, budget).table());
+                    }
+                }
+            } else {
+                Result own = node.plan.validate(values, env, budget);
+                if (own.wasBlocked()) {
+                    return own;
+                }
+                errors = own.table();
+            }
+            for (Property property : node.nested) {
+                Object result = values[property.result];
+                if (result instanceof Result) {
+                    errors = ErrorTable.addNested(errors, property.name, (Result) result);
+                } else if (result instanceof ErrorTable) {
+                    errors = ErrorTable.merge(errors, (ErrorTable) result);
+                }
+            }
+            return Result.of(errors, false);
+        }
+
+        /**
+         * Reads the elements of an array after its opening bracket and returns the errors of the invalid ones.
+         */
+        private ErrorTable array(Property property) throws IOException {
+            enter();
+            ErrorTable errors = null;
+            int c = next();
+            if (c != ']') {
+                for (int i = 0; ; i++) {
+                    if (c == '{') {
+                        Result element = object(property.node);
+                        if (!element.isValid()) {
+                            errors = ErrorTable.addNested(errors, Aggregation.index(property.name, i), element);
+                        }
+                    } else {
+                        skip(c);
+                    }
+                    if (budget.exhausted()) {
+                        break;
+                    }
+                    c = next();
+                    if (c == ']') {
+                        break;
+                    }
+                    if (c != ',') {
+                        throw malformed("expected ',' or ']'");
+                    }
+                    c = next();
+                }
+            }
+            depth--;
+            return errors;
+        }
+
+        private void value(Property property, Object[] values, int c) throws IOException {
+            Object result = null;
+            Object value;
+            if (c == '{') {
+                if (property.node != null && !property.list) {
+                    result = object(property.node);
+                } else {
+                    skip(c);
+                }
+                value = OBJECT;
+            } else if (c == '[') {
+                if (property.node != null && property.list) {
+                    result = array(property);
+                } else {
+                    skip(c);
+                }
+                value = ARRAY;
+            } else {
+                value = scalar(c, property.value >= 0);
+            }
+            if (property.value >= 0) {
+                values[property.value] = value;
+            }
+            if (property.result >= 0) {
+                values[property.result] = result;
+            }
+        }
+
+        private void skip(int c) throws IOException {
+            if (c == '{') {
+                enter();
+                c = next();
+                if (c != '}') {
+                    while (true) {
+                        if (c != '"') {
+                            throw malformed("expected a name");
+                        }
+                        string(false);
+                        if (next() != ':') {
+                            throw malformed("expected ':'");
+                        }
+                        skip(next());
+                        c = next();
+                        if (c == '}') {
+                            break;
+                        }
+                        if (c != ',') {
+                            throw malformed("expected ',' or '}'");
+                        }
+                        c = next();
+                    }
+                }
+                depth--;
+            } else if (c == '[') {
+                enter();
+                c = next();
+                if (c != ']') {
+                    while (true) {
+                        skip(c);
+                        c = next();
+                        if (c == ']') {
+                            break;
+                        }
+                        if (c != ',') {
+                            throw malformed("expected ',' or ']'");
+                        }
+                        c = next();
+                    }
+                }
+                depth--;
+            } else {
+                scalar(c, false);
+            }
+        }
+
+        /**
+         * Reads a string, number or literal starting with {@code c}, and returns it when {@code keep} is set.
+         */
+        private Object scalar(int c, boolean keep) throws IOException {
+            switch (c) {
+                case '"':
+                    string(keep);
+                    return keep ? new String(scratch, 0, length, StandardCharsets.UTF_8) : null;
+                case 't':
+                    literal("rue");
+                    return Boolean.TRUE;
+                case 'f':
+                    literal("alse");
+                    return Boolean.FALSE;
+                case 'n':
+                    literal("ull");
+                    return null;
+                default:
+                    if (c == '-' || c >= '0' && c <= '9') {
+                        return number(c, keep);
+                    }
+                    throw malformed(c == -1 ? "unexpected end of the document" : "expected a value");
+            }
+        }
+
+        private void literal(String rest) throws IOException {
+            for (int i = 0; i < rest.length(); i++) {
+                if (read() != rest.charAt(i)) {
+                    throw malformed("expected a value");
+                }
+            }
+        }
+
+        private Number number(int c, boolean keep) throws IOException {
+            length = 0;
+            boolean whole = true;
+            if (c == '-') {
+                append(c);
+                c = read();
+            }
+            if (c == '0') {
+                append(c);
+                c = read();
+            } else if (c >= '1' && c <= '9') {
+                c = digits(c);
+            } else {
+                throw malformed("expected a digit");
+            }
+            if (c == '.') {
+                whole = false;
+                append(c);
+                c = read();
+                if (c < '0' || c > '9') {
+                    throw malformed("expected a digit");
+                }
+                c = digits(c);
+            }
+            if (c == 'e' || c == 'E') {
+                whole = false;
+                append(c);
+                c = read();
+                if (c == '+' || c == '-') {
+                    append(c);
+                    c = read();
+                }
+                if (c < '0' || c > '9') {
+                    throw malformed("expected a digit");
+                }
+                c = digits(c);
+            }
+            if (c != -1) {
+                pos--;
+            }
+            if (!keep) {
+                return null;
+            }
+            boolean negative = scratch[0] == '-';
+            if (whole && length - (negative ? 1 : 0) <= 18) {
+                long value = 0;
+                for (int i = negative ? 1 : 0; i < length; i++) {
+                    value = value * 10 + (scratch[i] - '0');
+                }
+                return negative ? -value : value;
+            }
+            return normalize(Double.parseDouble(new String(scratch, 0, length, StandardCharsets.ISO_8859_1)));
+        }
+
+        private int digits(int c) throws IOException {
+            do {
+                append(c);
+                c = read();
+            } while (c >= '0' && c <= '9');
+            return c;
+        }
+
+        /**
+         * Reads a string after its opening quote, unescaping it into the scratch bytes when {@code keep} is set.
+         */
+        private void string(boolean keep) throws IOException {
+            length = 0;
+            while (true) {
+                // copy the bytes up to the next quote, backslash or control character at once
+                byte[] b = buf;
+                int start = pos;
+                int p = start;
+                int end = limit;
+                while (p < end) {
+                    int c = b[p];
+                    if (c == '"' || c == '\\' || c >= 0 && c < 0x20) {
+                        break;
+                    }
+                    p++;
+                }
+                if (keep && p > start) {
+                    append(b, start, p - start);
+                }
+                pos = p;
+                if (p == end) {
+                    if (!fill()) {
+                        throw malformed("unterminated string");
+                    }
+                    continue;
+                }
+                int c = b[p];
+                pos = p + 1;
+                if (c == '"') {
+                    break;
+                }
+                if (c != '\\') {
+                    throw malformed("control character in a string");
+                }
+                c = read();
+                switch (c) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        break;
+                    case 'b':
+                        c = '\b';
+                        break;
+                    case 'f':
+                        c = '\f';
+                        break;
+                    case 'n':
+                        c = '\n';
+                        break;
+                    case 'r':
+                        c = '\r';
+                        break;
+                    case 't':
+                        c = '\t';
+                        break;
+                    case 'u':
+                        int unit = hex();
+                        if (keep) {
+                            escaped(unit);
+                        }
+                        continue;
+                    default:
+                        throw malformed("invalid escape");
+                }
+                if (keep) {
+                    flushSurrogate();
+                    append(c);
+                }
+            }
+            if (keep) {
+                flushSurrogate();
+                hash = JsonValidator.hash(scratch, length);
+            }
+        }
+
+        private int hex() throws IOException {
+            int unit = 0;
+            for (int i = 0; i < 4; i++) {
+                int digit = Character.digit(read(), 16);
+                if (digit < 0) {
+                    throw malformed("invalid escape");
+                }
+                unit = unit << 4 | digit;
+            }
+            return unit;
+        }
+
+        private void escaped(int unit) {
+            if (Character.isLowSurrogate((char) unit) && surrogate >= 0) {
+                utf8(Character.toCodePoint((char) surrogate, (char) unit));
+                surrogate = -1;
+                return;
+            }
+            flushSurrogate();
+            if (Character.isHighSurrogate((char) unit)) {
+                surrogate = unit;
+            } else {
+                utf8(unit);
+            }
+        }
+
+        private void flushSurrogate() {
+            if (surrogate >= 0) {
+                utf8(surrogate);
+                surrogate = -1;
+            }
+        }
+
+        private void utf8(int codePoint) {
+            if (codePoint < 0x80) {
+                append(codePoint);
+            } else if (codePoint < 0x800) {
+                append(0xc0 | codePoint >> 6);
+                append(0x80 | codePoint & 0x3f);
+            } else if (codePoint < 0x10000) {
+                append(0xe0 | codePoint >> 12);
+                append(0x80 | codePoint >> 6 & 0x3f);
+                append(0x80 | codePoint & 0x3f);
+            } else {
+                append(0xf0 | codePoint >> 18);
+                append(0x80 | codePoint >> 12 & 0x3f);
+                append(0x80 | codePoint >> 6 & 0x3f);
+                append(0x80 | codePoint & 0x3f);
+            }
+        }
+
+        private void append(byte[] bytes, int offset, int count) {
+            flushSurrogate();
+            if (length + count > scratch.length) {
+                scratch = Arrays.copyOf(scratch, Math.max(scratch.length * 2, length + count));
+            }
+            System.arraycopy(bytes, offset, scratch, length, count);
+            length += count;
+        }
+
+        private void append(int b) {
+            if (length == scratch.length) {
+                scratch = Arrays.copyOf(scratch, length * 2);
+            }
+            scratch[length++] = (byte) b;
+        }
+
+        private void enter() {
+            if (++depth > MAX_DEPTH) {
+                throw malformed("nested deeper than " + MAX_DEPTH);
+            }
+        }
+
+        /**
+         * Returns the next byte that is not whitespace, or -1 at the end of the document.
+         */
+        private int next() throws IOException {
+            while (true) {
+                byte[] b = buf;
+                int p = pos;
+                int end = limit;
+                while (p < end) {
+                    int c = b[p++];
+                    if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                        pos = p;
+                        return c & 0xff;
+                    }
+                }
+                pos = p;
+                if (!fill()) {
+                    return -1;
+                }
+            }
+        }
+
+        private int read() throws IOException {
+            if (pos == limit && !fill()) {
+                return -1;
+            }
+            return buf[pos++] & 0xff;
+        }
+
+        private boolean fill() throws IOException {
+            int n;
+            if (in != null) {
+                do {
+                    n = in.read(buf, 0, buf.length);
+                } while (n == 0);
+            } else if (source != null && source.hasRemaining()) {
+                n = Math.min(source.remaining(), buf.length);
+                source.get(buf, 0, n);
+            } else {
+                return false;
+            }
+            if (n < 0) {
+                return false;
+            }
+            before += limit;
+            pos = 0;
+            limit = n;
+            return true;
+        }
+
+        private IllegalArgumentException malformed(String message) {
+            return new IllegalArgumentException("Malformed JSON at byte " + Math.max(before + pos - 1, 0) + ": "
+                    + message);
+        }
+    }
+}
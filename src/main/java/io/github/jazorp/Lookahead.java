@@ -0,0 +1,53 @@
+package io.github.jazorp;
+
+import java.util.Iterator;
+
+/**
+ * Validates the elements of an iterator one by one. When an element's aggregation has
+ * {@link BatchLookup batched} checks, the aggregations of up to {@link #SIZE} following elements
+ * are collected before it is validated, so that their keys are loaded together.
+ * Otherwise elements are collected lazily, one at a time.
+ */
+final class Lookahead<T> {
+
+    static final int SIZE = 256;
+
+    private final Validator<T> validator;
+    private final Iterator<? extends T> ts;
+
+    private Aggregation[] window;
+    private int position;
+    private int limit;
+
+    Lookahead(Validator<T> validator, Iterator<? extends T> ts) {
+        this.validator = validator;
+        this.ts = ts;
+    }
+
+    boolean hasNext() {
+        return position < limit || ts.hasNext();
+    }
+
+    Result next(Env env, Budget budget) {
+        if (position < limit) {
+            Aggregation aggregation = window[position];
+            window[position++] = null;
+            return aggregation.validate(env, budget);
+        }
+        if (validator instanceof DirectValidator) {
+            return Plan.evaluate(validator, ts.next(), env, budget);
+        }
+        Aggregation aggregation = validator.collect(ts.next());
+        if (aggregation.isBatched() && ts.hasNext()) {
+            if (window == null) {
+                window = new Aggregation[SIZE];
+            }
+            position = 0;
+            limit = 0;
+            while (limit < SIZE && ts.hasNext()) {
+                window[limit++] = validator.collect(ts.next());
+            }
+        }
+        return aggregation.validate(env, budget);
+    }
+}
@@ -0,0 +1,279 @@
+package io.github.jazorp;
+
+import java.util.*;
+
+/**
+ * An immutable index of allowed values, built once and shared by every
+ * {@link Validators#memberOf(String, Object, Membership)} check.
+ *
+ * Enums are indexed in an {@link EnumSet}, ints and longs in a bitset when they are dense
+ * or in a sorted array otherwise, and everything else in a {@link HashSet}. Bytes, shorts, ints and
+ * longs are compared by value, so a primitive or boxed {@code int} is found among {@code Long}s and
+ * the other way around.
+ */
+public abstract class Membership<T> {
+
+    /**
+     * The number of values printed in error messages.
+     */
+    static final int SUMMARY_SIZE = 10;
+
+    private final int size;
+    private final String summary;
+
+    private Membership(int size, String summary) {
+        this.size = size;
+        this.summary = summary;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> Membership<T> of(Iterable<? extends T> values) {
+        Set<Object> set = new LinkedHashSet<>();
+        Class<?> enumType = null;
+        boolean enums = true;
+        boolean integral = true;
+        for (T value : values) {
+            if (value == null) {
+                throw new IllegalArgumentException("Membership values cannot be null");
+            }
+            set.add(normalize(value));
+            if (enums) {
+                Class<?> type = value instanceof Enum ? ((Enum<?>) value).getDeclaringClass() : null;
+                enums = type != null && (enumType == null || enumType == type);
+                enumType = type;
+            }
+            integral &= isIntegral(value);
+        }
+        String summary = summary(set, set.size());
+        if (set.isEmpty()) {
+            return new OfObjects<>(Collections.emptySet(), summary);
+        }
+        if (enums) {
+            return (Membership<T>) new OfEnums(enumSet((Set) set), summary);
+        }
+        if (integral) {
+            long[] longs = new long[set.size()];
+            int i = 0;
+            for (Object value : set) {
+                longs[i++] = (Long) value;
+            }
+            return (Membership<T>) index(longs, summary);
+        }
+        return new OfObjects<>(new HashSet<>(set), summary);
+    }
+
+    @SafeVarargs
+    public static <T> Membership<T> of(T... values) {
+        // copied, passing the varargs array on to Arrays.asList is flagged by -Xlint:varargs
+        List<T> list = new ArrayList<>(values.length);
+        for (T value : values) {
+            list.add(value);
+        }
+        return of(list);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Membership<Integer> ofInts(int... values) {
+        long[] longs = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            longs[i] = values[i];
+        }
+        return (Membership<Integer>) index(longs, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Membership<Long> ofLongs(long... values) {
+        return (Membership<Long>) index(values, null);
+    }
+
+    /**
+     * Indexes {@code values}, summarized by {@code summary} or by its first values in ascending order when null.
+     */
+    private static Membership<?> index(long[] values, String summary) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        sorted = Arrays.copyOf(sorted, distinct);
+        if (summary == null) {
+            List<Long> first = new ArrayList<>(SUMMARY_SIZE);
+            for (int i = 0; i < distinct && i < SUMMARY_SIZE; i++) {
+                first.add(sorted[i]);
+            }
+            summary = summary(first, distinct);
+        }
+        if (distinct > 0) {
+            long min = sorted[0];
+            long range = sorted[distinct - 1] - min;
+            // dense enough for a bitset that is at most 64 bits per value
+            if (range >= 0 && range < Integer.MAX_VALUE && range / 64 <= distinct) {
+                return new OfBits(sorted, min, (int) range + 1, summary);
+            }
+        }
+        return new OfSortedLongs(sorted, summary);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public abstract boolean contains(Object value);
+
+    /**
+     * Checks a primitive value, without boxing it when every value of the membership is integral.
+     */
+    public boolean contains(long value) {
+        return contains((Object) value);
+    }
+
+    /**
+     * Returns a summary of at most {@value #SUMMARY_SIZE} values, e.g. {@code [a, b, c, ... (97 more)]}.
+     */
+    @Override
+    public String toString() {
+        return summary;
+    }
+
+    /**
+     * Returns an object whose {@code toString()} is a bounded summary of {@code values}.
+     * Collections of up to {@value #SUMMARY_SIZE} values print the same as {@link AbstractCollection#toString()}.
+     */
+    static Object summarize(Iterable<?> values) {
+        return new Object() {
+            @Override
+            public String toString() {
+                List<Object> first = new ArrayList<>(SUMMARY_SIZE + 1);
+                int size = 0;
+                for (Object value : values) {
+                    if (first.size() < SUMMARY_SIZE) {
+                        first.add(value);
+                    }
+                    size++;
+                }
+                return summary(first, size);
+            }
+        };
+    }
+
+    private static String summary(Collection<?> values, int size) {
+        StringBuilder sb = new StringBuilder("[");
+        int printed = 0;
+        for (Object value : values) {
+            if (printed == SUMMARY_SIZE) {
+                break;
+            }
+            if (printed++ > 0) {
+                sb.append(", ");
+            }
+            sb.append(value);
+        }
+        if (size > printed) {
+            sb.append(", ... (").append(size - printed).append(" more)");
+        }
+        return sb.append(']').toString();
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    /**
+     * Returns integral values as a {@code Long}, so that they are equal to the same value of another type.
+     */
+    private static Object normalize(Object value) {
+        return isIntegral(value) && !(value instanceof Long) ? Long.valueOf(((Number) value).longValue()) : value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends Enum<E>> EnumSet<E> enumSet(Set<E> values) {
+        return EnumSet.copyOf(values);
+    }
+
+    private static final class OfObjects<T> extends Membership<T> {
+
+        private final Set<Object> values;
+
+        private OfObjects(Set<Object> values, String summary) {
+            super(values.size(), summary);
+            this.values = values;
+        }
+
+        @Override
+        public boolean contains(Object value) {
+            return values.contains(normalize(value));
+        }
+    }
+
+    private static final class OfEnums extends Membership<Object> {
+
+        private final EnumSet<?> values;
+
+        private OfEnums(EnumSet<?> values, String summary) {
+            super(values.size(), summary);
+            this.values = values;
+        }
+
+        @Override
+        public boolean contains(Object value) {
+            return values.contains(value);
+        }
+    }
+
+    private abstract static class OfLongs extends Membership<Object> {
+
+        private OfLongs(int size, String summary) {
+            super(size, summary);
+        }
+
+        @Override
+        public boolean contains(Object value) {
+            return isIntegral(value) && contains(((Number) value).longValue());
+        }
+
+        @Override
+        public abstract boolean contains(long value);
+    }
+
+    private static final class OfSortedLongs extends OfLongs {
+
+        private final long[] values;
+
+        private OfSortedLongs(long[] values, String summary) {
+            super(values.length, summary);
+            this.values = values;
+        }
+
+        @Override
+        public boolean contains(long value) {
+            return Arrays.binarySearch(values, value) >= 0;
+        }
+    }
+
+    private static final class OfBits extends OfLongs {
+
+        private final long min;
+        private final int range;
+        private final long[] words;
+
+        private OfBits(long[] values, long min, int range, String summary) {
+            super(values.length, summary);
+            this.min = min;
+            this.range = range;
+            this.words = new long[(range + 63) >>> 6];
+            for (long value : values) {
+                int bit = (int) (value - min);
+                words[bit >>> 6] |= 1L << bit;
+            }
+        }
+
+        @Override
+        public boolean contains(long value) {
+            long bit = value - min;
+            return bit >= 0 && bit < range && (words[(int) (bit >>> 6)] & (1L << bit)) != 0;
+        }
+    }
+}
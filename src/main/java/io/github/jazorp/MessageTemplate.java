@@ -0,0 +1,109 @@
+package io.github.jazorp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.MissingFormatArgumentException;
+
+/**
+ * A message format parsed once into literal and argument segments.
+ *
+ * Only {@code %s}, {@code %n$s}, {@code %%} and {@code %n} are compiled. Any other
+ * conversion makes the template fall back to {@link String#format(String, Object...)}.
+ */
+final class MessageTemplate {
+
+    private final String format;
+
+    /**
+     * Literal segments are Strings, argument segments are Integers holding the argument index.
+     * Null when the template falls back to String.format.
+     */
+    private final Object[] segments;
+
+    private final int length;
+
+    private MessageTemplate(String format, Object[] segments, int length) {
+        this.format = format;
+        this.segments = segments;
+        this.length = length;
+    }
+
+    static MessageTemplate compile(String format) {
+        List<Object> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int ordinal = 0;
+        int i = 0;
+        while (i < format.length()) {
+            char c = format.charAt(i++);
+            if (c != '%') {
+                literal.append(c);
+                continue;
+            }
+            if (i == format.length()) {
+                return new MessageTemplate(format, null, 0);
+            }
+            char next = format.charAt(i);
+            if (next == '%') {
+                literal.append('%');
+                i++;
+                continue;
+            }
+            if (next == 'n') {
+                literal.append(System.lineSeparator());
+                i++;
+                continue;
+            }
+            int index;
+            if (next == 's') {
+                index = ordinal++;
+                i++;
+            } else {
+                int start = i;
+                while (i < format.length() && Character.isDigit(format.charAt(i))) {
+                    i++;
+                }
+                if (i == start || i + 1 >= format.length() || format.charAt(i) != '$' || format.charAt(i + 1) != 's') {
+                    return new MessageTemplate(format, null, 0);
+                }
+                index = Integer.parseInt(format.substring(start, i)) - 1;
+                i += 2;
+                if (index < 0) {
+                    return new MessageTemplate(format, null, 0);
+                }
+            }
+            if (literal.length() > 0) {
+                segments.add(literal.toString());
+                literal.setLength(0);
+            }
+            segments.add(index);
+        }
+        if (literal.length() > 0) {
+            segments.add(literal.toString());
+        }
+        return new MessageTemplate(format, segments.toArray(), format.length());
+    }
+
+    String format(Object[] args) {
+        if (segments == null) {
+            return String.format(format, args);
+        }
+        StringBuilder sb = new StringBuilder(length + 16);
+        for (Object segment : segments) {
+            if (segment instanceof String) {
+                sb.append((String) segment);
+            } else {
+                int index = (Integer) segment;
+                if (index >= args.length) {
+                    throw new MissingFormatArgumentException("Format specifier '%" + (index + 1) + "$s'");
+                }
+                sb.append(args[index]);
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return format;
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.jazorp;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Evaluates indexed validations in chunks on the executor configured in {@link Env}.
+ */
+class Parallel {
+
+    private Parallel() {
+    }
+
+    static boolean enabled(Env env, int size) {
+        return env.getExecutor() != null && size >= env.getParallelThreshold();
+    }
+
+    /**
+     * Runs {@code task} for every index in {@code [0, size)} and returns the results by index.
+     * Tasks run with a sequential copy of {@code env} so that nested levels do not fork again.
+     */
+    static Result[] validate(Env env, int size, Task task) {
+        return validateChunks(env, size, (from, to, sequential, results) -> {
+            for (int i = from; i < to; i++) {
+                results[i] = task.validate(i, sequential);
+            }
+        });
+    }
+
+    /**
+     * Runs {@code chunk} for consecutive ranges of indices covering {@code [0, size)}, each filling in
+     * the results of its range, e.g. to collect the elements of a range ahead with a {@link Lookahead}.
+     */
+    static Result[] validateChunks(Env env, int size, Chunk chunk) {
+        Executor executor = env.getExecutor();
+        Env sequential = env.sequential();
+        int parallelism = executor instanceof ForkJoinPool ?
+                ((ForkJoinPool) executor).getParallelism() : Runtime.getRuntime().availableProcessors();
+        int chunks = Math.max(1, Math.min(size, parallelism * 4));
+        int chunkSize = (size + chunks - 1) / chunks;
+
+        Result[] results = new Result[size];
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[(size + chunkSize - 1) / chunkSize];
+        for (int c = 0; c < futures.length; c++) {
+            int from = c * chunkSize;
+            int to = Math.min(size, from + chunkSize);
+            futures[c] = CompletableFuture.runAsync(() -> chunk.validate(from, to, sequential, results), executor);
+        }
+
+        join(CompletableFuture.allOf(futures));
+        return results;
+    }
+
+    /**
+     * Waits for {@code future}, rethrowing unchecked exceptions without the {@link CompletionException} wrapper.
+     */
+    static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof java.lang.Error) {
+                throw (java.lang.Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    interface Task {
+
+        Result validate(int index, Env env);
+    }
+
+    @FunctionalInterface
+    interface Chunk {
+
+        void validate(int from, int to, Env env, Result[] results);
+    }
+}
@@ -0,0 +1,353 @@
+package io.github.jazorp;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A compiled, immutable set of checks described against field accessors.
+ *
+ * Unlike a hand-written {@link Validator}, a plan does not build an {@link Aggregation} per
+ * validated object: the checks are resolved once when the plan is built and evaluated
+ * directly against every instance. The returned {@link Result} has the same shape as
+ * {@link Aggregation#validate(Env)}.
+ *
+ * <pre>
+ * Plan&lt;Person&gt; plan = new Plan.Builder&lt;Person&gt;()
+ *         .notBlank("name", Person::getName).blocking()
+ *         .positive("age", Person::getAge)
+ *         .nested("address", Person::getAddress, addressPlan)
+ *         .build();
+ * </pre>
+ */
+public final class Plan<T> extends DirectValidator<T> implements Validator<T> {
+
+    private final Check<T>[] checks;
+    private final Nested<T>[] nested;
+
+    private Plan(Check<T>[] checks, Nested<T>[] nested) {
+        this.checks = checks;
+        this.nested = nested;
+    }
+
+    @Override
+    public Aggregation collect(T t) {
+        ValidationThunk[] thunks = new ValidationThunk[checks.length];
+        for (int i = 0; i < checks.length; i++) {
+            thunks[i] = checks[i].thunk(t);
+        }
+        Aggregation aggregation = Aggregation.of(thunks);
+        for (Nested<T> n : nested) {
+            n.collect(aggregation, t);
+        }
+        return aggregation;
+    }
+
+    @Override
+    public Result validate(T t, Env env) {
+        return validate(t, env, Budget.of(env));
+    }
+
+    @Override
+    Result validate(T t, Env env, Budget budget) {
+        ValidationListener listener = env.getListener();
+        if (listener == null) {
+            return validateImpl(t, env, budget, null);
+        }
+        long start = System.nanoTime();
+        Result result = validateImpl(t, env, budget, listener);
+        listener.onAggregation(result.errorCount(), result.wasBlocked(), System.nanoTime() - start);
+        return result;
+    }
+
+    private Result validateImpl(T t, Env env, Budget budget, ValidationListener listener) {
+        ErrorTable errors = null;
+        boolean blocked = false;
+
+        for (Check<T> check : checks) {
+            if (budget.exhausted()) {
+                break;
+            }
+            long start = listener == null ? 0 : System.nanoTime();
+            Object value = check.accessor.apply(t);
+            boolean valid = check.test(value);
+            if (!valid) {
+                errors = ErrorTable.add(errors, Error.of(check.field, check.error, env, value, check.args));
+                budget.spend();
+            }
+            if (listener != null) {
+                listener.onThunk(check.field, check.error, valid, check.blocking, System.nanoTime() - start);
+            }
+            if (check.blocking) {
+                blocked = true;
+                break;
+            }
+        }
+
+        if (!blocked) {
+            for (Nested<T> n : nested) {
+                if (budget.exhausted()) {
+                    break;
+                }
+                errors = n.validate(errors, t, env, budget);
+            }
+        }
+
+        return Result.of(errors, blocked);
+    }
+
+    private static final class Check<T> {
+
+        private final String field;
+        private final Function<T, ?> accessor;
+        private final Predicate<Object> predicate;
+        private final ErrorType error;
+        private final Object[] args;
+
+        private final int priority;
+        private final boolean blocking;
+        private final boolean optional;
+
+        @SuppressWarnings("unchecked")
+        private Check(String field, Function<T, ?> accessor, Predicate<?> predicate, ErrorType error, Object[] args,
+                      int priority, boolean blocking, boolean optional) {
+            this.field = field;
+            this.accessor = accessor;
+            this.predicate = (Predicate<Object>) predicate;
+            this.error = error;
+            this.args = args;
+            this.priority = priority;
+            this.blocking = blocking;
+            this.optional = optional;
+        }
+
+        private Check<T> blocking() {
+            return new Check<>(field, accessor, predicate, error, args, priority, true, optional);
+        }
+
+        private Check<T> priority(int priority) {
+            return new Check<>(field, accessor, predicate, error, args, priority, blocking, optional);
+        }
+
+        private Check<T> optional() {
+            return new Check<>(field, accessor, predicate, error, args, priority, blocking, true);
+        }
+
+        private boolean test(Object value) {
+            if (value == null) {
+                return optional;
+            }
+            return predicate.test(value);
+        }
+
+        private ValidationThunk thunk(T t) {
+            ValidationThunk thunk = Validators.validateImpl(predicate, error, field, accessor.apply(t), args);
+            if (blocking) {
+                thunk = thunk.blocking();
+            }
+            if (priority != ValidationThunk.DEFAULT_PRIORITY) {
+                thunk = thunk.priority(priority);
+            }
+            if (optional) {
+                thunk = thunk.optional();
+            }
+            return thunk;
+        }
+    }
+
+    private static final class Nested<T> {
+
+        private final String field;
+        private final Function<T, ?> accessor;
+        private final Validator<Object> validator;
+        private final boolean list;
+
+        @SuppressWarnings("unchecked")
+        private Nested(String field, Function<T, ?> accessor, Validator<?> validator, boolean list) {
+            this.field = field;
+            this.accessor = accessor;
+            this.validator = (Validator<Object>) validator;
+            this.list = list;
+        }
+
+        private void collect(Aggregation aggregation, T t) {
+            Object value = accessor.apply(t);
+            if (value == null) {
+                return;
+            }
+            if (list) {
+                @SuppressWarnings("unchecked")
+                List<Object> elements = (List<Object>) value;
+                aggregation.nestedList(field, validator, elements);
+            } else {
+                aggregation.nested(field, validator, value);
+            }
+        }
+
+        private ErrorTable validate(ErrorTable errors, T t, Env env, Budget budget) {
+            Object value = accessor.apply(t);
+            if (value == null) {
+                return errors;
+            }
+            if (list) {
+                return Aggregation.validateElements(errors, field, validator, (List<?>) value, env, budget, null);
+            }
+            return ErrorTable.addNested(errors, field, validate(value, env, budget));
+        }
+
+        private Result validate(Object value, Env env, Budget budget) {
+            return evaluate(validator, value, env, budget);
+        }
+    }
+
+    /**
+     * Validates {@code t} under an existing budget, directly when {@code validator} is a {@link DirectValidator}
+     * and through its aggregation otherwise.
+     */
+    static <T> Result evaluate(Validator<T> validator, T t, Env env, Budget budget) {
+        if (validator instanceof DirectValidator) {
+            return ((DirectValidator<T>) validator).validate(t, env, budget);
+        }
+        return validator.collect(t).validate(env, budget);
+    }
+
+    public static class Builder<T> {
+
+        private final List<Check<T>> checks = new ArrayList<>();
+        private final Map<String, Nested<T>> nested = new TreeMap<>();
+
+        public <V> Builder<T> check(String field, Function<T, V> accessor, Predicate<? super V> predicate,
+                                    ErrorType error, Object... args) {
+            checks.add(new Check<>(field, accessor, predicate, error, args,
+                    ValidationThunk.DEFAULT_PRIORITY, false, false));
+            return this;
+        }
+
+        /**
+         * Makes the last added check blocking, see {@link ValidationThunk#blocking()}.
+         */
+        public Builder<T> blocking() {
+            int last = last();
+            checks.set(last, checks.get(last).blocking());
+            return this;
+        }
+
+        /**
+         * Sets the priority of the last added check, see {@link ValidationThunk#priority(int)}.
+         */
+        public Builder<T> priority(int priority) {
+            int last = last();
+            checks.set(last, checks.get(last).priority(priority));
+            return this;
+        }
+
+        /**
+         * Makes the last added check optional, see {@link ValidationThunk#optional()}.
+         */
+        public Builder<T> optional() {
+            int last = last();
+            checks.set(last, checks.get(last).optional());
+            return this;
+        }
+
+        private int last() {
+            if (checks.isEmpty()) {
+                throw new IllegalStateException("No check has been added yet");
+            }
+            return checks.size() - 1;
+        }
+
+        public Builder<T> memberOf(String field, Function<T, ?> accessor, Iterable<Object> values) {
+            return memberOf(field, accessor, Membership.of(values));
+        }
+
+        public Builder<T> memberOf(String field, Function<T, ?> accessor, Membership<?> membership) {
+            return check(field, accessor, membership::contains, ErrorType.MEMBER_OF, membership);
+        }
+
+        public Builder<T> notNull(String field, Function<T, ?> accessor) {
+            return check(field, accessor, Validators.IS_NOT_NULL, ErrorType.NOT_NULL);
+        }
+
+        public Builder<T> notBlank(String field, Function<T, String> accessor) {
+            return check(field, accessor, Validators.IS_NOT_BLANK, ErrorType.NOT_BLANK);
+        }
+
+        public Builder<T> positive(String field, Function<T, ? extends Number> accessor) {
+            return check(field, accessor, Validators.IS_POSITIVE, ErrorType.POSITIVE);
+        }
+
+        public Builder<T> minLength(String field, Function<T, String> accessor, int min) {
+            return check(field, accessor, v -> v.length() >= min, ErrorType.MIN_LENGTH, min);
+        }
+
+        public Builder<T> maxLength(String field, Function<T, String> accessor, int max) {
+            return check(field, accessor, v -> v.length() <= max, ErrorType.MAX_LENGTH, max);
+        }
+
+        public Builder<T> length(String field, Function<T, String> accessor, int length) {
+            return check(field, accessor, v -> v.length() == length, ErrorType.LENGTH, length);
+        }
+
+        public Builder<T> email(String field, Function<T, String> accessor) {
+            return check(field, accessor, Validators.IS_EMAIL, ErrorType.EMAIL);
+        }
+
+        public Builder<T> strictEmail(String field, Function<T, String> accessor) {
+            return check(field, accessor, Email::isValidStrict, ErrorType.EMAIL);
+        }
+
+        public Builder<T> equal(String field, Function<T, ? extends Number> accessor, Number ref) {
+            return check(field, accessor, Validators.isEqual(ref, Validators.EPSILON), ErrorType.EQUAL, ref);
+        }
+
+        public Builder<T> less(String field, Function<T, ? extends Number> accessor, Number max) {
+            return check(field, accessor, Validators.isLess(max, Validators.EPSILON), ErrorType.LESS, max);
+        }
+
+        public Builder<T> lessEqual(String field, Function<T, ? extends Number> accessor, Number max) {
+            return check(field, accessor, Validators.isLessEqual(max, Validators.EPSILON), ErrorType.LESS_EQUAL, max);
+        }
+
+        public Builder<T> greater(String field, Function<T, ? extends Number> accessor, Number min) {
+            return check(field, accessor, Validators.isGreater(min, Validators.EPSILON), ErrorType.GREATER, min);
+        }
+
+        public Builder<T> greaterEqual(String field, Function<T, ? extends Number> accessor, Number min) {
+            return check(field, accessor, Validators.isGreaterEqual(min, Validators.EPSILON), ErrorType.GREATER_EQUAL, min);
+        }
+
+        /**
+         * Validates the value returned by the accessor with the given validator. Null values are skipped.
+         */
+        public <U> Builder<T> nested(String field, Function<T, U> accessor, Validator<U> validator) {
+            nested.put(field, new Nested<>(field, accessor, validator, false));
+            return this;
+        }
+
+        /**
+         * Validates every element of the list returned by the accessor. Null lists are skipped.
+         */
+        public <U> Builder<T> nestedList(String field, Function<T, ? extends List<U>> accessor, Validator<U> validator) {
+            nested.put(field, new Nested<>(field, accessor, validator, true));
+            return this;
+        }
+
+        public Plan<T> build() {
+            List<Check<T>> sorted = new ArrayList<>(checks);
+            // stable, in the same order as ValidationThunk#compareTo
+            sorted.sort(Comparator.comparing((Check<T> c) -> !c.blocking).thenComparingInt(c -> c.priority));
+            return new Plan<>(checkArray(sorted), nestedArray(nested.values()));
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Check<T>[] checkArray(Collection<Check<T>> checks) {
+            return checks.toArray((Check<T>[]) new Check<?>[0]);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> Nested<T>[] nestedArray(Collection<Nested<T>> nested) {
+            return nested.toArray((Nested<T>[]) new Nested<?>[0]);
+        }
+    }
+}
@@ -1,15 +1,28 @@
 package io.github.jazorp;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 public class Result {
 
+    private static final Result VALID = new Result(Collections.emptyMap(), false);
+    private static final Result VALID_BLOCKED = new Result(Collections.emptyMap(), true);
+
     private Map<String, Object> errors;
     private boolean blocked;
 
+    /**
+     * The flat form of the errors of a result created with {@link #of(ErrorTable, boolean)}.
+     * The nested map view in {@link #errors} is only built on first read.
+     */
+    private ErrorTable table;
+
+    /**
+     * Where the errors of a result created by {@link Aggregation} came from, see {@link Validator#revalidate}.
+     */
+    private Trace trace;
+
     public Result(Map<String, Object> errors) {
         this.errors = errors;
     }
@@ -23,37 +36,186 @@ public class Result {
         return new Result(new HashMap<>());
     }
 
-    public Map<String, Object> getErrors() { return errors; }
+    /**
+     * Returns the shared, immutable result of a passing validation, which validators return for valid input
+     * instead of allocating a result each time. Unlike {@link #empty()} it cannot be
+     * {@link #put(String, Result) put} into and its {@link #getErrors()} map is unmodifiable, start from
+     * {@link #empty()} to build a result.
+     */
+    public static Result valid() {
+        return VALID;
+    }
+
+    /**
+     * Creates a result from errors collected in an {@link ErrorTable}. Messages are formatted on first read.
+     */
+    static Result of(ErrorTable table, boolean blocked) {
+        if (table == null) {
+            return blocked ? VALID_BLOCKED : VALID;
+        }
+        Result result = new Result(null, blocked);
+        result.table = table;
+        return result;
+    }
+
+    static Result of(ErrorTable table, boolean blocked, Trace trace) {
+        Result result = of(table, blocked);
+        if (table != null) {
+            result.trace = trace;
+        }
+        return result;
+    }
+
+    /**
+     * Returns a result sharing the immutable errors of this one, so that callers can build and
+     * mutate its map view independently. Results created from a map are returned as is.
+     */
+    Result copy() {
+        return table == null ? this : of(table, blocked, trace);
+    }
+
+    /**
+     * Returns the flat errors of a result created with {@link #of(ErrorTable, boolean)}, or null.
+     */
+    ErrorTable table() {
+        return table;
+    }
+
+    /**
+     * Returns how the errors of this result were found, or null when they were not traced.
+     */
+    Trace trace() {
+        return trace;
+    }
 
+    public Map<String, Object> getErrors() {
+        if (errors == null && table != null) {
+            errors = table.toMap();
+        }
+        return errors;
+    }
+
+    /**
+     * Returns the number of errors, without building the {@link #getErrors()} view.
+     * Unlike the message sets of {@link #getErrors()}, identical messages of the same field are all counted.
+     */
+    public int errorCount() {
+        if (table != null) {
+            return table.size();
+        }
+        return errors == null ? 0 : count(errors);
+    }
+
+    /**
+     * Returns whether there are errors at or below a field path, e.g. {@code hasErrorAt("address", "zip")}
+     * or {@code hasErrorAt("pet[1]")}, without building the {@link #getErrors()} view.
+     */
+    @SuppressWarnings("unchecked")
+    public boolean hasErrorAt(String... path) {
+        if (table != null) {
+            return table.contains(path);
+        }
+        Object current = errors;
+        for (String field : path) {
+            if (!(current instanceof Map)) {
+                return false;
+            }
+            current = ((Map<String, Object>) current).get(field);
+        }
+        return current instanceof Map ? count((Map<String, Object>) current) > 0
+                : current instanceof Collection && !((Collection<?>) current).isEmpty();
+    }
+
+    /**
+     * Visits every error in the order it was collected, without building the {@link #getErrors()} view.
+     */
+    public void forEachError(ErrorVisitor visitor) {
+        if (table != null) {
+            table.forEach(visitor);
+        } else if (errors != null) {
+            visit(errors, null, visitor);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int count(Map<String, Object> errors) {
+        int count = 0;
+        for (Object value : errors.values()) {
+            if (value instanceof Map) {
+                count += count((Map<String, Object>) value);
+            } else if (value instanceof Collection) {
+                count += ((Collection<?>) value).size();
+            }
+        }
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void visit(Map<String, Object> errors, String prefix, ErrorVisitor visitor) {
+        for (Map.Entry<String, Object> entry : errors.entrySet()) {
+            String path = prefix == null ? entry.getKey() : prefix + '.' + entry.getKey();
+            Object value = entry.getValue();
+            if (value instanceof Map) {
+                visit((Map<String, Object>) value, path, visitor);
+            } else if (value instanceof Collection) {
+                for (Object message : (Collection<?>) value) {
+                    visitor.visit(path, null, String.valueOf(message));
+                }
+            }
+        }
+    }
+
+    /**
+     * @throws IllegalStateException when this is the shared {@link #valid()} result
+     */
     public Result put(String field, Result nested) {
+        checkMutable();
         Map<String, Object> errors = nested.getErrors();
         if (errors != null && !errors.isEmpty()) {
-            this.errors.put(field, errors);
+            getErrors().put(field, errors);
+            table = null;
+            trace = null;
         }
         return this;
     }
 
+    /**
+     * @throws IllegalStateException when this is the shared {@link #valid()} result
+     */
     public Result put(Result result) {
+        checkMutable();
+        Map<String, Object> errors = getErrors();
         for (Map.Entry<String, Object> entry : result.getErrors().entrySet()) {
             errors.put(entry.getKey(), entry.getValue());
         }
+        table = null;
+        trace = null;
         return this;
     }
 
+    private void checkMutable() {
+        if (this == VALID || this == VALID_BLOCKED) {
+            throw new IllegalStateException("Result.valid() is shared and cannot be changed, use Result.empty()");
+        }
+    }
+
     public boolean isValid() {
+        if (table != null) {
+            return table.isEmpty();
+        }
         return errors == null || errors.isEmpty();
     }
 
     public boolean wasBlocked() { return blocked; }
 
     public <R> R getOrElse(Supplier<? extends R> successSup, Function<Map<String, Object>, ? extends R> errorFunc) {
-        return isValid() ? successSup.get() : errorFunc.apply(errors);
+        return isValid() ? successSup.get() : errorFunc.apply(getErrors());
     }
 
     @Override
     public String toString() {
         return "Result{" +
-                "errors=" + errors +
+                "errors=" + getErrors() +
                 '}';
     }
 }
@@ -0,0 +1,103 @@
+package io.github.jazorp;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A declarative check, e.g. loaded from configuration, that a {@link RuleSet} compiles into a {@link Plan}:
+ * <pre>
+ * Rule.of("name", ErrorType.NOT_BLANK).blocking()
+ * Rule.of("address.zip", ErrorType.LENGTH, 5)
+ * Rule.of("pets[].name", ErrorType.MAX_LENGTH, 20).optional()
+ * </pre>
+ *
+ * The path names a property of the validated class, read through its getter or field. Dots go through
+ * nested objects and {@code []} through the elements of a list, and errors are nested accordingly, see
+ * {@link Aggregation#nested(String, Validator, Object)}. The arguments are those of the {@link Validators}
+ * method of the same type: a length for {@code MIN_LENGTH}, {@code MAX_LENGTH} and {@code LENGTH}, a
+ * number for the comparisons, the allowed values for {@code MEMBER_OF}, optionally {@code true} for a
+ * {@code EMAIL} checked by {@link Validators#strictEmail} and none for the others.
+ * {@code EXISTS} needs a lookup and cannot be declared.
+ */
+public final class Rule {
+
+    private final String path;
+    public String getPath() { return path; }
+
+    private final ErrorType type;
+    public ErrorType getType() { return type; }
+
+    private final Object[] args;
+    public Object[] getArgs() { return args.clone(); }
+
+    private final int priority;
+    public int getPriority() { return priority; }
+
+    private final boolean blocking;
+    public boolean isBlocking() { return blocking; }
+
+    private final boolean optional;
+    public boolean isOptional() { return optional; }
+
+    private Rule(String path, ErrorType type, Object[] args, int priority, boolean blocking, boolean optional) {
+        this.path = Objects.requireNonNull(path, "path");
+        this.type = Objects.requireNonNull(type, "type");
+        this.args = args;
+        this.priority = priority;
+        this.blocking = blocking;
+        this.optional = optional;
+    }
+
+    public static Rule of(String path, ErrorType type, Object... args) {
+        return new Rule(path, type, args.clone(), ValidationThunk.DEFAULT_PRIORITY, false, false);
+    }
+
+    /**
+     * Returns a copy of this rule that is blocking, see {@link ValidationThunk#blocking()}.
+     */
+    public Rule blocking() {
+        return new Rule(path, type, args, priority, true, optional);
+    }
+
+    /**
+     * Returns a copy of this rule with the given priority, see {@link ValidationThunk#priority(int)}.
+     */
+    public Rule priority(int priority) {
+        return new Rule(path, type, args, priority, blocking, optional);
+    }
+
+    /**
+     * Returns a copy of this rule that passes null values, see {@link ValidationThunk#optional()}.
+     */
+    public Rule optional() {
+        return new Rule(path, type, args, priority, blocking, true);
+    }
+
+    Object[] args() {
+        return args;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Rule)) {
+            return false;
+        }
+        Rule rule = (Rule) o;
+        return priority == rule.priority && blocking == rule.blocking && optional == rule.optional
+                && path.equals(rule.path) && type == rule.type && Arrays.equals(args, rule.args);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(path, type, Arrays.hashCode(args), priority, blocking, optional);
+    }
+
+    @Override
+    public String toString() {
+        return "Rule{path=" + path + ", type=" + type + ", args=" + Arrays.toString(args) + ", priority=" + priority
+                + ", blocking=" + blocking + ", optional=" + optional + '}';
+    }
+}
@@ -0,0 +1,280 @@
+package io.github.jazorp;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * A {@link Validator} compiled from declarative {@link Rule}s, e.g. loaded per tenant from configuration:
+ * <pre>
+ * RuleSet&lt;Person&gt; rules = new RuleSet&lt;&gt;(Person.class, Arrays.asList(
+ *         Rule.of("name", ErrorType.NOT_BLANK).blocking(),
+ *         Rule.of("age", ErrorType.LESS, 150),
+ *         Rule.of("address.zip", ErrorType.LENGTH, 5)));
+ * ...
+ * rules.update(reloadedRules);
+ * </pre>
+ *
+ * The rules are compiled into a {@link Plan} whose property accessors are created once per class, so
+ * validating does not interpret the rules. {@link #update} compiles the new rules before swapping them in
+ * atomically: validations that already started finish with the rules they started with, and invalid rules
+ * leave the current ones in place.
+ */
+public final class RuleSet<T> extends DirectValidator<T> implements Validator<T> {
+
+    private final Class<T> type;
+    private volatile Compiled<T> compiled;
+
+    /**
+     * @throws IllegalArgumentException when a rule names an unknown property or does not fit its type
+     */
+    public RuleSet(Class<T> type, Collection<Rule> rules) {
+        this.type = type;
+        this.compiled = compile(type, rules);
+    }
+
+    /**
+     * Replaces the rules.
+     *
+     * @throws IllegalArgumentException when a rule names an unknown property or does not fit its type,
+     *                                  in which case the current rules are kept
+     */
+    public void update(Collection<Rule> rules) {
+        compiled = compile(type, rules);
+    }
+
+    public List<Rule> getRules() {
+        return compiled.rules;
+    }
+
+    Plan<T> plan() {
+        return compiled.plan;
+    }
+
+    @Override
+    public Aggregation collect(T t) {
+        return plan().collect(t);
+    }
+
+    @Override
+    public Result validate(T t, Env env) {
+        return plan().validate(t, env);
+    }
+
+    @Override
+    Result validate(T t, Env env, Budget budget) {
+        return plan().validate(t, env, budget);
+    }
+
+    private static final class Compiled<T> {
+
+        private final List<Rule> rules;
+        private final Plan<T> plan;
+
+        private Compiled(List<Rule> rules, Plan<T> plan) {
+            this.rules = rules;
+            this.plan = plan;
+        }
+    }
+
+    private static <T> Compiled<T> compile(Class<T> type, Collection<Rule> rules) {
+        List<Rule> copy = Collections.unmodifiableList(new ArrayList<>(rules));
+        List<String[]> paths = new ArrayList<>();
+        for (Rule rule : copy) {
+            paths.add(segments(rule.getPath()));
+        }
+        return new Compiled<>(copy, compile(type, copy, paths, 0));
+    }
+
+    /**
+     * Compiles the rules whose paths continue below {@code depth} into a plan for {@code type}.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Plan<T> compile(Class<T> type, List<Rule> rules, List<String[]> paths, int depth) {
+        Plan.Builder<T> builder = new Plan.Builder<>();
+        Map<String, List<Integer>> nested = new LinkedHashMap<>();
+        for (int i = 0; i < rules.size(); i++) {
+            String[] path = paths.get(i);
+            if (path.length > depth + 1) {
+                nested.computeIfAbsent(path[depth], k -> new ArrayList<>()).add(i);
+            } else {
+                check(builder, type, rules.get(i), path[depth]);
+            }
+        }
+        for (Map.Entry<String, List<Integer>> entry : nested.entrySet()) {
+            String segment = entry.getKey();
+            boolean list = segment.endsWith("[]");
+            String property = list ? segment.substring(0, segment.length() - 2) : segment;
+            Accessors.Accessor accessor = Accessors.of(type, property);
+            List<Rule> nestedRules = new ArrayList<>();
+            List<String[]> nestedPaths = new ArrayList<>();
+            for (int i : entry.getValue()) {
+                nestedRules.add(rules.get(i));
+                nestedPaths.add(paths.get(i));
+            }
+            Function<T, Object> function = function(accessor);
+            if (list) {
+                if (!List.class.isAssignableFrom(accessor.type)) {
+                    throw new IllegalArgumentException("'" + property + "' of " + type.getName() + " is not a List");
+                }
+                Plan<Object> plan = compile(elementType(type, property, accessor.genericType), nestedRules,
+                        nestedPaths, depth + 1);
+                builder.nestedList(property, t -> (List<Object>) function.apply(t), plan);
+            } else {
+                Plan<Object> plan = compile((Class<Object>) accessor.type, nestedRules, nestedPaths, depth + 1);
+                builder.nested(property, function, plan);
+            }
+        }
+        return builder.build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Function<T, Object> function(Accessors.Accessor accessor) {
+        return (Function<T, Object>) (Function<?, ?>) accessor.function;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<Object> elementType(Class<?> type, String property, Type listType) {
+        if (listType instanceof ParameterizedType) {
+            Type element = ((ParameterizedType) listType).getActualTypeArguments()[0];
+            if (element instanceof WildcardType) {
+                element = ((WildcardType) element).getUpperBounds()[0];
+            }
+            if (element instanceof ParameterizedType) {
+                element = ((ParameterizedType) element).getRawType();
+            }
+            if (element instanceof Class) {
+                return (Class<Object>) element;
+            }
+        }
+        throw new IllegalArgumentException("The element type of '" + property + "' of " + type.getName()
+                + " is not a class");
+    }
+
+    /**
+     * Adds the check of {@code rule} on the property {@code field} of {@code type} to the builder.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> void check(Plan.Builder<T> builder, Class<T> type, Rule rule, String field) {
+        if (field.endsWith("[]")) {
+            throw new IllegalArgumentException(rule + " must name a property of the elements");
+        }
+        Accessors.Accessor accessor = Accessors.of(type, field);
+        Function<T, Object> function = function(accessor);
+        Function<T, String> string = (Function<T, String>) (Function<T, ?>) function;
+        Function<T, Number> number = (Function<T, Number>) (Function<T, ?>) function;
+        Object[] args = rule.args();
+        switch (rule.getType()) {
+            case MEMBER_OF:
+                builder.memberOf(field, function, Arrays.asList(args));
+                break;
+            case NOT_NULL:
+                arguments(rule, 0);
+                builder.notNull(field, function);
+                break;
+            case NOT_BLANK:
+                arguments(rule, 0);
+                builder.notBlank(field, requireType(rule, accessor, String.class, string));
+                break;
+            case EMAIL:
+                if (strict(rule)) {
+                    builder.strictEmail(field, requireType(rule, accessor, String.class, string));
+                } else {
+                    builder.email(field, requireType(rule, accessor, String.class, string));
+                }
+                break;
+            case POSITIVE:
+                arguments(rule, 0);
+                builder.positive(field, requireType(rule, accessor, Number.class, number));
+                break;
+            case MIN_LENGTH:
+                builder.minLength(field, requireType(rule, accessor, String.class, string), length(rule));
+                break;
+            case MAX_LENGTH:
+                builder.maxLength(field, requireType(rule, accessor, String.class, string), length(rule));
+                break;
+            case LENGTH:
+                builder.length(field, requireType(rule, accessor, String.class, string), length(rule));
+                break;
+            case EQUAL:
+                builder.equal(field, requireType(rule, accessor, Number.class, number), bound(rule));
+                break;
+            case LESS:
+                builder.less(field, requireType(rule, accessor, Number.class, number), bound(rule));
+                break;
+            case LESS_EQUAL:
+                builder.lessEqual(field, requireType(rule, accessor, Number.class, number), bound(rule));
+                break;
+            case GREATER:
+                builder.greater(field, requireType(rule, accessor, Number.class, number), bound(rule));
+                break;
+            case GREATER_EQUAL:
+                builder.greaterEqual(field, requireType(rule, accessor, Number.class, number), bound(rule));
+                break;
+            default:
+                throw new IllegalArgumentException(rule + " cannot be declared");
+        }
+        if (rule.isBlocking()) {
+            builder.blocking();
+        }
+        if (rule.getPriority() != ValidationThunk.DEFAULT_PRIORITY) {
+            builder.priority(rule.getPriority());
+        }
+        if (rule.isOptional()) {
+            builder.optional();
+        }
+    }
+
+    private static <F> F requireType(Rule rule, Accessors.Accessor accessor, Class<?> expected, F function) {
+        Class<?> type = accessor.type.isPrimitive() ? Accessors.box(accessor.type) : accessor.type;
+        if (!expected.isAssignableFrom(type)) {
+            throw new IllegalArgumentException(rule + " does not apply to a " + accessor.type.getName());
+        }
+        return function;
+    }
+
+    static void arguments(Rule rule, int count) {
+        if (rule.args().length != count) {
+            throw new IllegalArgumentException(rule + " takes " + count + " arguments");
+        }
+    }
+
+    static boolean strict(Rule rule) {
+        if (rule.args().length == 0) {
+            return false;
+        }
+        arguments(rule, 1);
+        if (!(rule.args()[0] instanceof Boolean)) {
+            throw new IllegalArgumentException(rule + " takes whether it is strict");
+        }
+        return (Boolean) rule.args()[0];
+    }
+
+    static int length(Rule rule) {
+        arguments(rule, 1);
+        if (!(rule.args()[0] instanceof Number)) {
+            throw new IllegalArgumentException(rule + " takes a length");
+        }
+        return ((Number) rule.args()[0]).intValue();
+    }
+
+    static Number bound(Rule rule) {
+        arguments(rule, 1);
+        if (!(rule.args()[0] instanceof Number)) {
+            throw new IllegalArgumentException(rule + " takes a number");
+        }
+        return (Number) rule.args()[0];
+    }
+
+    static String[] segments(String path) {
+        String[] segments = path.split("\\.", -1);
+        for (String segment : segments) {
+            if (segment.isEmpty() || segment.equals("[]")) {
+                throw new IllegalArgumentException("Invalid path: '" + path + "'");
+            }
+        }
+        return segments;
+    }
+}
@@ -0,0 +1,111 @@
+package io.github.jazorp;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * The immutable run order of the thunks of an {@link Aggregation}, see {@link ValidationThunk#compareTo}.
+ *
+ * Composition is a constant time concatenation. The concatenated thunks are ordered on first use,
+ * keeping the thunks of the left schedule before those of the right one within a level.
+ */
+final class Schedule {
+
+    static final Schedule EMPTY = new Schedule(new ValidationThunk[0]);
+
+    private final Schedule left;
+    private final Schedule right;
+    private final int size;
+    private final boolean batched;
+
+    /**
+     * The ordered thunks, null until a concatenation is first used. Ordering is idempotent,
+     * so racing threads at worst order the same thunks twice.
+     */
+    private volatile ValidationThunk[] thunks;
+
+    private Schedule(ValidationThunk[] thunks) {
+        this.left = null;
+        this.right = null;
+        this.size = thunks.length;
+        this.thunks = thunks;
+        boolean batched = false;
+        for (ValidationThunk thunk : thunks) {
+            batched |= thunk.isBatched();
+        }
+        this.batched = batched;
+    }
+
+    private Schedule(Schedule left, Schedule right) {
+        this.left = left;
+        this.right = right;
+        this.size = left.size + right.size;
+        this.batched = left.batched || right.batched;
+    }
+
+    static Schedule of(ValidationThunk... thunks) {
+        if (thunks.length == 0) {
+            return EMPTY;
+        }
+        ValidationThunk[] sorted = thunks.clone();
+        // Arrays.sort is stable for objects
+        Arrays.sort(sorted);
+        return new Schedule(sorted);
+    }
+
+    Schedule concat(Schedule other) {
+        if (other.size == 0) {
+            return this;
+        }
+        if (size == 0) {
+            return other;
+        }
+        return new Schedule(this, other);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether any thunk resolves its value through a {@link BatchLookup}.
+     */
+    boolean isBatched() {
+        return batched;
+    }
+
+    ValidationThunk[] thunks() {
+        ValidationThunk[] result = thunks;
+        if (result == null) {
+            result = flatten();
+            // the parts are already ordered, so this merges runs
+            Arrays.sort(result);
+            thunks = result;
+        }
+        return result;
+    }
+
+    /**
+     * Collects the thunks of every part from left to right, iteratively as long
+     * chains of compositions would overflow the stack.
+     */
+    private ValidationThunk[] flatten() {
+        ValidationThunk[] result = new ValidationThunk[size];
+        int length = 0;
+        Deque<Schedule> stack = new ArrayDeque<>();
+        stack.push(this);
+        while (!stack.isEmpty()) {
+            Schedule schedule = stack.pop();
+            ValidationThunk[] part = schedule.thunks;
+            if (part != null) {
+                System.arraycopy(part, 0, result, length, part.length);
+                length += part.length;
+            } else {
+                stack.push(schedule.right);
+                stack.push(schedule.left);
+            }
+        }
+        return result;
+    }
+}
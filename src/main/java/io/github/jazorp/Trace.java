@@ -0,0 +1,82 @@
+package io.github.jazorp;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records which thunk and which nested validation of an {@link Aggregation} produced the errors of a
+ * failed {@link Result}, so that {@link Validator#revalidate} can keep the outcome of the checks whose
+ * inputs did not change. Only validations in a {@link Env#isTraced() traced} environment with an unlimited
+ * error budget are traced, since a limited budget may leave checks unevaluated.
+ */
+final class Trace {
+
+    private final int thunks;
+
+    /**
+     * The error of every failed thunk by schedule position, or null when every thunk passed.
+     */
+    private Error[] errors;
+
+    /**
+     * The failed nested results by field, or by {@code field[index]} for list elements, in validation order.
+     */
+    private Map<String, Result> nested;
+
+    Trace(int thunks) {
+        this.thunks = thunks;
+    }
+
+    int thunks() {
+        return thunks;
+    }
+
+    void fail(int thunk, Error error) {
+        if (errors == null) {
+            errors = new Error[thunks];
+        }
+        errors[thunk] = error;
+    }
+
+    /**
+     * Returns the error of the thunk at {@code thunk}, or null when it passed.
+     */
+    Error error(int thunk) {
+        return errors == null ? null : errors[thunk];
+    }
+
+    void nested(String key, Result result) {
+        if (result.isValid()) {
+            return;
+        }
+        if (nested == null) {
+            nested = new LinkedHashMap<>();
+        }
+        nested.put(key, result);
+    }
+
+    /**
+     * Returns the nested result under {@code key}, valid when it had no errors.
+     */
+    Result nested(String key) {
+        Result result = nested == null ? null : nested.get(key);
+        return result == null ? Result.valid() : result;
+    }
+
+    /**
+     * Returns the failed nested results in validation order.
+     */
+    Map<String, Result> nested() {
+        return nested == null ? Collections.emptyMap() : nested;
+    }
+
+    /**
+     * Adds the nested results of {@code other}, recorded for a part of the same aggregation.
+     */
+    void merge(Trace other) {
+        for (Map.Entry<String, Result> entry : other.nested().entrySet()) {
+            nested(entry.getKey(), entry.getValue());
+        }
+    }
+}
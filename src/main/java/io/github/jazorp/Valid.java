@@ -3,8 +3,10 @@ package io.github.jazorp;
 
 public class Valid implements Validation {
 
+    private static final Valid VALID = new Valid();
+
     public static Valid valid() {
-	return new Valid();
+	return VALID;
     }
 
     @Override
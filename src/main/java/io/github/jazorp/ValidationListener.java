@@ -0,0 +1,32 @@
+package io.github.jazorp;
+
+/**
+ * Observes validations run with an {@link Env} that has the listener installed, e.g. to collect
+ * {@link ValidationMetrics}. Listeners are called on the validating threads, possibly concurrently,
+ * so they must be thread-safe, fast, and must not throw. Without a listener nothing is timed.
+ */
+public interface ValidationListener {
+
+    /**
+     * Called after a thunk or a {@link Plan} check was evaluated.
+     *
+     * @param field the field of the error when the check failed, otherwise the first field the thunk
+     *              {@link ValidationThunk#reads(String...) reads}, or null when it is unknown
+     * @param type the type of the check, or null when it is unknown, e.g. for a passing custom thunk
+     * @param valid whether the check passed
+     * @param blocking whether the check was blocking
+     * @param nanos the time the check took, for an asynchronous thunk until it completed
+     */
+    void onThunk(String field, ErrorType type, boolean valid, boolean blocking, long nanos);
+
+    /**
+     * Called after an {@link Aggregation} or a {@link Plan} was validated, including its nested validations.
+     * Nested aggregations are reported on their own as well.
+     *
+     * @param errors the number of errors found
+     * @param blocked whether a blocking thunk stopped the validation
+     * @param nanos the time the validation took
+     */
+    default void onAggregation(int errors, boolean blocked, long nanos) {
+    }
+}
@@ -0,0 +1,295 @@
+package io.github.jazorp;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link ValidationListener} that counts evaluations and failures and records a latency histogram for
+ * every field and {@link ErrorType}, and for aggregations as a whole. Recording does not lock: counters
+ * are {@link LongAdder}s and histograms hold one counter per power of two nanoseconds.
+ *
+ * <pre>
+ * ValidationMetrics metrics = new ValidationMetrics();
+ * Env env = new Env.Builder().listener(metrics).build();
+ * ...
+ * for (ValidationMetrics.Stats stats : metrics.snapshot().getChecks()) {
+ *     log.info("{} {}: {} failures, p99 {}ns", stats.getField(), stats.getType(), stats.getFailures(),
+ *             stats.getLatency().getValueAtPercentile(99));
+ * }
+ * </pre>
+ *
+ * Fields are the names that checks report on, e.g. {@code zip} for {@code address.zip}, so the number of
+ * recorded fields is bounded by the validators, not by the validated data.
+ */
+public final class ValidationMetrics implements ValidationListener {
+
+    private static final ErrorType[] TYPES = ErrorType.values();
+
+    /**
+     * The key of checks without a known field, as map keys cannot be null.
+     */
+    private static final String UNKNOWN_FIELD = "";
+
+    /**
+     * Check recorders by field and by type ordinal. The last slot is for checks of unknown type.
+     */
+    private final ConcurrentHashMap<String, AtomicReferenceArray<Recorder>> checks = new ConcurrentHashMap<>();
+
+    private volatile Recorder aggregations = new Recorder(null, null);
+
+    @Override
+    public void onThunk(String field, ErrorType type, boolean valid, boolean blocking, long nanos) {
+        recorder(field, type).record(!valid, blocking, valid ? 0 : 1, nanos);
+    }
+
+    @Override
+    public void onAggregation(int errors, boolean blocked, long nanos) {
+        aggregations.record(errors > 0, blocked, errors, nanos);
+    }
+
+    private Recorder recorder(String field, ErrorType type) {
+        String key = field == null ? UNKNOWN_FIELD : field;
+        AtomicReferenceArray<Recorder> byType = checks.get(key);
+        if (byType == null) {
+            byType = checks.computeIfAbsent(key, k -> new AtomicReferenceArray<>(TYPES.length + 1));
+        }
+        int slot = type == null ? TYPES.length : type.ordinal();
+        Recorder recorder = byType.get(slot);
+        if (recorder == null) {
+            byType.compareAndSet(slot, null, new Recorder(field, type));
+            recorder = byType.get(slot);
+        }
+        return recorder;
+    }
+
+    /**
+     * Returns the counts recorded so far. Events recorded while the snapshot is taken may be partially included.
+     */
+    public Snapshot snapshot() {
+        List<Stats> stats = new ArrayList<>();
+        for (AtomicReferenceArray<Recorder> byType : checks.values()) {
+            for (int i = 0; i < byType.length(); i++) {
+                Recorder recorder = byType.get(i);
+                if (recorder != null) {
+                    stats.add(recorder.stats());
+                }
+            }
+        }
+        stats.sort(Comparator.comparing((Stats s) -> s.field == null ? UNKNOWN_FIELD : s.field)
+                .thenComparingInt(s -> s.type == null ? TYPES.length : s.type.ordinal()));
+        return new Snapshot(Collections.unmodifiableList(stats), aggregations.stats());
+    }
+
+    /**
+     * Discards everything recorded so far.
+     */
+    public void reset() {
+        checks.clear();
+        aggregations = new Recorder(null, null);
+    }
+
+    private static final class Recorder {
+
+        private final String field;
+        private final ErrorType type;
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder blocking = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder[] buckets = new LongAdder[Histogram.BUCKETS];
+
+        private Recorder(String field, ErrorType type) {
+            this.field = field;
+            this.type = type;
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        private void record(boolean failed, boolean blocking, int errors, long nanos) {
+            count.increment();
+            if (failed) {
+                failures.increment();
+            }
+            if (blocking) {
+                this.blocking.increment();
+            }
+            if (errors > 0) {
+                this.errors.add(errors);
+            }
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            buckets[Histogram.bucket(nanos)].increment();
+        }
+
+        private Stats stats() {
+            long[] counts = new long[buckets.length];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets[i].sum();
+            }
+            return new Stats(field, type, count.sum(), failures.sum(), blocking.sum(), errors.sum(),
+                    totalNanos.sum(), maxNanos.get(), new Histogram(counts));
+        }
+    }
+
+    public static final class Snapshot {
+
+        private final List<Stats> checks;
+        private final Stats aggregations;
+
+        private Snapshot(List<Stats> checks, Stats aggregations) {
+            this.checks = checks;
+            this.aggregations = aggregations;
+        }
+
+        /**
+         * Returns the stats of every field and type, ordered by field and type.
+         */
+        public List<Stats> getChecks() { return checks; }
+
+        /**
+         * Returns the stats of every validated {@link Aggregation} and {@link Plan}, nested ones included.
+         * Failures are invalid results and blocking counts are blocked results.
+         */
+        public Stats getAggregations() { return aggregations; }
+
+        /**
+         * Returns the stats of the checks of {@code type} on {@code field}, or null when none were recorded.
+         */
+        public Stats get(String field, ErrorType type) {
+            for (Stats stats : checks) {
+                if (Objects.equals(stats.field, field) && stats.type == type) {
+                    return stats;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{checks=" + checks + ", aggregations=" + aggregations + '}';
+        }
+    }
+
+    public static final class Stats {
+
+        private final String field;
+        /**
+         * The field, or null when it is unknown or for aggregations.
+         */
+        public String getField() { return field; }
+
+        private final ErrorType type;
+        /**
+         * The type of the check, or null when it is unknown or for aggregations.
+         */
+        public ErrorType getType() { return type; }
+
+        private final long count;
+        public long getCount() { return count; }
+
+        private final long failures;
+        public long getFailures() { return failures; }
+
+        private final long blocking;
+        public long getBlocking() { return blocking; }
+
+        private final long errors;
+        public long getErrors() { return errors; }
+
+        private final long totalNanos;
+        public long getTotalNanos() { return totalNanos; }
+
+        private final long maxNanos;
+        public long getMaxNanos() { return maxNanos; }
+
+        private final Histogram latency;
+        public Histogram getLatency() { return latency; }
+
+        private Stats(String field, ErrorType type, long count, long failures, long blocking, long errors,
+                      long totalNanos, long maxNanos, Histogram latency) {
+            this.field = field;
+            this.type = type;
+            this.count = count;
+            this.failures = failures;
+            this.blocking = blocking;
+            this.errors = errors;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.latency = latency;
+        }
+
+        public long getMeanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{field=" + field + ", type=" + type + ", count=" + count + ", failures=" + failures +
+                    ", meanNanos=" + getMeanNanos() + ", maxNanos=" + maxNanos + '}';
+        }
+    }
+
+    /**
+     * Latencies counted in buckets of powers of two: bucket 0 holds 0ns and bucket {@code i > 0} holds
+     * {@code [2^(i-1), 2^i)} nanoseconds, so values are known within a factor of two.
+     */
+    public static final class Histogram {
+
+        static final int BUCKETS = 64;
+
+        private final long[] counts;
+        private final long count;
+
+        private Histogram(long[] counts) {
+            this.counts = counts;
+            long count = 0;
+            for (long c : counts) {
+                count += c;
+            }
+            this.count = count;
+        }
+
+        static int bucket(long nanos) {
+            return nanos <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(nanos);
+        }
+
+        public long getCount() { return count; }
+
+        public int getBucketCount() { return counts.length; }
+
+        public long getBucket(int bucket) { return counts[bucket]; }
+
+        /**
+         * Returns the largest value of {@code bucket}.
+         */
+        public static long getUpperBound(int bucket) {
+            return bucket == 0 ? 0 : bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+        }
+
+        /**
+         * Returns the upper bound of the bucket holding the value at {@code percentile}, between 0 and 100,
+         * or 0 when nothing was recorded.
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("percentile must be between 0 and 100");
+            }
+            long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return getUpperBound(i);
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -1,37 +1,107 @@
 package io.github.jazorp;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A deferred check of an {@link Aggregation}. Blocking thunks run before every other thunk,
+ * then thunks run by ascending priority and, within a priority, in the order they were added.
+ */
 public class ValidationThunk implements Comparable<ValidationThunk> {
 
+    public static final int DEFAULT_PRIORITY = 100;
+
     private Thunk thunk;
 
+    private AsyncThunk async;
+
     private int priority;
+    public int getPriority() { return priority; }
 
     private boolean blocking;
     public boolean isBlocking() { return blocking; }
 
     private boolean optional;
 
+    /**
+     * Whether this thunk resolves its value through a {@link BatchLookup}.
+     */
+    private boolean batched;
+    boolean isBatched() { return batched; }
+
+    /**
+     * The field paths this thunk reads, or null when unknown.
+     */
+    private String[] reads;
+    String[] getReads() { return reads; }
+
+    /**
+     * The field this thunk reports on, or null when unknown. Passed to the {@link ValidationListener}.
+     * It is only a label, e.g. {@code greater("end", end, start)} also reads {@code start}, so it is
+     * never taken as what the thunk reads.
+     */
+    private String field;
+
+    /**
+     * The type of error this thunk reports, or null when unknown. Passed to the {@link ValidationListener}.
+     */
+    private ErrorType type;
+
+    /**
+     * Orders thunks by the order they run in. Thunks that run at the same level compare equal,
+     * so this ordering is not consistent with equals.
+     */
     @Override
     public int compareTo(ValidationThunk o) {
-        return priority < o.priority ? -1 : 1;
+        if (blocking != o.blocking) {
+            return blocking ? -1 : 1;
+        }
+        return Integer.compare(priority, o.priority);
     }
 
-    private ValidationThunk(Thunk thunk, int priority, boolean blocking) {
+    private ValidationThunk(Thunk thunk, AsyncThunk async, int priority, boolean blocking, boolean optional) {
         this.thunk = thunk;
+        this.async = async;
         this.priority = priority;
         this.blocking = blocking;
+        this.optional = optional;
     }
 
     public static ValidationThunk of(Thunk thunk) {
-        return new ValidationThunk(thunk, 100, false);
+        return new ValidationThunk(thunk, null, DEFAULT_PRIORITY, false, false);
     }
 
     public static ValidationThunk blocking(Thunk thunk) {
-        return new ValidationThunk(thunk, 10, true);
+        return new ValidationThunk(thunk, null, DEFAULT_PRIORITY, true, false);
+    }
+
+    /**
+     * Creates a thunk that completes later. Asynchronous thunks run concurrently under
+     * {@link Aggregation#validateAsync(Env, java.util.concurrent.Executor)} and are waited for
+     * under {@link Aggregation#validate(Env)}.
+     */
+    public static ValidationThunk async(AsyncThunk thunk) {
+        return new ValidationThunk(null, thunk, DEFAULT_PRIORITY, false, false);
     }
 
     public ValidationThunk blocking() {
-        return ValidationThunk.blocking(thunk);
+        return copy(priority, true);
+    }
+
+    /**
+     * Returns a copy of this thunk that runs at {@code priority}, lower priorities run first.
+     */
+    public ValidationThunk priority(int priority) {
+        return copy(priority, blocking);
+    }
+
+    private ValidationThunk copy(int priority, boolean blocking) {
+        ValidationThunk copy = new ValidationThunk(thunk, async, priority, blocking, optional);
+        copy.batched = batched;
+        copy.reads = reads;
+        copy.field = field;
+        copy.type = type;
+        return copy;
     }
 
     public ValidationThunk optional() {
@@ -39,8 +109,75 @@ public class ValidationThunk implements Comparable<ValidationThunk> {
         return this;
     }
 
+    /**
+     * Declares the field paths this thunk reads, relative to its aggregation, e.g. {@code "zip"} or
+     * {@code "address.zip"}. {@link Validator#revalidate} only runs it again when one of them, or a path
+     * below one, changed. Thunks without declared reads always run again, including the stock
+     * {@link Validators}, whose field is the label of their error and not necessarily what they read.
+     */
+    public ValidationThunk reads(String... fields) {
+        reads = fields;
+        return this;
+    }
+
+    ValidationThunk field(String field) {
+        this.field = field;
+        return this;
+    }
+
+    ValidationThunk type(ErrorType type) {
+        this.type = type;
+        return this;
+    }
+
+    ValidationThunk batched() {
+        batched = true;
+        return this;
+    }
+
+    public boolean isAsync() { return async != null; }
+
     public Validation validate(Env env) {
+        ValidationListener listener = env.getListener();
+        if (listener == null) {
+            return validateImpl(env);
+        }
+        long start = System.nanoTime();
+        Validation validation = validateImpl(env);
+        notify(listener, validation, System.nanoTime() - start);
+        return validation;
+    }
+
+    private Validation validateImpl(Env env) {
+        if (async != null) {
+            return Parallel.join(async.eval(env, optional).toCompletableFuture());
+        }
         return thunk.eval(env, optional);
     }
 
+    public CompletionStage<Validation> validateAsync(Env env) {
+        if (async == null) {
+            return CompletableFuture.completedFuture(validate(env));
+        }
+        ValidationListener listener = env.getListener();
+        if (listener == null) {
+            return async.eval(env, optional);
+        }
+        long start = System.nanoTime();
+        return async.eval(env, optional).thenApply(validation -> {
+            notify(listener, validation, System.nanoTime() - start);
+            return validation;
+        });
+    }
+
+    private void notify(ValidationListener listener, Validation validation, long nanos) {
+        if (validation.isValid()) {
+            String label = field != null || reads == null || reads.length == 0 ? field : reads[0];
+            listener.onThunk(label, type, true, blocking, nanos);
+        } else {
+            Error error = validation.getError();
+            listener.onThunk(error.getField(), error.getType() == null ? type : error.getType(), false, blocking, nanos);
+        }
+    }
+
 }
@@ -1,5 +1,9 @@
 package io.github.jazorp;
 
+import java.util.Collection;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
 @FunctionalInterface
 public interface Validator<T> {
 
@@ -13,6 +17,41 @@ public interface Validator<T> {
         return collect(t).validate(env);
     }
 
+    default CompletionStage<Result> validateAsync(T t, Executor executor) {
+        return validateAsync(t, Env.empty(), executor);
+    }
+
+    /**
+     * Validates {@code t}, running asynchronous thunks concurrently on {@code executor},
+     * see {@link Aggregation#validateAsync(Env, Executor)}.
+     */
+    default CompletionStage<Result> validateAsync(T t, Env env, Executor executor) {
+        return Aggregation.validateAsync(this, t, env, new AsyncLimiter(executor, env.getAsyncLimit()), Budget.of(env));
+    }
+
+    default Result revalidate(Result previous, Collection<String> changedPaths, T t) {
+        return revalidate(previous, changedPaths, t, Env.empty());
+    }
+
+    /**
+     * Validates {@code t}, a changed version of the value that produced {@code previous}, given the paths
+     * of the fields that changed, e.g. {@code "name"}, {@code "address.zip"} or {@code "pet[2]"}.
+     * Only the thunks that {@link ValidationThunk#reads(String...) read} a changed path, and the nested
+     * validations at or below one, run again. The new result shares the errors and nested results of
+     * {@code previous} that were kept, and is traced so that it can be revalidated in turn. {@code env} should
+     * be the environment {@code previous} was validated in.
+     *
+     * Values are validated in full when {@code previous} failed without being validated in a
+     * {@link Env.Builder#trace() traced} environment, was blocked, was validated with an error budget or
+     * by a {@link Plan}, or when {@code env} has an error budget.
+     */
+    default Result revalidate(Result previous, Collection<String> changedPaths, T t, Env env) {
+        if (env.getMaxErrors() > 0) {
+            return validate(t, env);
+        }
+        return Aggregation.revalidate(this, t, previous, ChangedPaths.of(changedPaths), env.traced());
+    }
+
     default Aggregation aggregate(ValidationThunk... thunks) {
         return Aggregation.of(thunks);
     }
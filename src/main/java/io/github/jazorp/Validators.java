@@ -1,30 +1,21 @@
 package io.github.jazorp;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.Arrays;
-import java.util.Iterator;
+import java.util.Collection;
 import java.util.function.Predicate;
-import java.util.regex.Pattern;
 
 public class Validators {
 
-    private static Object[] concat(Object[] a, Object[] b) {
-        int length = a.length + b.length;
-        Object[] result = new Object[length];
-        System.arraycopy(a, 0, result, 0, a.length);
-        System.arraycopy(b, 0, result, a.length, b.length);
-        return result;
-    }
-
-    private static <T> ValidationThunk validateImpl(Predicate<T> assertFunc, ErrorType error,
-                                                    String field, T value, Object... args) {
-        return ValidationThunk.of((env, optional) -> {
+    static <T> ValidationThunk validateImpl(Predicate<T> assertFunc, ErrorType error,
+                                            String field, T value, Object... args) {
+        return thunk(field, error, (env, optional) -> {
             if (optional && value == null) {
                 return Valid.valid();
             } else {
                 if (value == null || !assertFunc.test(value)) {
-                    return Invalid.of(field,
-                            ErrorFormatter.getInstance().format(error, env,
-                                    concat(new Object[]{field, value}, args)));
+                    return Invalid.of(field, error, env, value, args);
                 } else {
                     return Valid.valid();
                 }
@@ -32,36 +23,48 @@ public class Validators {
         });
     }
 
+    /**
+     * Creates a thunk of type {@code error} reporting on {@code field}. Its reads are left undeclared, as the
+     * field is only a label, see {@link ValidationThunk#reads(String...)}.
+     */
+    private static ValidationThunk thunk(String field, ErrorType error, Thunk thunk) {
+        return ValidationThunk.of(thunk).field(field).type(error);
+    }
+
     // =====================
     // Validators
 
+    /**
+     * Checks {@code value} against {@code values}, using {@code contains} when they are a collection.
+     * For large or frequently used sets of values prefer a prebuilt {@link Membership}.
+     */
     public static ValidationThunk memberOf(String field, final Object value, final Iterable<Object> values) {
-		return validateImpl((Object v) -> {
-			Iterator<Object> iterator = values.iterator();
-			while (iterator.hasNext()) {
-				Object object = iterator.next();
-				if (value.equals(object)) {
-					return true;
-				}
-			}
-			return false;
-		}, ErrorType.MEMBER_OF, field, value, values);
+		return validateImpl(isMemberOf(values), ErrorType.MEMBER_OF, field, value, Membership.summarize(values));
 	}
 
 	public static ValidationThunk memberOf(String field, final Object value, Object... values) {
 		return memberOf(field, value, Arrays.asList(values));
 	}
 
+    public static ValidationThunk memberOf(String field, Object value, Membership<?> membership) {
+        return validateImpl(membership::contains, ErrorType.MEMBER_OF, field, value, membership);
+    }
+
+    public static ValidationThunk memberOf(String field, long value, Membership<?> membership) {
+        return thunk(field, ErrorType.MEMBER_OF, (env, optional) -> membership.contains(value) ?
+                Valid.valid() : Invalid.of(field, ErrorType.MEMBER_OF, env, value, membership));
+    }
+
     public static ValidationThunk notNull(String field, Object value) {
-        return validateImpl(v -> v != null, ErrorType.NOT_NULL, field, value);
+        return validateImpl(IS_NOT_NULL, ErrorType.NOT_NULL, field, value);
     }
 
     public static ValidationThunk notBlank(String field, String value) {
-        return validateImpl(v -> v.trim().length() > 0, ErrorType.NOT_BLANK, field, value);
+        return validateImpl(IS_NOT_BLANK, ErrorType.NOT_BLANK, field, value);
     }
 
     public static ValidationThunk positive(String field, Number value) {
-        return validateImpl(v -> v.doubleValue() > 0, ErrorType.POSITIVE, field, value);
+        return validateImpl(IS_POSITIVE, ErrorType.POSITIVE, field, value);
     }
 
     public static ValidationThunk minLength(String field, String value, Integer min) {
@@ -76,11 +79,15 @@ public class Validators {
         return validateImpl(v -> v.length() == length, ErrorType.LENGTH, field, value, length);
     }
 
-    private static final String EMAIL_REGEX = "^[\\w!#$%&'*+/=?`{|}~^-]+(?:\\.[\\w!#$%&'*+/=?`{|}~^-]+)*@(?:[a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,6}$";
-    private static final Pattern EMAIL_PATTERN = Pattern.compile(EMAIL_REGEX);
-
     public static ValidationThunk email(String field, String value) {
-        return validateImpl(v -> EMAIL_PATTERN.matcher(value).matches(), ErrorType.EMAIL, field, value);
+        return validateImpl(IS_EMAIL, ErrorType.EMAIL, field, value);
+    }
+
+    /**
+     * Same as {@link #email(String, String)}, additionally enforcing the RFC 5321 length limits.
+     */
+    public static ValidationThunk strictEmail(String field, String value) {
+        return validateImpl(Email::isValidStrict, ErrorType.EMAIL, field, value);
     }
 
     /**
@@ -93,7 +100,7 @@ public class Validators {
     }
 
     public static ValidationThunk equal(String field, Number value, Number ref, double epsilon) {
-        return validateImpl(doubleEquals(ref.doubleValue(), epsilon), ErrorType.EQUAL, field, value, ref);
+        return validateImpl(isEqual(ref, epsilon), ErrorType.EQUAL, field, value, ref);
     }
 
     public static ValidationThunk less(String field, Number value, Number max) {
@@ -101,9 +108,7 @@ public class Validators {
     }
 
     public static ValidationThunk less(String field, Number value, Number max, double epsilon) {
-        return validateImpl(doubleEquals(max.doubleValue(), epsilon).negate().
-                        and(doubleLessThan(max.doubleValue(), epsilon)),
-                ErrorType.LESS, field, value, max);
+        return validateImpl(isLess(max, epsilon), ErrorType.LESS, field, value, max);
     }
 
     public static ValidationThunk lessEqual(String field, Number value, Number max) {
@@ -111,9 +116,7 @@ public class Validators {
     }
 
     public static ValidationThunk lessEqual(String field, Number value, Number max, double epsilon) {
-        return validateImpl(doubleEquals(max.doubleValue(), epsilon).
-                        or(doubleLessThan(max.doubleValue(), epsilon)),
-                ErrorType.LESS_EQUAL, field, value, max);
+        return validateImpl(isLessEqual(max, epsilon), ErrorType.LESS_EQUAL, field, value, max);
     }
 
     public static ValidationThunk greater(String field, Number value, Number min) {
@@ -121,9 +124,7 @@ public class Validators {
     }
 
     public static ValidationThunk greater(String field, Number value, Number min, double epsilon) {
-        return validateImpl(doubleEquals(min.doubleValue(), epsilon).negate().
-                        and(doubleGreaterThan(min.doubleValue(), epsilon)),
-                ErrorType.GREATER, field, value, min);
+        return validateImpl(isGreater(min, epsilon), ErrorType.GREATER, field, value, min);
     }
 
     public static ValidationThunk greaterEqual(String field, Number value, Number min) {
@@ -131,14 +132,292 @@ public class Validators {
     }
 
     public static ValidationThunk greaterEqual(String field, Number value, Number min, double epsilon) {
-        return validateImpl(doubleEquals(min.doubleValue(), epsilon).
-                        or(doubleGreaterThan(min.doubleValue(), epsilon))
-                , ErrorType.GREATER_EQUAL, field, value, min);
+        return validateImpl(isGreaterEqual(min, epsilon), ErrorType.GREATER_EQUAL, field, value, min);
+    }
+
+
+    // =====================
+    // Primitive and exact numeric validators
+    //
+    // The long and double overloads compare without boxing, the value is only boxed when the
+    // check fails. Longs are compared exactly, BigDecimal and BigInteger through compareTo.
+    // The mixed boxed/primitive overloads keep calls such as less("age", person.getAge(), 100)
+    // unambiguous and go through the Number path.
+
+    public static ValidationThunk positive(String field, long value) {
+        return thunk(field, ErrorType.POSITIVE, (env, optional) ->
+                value > 0 ? Valid.valid() : Invalid.of(field, ErrorType.POSITIVE, env, value));
+    }
+
+    public static ValidationThunk positive(String field, double value) {
+        return thunk(field, ErrorType.POSITIVE, (env, optional) ->
+                value > 0 ? Valid.valid() : Invalid.of(field, ErrorType.POSITIVE, env, value));
+    }
+
+    public static ValidationThunk positive(String field, BigDecimal value) {
+        return validateImpl(v -> v.signum() > 0, ErrorType.POSITIVE, field, value);
+    }
+
+    public static ValidationThunk positive(String field, BigInteger value) {
+        return validateImpl(v -> v.signum() > 0, ErrorType.POSITIVE, field, value);
+    }
+
+    public static ValidationThunk equal(String field, long value, long ref) {
+        return thunk(field, ErrorType.EQUAL, (env, optional) ->
+                value == ref ? Valid.valid() : Invalid.of(field, ErrorType.EQUAL, env, value, ref));
+    }
+
+    public static ValidationThunk equal(String field, double value, double ref) {
+        return thunk(field, ErrorType.EQUAL, (env, optional) ->
+                doubleEquals(value, ref, EPSILON) ?
+                        Valid.valid() : Invalid.of(field, ErrorType.EQUAL, env, value, ref));
+    }
+
+    public static ValidationThunk equal(String field, double value, long ref) {
+        return thunk(field, ErrorType.EQUAL, (env, optional) ->
+                doubleEquals(value, ref, EPSILON) ?
+                        Valid.valid() : Invalid.of(field, ErrorType.EQUAL, env, value, ref));
+    }
+
+    public static ValidationThunk equal(String field, BigDecimal value, BigDecimal ref) {
+        return validateImpl(v -> v.compareTo(ref) == 0, ErrorType.EQUAL, field, value, ref);
+    }
+
+    public static ValidationThunk equal(String field, BigInteger value, BigInteger ref) {
+        return validateImpl(v -> v.compareTo(ref) == 0, ErrorType.EQUAL, field, value, ref);
+    }
+
+    public static ValidationThunk equal(String field, Number value, long ref) {
+        return equal(field, value, (Number) ref);
+    }
+
+    public static ValidationThunk equal(String field, Number value, double ref) {
+        return equal(field, value, (Number) ref);
+    }
+
+    public static ValidationThunk equal(String field, long value, Number ref) {
+        return equal(field, (Number) value, ref);
+    }
+
+    public static ValidationThunk equal(String field, double value, Number ref) {
+        return equal(field, (Number) value, ref);
+    }
+
+    public static ValidationThunk less(String field, long value, long max) {
+        return thunk(field, ErrorType.LESS, (env, optional) ->
+                value < max ? Valid.valid() : Invalid.of(field, ErrorType.LESS, env, value, max));
+    }
+
+    public static ValidationThunk less(String field, double value, double max) {
+        return thunk(field, ErrorType.LESS, (env, optional) ->
+                !doubleEquals(value, max, EPSILON) && value - max < EPSILON ?
+                        Valid.valid() : Invalid.of(field, ErrorType.LESS, env, value, max));
+    }
+
+    public static ValidationThunk less(String field, double value, long max) {
+        return thunk(field, ErrorType.LESS, (env, optional) ->
+                !doubleEquals(value, max, EPSILON) && value - max < EPSILON ?
+                        Valid.valid() : Invalid.of(field, ErrorType.LESS, env, value, max));
+    }
+
+    public static ValidationThunk less(String field, BigDecimal value, BigDecimal max) {
+        return validateImpl(v -> v.compareTo(max) < 0, ErrorType.LESS, field, value, max);
+    }
+
+    public static ValidationThunk less(String field, BigInteger value, BigInteger max) {
+        return validateImpl(v -> v.compareTo(max) < 0, ErrorType.LESS, field, value, max);
+    }
+
+    public static ValidationThunk less(String field, Number value, long max) {
+        return less(field, value, (Number) max);
+    }
+
+    public static ValidationThunk less(String field, Number value, double max) {
+        return less(field, value, (Number) max);
+    }
+
+    public static ValidationThunk less(String field, long value, Number max) {
+        return less(field, (Number) value, max);
+    }
+
+    public static ValidationThunk less(String field, double value, Number max) {
+        return less(field, (Number) value, max);
+    }
+
+    public static ValidationThunk lessEqual(String field, long value, long max) {
+        return thunk(field, ErrorType.LESS_EQUAL, (env, optional) ->
+                value <= max ? Valid.valid() : Invalid.of(field, ErrorType.LESS_EQUAL, env, value, max));
+    }
+
+    public static ValidationThunk lessEqual(String field, double value, double max) {
+        return thunk(field, ErrorType.LESS_EQUAL, (env, optional) ->
+                doubleEquals(value, max, EPSILON) || value - max < EPSILON ?
+                        Valid.valid() : Invalid.of(field, ErrorType.LESS_EQUAL, env, value, max));
+    }
+
+    public static ValidationThunk lessEqual(String field, double value, long max) {
+        return thunk(field, ErrorType.LESS_EQUAL, (env, optional) ->
+                doubleEquals(value, max, EPSILON) || value - max < EPSILON ?
+                        Valid.valid() : Invalid.of(field, ErrorType.LESS_EQUAL, env, value, max));
     }
 
+    public static ValidationThunk lessEqual(String field, BigDecimal value, BigDecimal max) {
+        return validateImpl(v -> v.compareTo(max) <= 0, ErrorType.LESS_EQUAL, field, value, max);
+    }
+
+    public static ValidationThunk lessEqual(String field, BigInteger value, BigInteger max) {
+        return validateImpl(v -> v.compareTo(max) <= 0, ErrorType.LESS_EQUAL, field, value, max);
+    }
+
+    public static ValidationThunk lessEqual(String field, Number value, long max) {
+        return lessEqual(field, value, (Number) max);
+    }
+
+    public static ValidationThunk lessEqual(String field, Number value, double max) {
+        return lessEqual(field, value, (Number) max);
+    }
+
+    public static ValidationThunk lessEqual(String field, long value, Number max) {
+        return lessEqual(field, (Number) value, max);
+    }
+
+    public static ValidationThunk lessEqual(String field, double value, Number max) {
+        return lessEqual(field, (Number) value, max);
+    }
+
+    public static ValidationThunk greater(String field, long value, long min) {
+        return thunk(field, ErrorType.GREATER, (env, optional) ->
+                value > min ? Valid.valid() : Invalid.of(field, ErrorType.GREATER, env, value, min));
+    }
+
+    public static ValidationThunk greater(String field, double value, double min) {
+        return thunk(field, ErrorType.GREATER, (env, optional) ->
+                !doubleEquals(value, min, EPSILON) && value - min > EPSILON ?
+                        Valid.valid() : Invalid.of(field, ErrorType.GREATER, env, value, min));
+    }
+
+    public static ValidationThunk greater(String field, double value, long min) {
+        return thunk(field, ErrorType.GREATER, (env, optional) ->
+                !doubleEquals(value, min, EPSILON) && value - min > EPSILON ?
+                        Valid.valid() : Invalid.of(field, ErrorType.GREATER, env, value, min));
+    }
+
+    public static ValidationThunk greater(String field, BigDecimal value, BigDecimal min) {
+        return validateImpl(v -> v.compareTo(min) > 0, ErrorType.GREATER, field, value, min);
+    }
+
+    public static ValidationThunk greater(String field, BigInteger value, BigInteger min) {
+        return validateImpl(v -> v.compareTo(min) > 0, ErrorType.GREATER, field, value, min);
+    }
+
+    public static ValidationThunk greater(String field, Number value, long min) {
+        return greater(field, value, (Number) min);
+    }
+
+    public static ValidationThunk greater(String field, Number value, double min) {
+        return greater(field, value, (Number) min);
+    }
+
+    public static ValidationThunk greater(String field, long value, Number min) {
+        return greater(field, (Number) value, min);
+    }
+
+    public static ValidationThunk greater(String field, double value, Number min) {
+        return greater(field, (Number) value, min);
+    }
+
+    public static ValidationThunk greaterEqual(String field, long value, long min) {
+        return thunk(field, ErrorType.GREATER_EQUAL, (env, optional) ->
+                value >= min ? Valid.valid() : Invalid.of(field, ErrorType.GREATER_EQUAL, env, value, min));
+    }
+
+    public static ValidationThunk greaterEqual(String field, double value, double min) {
+        return thunk(field, ErrorType.GREATER_EQUAL, (env, optional) ->
+                doubleEquals(value, min, EPSILON) || value - min > EPSILON ?
+                        Valid.valid() : Invalid.of(field, ErrorType.GREATER_EQUAL, env, value, min));
+    }
+
+    public static ValidationThunk greaterEqual(String field, double value, long min) {
+        return thunk(field, ErrorType.GREATER_EQUAL, (env, optional) ->
+                doubleEquals(value, min, EPSILON) || value - min > EPSILON ?
+                        Valid.valid() : Invalid.of(field, ErrorType.GREATER_EQUAL, env, value, min));
+    }
+
+    public static ValidationThunk greaterEqual(String field, BigDecimal value, BigDecimal min) {
+        return validateImpl(v -> v.compareTo(min) >= 0, ErrorType.GREATER_EQUAL, field, value, min);
+    }
+
+    public static ValidationThunk greaterEqual(String field, BigInteger value, BigInteger min) {
+        return validateImpl(v -> v.compareTo(min) >= 0, ErrorType.GREATER_EQUAL, field, value, min);
+    }
+
+    public static ValidationThunk greaterEqual(String field, Number value, long min) {
+        return greaterEqual(field, value, (Number) min);
+    }
+
+    public static ValidationThunk greaterEqual(String field, Number value, double min) {
+        return greaterEqual(field, value, (Number) min);
+    }
+
+    public static ValidationThunk greaterEqual(String field, long value, Number min) {
+        return greaterEqual(field, (Number) value, min);
+    }
+
+    public static ValidationThunk greaterEqual(String field, double value, Number min) {
+        return greaterEqual(field, (Number) value, min);
+    }
+
+    // =====================
+    // Predicates shared with compiled plans
+
+    static final Predicate<Object> IS_NOT_NULL = v -> v != null;
+
+    static final Predicate<String> IS_NOT_BLANK = v -> v.trim().length() > 0;
+
+    static final Predicate<Number> IS_POSITIVE = v -> v.doubleValue() > 0;
+
+    static final Predicate<String> IS_EMAIL = Email::isValid;
+
+    static Predicate<Object> isMemberOf(Iterable<Object> values) {
+        if (values instanceof Collection) {
+            return ((Collection<Object>) values)::contains;
+        }
+        return v -> {
+            for (Object object : values) {
+                if (v.equals(object)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    static Predicate<Number> isEqual(Number ref, double epsilon) {
+        return doubleEquals(ref.doubleValue(), epsilon);
+    }
+
+    static Predicate<Number> isLess(Number max, double epsilon) {
+        return doubleEquals(max.doubleValue(), epsilon).negate().and(doubleLessThan(max.doubleValue(), epsilon));
+    }
+
+    static Predicate<Number> isLessEqual(Number max, double epsilon) {
+        return doubleEquals(max.doubleValue(), epsilon).or(doubleLessThan(max.doubleValue(), epsilon));
+    }
+
+    static Predicate<Number> isGreater(Number min, double epsilon) {
+        return doubleEquals(min.doubleValue(), epsilon).negate().and(doubleGreaterThan(min.doubleValue(), epsilon));
+    }
+
+    static Predicate<Number> isGreaterEqual(Number min, double epsilon) {
+        return doubleEquals(min.doubleValue(), epsilon).or(doubleGreaterThan(min.doubleValue(), epsilon));
+    }
 
     private static Predicate<Number> doubleEquals(double b, double epsilon) {
-        return v -> v.doubleValue() == b || Math.abs(v.doubleValue() - b) < epsilon;
+        return v -> doubleEquals(v.doubleValue(), b, epsilon);
+    }
+
+    static boolean doubleEquals(double a, double b, double epsilon) {
+        return a == b || Math.abs(a - b) < epsilon;
     }
 
     private static Predicate<Number> doubleLessThan(double b, double epsilon) {
@@ -0,0 +1,14 @@
+package io.github.jazorp.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * The string must be an email address, with the RFC 5321 length limits when {@link #strict()}.
+ * Reported as {@link io.github.jazorp.ErrorType#EMAIL}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface Email {
+    boolean strict() default false;
+}
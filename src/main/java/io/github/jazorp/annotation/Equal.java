@@ -0,0 +1,14 @@
+package io.github.jazorp.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * The number must equal {@link #value()}.
+ * Reported as {@link io.github.jazorp.ErrorType#EQUAL}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface Equal {
+    double value();
+}
@@ -0,0 +1,14 @@
+package io.github.jazorp.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * The number must be greater than {@link #value()}.
+ * Reported as {@link io.github.jazorp.ErrorType#GREATER}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface Greater {
+    double value();
+}
@@ -0,0 +1,14 @@
+package io.github.jazorp.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * The string must be exactly {@link #value()} characters long.
+ * Reported as {@link io.github.jazorp.ErrorType#LENGTH}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface Length {
+    int value();
+}
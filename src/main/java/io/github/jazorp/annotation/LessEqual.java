@@ -0,0 +1,14 @@
+package io.github.jazorp.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * The number must be less than or equal to {@link #value()}.
+ * Reported as {@link io.github.jazorp.ErrorType#LESS_EQUAL}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface LessEqual {
+    double value();
+}
@@ -0,0 +1,14 @@
+package io.github.jazorp.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * The value is validated by the generated validator of its type, and every element of an {@link Iterable}
+ * by the generated validator of the element type. Null values are skipped. Under
+ * {@link io.github.jazorp.BeanValidator} the value is validated by its runtime class and only lists are
+ * validated element by element.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface Nested {}
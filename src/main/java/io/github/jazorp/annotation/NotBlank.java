@@ -0,0 +1,12 @@
+package io.github.jazorp.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * The string must not be null or blank.
+ * Reported as {@link io.github.jazorp.ErrorType#NOT_BLANK}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface NotBlank {}
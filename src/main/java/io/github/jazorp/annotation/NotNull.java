@@ -0,0 +1,12 @@
+package io.github.jazorp.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * The value must not be null.
+ * Reported as {@link io.github.jazorp.ErrorType#NOT_NULL}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface NotNull {}
@@ -0,0 +1,12 @@
+package io.github.jazorp.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * The number must be positive.
+ * Reported as {@link io.github.jazorp.ErrorType#POSITIVE}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface Positive {}
@@ -0,0 +1,650 @@
+package io.github.jazorp.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.*;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates a validator for every class with fields or getters annotated with the annotations of
+ * {@code io.github.jazorp.annotation}:
+ *
+ * <pre>
+ * class Person {
+ *     &#64;NotBlank &#64;MinLength(3) String name;
+ *     &#64;Less(150) int age;
+ *     &#64;Nested Address address;
+ * }
+ *
+ * Result result = Person_Validator.INSTANCE.validate(person);
+ * </pre>
+ *
+ * The generated {@code Person_Validator} is a {@link io.github.jazorp.GeneratedValidator} in the package of
+ * {@code Person}, a nested class {@code Outer.Inner} gets {@code Outer_Inner_Validator}. It reads accessible
+ * fields directly and private ones through their getter, and annotated members of superclasses are checked
+ * first. Errors are reported under the field name, for getters the bean property name.
+ *
+ * The processor is opt-in: it is only registered in {@code META-INF/services} of the jar with the
+ * {@code processor} classifier, which goes on the processor path, or it is named with {@code -processor}.
+ */
+public final class ValidatorProcessor extends AbstractProcessor {
+
+    private static final String PACKAGE = "io.github.jazorp.annotation.";
+
+    private static final List<String> ANNOTATIONS = Arrays.asList(
+            "NotNull", "NotBlank", "Positive", "MinLength", "MaxLength", "Length", "Email",
+            "Equal", "Less", "LessEqual", "Greater", "GreaterEqual", "Nested");
+
+    private final Set<String> generated = new HashSet<>();
+
+    /**
+     * Whether an error was reported for the type being generated.
+     */
+    private boolean failed;
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        Set<String> types = new LinkedHashSet<>();
+        for (String annotation : ANNOTATIONS) {
+            types.add(PACKAGE + annotation);
+        }
+        return types;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        Set<TypeElement> types = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : round.getElementsAnnotatedWith(annotation)) {
+                types.add((TypeElement) element.getEnclosingElement());
+            }
+        }
+        for (TypeElement type : types) {
+            if (generated.add(type.getQualifiedName().toString())) {
+                generate(type);
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement type) {
+        failed = false;
+        if (!check(type)) {
+            return;
+        }
+        List<Member> members = new ArrayList<>();
+        collectMembers(type, type, members);
+
+        Code check = new Code();
+        Code collect = new Code();
+        List<String> thunks = new ArrayList<>();
+        Code nestedCheck = new Code();
+        Code nestedCollect = new Code();
+
+        for (int i = 0; i < members.size(); i++) {
+            Member member = members.get(i);
+            String v = "v" + i;
+            String declaration = member.type + " " + v + " = t." + member.read + ";";
+            check.line(declaration);
+            collect.line(declaration);
+            for (AnnotationMirror mirror : member.element.getAnnotationMirrors()) {
+                String name = annotationName(mirror);
+                if (name == null) {
+                    continue;
+                }
+                if (name.equals("Nested")) {
+                    String[] nested = nested(member, v);
+                    if (nested == null) {
+                        continue;
+                    }
+                    nestedCheck.line("if (" + nested[0] + ") {").line("    return;").line("}");
+                    nestedCollect.line("if (" + v + " != null) {").line("    " + nested[1] + ";").line("}");
+                    continue;
+                }
+                Rule rule = rule(member, v, name, mirror);
+                if (rule == null) {
+                    continue;
+                }
+                check.line("if (" + rule.condition + ") {")
+                        .line("    if (context.fail(" + quote(member.field) + ", ErrorType." + rule.type + ", " + rule.value
+                                + rule.args + ")) {")
+                        .line("        return;")
+                        .line("    }")
+                        .line("}");
+                thunks.add("Validators." + rule.thunk + "(" + quote(member.field) + ", " + v + rule.args + ")");
+            }
+        }
+        if (failed) {
+            return;
+        }
+
+        collect.line("Aggregation aggregation = Aggregation.of(");
+        for (int i = 0; i < thunks.size(); i++) {
+            collect.line("        " + thunks.get(i) + (i < thunks.size() - 1 ? "," : ");"));
+        }
+        if (thunks.isEmpty()) {
+            collect.line("        );");
+        }
+        collect.append(nestedCollect);
+        collect.line("return aggregation;");
+        check.append(nestedCheck);
+
+        write(type, check, collect);
+    }
+
+    /**
+     * Returns whether a validator can be generated for {@code type}, reporting why not.
+     */
+    private boolean check(TypeElement type) {
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            if (e.getModifiers().contains(Modifier.PRIVATE)) {
+                return error(type, "validated classes must not be private");
+            }
+            if (e.getEnclosingElement() instanceof TypeElement && !e.getModifiers().contains(Modifier.STATIC)
+                    && e.getKind() == ElementKind.CLASS) {
+                return error(type, "validated nested classes must be static");
+            }
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            return error(type, "validated classes must not be generic");
+        }
+        return true;
+    }
+
+    private void collectMembers(TypeElement type, TypeElement validated, List<Member> members) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() == TypeKind.DECLARED) {
+            collectMembers((TypeElement) ((DeclaredType) superclass).asElement(), validated, members);
+        }
+        for (Element element : type.getEnclosedElements()) {
+            if (!hasAnnotations(element)) {
+                continue;
+            }
+            Member member = member(element, validated);
+            if (member != null) {
+                members.add(member);
+            }
+        }
+    }
+
+    private Member member(Element element, TypeElement validated) {
+        if (element.getModifiers().contains(Modifier.STATIC)) {
+            error(element, "validated members must not be static");
+            return null;
+        }
+        if (element.getKind() == ElementKind.FIELD) {
+            String field = element.getSimpleName().toString();
+            if (accessible(element, validated)) {
+                return new Member(element, field, field, typeIn(validated, element));
+            }
+            ExecutableElement getter = getter(validated, field);
+            if (getter == null) {
+                error(element, "private field without an accessible getter");
+                return null;
+            }
+            return new Member(element, field, getter.getSimpleName() + "()", typeIn(validated, getter));
+        }
+        ExecutableElement method = (ExecutableElement) element;
+        if (!method.getParameters().isEmpty() || method.getReturnType().getKind() == TypeKind.VOID) {
+            error(element, "validated methods must be getters");
+            return null;
+        }
+        if (!accessible(element, validated)) {
+            error(element, "validated getters must not be private");
+            return null;
+        }
+        String name = method.getSimpleName().toString();
+        return new Member(element, property(name), name + "()", typeIn(validated, element));
+    }
+
+    /**
+     * Returns the type of a field or the return type of a getter as seen from {@code validated}, which
+     * resolves the type variables of generic superclasses.
+     */
+    private TypeMirror typeIn(TypeElement validated, Element element) {
+        TypeMirror type = processingEnv.getTypeUtils().asMemberOf((DeclaredType) validated.asType(), element);
+        return type.getKind() == TypeKind.EXECUTABLE ? ((ExecutableType) type).getReturnType() : type;
+    }
+
+    private boolean accessible(Element element, TypeElement validated) {
+        Set<Modifier> modifiers = element.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        return modifiers.contains(Modifier.PUBLIC) || processingEnv.getElementUtils().getPackageOf(element)
+                .equals(processingEnv.getElementUtils().getPackageOf(validated));
+    }
+
+    private ExecutableElement getter(TypeElement type, String field) {
+        String suffix = Character.toUpperCase(field.charAt(0)) + field.substring(1);
+        Set<String> names = new HashSet<>(Arrays.asList("get" + suffix, "is" + suffix, field));
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            if (names.contains(method.getSimpleName().toString()) && method.getParameters().isEmpty()
+                    && method.getReturnType().getKind() != TypeKind.VOID
+                    && !method.getModifiers().contains(Modifier.STATIC) && accessible(method, type)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the bean property name of a getter, e.g. {@code name} for {@code getName}.
+     */
+    private static String property(String getter) {
+        String name = getter;
+        if (getter.startsWith("get") && getter.length() > 3) {
+            name = getter.substring(3);
+        } else if (getter.startsWith("is") && getter.length() > 2) {
+            name = getter.substring(2);
+        } else {
+            return getter;
+        }
+        if (name.length() > 1 && Character.isUpperCase(name.charAt(1))) {
+            return name;
+        }
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    // =====================
+    // Checks
+
+    private static final class Member {
+
+        private final Element element;
+        private final String field;
+        private final String read;
+        private final TypeMirror type;
+
+        private Member(Element element, String field, String read, TypeMirror type) {
+            this.element = element;
+            this.field = field;
+            this.read = read;
+            this.type = type;
+        }
+    }
+
+    private static final class Rule {
+
+        private final String type;
+        private final String condition;
+        private final String value;
+        private final String args;
+        private final String thunk;
+
+        private Rule(String type, String condition, String value, String args, String thunk) {
+            this.type = type;
+            this.condition = condition;
+            this.value = value;
+            this.args = args;
+            this.thunk = thunk;
+        }
+    }
+
+    private enum Kind {
+        /** integral primitives, compared exactly like {@code Validators.less(String, long, long)} */
+        LONG,
+        /** floating point primitives, compared with {@code Validators.EPSILON} */
+        DOUBLE,
+        /** boxed and other numbers, compared by their double value */
+        NUMBER,
+        /** BigDecimal and BigInteger */
+        BIG,
+        STRING,
+        OTHER
+    }
+
+    private Kind kind(TypeMirror type) {
+        switch (type.getKind()) {
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+                return Kind.LONG;
+            case FLOAT:
+            case DOUBLE:
+                return Kind.DOUBLE;
+            case DECLARED:
+                String name = ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+                if (name.equals("java.lang.String")) {
+                    return Kind.STRING;
+                }
+                if (name.equals("java.math.BigDecimal") || name.equals("java.math.BigInteger")) {
+                    return Kind.BIG;
+                }
+                TypeMirror number = processingEnv.getElementUtils().getTypeElement("java.lang.Number").asType();
+                return processingEnv.getTypeUtils().isAssignable(type, number) ? Kind.NUMBER : Kind.OTHER;
+            default:
+                return Kind.OTHER;
+        }
+    }
+
+    private Rule rule(Member member, String v, String annotation, AnnotationMirror mirror) {
+        Kind kind = kind(member.type);
+        switch (annotation) {
+            case "NotNull":
+                if (member.type.getKind().isPrimitive()) {
+                    error(member.element, "@NotNull on a primitive");
+                    return null;
+                }
+                return new Rule("NOT_NULL", v + " == null", v, "", "notNull");
+            case "NotBlank":
+                return string(member, kind, annotation) ? new Rule("NOT_BLANK", v + " == null || isBlank(" + v + ")",
+                        v, "", "notBlank") : null;
+            case "MinLength":
+            case "MaxLength":
+            case "Length": {
+                if (!string(member, kind, annotation)) {
+                    return null;
+                }
+                int length = (Integer) value(mirror, "value");
+                String operator = annotation.equals("MinLength") ? " < " : annotation.equals("MaxLength") ? " > " : " != ";
+                String type = annotation.equals("MinLength") ? "MIN_LENGTH" : annotation.equals("MaxLength") ? "MAX_LENGTH" : "LENGTH";
+                return new Rule(type, v + " == null || " + v + ".length()" + operator + length, v, ", " + length,
+                        annotation.equals("Length") ? "length" : annotation.equals("MinLength") ? "minLength" : "maxLength");
+            }
+            case "Email": {
+                if (!string(member, kind, annotation)) {
+                    return null;
+                }
+                boolean strict = (Boolean) value(mirror, "strict");
+                return new Rule("EMAIL", v + " == null || !" + (strict ? "isStrictEmail(" : "isEmail(") + v + ")",
+                        v, "", strict ? "strictEmail" : "email");
+            }
+            case "Positive":
+                switch (kind) {
+                    case LONG:
+                        return new Rule("POSITIVE", v + " <= 0", cast(member, TypeKind.LONG, v), "", "positive");
+                    case DOUBLE:
+                        return new Rule("POSITIVE", "!(" + v + " > 0)", cast(member, TypeKind.DOUBLE, v), "", "positive");
+                    case NUMBER:
+                        return new Rule("POSITIVE", v + " == null || !(" + v + ".doubleValue() > 0)", v, "", "positive");
+                    case BIG:
+                        return new Rule("POSITIVE", v + " == null || " + v + ".signum() <= 0", v, "", "positive");
+                    default:
+                        error(member.element, "@Positive on a non numeric type");
+                        return null;
+                }
+            default:
+                return comparison(member, v, kind, annotation, (Double) value(mirror, "value"));
+        }
+    }
+
+    /**
+     * {@code v} as a {@code target} argument, cast only when the member has another type.
+     */
+    private static String cast(Member member, TypeKind target, String v) {
+        return member.type.getKind() == target ? v : "(" + target.name().toLowerCase(Locale.ROOT) + ") " + v;
+    }
+
+    private Rule comparison(Member member, String v, Kind kind, String annotation, double bound) {
+        if (Double.isNaN(bound) || Double.isInfinite(bound)) {
+            error(member.element, "@" + annotation + " needs a finite value");
+            return null;
+        }
+        boolean integral = bound == Math.rint(bound) && Math.abs(bound) < 0x1p63;
+        String literal = integral ? (long) bound + "L" : Double.toString(bound);
+        String args = ", " + literal;
+        String type;
+        String operator;
+        String thunk;
+        switch (annotation) {
+            case "Equal":
+                type = "EQUAL";
+                operator = " != ";
+                thunk = "equal";
+                break;
+            case "Less":
+                type = "LESS";
+                operator = " >= ";
+                thunk = "less";
+                break;
+            case "LessEqual":
+                type = "LESS_EQUAL";
+                operator = " > ";
+                thunk = "lessEqual";
+                break;
+            case "Greater":
+                type = "GREATER";
+                operator = " <= ";
+                thunk = "greater";
+                break;
+            default:
+                type = "GREATER_EQUAL";
+                operator = " < ";
+                thunk = "greaterEqual";
+                break;
+        }
+        String predicate = "is" + Character.toUpperCase(thunk.charAt(0)) + thunk.substring(1);
+        switch (kind) {
+            case LONG:
+                if (integral) {
+                    return new Rule(type, v + operator + literal, cast(member, TypeKind.LONG, v), args, thunk);
+                }
+                return new Rule(type, "!" + predicate + "(" + v + ", " + literal + ")", cast(member, TypeKind.DOUBLE, v), args, thunk);
+            case DOUBLE:
+                return new Rule(type, "!" + predicate + "(" + v + ", " + literal + ")", cast(member, TypeKind.DOUBLE, v), args, thunk);
+            case NUMBER:
+            case BIG:
+                return new Rule(type, v + " == null || !" + predicate + "(" + v + ".doubleValue(), " + literal + ")",
+                        v, args, thunk);
+            default:
+                error(member.element, "@" + annotation + " on a non numeric type");
+                return null;
+        }
+    }
+
+    private boolean string(Member member, Kind kind, String annotation) {
+        return kind == Kind.STRING || error(member.element, "@" + annotation + " on a non String type");
+    }
+
+    /**
+     * Returns the check and collect statements of a {@code @Nested} member, or null when it cannot be validated.
+     */
+    private String[] nested(Member member, String v) {
+        if (member.type.getKind() != TypeKind.DECLARED) {
+            error(member.element, "@Nested on a primitive");
+            return null;
+        }
+        DeclaredType iterable = iterable(member.type);
+        if (iterable == null) {
+            String validator = validator(member, member.type);
+            if (validator == null) {
+                return null;
+            }
+            String field = quote(member.field);
+            return new String[]{
+                    "context.nested(" + field + ", " + validator + ", " + v + ")",
+                    "aggregation.nested(" + field + ", " + validator + ", " + v + ")"};
+        }
+        TypeMirror element = iterable.getTypeArguments().isEmpty() ? null : iterable.getTypeArguments().get(0);
+        if (element != null && element.getKind() == TypeKind.WILDCARD) {
+            element = ((WildcardType) element).getExtendsBound();
+        } else if (element != null && element.getKind() == TypeKind.TYPEVAR) {
+            element = ((TypeVariable) element).getUpperBound();
+        }
+        if (element == null || element.getKind() != TypeKind.DECLARED) {
+            error(member.element, "@Nested on an Iterable of unknown elements");
+            return null;
+        }
+        String validator = validator(member, element);
+        if (validator == null) {
+            return null;
+        }
+        String field = quote(member.field);
+        String elements = processingEnv.getTypeUtils().isSameType(iterable.getTypeArguments().get(0), element) ? v
+                : "(Iterable<" + element + ">) (Iterable<?>) " + v;
+        return new String[]{
+                "context.nestedList(" + field + ", " + validator + ", " + v + ")",
+                "aggregation.nestedList(" + field + ", " + validator + ", " + elements + ")"};
+    }
+
+    private DeclaredType iterable(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        if (((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().contentEquals("java.lang.Iterable")) {
+            return (DeclaredType) type;
+        }
+        for (TypeMirror supertype : processingEnv.getTypeUtils().directSupertypes(type)) {
+            DeclaredType iterable = iterable(supertype);
+            if (iterable != null) {
+                return iterable;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the expression of the generated validator of {@code type}.
+     */
+    private String validator(Member member, TypeMirror type) {
+        TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        if (!hasRules(element)) {
+            error(member.element, "@Nested type " + element.getQualifiedName() + " has no validation annotations");
+            return null;
+        }
+        String pkg = processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString();
+        return (pkg.isEmpty() ? "" : pkg + ".") + validatorName(element) + ".INSTANCE";
+    }
+
+    private boolean hasRules(TypeElement type) {
+        for (Element element : type.getEnclosedElements()) {
+            if (hasAnnotations(element)) {
+                return true;
+            }
+        }
+        TypeMirror superclass = type.getSuperclass();
+        return superclass.getKind() == TypeKind.DECLARED && hasRules((TypeElement) ((DeclaredType) superclass).asElement());
+    }
+
+    private boolean hasAnnotations(Element element) {
+        if (element.getKind() != ElementKind.FIELD && element.getKind() != ElementKind.METHOD) {
+            return false;
+        }
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (annotationName(mirror) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the simple name of a jazorp annotation, or null for other annotations.
+     */
+    private static String annotationName(AnnotationMirror mirror) {
+        String name = ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+        if (!name.startsWith(PACKAGE)) {
+            return null;
+        }
+        String simple = name.substring(PACKAGE.length());
+        return ANNOTATIONS.contains(simple) ? simple : null;
+    }
+
+    private Object value(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        throw new IllegalStateException(mirror + " has no " + name);
+    }
+
+    // =====================
+    // Source
+
+    private static String validatorName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        for (Element e = type.getEnclosingElement(); e instanceof TypeElement; e = e.getEnclosingElement()) {
+            name.insert(0, e.getSimpleName() + "_");
+        }
+        return name.append("_Validator").toString();
+    }
+
+    private void write(TypeElement type, Code check, Code collect) {
+        String pkg = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String name = validatorName(type);
+        String validated = type.getQualifiedName().toString();
+        String visibility = type.getModifiers().contains(Modifier.PUBLIC) ? "public " : "";
+
+        StringBuilder source = new StringBuilder();
+        if (!pkg.isEmpty()) {
+            source.append("package ").append(pkg).append(";\n\n");
+        }
+        source.append("import io.github.jazorp.Aggregation;\n")
+                .append("import io.github.jazorp.ErrorType;\n")
+                .append("import io.github.jazorp.GeneratedValidator;\n")
+                .append("import io.github.jazorp.Validators;\n\n")
+                .append("/**\n")
+                .append(" * Generated by ").append(ValidatorProcessor.class.getName()).append(" from {@link ")
+                .append(validated).append("}, do not edit.\n")
+                .append(" */\n")
+                .append(visibility).append("final class ").append(name)
+                .append(" extends GeneratedValidator<").append(validated).append("> {\n\n")
+                .append("    ").append(visibility).append("static final ").append(name).append(" INSTANCE = new ")
+                .append(name).append("();\n\n")
+                .append("    @Override\n")
+                .append("    protected void check(").append(validated).append(" t, Context context) {\n")
+                .append(check.indent("        "))
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    @SuppressWarnings(\"unchecked\")\n")
+                .append("    public Aggregation collect(").append(validated).append(" t) {\n")
+                .append(collect.indent("        "))
+                .append("    }\n")
+                .append("}\n");
+
+        try (Writer writer = processingEnv.getFiler()
+                .createSourceFile((pkg.isEmpty() ? "" : pkg + ".") + name, type).openWriter()) {
+            writer.write(source.toString());
+        } catch (IOException e) {
+            error(type, "could not write " + name + ": " + e.getMessage());
+        }
+    }
+
+    private static String quote(String s) {
+        return '"' + s + '"';
+    }
+
+    private boolean error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+        failed = true;
+        return false;
+    }
+
+    private static final class Code {
+
+        private final List<String> lines = new ArrayList<>();
+
+        private Code line(String line) {
+            lines.add(line);
+            return this;
+        }
+
+        private Code append(Code code) {
+            lines.addAll(code.lines);
+            return this;
+        }
+
+        private String indent(String indent) {
+            StringBuilder s = new StringBuilder();
+            for (String line : lines) {
+                s.append(indent).append(line).append('\n');
+            }
+            return s.toString();
+        }
+    }
+}
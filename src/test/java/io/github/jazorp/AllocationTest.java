@@ -0,0 +1,144 @@
+package io.github.jazorp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class AllocationTest {
+
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 100_000;
+
+    private com.sun.management.ThreadMXBean threadMXBean;
+
+    @Before
+    public void setup() {
+        ErrorFormatter.getInstance().reset();
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threadMXBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    private static class Item {
+
+        private String sku;
+        public String getSku() { return sku; }
+
+        private Integer quantity;
+        public Integer getQuantity() { return quantity; }
+
+        public Item(String sku, Integer quantity) {
+            this.sku = sku;
+            this.quantity = quantity;
+        }
+    }
+
+    private static class Order {
+
+        private String email;
+        public String getEmail() { return email; }
+
+        private List<Item> items;
+        public List<Item> getItems() { return items; }
+
+        public Order(String email, List<Item> items) {
+            this.email = email;
+            this.items = items;
+        }
+    }
+
+    private static final Plan<Item> itemPlan = new Plan.Builder<Item>()
+            .notBlank("sku", Item::getSku)
+            .maxLength("sku", Item::getSku, 12)
+            .positive("quantity", Item::getQuantity)
+            .build();
+
+    private static final Plan<Order> orderPlan = new Plan.Builder<Order>()
+            .notNull("email", Order::getEmail)
+            .minLength("email", Order::getEmail, 3)
+            .nestedList("item", Order::getItems, itemPlan)
+            .build();
+
+    private long allocatedBytes() {
+        return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @Test
+    public void valid_object_does_not_allocate() {
+        Order order = new Order("morty@smith.com", Arrays.asList(new Item("PORTAL-GUN", 1), new Item("MEGA-SEEDS", 2)));
+        Env env = Env.empty();
+
+        for (int i = 0; i < WARMUP; i++) {
+            assertTrue(orderPlan.validate(order, env).isValid());
+        }
+
+        long before = allocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            if (!orderPlan.validate(order, env).isValid()) {
+                fail("expected a valid order");
+            }
+        }
+        long bytesPerObject = (allocatedBytes() - before) / ITERATIONS;
+
+        assertEquals("bytes allocated per valid object", 0, bytesPerObject);
+    }
+
+    private Result last;
+
+    private long bytesPerFailure(Aggregation aggregation, Env env) {
+        for (int i = 0; i < WARMUP; i++) {
+            last = aggregation.validate(env);
+        }
+        long before = allocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            last = aggregation.validate(env);
+        }
+        return (allocatedBytes() - before) / ITERATIONS;
+    }
+
+    @Test
+    public void only_traced_validations_allocate_a_trace() {
+        Aggregation aggregation = Aggregation.of(Validators.notNull("email", null))
+                .nested("item", Aggregation.of(Validators.positive("quantity", 0)));
+        Env traced = new Env.Builder().trace().build();
+
+        long plain = bytesPerFailure(aggregation, Env.empty());
+        assertNull(last.trace());
+        assertTrue("plain " + plain + " bytes", plain < bytesPerFailure(aggregation, traced));
+        assertNotNull(last.trace());
+    }
+
+    @Test
+    public void valid_result_is_shared() {
+        Order order = new Order("morty@smith.com", Arrays.asList(new Item("PORTAL-GUN", 1)));
+        assertSame(Result.valid(), orderPlan.validate(order));
+        assertSame(Result.valid(), orderPlan.collect(order).validate(Env.empty()));
+        assertSame(Valid.valid(), Validators.notNull("foo", "bar").validate(Env.empty()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void valid_result_is_immutable() {
+        Result.valid().put("foo", new Result(java.util.Collections.singletonMap("bar", "baz")));
+    }
+
+    @Test
+    public void valid_results_reject_every_put() {
+        for (Result valid : Arrays.asList(Result.valid(), Result.of(null, true))) {
+            try {
+                valid.put(Result.empty());
+                fail();
+            } catch (IllegalStateException expected) {
+                assertTrue(expected.getMessage(), expected.getMessage().contains("Result.empty()"));
+            }
+        }
+        assertFalse(Result.empty().put("foo", new Result(java.util.Collections.singletonMap("bar", "baz"))).isValid());
+    }
+}
@@ -0,0 +1,238 @@
+package io.github.jazorp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.jazorp.Validators.*;
+import static org.junit.Assert.*;
+
+public class AsyncTest {
+
+    private ExecutorService executor;
+    private ScheduledExecutorService scheduler;
+    private Store store;
+
+    @Before
+    public void setup() {
+        ErrorFormatter.getInstance().reset();
+        executor = Executors.newFixedThreadPool(4);
+        scheduler = Executors.newScheduledThreadPool(2);
+        store = new Store(scheduler, "rick", "morty", "rick@citadel.com");
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * An in-memory stand-in for a remote store, answering after a delay.
+     */
+    private static class Store {
+
+        private final ScheduledExecutorService scheduler;
+        private final Set<String> taken;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private final AtomicInteger lookups = new AtomicInteger();
+
+        private Store(ScheduledExecutorService scheduler, String... taken) {
+            this.scheduler = scheduler;
+            this.taken = new HashSet<>(Arrays.asList(taken));
+        }
+
+        CompletableFuture<Boolean> exists(String value) {
+            lookups.incrementAndGet();
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            CompletableFuture<Boolean> result = new CompletableFuture<>();
+            scheduler.schedule(() -> {
+                inFlight.decrementAndGet();
+                result.complete(taken.contains(value));
+            }, 20, TimeUnit.MILLISECONDS);
+            return result;
+        }
+    }
+
+    private static ValidationThunk unique(String field, String value, Store store) {
+        return ValidationThunk.async((env, optional) -> store.exists(value)
+                .thenApply(exists -> exists ? Invalid.of(field, field + " is taken") : Valid.valid()));
+    }
+
+    private static class Account {
+
+        private String name;
+        public String getName() { return name; }
+
+        private String email;
+        public String getEmail() { return email; }
+
+        private List<Account> linked;
+        public List<Account> getLinked() { return linked; }
+
+        public Account(String name, String email, List<Account> linked) {
+            this.name = name;
+            this.email = email;
+            this.linked = linked;
+        }
+    }
+
+    private Validator<Account> accountValidator() {
+        Validator<Account> linkedValidator = a -> Aggregation.of(
+                notBlank("name", a.getName()),
+                unique("name", a.getName(), store));
+        return a -> Aggregation.of(
+                notBlank("name", a.getName()),
+                unique("name", a.getName(), store),
+                unique("email", a.getEmail(), store))
+                .nestedList("linked", linkedValidator, a.getLinked());
+    }
+
+    private static Account account() {
+        List<Account> linked = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            linked.add(new Account(i == 3 ? "morty" : i == 7 ? "" : "user" + i, null, null));
+        }
+        return new Account("rick", "rick@citadel.com", linked);
+    }
+
+    private static Result get(CompletionStage<Result> stage) throws Exception {
+        return stage.toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void same_result_as_synchronous_validation() throws Exception {
+        Validator<Account> validator = accountValidator();
+        Result expected = validator.validate(account());
+        Result actual = get(validator.validateAsync(account(), executor));
+        assertFalse(actual.isValid());
+        assertEquals(expected.getErrors(), actual.getErrors());
+        assertEquals(4, actual.errorCount());
+        assertTrue(actual.hasErrorAt("linked[3]", "name"));
+    }
+
+    @Test
+    public void independent_checks_run_concurrently() throws Exception {
+        get(accountValidator().validateAsync(account(), executor));
+        assertEquals(12, store.lookups.get());
+        assertTrue("max in flight " + store.maxInFlight.get(), store.maxInFlight.get() > 1);
+    }
+
+    @Test
+    public void concurrency_limit() throws Exception {
+        Env env = new Env.Builder().asyncLimit(2).build();
+        Result result = get(accountValidator().validateAsync(account(), env, executor));
+        assertEquals(12, store.lookups.get());
+        assertEquals(accountValidator().validate(account()).getErrors(), result.getErrors());
+        assertTrue("max in flight " + store.maxInFlight.get(), store.maxInFlight.get() <= 2);
+    }
+
+    @Test
+    public void blocking_checks_gate_the_rest() throws Exception {
+        Validator<Account> validator = a -> Aggregation.of(
+                unique("email", a.getEmail(), store),
+                unique("name", a.getName(), store).blocking())
+                .nested("self", accountValidator(), a);
+        Result result = get(validator.validateAsync(account(), executor));
+        assertTrue(result.wasBlocked());
+        assertEquals(Collections.singletonMap("name", Collections.singleton("name is taken")), result.getErrors());
+        assertEquals(1, store.lookups.get());
+    }
+
+    @Test
+    public void synchronous_validation_waits_for_async_checks() {
+        Result result = accountValidator().validate(new Account("summer", "rick@citadel.com", null));
+        assertEquals(Collections.singletonMap("email", Collections.singleton("email is taken")), result.getErrors());
+    }
+
+    @Test
+    public void plans_validate_asynchronously() throws Exception {
+        Plan<Account> plan = new Plan.Builder<Account>()
+                .notBlank("name", Account::getName)
+                .nestedList("linked", Account::getLinked, accountValidator())
+                .build();
+        Account account = new Account("summer", null, Collections.singletonList(account()));
+        assertEquals(plan.validate(account).getErrors(), get(plan.validateAsync(account, executor)).getErrors());
+    }
+
+    @Test
+    public void failures_complete_exceptionally() throws Exception {
+        Validator<Account> validator = a -> Aggregation.of(
+                notBlank("name", a.getName()),
+                ValidationThunk.async((env, optional) -> {
+                    CompletableFuture<Validation> failed = new CompletableFuture<>();
+                    failed.completeExceptionally(new IllegalStateException("store is down"));
+                    return failed;
+                }));
+        try {
+            get(validator.validateAsync(account(), executor));
+            fail("expected an exception");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        try {
+            validator.validate(account());
+            fail("expected an exception");
+        } catch (IllegalStateException e) {
+            assertEquals("store is down", e.getMessage());
+        }
+    }
+
+    @Test
+    public void error_budget() throws Exception {
+        Env env = new Env.Builder().failFast().build();
+        Result result = get(accountValidator().validateAsync(new Account("", "", null), env, executor));
+        assertEquals(1, result.errorCount());
+    }
+
+    @Test
+    public void error_budget_with_failures_in_flight() throws Exception {
+        ValidationThunk[] taken = new ValidationThunk[10];
+        for (int i = 0; i < taken.length; i++) {
+            taken[i] = unique("name" + i, "rick", store);
+        }
+        Validator<Account> validator = a -> Aggregation.of(taken)
+                .nestedList("linked", accountValidator(), a.getLinked());
+
+        // all ten lookups are in flight when the first one fails
+        Env env = new Env.Builder().maxErrors(1).build();
+        Result result = get(validator.validateAsync(account(), env, executor));
+        assertEquals(1, result.errorCount());
+
+        env = new Env.Builder().maxErrors(3).build();
+        assertEquals(3, get(validator.validateAsync(account(), env, executor)).errorCount());
+
+        // queued lookups do not start once the budget is spent
+        store.lookups.set(0);
+        env = new Env.Builder().failFast().asyncLimit(1).build();
+        assertEquals(1, get(validator.validateAsync(account(), env, executor)).errorCount());
+        assertEquals(1, store.lookups.get());
+    }
+
+    @Test
+    public void long_queues_are_skipped_without_recursion() throws Exception {
+        AtomicInteger started = new AtomicInteger();
+        ValidationThunk slow = ValidationThunk.async((env, optional) -> {
+            started.incrementAndGet();
+            CompletableFuture<Validation> result = new CompletableFuture<>();
+            scheduler.schedule(() -> result.complete(Invalid.of("name", "name is taken")), 200, TimeUnit.MILLISECONDS);
+            return result;
+        });
+        List<Account> linked = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            linked.add(new Account("rick", null, null));
+        }
+        Validator<Account> validator = a -> Aggregation.of()
+                .nestedList("linked", l -> Aggregation.of(slow), a.getLinked());
+        Env env = new Env.Builder().failFast().asyncLimit(1).build();
+        Result result = get(validator.validateAsync(new Account("rick", null, linked), env, executor));
+        assertEquals(1, result.errorCount());
+        assertEquals(1, started.get());
+    }
+}
@@ -0,0 +1,252 @@
+package io.github.jazorp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static io.github.jazorp.Validators.*;
+import static org.junit.Assert.*;
+
+public class BatchLookupTest {
+
+    private List<Set<Long>> calls;
+    private Function<Set<Long>, Map<Long, String>> customers;
+
+    @Before
+    public void setup() {
+        ErrorFormatter.getInstance().reset();
+        calls = new ArrayList<>();
+        // customers exist for even ids, odd ids are missing
+        customers = ids -> {
+            calls.add(new HashSet<>(ids));
+            Map<Long, String> found = new HashMap<>();
+            for (Long id : ids) {
+                if (id % 2 == 0) {
+                    found.put(id, id % 10 == 0 ? "blocked" : "active");
+                }
+            }
+            return found;
+        };
+    }
+
+    private static class Line {
+
+        private Long product;
+        public Long getProduct() { return product; }
+
+        public Line(Long product) {
+            this.product = product;
+        }
+    }
+
+    private static class Order {
+
+        private Long customer;
+        public Long getCustomer() { return customer; }
+
+        private List<Line> lines;
+        public List<Line> getLines() { return lines; }
+
+        public Order(Long customer, List<Line> lines) {
+            this.customer = customer;
+            this.lines = lines;
+        }
+    }
+
+    private static List<Order> orders(int size, int customers) {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            orders.add(new Order((long) (i % customers), null));
+        }
+        return orders;
+    }
+
+    private static Validator<Order> orderValidator(BatchLookup<Long, String> lookup) {
+        return o -> Aggregation.of(lookup.exists("customer", o.getCustomer()));
+    }
+
+    private static Result validateAll(Validator<Order> validator, List<Order> orders, Env env) {
+        return Aggregation.of().nestedList("order", validator, orders).validate(env);
+    }
+
+    @Test
+    public void keys_of_a_batch_are_loaded_together() {
+        BatchLookup<Long, String> lookup = new BatchLookup<>(customers);
+        List<Order> orders = orders(5000, 5000);
+        Result result = validateAll(orderValidator(lookup), orders, Env.empty());
+
+        assertEquals(2500, result.errorCount());
+        assertEquals(Collections.singletonMap("customer", Collections.singleton("customer does not exist")),
+                result.getErrors().get("order[1]"));
+        assertFalse(result.hasErrorAt("order[2]"));
+
+        int expectedCalls = (5000 + Lookahead.SIZE) / (Lookahead.SIZE + 1);
+        assertEquals(expectedCalls, calls.size());
+        assertEquals(expectedCalls, lookup.getBatchCalls());
+        assertEquals(5000, lookup.getLookups());
+        assertEquals(5000, lookup.getLoadedKeys());
+        assertEquals(5000 - expectedCalls, lookup.getSavedCalls());
+    }
+
+    @Test
+    public void keys_are_deduplicated() {
+        BatchLookup<Long, String> lookup = new BatchLookup<>(customers);
+        Result result = validateAll(orderValidator(lookup), orders(5000, 10), Env.empty());
+        assertEquals(2500, result.errorCount());
+        assertEquals(1, calls.size());
+        assertEquals(10, calls.get(0).size());
+        assertEquals(10, lookup.getLoadedKeys());
+        assertEquals(4999, lookup.getSavedCalls());
+    }
+
+    @Test
+    public void max_batch_size() {
+        BatchLookup<Long, String> lookup = new BatchLookup<>(customers, 100);
+        validateAll(orderValidator(lookup), orders(1000, 1000), Env.empty());
+        for (Set<Long> call : calls) {
+            assertTrue(call.size() <= 100);
+        }
+        assertEquals(1000, lookup.getLoadedKeys());
+        assertTrue(calls.size() >= 10);
+        assertTrue(calls.size() < 20);
+    }
+
+    @Test
+    public void keys_of_an_aggregation_are_loaded_together() {
+        BatchLookup<Long, String> lookup = new BatchLookup<>(customers, 10);
+        ValidationThunk[] thunks = new ValidationThunk[25];
+        for (int i = 0; i < thunks.length; i++) {
+            thunks[i] = lookup.exists("c" + i, (long) i);
+        }
+        Result result = Aggregation.of(thunks).validate(Env.empty());
+        assertEquals(12, result.errorCount());
+        assertEquals(3, calls.size());
+    }
+
+    @Test
+    public void nested_lists() {
+        BatchLookup<Long, String> products = new BatchLookup<>(customers);
+        Validator<Line> lineValidator = l -> Aggregation.of(products.exists("product", l.getProduct()));
+        Validator<Order> validator = o -> Aggregation.of().nestedList("line", lineValidator, o.getLines());
+        List<Line> lines = new ArrayList<>();
+        for (long i = 0; i < 1000; i++) {
+            lines.add(new Line(i));
+        }
+        Result result = validator.validate(new Order(1L, lines));
+        assertEquals(500, result.errorCount());
+        assertTrue(result.hasErrorAt("line[1]", "product"));
+        assertEquals((1000 + Lookahead.SIZE) / (Lookahead.SIZE + 1), calls.size());
+    }
+
+    @Test
+    public void parallel_batches_collect_ahead() {
+        List<Set<Long>> parallelCalls = Collections.synchronizedList(new ArrayList<>());
+        BatchLookup<Long, String> lookup = new BatchLookup<>(ids -> {
+            parallelCalls.add(ids);
+            return customers.apply(ids);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Result result = validateAll(orderValidator(lookup), orders(5000, 5000),
+                    new Env.Builder().parallel(executor, 100).build());
+            assertEquals(2500, result.errorCount());
+            assertTrue(result.hasErrorAt("order[1]", "customer"));
+        } finally {
+            executor.shutdown();
+        }
+        // every key is loaded once, with at most one call per window of each chunk
+        int chunks = Math.min(5000, Runtime.getRuntime().availableProcessors() * 4);
+        assertEquals(5000, lookup.getLoadedKeys());
+        assertTrue(parallelCalls.size() <= chunks + 5000 / (Lookahead.SIZE + 1));
+    }
+
+    @Test
+    public void loader_runs_without_the_lock() {
+        List<BatchLookup<Long, String>> lookup = new ArrayList<>();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            lookup.add(new BatchLookup<>(ids -> {
+                try {
+                    // a lock held by the loading thread would block this call
+                    assertEquals(1L, (long) executor.submit(() -> lookup.get(0).getLookups()).get(5, TimeUnit.SECONDS));
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+                return customers.apply(ids);
+            }));
+            assertEquals("active", lookup.get(0).get(2L));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void pending_keys_are_bounded() {
+        BatchLookup<Long, String> lookup = new BatchLookup<>(customers);
+        for (long i = 0; i < BatchLookup.MAX_PENDING + 10; i++) {
+            lookup.exists("customer", i);
+        }
+        assertEquals("active", lookup.get(2L));
+        assertEquals(1, calls.size());
+        assertEquals(BatchLookup.MAX_PENDING, calls.get(0).size());
+
+        assertNull(lookup.get((long) BatchLookup.MAX_PENDING + 5));
+        assertEquals(Collections.singleton((long) BatchLookup.MAX_PENDING + 5), calls.get(1));
+    }
+
+    @Test
+    public void failed_loads_are_retried() {
+        BatchLookup<Long, String> lookup = new BatchLookup<>(ids -> {
+            if (calls.isEmpty()) {
+                calls.add(ids);
+                throw new IllegalStateException("unavailable");
+            }
+            return customers.apply(ids);
+        });
+        try {
+            lookup.get(2L);
+            fail();
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+        assertEquals("active", lookup.get(2L));
+        assertEquals(2, calls.size());
+    }
+
+    @Test
+    public void checks_on_values() {
+        BatchLookup<Long, String> lookup = new BatchLookup<>(customers);
+        Validator<Order> validator = o -> Aggregation.of(
+                lookup.check("customer", o.getCustomer(), "active"::equals, ErrorType.MEMBER_OF, "[active]"));
+        assertTrue(validator.validate(new Order(2L, null)).isValid());
+        assertEquals(Collections.singletonMap("customer", Collections.singleton("customer is not a member of [active]")),
+                validator.validate(new Order(10L, null)).getErrors());
+        assertFalse(validator.validate(new Order(3L, null)).isValid());
+        assertFalse(validator.validate(new Order(null, null)).isValid());
+
+        Validator<Order> optional = o -> Aggregation.of(lookup.exists("customer", o.getCustomer()).optional());
+        assertTrue(optional.validate(new Order(null, null)).isValid());
+        assertFalse(optional.validate(new Order(1L, null)).isValid());
+        assertEquals("blocked", lookup.get(10L));
+    }
+
+    @Test
+    public void lookups_without_batched_checks_stay_lazy() {
+        int[] collected = {0};
+        Validator<Order> validator = o -> {
+            collected[0]++;
+            return Aggregation.of(positive("customer", o.getCustomer()));
+        };
+        validateAll(validator, orders(100, 100), Env.empty());
+        assertEquals(100, collected[0]);
+        Validator<Order> parent = o -> Aggregation.of().nestedList("order", validator, orders(100, 100));
+        collected[0] = 0;
+        parent.validate(null, new Env.Builder().failFast().build());
+        assertEquals(1, collected[0]);
+    }
+}
@@ -0,0 +1,214 @@
+package io.github.jazorp;
+
+import io.github.jazorp.GeneratedValidatorTest.Address;
+import io.github.jazorp.GeneratedValidatorTest.Person;
+import io.github.jazorp.GeneratedValidatorTest.Pet;
+import io.github.jazorp.annotation.*;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class BeanValidatorTest {
+
+    private static final BeanValidator validator = BeanValidator.getInstance();
+
+    @Before
+    public void setup() {
+        ErrorFormatter.getInstance().reset();
+    }
+
+    static class Node {
+
+        @NotBlank
+        String name;
+
+        @Nested
+        Node parent;
+
+        @Nested
+        List<Node> children = new ArrayList<>();
+
+        Node(String name, Node parent) {
+            this.name = name;
+            this.parent = parent;
+        }
+    }
+
+    static class Team {
+
+        @Nested
+        Member lead;
+
+        @Positive
+        int size;
+
+        Team(Member lead, int size) {
+            this.lead = lead;
+            this.size = size;
+        }
+    }
+
+    static class Member {
+
+        @MinLength(3)
+        String name;
+
+        @Nested
+        Team team;
+
+        Member(String name, Team team) {
+            this.name = name;
+            this.team = team;
+        }
+    }
+
+    static class Group {
+
+        @Nested
+        Set<Node> nodes;
+    }
+
+    static class Account {
+
+        @MinLength(3)
+        String name;
+
+        Account(String name) {
+            this.name = name;
+        }
+
+        @NotBlank
+        public String getName() {
+            return name;
+        }
+    }
+
+    static class Admin extends Account {
+
+        Admin(String name) {
+            super(name);
+        }
+
+        @MaxLength(2)
+        @Override
+        public String getName() {
+            return super.getName();
+        }
+    }
+
+    private static List<Person> people() {
+        return Arrays.asList(
+                new Person(1L, "Morty", 14, 45.2, 3, BigDecimal.ONE, "morty@smith.com",
+                        new Address("Hmmmm", "12345"), Arrays.asList(new Pet("Snuffles", 1.5f))),
+                new Person(null, "", 0, 0.5, 11, BigDecimal.ZERO, "morty",
+                        new Address("", "123456"), Arrays.asList(new Pet("Snuffles", 1.5f), new Pet("Snowball II", 1))),
+                new Person(2L, "Al", 150, 0.4999, null, null, null, null, null),
+                new Person(3L, null, -1, Double.NaN, 10, new BigDecimal("-0.1"), "rick@smith.com",
+                        new Address(null, null), Collections.emptyList()));
+    }
+
+    @Test
+    public void same_result_as_generated_validator() {
+        for (Person person : people()) {
+            Result expected = GeneratedValidatorTest_Person_Validator.INSTANCE.validate(person);
+            assertEquals(expected.getErrors(), validator.validate(person).getErrors());
+            assertEquals(expected.getErrors(), validator.collect(person).validate(Env.empty()).getErrors());
+        }
+        assertTrue(validator.validate(people().get(0)).isValid());
+        assertEquals(12, validator.validate(people().get(1)).errorCount());
+    }
+
+    @Test
+    public void error_budget() {
+        for (int maxErrors = 1; maxErrors <= 20; maxErrors++) {
+            Env env = new Env.Builder().maxErrors(maxErrors).build();
+            for (Person person : people()) {
+                Result expected = GeneratedValidatorTest_Person_Validator.INSTANCE.validate(person, env);
+                // the fields of Address are checked before its getters, so only the counts match
+                assertEquals(expected.errorCount(), validator.validate(person, env).errorCount());
+            }
+        }
+        Env failFast = new Env.Builder().failFast().build();
+        assertEquals(Collections.singleton("id"), validator.validate(people().get(1), failFast).getErrors().keySet());
+    }
+
+    @Test
+    public void recursive_types() {
+        Node root = new Node("root", null);
+        Node child = new Node("", root);
+        root.children.add(new Node("leaf", null));
+        root.children.add(child);
+        child.parent = new Node(" ", null);
+
+        Map<String, Object> errors = validator.validate(root).getErrors();
+        assertEquals("{children[1]={name=[name cannot be blank], parent={name=[name cannot be blank]}}}",
+                errors.toString());
+
+        Team team = new Team(new Member("Al", new Team(new Member("Morty", null), 0)), 1);
+        assertEquals("{lead={name=[name must have at least 3 characters], team={size=[size must be positive]}}}",
+                validator.validate(team).getErrors().toString());
+    }
+
+    @Test
+    public void nested_values_are_validated_by_their_runtime_class() {
+        Node node = new Node("node", null);
+        Plan<Node> plan = new Plan.Builder<Node>()
+                .nested("value", n -> (Object) people().get(2), validator)
+                .build();
+        assertEquals(validator.validate(people().get(2)).getErrors(),
+                ((Map<?, ?>) plan.validate(node).getErrors().get("value")));
+        assertTrue(validator.validate(null).isValid());
+        assertTrue(validator.validate("not a bean").isValid());
+    }
+
+    @Test
+    public void nested_in_hand_written_validators_and_batches() {
+        Validator<List<Person>> nested = people -> Aggregation.of()
+                .nestedList("people", BeanValidator.of(Person.class), people);
+        Validator<List<Person>> expected = people -> Aggregation.of()
+                .nestedList("people", GeneratedValidatorTest_Person_Validator.INSTANCE, people);
+        assertEquals(expected.validate(people()).getErrors(), nested.validate(people()).getErrors());
+    }
+
+    @Test
+    public void fields_win_over_their_getters() {
+        Map<String, Object> expected = Aggregation.of(Validators.minLength("name", "", 3)).validate(Env.empty())
+                .getErrors();
+        for (Account account : Arrays.asList(new Account(""), new Admin(""))) {
+            Result result = validator.validate(account);
+            assertEquals(expected, result.getErrors());
+            assertEquals(1, result.errorCount());
+        }
+        assertTrue(validator.validate(new Admin("Rick")).isValid());
+    }
+
+    @Test
+    public void plans_are_compiled_once_per_class() {
+        assertSame(validator.plan(Person.class), validator.plan(Person.class));
+        assertSame(validator.plan(Node.class), validator.plan(Node.class));
+        assertNotSame(validator.plan(Person.class), validator.plan(GeneratedValidatorTest.Entity.class));
+    }
+
+    @Test
+    public void rejects_properties_it_cannot_validate() {
+        Group group = new Group();
+        for (int i = 0; i < 2; i++) {
+            try {
+                validator.validate(group);
+                fail();
+            } catch (IllegalArgumentException expected) {
+                assertTrue(expected.getMessage(), expected.getMessage().startsWith("Cannot validate 'nodes' of "));
+            }
+            try {
+                BeanValidator.of(Group.class);
+                fail();
+            } catch (IllegalArgumentException expected) {
+                assertTrue(expected.getMessage(), expected.getMessage().startsWith("Cannot validate 'nodes' of "));
+            }
+        }
+    }
+}
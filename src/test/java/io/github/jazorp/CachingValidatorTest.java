@@ -0,0 +1,292 @@
+package io.github.jazorp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.github.jazorp.Validators.*;
+import static org.junit.Assert.*;
+
+public class CachingValidatorTest {
+
+    private final AtomicInteger collected = new AtomicInteger();
+
+    @Before
+    public void setup() {
+        ErrorFormatter.getInstance().reset();
+    }
+
+    @After
+    public void tearDown() {
+        ErrorFormatter.getInstance().reset();
+    }
+
+    private static class Product {
+
+        private String sku;
+        public String getSku() { return sku; }
+
+        private String name;
+        public String getName() { return name; }
+
+        public Product(String sku, String name) {
+            this.sku = sku;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Product && Objects.equals(sku, ((Product) o).sku) && Objects.equals(name, ((Product) o).name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sku, name);
+        }
+    }
+
+    private final Validator<Product> productValidator = p -> {
+        collected.incrementAndGet();
+        return Aggregation.of(
+                notBlank("sku", p.getSku()),
+                notBlank("name", p.getName()));
+    };
+
+    @Test
+    public void repeated_inputs_hit_the_cache() {
+        CachingValidator<Product> cached = new CachingValidator.Builder<>(productValidator).build();
+        Result first = cached.validate(new Product("", "Portal gun"));
+        Result second = cached.validate(new Product("", "Portal gun"));
+        assertEquals(first.getErrors(), second.getErrors());
+        assertEquals(productValidator.validate(new Product("", "Portal gun")).getErrors(), second.getErrors());
+        assertEquals(2, collected.get());
+        assertEquals(1, cached.getHitCount());
+        assertEquals(1, cached.getMissCount());
+
+        assertTrue(cached.validate(new Product("PG-1", "Portal gun")).isValid());
+        assertSame(Result.valid(), cached.validate(new Product("PG-1", "Portal gun")));
+        assertEquals(2, cached.getHitCount());
+    }
+
+    @Test
+    public void results_are_independent() {
+        CachingValidator<Product> cached = new CachingValidator.Builder<>(productValidator).build();
+        Result first = cached.validate(new Product("", ""));
+        first.put("extra", new Result(Collections.singletonMap("foo", Collections.singleton("foo is bad"))));
+        Result second = cached.validate(new Product("", ""));
+        assertEquals(2, second.getErrors().size());
+        assertEquals(2, second.errorCount());
+    }
+
+    @Test
+    public void nested_in_a_plan() {
+        CachingValidator<Product> cached = new CachingValidator.Builder<>(productValidator).build();
+        Plan<List<Product>> plan = new Plan.Builder<List<Product>>()
+                .nested("first", products -> products.get(0), cached)
+                .nestedList("all", products -> products, cached)
+                .build();
+        List<Product> products = Arrays.asList(new Product("", "Portal gun"), new Product("PG-1", ""));
+        Map<String, Object> expected = Aggregation.of()
+                .nested("first", productValidator, products.get(0))
+                .nestedList("all", productValidator, products)
+                .validate(Env.empty())
+                .getErrors();
+        for (int i = 0; i < 2; i++) {
+            Result result = plan.validate(products);
+            assertEquals(expected, result.getErrors());
+            assertEquals(3, result.errorCount());
+        }
+        // the first element is validated twice per pass
+        assertEquals(4, cached.getHitCount());
+    }
+
+    @Test
+    public void key_extractor() {
+        CachingValidator<Product> cached = new CachingValidator.Builder<>(productValidator)
+                .key(Product::getSku)
+                .build();
+        cached.validate(new Product("PG-1", ""));
+        assertFalse(cached.validate(new Product("PG-1", "Portal gun")).isValid());
+        assertEquals(1, cached.getHitCount());
+
+        cached.validate(new Product(null, ""));
+        cached.validate(new Product(null, ""));
+        assertEquals(1, cached.getHitCount());
+        assertEquals(1, cached.size());
+    }
+
+    @Test
+    public void env_entries_are_part_of_the_key() {
+        CachingValidator<Product> cached = new CachingValidator.Builder<>(productValidator)
+                .envKeys("tenant")
+                .build();
+        Product product = new Product("", "");
+        cached.validate(product, new Env.Builder().set("tenant", "a").build());
+        cached.validate(product, new Env.Builder().set("tenant", "b").build());
+        cached.validate(product, new Env.Builder().set("tenant", "a").set("other", "x").build());
+        assertEquals(1, cached.getHitCount());
+
+        assertEquals(1, cached.validate(product, new Env.Builder().set("tenant", "a").failFast().build()).errorCount());
+        assertEquals(2, cached.validate(product, new Env.Builder().set("tenant", "a").build()).errorCount());
+    }
+
+    @Test
+    public void formatter_changes_are_never_stale() {
+        CachingValidator<Product> cached = new CachingValidator.Builder<>(productValidator).build();
+        Product product = new Product("PG-1", "");
+        assertEquals(Collections.singleton("name cannot be blank"), cached.validate(product).getErrors().get("name"));
+
+        ErrorFormatter.getInstance().override(Collections.singletonMap(ErrorType.NOT_BLANK, "%s is blank"));
+        assertEquals(Collections.singleton("name is blank"), cached.validate(product).getErrors().get("name"));
+        assertEquals(Collections.singleton("name is blank"), cached.validate(product).getErrors().get("name"));
+        assertEquals(1, cached.getHitCount());
+
+        ErrorFormatter.getInstance().override(Locale.forLanguageTag("el"),
+                Collections.singletonMap(ErrorType.NOT_BLANK, "%s κενό"));
+        Env greek = new Env.Builder().set(ErrorFormatter.LOCALE, "el").build();
+        assertEquals(Collections.singleton("name κενό"), cached.validate(product, greek).getErrors().get("name"));
+        assertEquals(Collections.singleton("name is blank"), cached.validate(product).getErrors().get("name"));
+    }
+
+    @Test
+    public void expiry() {
+        AtomicLong now = new AtomicLong();
+        CachingValidator<Product> cached = new CachingValidator.Builder<>(productValidator)
+                .expireAfterWrite(10, TimeUnit.SECONDS)
+                .clock(now::get)
+                .build();
+        Product product = new Product("", "");
+        cached.validate(product);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(9));
+        cached.validate(product);
+        assertEquals(1, cached.getHitCount());
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        cached.validate(product);
+        assertEquals(1, cached.getHitCount());
+        assertEquals(2, cached.getMissCount());
+        assertEquals(1, cached.getEvictionCount());
+    }
+
+    @Test
+    public void least_recently_used_entries_are_evicted() {
+        CachingValidator<Product> cached = new CachingValidator.Builder<>(productValidator)
+                .maximumSize(2)
+                .stripes(1)
+                .build();
+        Product a = new Product("a", "");
+        Product b = new Product("b", "");
+        Product c = new Product("c", "");
+        cached.validate(a);
+        cached.validate(b);
+        cached.validate(a);
+        cached.validate(c);
+        assertEquals(2, cached.size());
+        assertEquals(1, cached.getEvictionCount());
+        cached.validate(a);
+        assertEquals(2, cached.getHitCount());
+        cached.validate(b);
+        assertEquals(2, cached.getHitCount());
+
+        cached.invalidateAll();
+        assertEquals(0, cached.size());
+    }
+
+    @Test
+    public void nested_validators_use_the_cache() {
+        CachingValidator<Product> cached = new CachingValidator.Builder<>(productValidator).build();
+        Validator<List<Product>> catalog = ps -> Aggregation.of().nestedList("product", cached, ps);
+        List<Product> products = Arrays.asList(new Product("", "a"), new Product("", "a"), new Product("b", "b"));
+        Result result = catalog.validate(products);
+        assertEquals(2, result.errorCount());
+        assertEquals(1, cached.getHitCount());
+
+        catalog.validate(products, new Env.Builder().maxErrors(5).build());
+        assertEquals(1, cached.getHitCount());
+    }
+
+    @Test
+    public void concurrent_access() throws Exception {
+        CachingValidator<Product> cached = new CachingValidator.Builder<>(productValidator)
+                .maximumSize(64)
+                .build();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    Random random = new Random();
+                    for (int i = 0; i < 20_000; i++) {
+                        int n = random.nextInt(100);
+                        Product product = new Product(n % 3 == 0 ? "" : "P" + n, "name");
+                        Result result = cached.validate(product);
+                        assertEquals(n % 3 == 0, !result.isValid());
+                        if (!result.isValid()) {
+                            assertEquals(Collections.singleton("sku cannot be blank"), result.getErrors().get("sku"));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(160_000, cached.getHitCount() + cached.getMissCount());
+        assertTrue(cached.getHitCount() > 0);
+        assertTrue(cached.size() <= 64);
+    }
+
+    @Test
+    public void cached_results_are_read_concurrently() throws Exception {
+        AtomicInteger formatted = new AtomicInteger();
+        ErrorFormatter.getInstance().override((error, env, args) -> {
+            formatted.incrementAndGet();
+            return args[0] + " is " + error;
+        });
+        Validator<Product> nested = p -> Aggregation.of()
+                .nested("product", productValidator, p)
+                .nested("replacement", productValidator, p);
+        CachingValidator<Product> cached = new CachingValidator.Builder<>(nested).build();
+        Product product = new Product("", "");
+        Result expected = nested.validate(product);
+        Map<String, Object> expectedMap = expected.getErrors();
+        List<String> expectedErrors = new ArrayList<>();
+        expected.forEachError((field, type, message) -> expectedErrors.add(field + ": " + message));
+        cached.validate(product);
+        formatted.set(0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 10_000; i++) {
+                        Result result = cached.validate(product);
+                        List<String> errors = new ArrayList<>();
+                        result.forEachError((field, type, message) -> errors.add(field + ": " + message));
+                        assertEquals(expectedErrors, errors);
+                        assertEquals(expectedMap, result.getErrors());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(80_000, cached.getHitCount());
+        assertEquals(0, formatted.get());
+    }
+}
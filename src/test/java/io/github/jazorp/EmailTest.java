@@ -0,0 +1,115 @@
+package io.github.jazorp;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class EmailTest {
+
+    // the expression used before the scanner, kept as the reference implementation
+    private static final Pattern EMAIL_PATTERN = Pattern.compile(
+            "^[\\w!#$%&'*+/=?`{|}~^-]+(?:\\.[\\w!#$%&'*+/=?`{|}~^-]+)*@(?:[a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,6}$");
+
+    private static void assertSameAsRegex(String s) {
+        assertEquals(s, EMAIL_PATTERN.matcher(s).matches(), Email.isValid(s));
+    }
+
+    @Test
+    public void exhaustive_corpus() {
+        char[] alphabet = {'a', 'Z', '1', '-', '.', '@', '!', 'é'};
+        int maxLength = 7;
+        char[] chars = new char[maxLength];
+        int[] digits = new int[maxLength];
+        for (int length = 0; length <= maxLength; length++) {
+            java.util.Arrays.fill(digits, 0);
+            while (true) {
+                for (int i = 0; i < length; i++) {
+                    chars[i] = alphabet[digits[i]];
+                }
+                assertSameAsRegex(new String(chars, 0, length));
+                int i = 0;
+                while (i < length && ++digits[i] == alphabet.length) {
+                    digits[i++] = 0;
+                }
+                if (i == length) {
+                    break;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void random_corpus() {
+        String alphabet = "abcXYZ019-._@@..!#$%&'*+/=?`{|}~^ \t\néΑ[]()<>,;:\\\"";
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder();
+        for (int n = 0; n < 200_000; n++) {
+            sb.setLength(0);
+            int length = random.nextInt(24);
+            for (int i = 0; i < length; i++) {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            assertSameAsRegex(sb.toString());
+        }
+    }
+
+    @Test
+    public void known_addresses() {
+        String[] addresses = {
+                "user.name@domain.com", "user.name@domain.co.uk", "a@b.cd", "first+last@sub-domain.example.museum",
+                "o'hara@example.ie", "x@1.io", "user@domain.abcdefg", "user@domain.c", "user@domain.c0m",
+                "user@-.com", "user@domain..com", "user@.domain.com", "user.@domain.com", "us..er@domain.com",
+                ".username@domain.com", "username@domain.com.", "username@domaincom", "username_AT_domain_DOT_com",
+                "user@domain.com\n", "user name@domain.com", "user@domain@domain.com", "üser@domain.com", ""
+        };
+        for (String address : addresses) {
+            assertSameAsRegex(address);
+        }
+    }
+
+    @Test
+    public void pathological_inputs() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 50_000; i++) {
+            sb.append("a.");
+        }
+        String dots = sb.toString();
+        assertFalse(Email.isValid(dots + "@"));
+        assertFalse(Email.isValid("a@" + dots.replace('.', '-') + "!"));
+        assertTrue(Email.isValid("a@" + dots + "com"));
+    }
+
+    @Test
+    public void strict_lengths() {
+        String local64 = repeat('a', 64);
+        String label63 = repeat('b', 63);
+        assertTrue(Email.isValidStrict(local64 + "@" + label63 + ".com"));
+        assertFalse(Email.isValidStrict(local64 + "a@domain.com"));
+        assertTrue(Email.isValid(local64 + "a@domain.com"));
+        assertFalse(Email.isValidStrict("a@" + label63 + "b.com"));
+
+        String domain = label63 + "." + label63 + "." + label63 + "." + repeat('c', 57) + ".com";
+        assertEquals(253, domain.length());
+        assertFalse(Email.isValidStrict("aa@" + domain));
+        assertTrue(Email.isValidStrict("a@" + domain.substring(1)));
+        assertTrue(Email.isValid("aa@" + domain));
+    }
+
+    @Test
+    public void validators() {
+        Env env = Env.empty();
+        assertTrue(Validators.email("foo", "user@domain.com").validate(env).isValid());
+        assertFalse(Validators.strictEmail("foo", repeat('a', 65) + "@domain.com").validate(env).isValid());
+        assertEquals("foo is not a valid e-mail address",
+                Validators.strictEmail("foo", "x").validate(env).getError().getError());
+    }
+
+    private static String repeat(char c, int times) {
+        char[] chars = new char[times];
+        java.util.Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
@@ -0,0 +1,140 @@
+package io.github.jazorp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class ErrorFormatterTest {
+
+    private final ErrorFormatter formatter = ErrorFormatter.getInstance();
+
+    @Before
+    public void setup() {
+        formatter.reset();
+    }
+
+    @After
+    public void tearDown() {
+        formatter.reset();
+    }
+
+    @Test
+    public void templates_match_string_format() {
+        Object[] args = {"foo", 42, 5, null, "bar"};
+        String[] formats = {
+                "%s must have at least %3$s characters", "%s", "", "plain", "%2$s%1$s%s%s", "100%% %s",
+                "%s%n%3$s", "%4$s is null", "%5$s-%1$s-%s", "%d items", "%-10s|", "%.2f", "%s %"
+        };
+        for (String format : formats) {
+            String expected;
+            try {
+                expected = String.format(format, args);
+            } catch (IllegalFormatException e) {
+                expected = e.getClass().getName();
+            }
+            String actual;
+            try {
+                actual = MessageTemplate.compile(format).format(args);
+            } catch (IllegalFormatException e) {
+                actual = e.getClass().getName();
+            }
+            assertEquals(format, expected, actual);
+        }
+    }
+
+    @Test(expected = MissingFormatArgumentException.class)
+    public void missing_arguments() {
+        MessageTemplate.compile("%s %3$s").format(new Object[]{"foo"});
+    }
+
+    @Test
+    public void per_locale_messages() {
+        formatter.override(Locale.forLanguageTag("el"),
+                Collections.singletonMap(ErrorType.NOT_BLANK, "Το %s δεν μπορεί να είναι κενό"));
+        formatter.override(Locale.forLanguageTag("el-CY"),
+                Collections.singletonMap(ErrorType.NOT_BLANK, "%s: κενό"));
+
+        Env greek = new Env.Builder().set(ErrorFormatter.LOCALE, "el-GR").build();
+        Env cypriot = new Env.Builder().set(ErrorFormatter.LOCALE, "el-CY").build();
+        Env english = new Env.Builder().set(ErrorFormatter.LOCALE, "en").build();
+
+        assertEquals("Το name δεν μπορεί να είναι κενό", formatter.format(ErrorType.NOT_BLANK, greek, "name", ""));
+        assertEquals("name: κενό", formatter.format(ErrorType.NOT_BLANK, cypriot, "name", ""));
+        assertEquals("name cannot be blank", formatter.format(ErrorType.NOT_BLANK, english, "name", ""));
+        assertEquals("name cannot be blank", formatter.format(ErrorType.NOT_BLANK, Env.empty(), "name", ""));
+        assertEquals("name cannot be null", formatter.format(ErrorType.NOT_NULL, greek, "name", null));
+    }
+
+    @Test
+    public void errors_keep_the_configuration_they_were_created_with() {
+        Result result = Aggregation.of(Validators.notBlank("name", "")).validate(Env.empty());
+        formatter.override(Collections.singletonMap(ErrorType.NOT_BLANK, "%s is blank"));
+        assertEquals(Collections.singletonMap("name", Collections.singleton("name cannot be blank")), result.getErrors());
+        result = Aggregation.of(Validators.notBlank("name", "")).validate(Env.empty());
+        assertEquals(Collections.singletonMap("name", Collections.singleton("name is blank")), result.getErrors());
+    }
+
+    @Test
+    public void versions_increase() {
+        long version = formatter.snapshot().version();
+        formatter.override(Collections.singletonMap(ErrorType.NOT_BLANK, "%s is blank"));
+        assertTrue(formatter.snapshot().version() > version);
+        version = formatter.snapshot().version();
+        formatter.reset();
+        assertTrue(formatter.snapshot().version() > version);
+    }
+
+    @Test
+    public void concurrent_overrides_and_formatting() throws Exception {
+        Set<String> allowed = new HashSet<>(Arrays.asList(
+                "name cannot be blank", "name is blank", "name must not be blank"));
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads - 1; t++) {
+            futures.add(executor.submit(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 200_000; i++) {
+                        String message = formatter.format(ErrorType.NOT_BLANK, Env.empty(), "name", "");
+                        if (!allowed.contains(message)) {
+                            throw new AssertionError("unexpected message " + message);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+                return null;
+            }));
+        }
+        futures.add(executor.submit(() -> {
+            try {
+                start.await();
+                for (int i = 0; i < 20_000; i++) {
+                    formatter.override(Collections.singletonMap(ErrorType.NOT_BLANK, "%s is blank"));
+                    formatter.override(Locale.forLanguageTag("el"),
+                            Collections.singletonMap(ErrorType.NOT_BLANK, "%s είναι κενό"));
+                    formatter.override(Collections.singletonMap(ErrorType.NOT_BLANK, "%s must not be blank"));
+                    formatter.reset();
+                }
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            }
+            return null;
+        }));
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        assertNull(String.valueOf(failure.get()), failure.get());
+    }
+}
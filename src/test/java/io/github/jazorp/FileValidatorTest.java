@@ -0,0 +1,268 @@
+package io.github.jazorp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class FileValidatorTest {
+
+    private Path folder;
+
+    @Before
+    public void setup() throws IOException {
+        ErrorFormatter.getInstance().reset();
+        folder = Files.createTempDirectory("jazorp");
+    }
+
+    @After
+    public void cleanup() throws IOException {
+        try (Stream<Path> files = Files.walk(folder)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    private Path newFile() throws IOException {
+        return Files.createTempFile(folder, "file", null);
+    }
+
+    static class Person {
+
+        String name;
+        String email;
+        long age;
+
+        Person(String name, String email, long age) {
+            this.name = name;
+            this.email = email;
+            this.age = age;
+        }
+    }
+
+    private static final JsonValidator ORDERS = new JsonValidator(Arrays.asList(
+            Rule.of("id", ErrorType.NOT_BLANK),
+            Rule.of("items[].sku", ErrorType.LENGTH, 8),
+            Rule.of("items[].quantity", ErrorType.POSITIVE)));
+
+    private static final Validator<Person> PEOPLE = person -> Aggregation.of(
+            Validators.notBlank("name", person.name),
+            Validators.email("email", person.email),
+            Validators.positive("age", person.age));
+
+    private static Person person(String[] row) {
+        if (row.length != 3) {
+            throw new IndexOutOfBoundsException("expected 3 fields");
+        }
+        return new Person(row[0], row[1], Long.parseLong(row[2]));
+    }
+
+    /**
+     * Writes {@code count} orders, every 7th with an invalid item, some blank lines, a malformed line and mixed
+     * line endings, and returns the lines.
+     */
+    private Path orders(int count, List<String> lines) throws IOException {
+        StringBuilder file = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            String line;
+            if (i % 50 == 49) {
+                line = "";
+            } else if (i == 100) {
+                line = "{\"id\":\"A-100\",";
+            } else {
+                line = "{\"id\":\"" + (i % 13 == 0 ? " " : "A-" + i) + "\","
+                        + "\"items\":[{\"sku\":\"ABCDEFGH\",\"quantity\":1},"
+                        + "{\"sku\":\"" + (i % 7 == 0 ? "X" : "ABCDEFGH") + "\",\"quantity\":" + (i % 11) + "}]}";
+            }
+            lines.add(line);
+            file.append(line).append(i % 2 == 0 ? "\r\n" : "\n");
+        }
+        Path path = newFile();
+        Files.write(path, file.toString().getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+
+    private static String line(long line, String path, String message) {
+        return "{\"line\":" + line + ",\"path\":\"" + path + "\",\"message\":\""
+                + message.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}\n";
+    }
+
+    /**
+     * The report of validating each line on its own, in order.
+     */
+    private static String expected(List<String> lines, int from) {
+        StringBuilder report = new StringBuilder();
+        for (int i = from; i < lines.size(); i++) {
+            if (lines.get(i).isEmpty()) {
+                continue;
+            }
+            long number = i + 1;
+            try {
+                ORDERS.validate(lines.get(i).getBytes(StandardCharsets.UTF_8))
+                        .forEachError((path, type, message) -> report.append(line(number, path, message)));
+            } catch (IllegalArgumentException e) {
+                report.append(line(number, "", e.getMessage()));
+            }
+        }
+        return report.toString();
+    }
+
+    private static String report(FileValidator validator, Path input, Env env) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        validator.validate(input, out, env);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void ndjson_report_is_the_same_as_validating_each_line() throws IOException {
+        List<String> lines = new ArrayList<>();
+        Path input = orders(3_000, lines);
+        String expected = expected(lines, 0);
+        for (int chunkSize : new int[]{1, 100, 4_096, Integer.MAX_VALUE}) {
+            for (int threads : new int[]{1, 3}) {
+                FileValidator validator = new FileValidator.Builder()
+                        .ndjson(ORDERS)
+                        .chunkSize(chunkSize)
+                        .threads(threads)
+                        .build();
+                assertEquals(chunkSize + "/" + threads, expected, report(validator, input, Env.empty()));
+            }
+        }
+
+        Path report = newFile();
+        FileValidator.Summary summary = new FileValidator.Builder().ndjson(ORDERS).chunkSize(1_000).build()
+                .validate(input, report, Env.empty());
+        assertEquals(expected, new String(Files.readAllBytes(report), StandardCharsets.UTF_8));
+        assertEquals(3_000, summary.getLines());
+        assertEquals(3_000 - 60, summary.getRecords());
+        assertEquals(expected.split("\n").length, summary.getErrorCount());
+        assertTrue(summary.getInvalidRecords() > 0 && summary.getInvalidRecords() < summary.getErrorCount());
+        assertFalse(summary.isValid());
+    }
+
+    @Test
+    public void error_budget_applies_to_each_record() throws IOException {
+        List<String> lines = new ArrayList<>();
+        Path input = orders(200, lines);
+        FileValidator validator = new FileValidator.Builder().ndjson(ORDERS).chunkSize(512).build();
+        FileValidator.Summary summary = validator.validate(input, new ByteArrayOutputStream(),
+                new Env.Builder().failFast().parallel(1).build());
+        assertEquals(summary.getInvalidRecords(), summary.getErrorCount());
+        assertTrue(report(validator, input, Env.empty()).contains(line(1, "id", "id cannot be blank")));
+    }
+
+    @Test
+    public void csv_with_header_and_quotes() throws IOException {
+        Path input = newFile();
+        Files.write(input, Arrays.asList(
+                "name,email,age",
+                "Rick,rick@citadel.com,70",
+                "\"Smith, Morty\",morty,14",
+                "",
+                "\"\",\"say \"\"hi\"\"\",0",
+                "Summer,summer@smith.com",
+                "\"Beth,beth@smith.com,34",
+                "Jerry,jerry@smith.com,x",
+                "Squanchy,squanchy@squanch.com,40"), StandardCharsets.UTF_8);
+
+        FileValidator validator = new FileValidator.Builder()
+                .csv(FileValidatorTest::person, PEOPLE)
+                .header()
+                .chunkSize(16)
+                .threads(2)
+                .build();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FileValidator.Summary summary = validator.validate(input, out, Env.empty());
+
+        assertEquals(line(3, "email", "email is not a valid e-mail address")
+                        + line(5, "name", "name cannot be blank")
+                        + line(5, "email", "email is not a valid e-mail address")
+                        + line(5, "age", "age must be positive")
+                        + line(6, "", "java.lang.IndexOutOfBoundsException: expected 3 fields")
+                        + line(7, "", "Malformed CSV at byte 0: unterminated quote")
+                        + line(8, "", "For input string: \"x\""),
+                new String(out.toByteArray(), StandardCharsets.UTF_8));
+        assertEquals(9, summary.getLines());
+        assertEquals(7, summary.getRecords());
+        assertEquals(5, summary.getInvalidRecords());
+        assertEquals(7, summary.getErrorCount());
+    }
+
+    @Test
+    public void splits_csv_fields() {
+        assertEquals(Arrays.asList("a", "", "b c", ""), fields("a,,b c,"));
+        assertEquals(Arrays.asList("a,b", "say \"hi\"", ""), fields("\"a,b\",\"say \"\"hi\"\"\",\"\""));
+        assertEquals(Arrays.asList("é", "x"), fields("é;x", ';'));
+        for (String malformed : Arrays.asList("\"a", "\"a\"b,c", "a,\"b\"\"")) {
+            try {
+                fields(malformed);
+                fail("accepted " + malformed);
+            } catch (IllegalArgumentException expected) {
+                assertTrue(expected.getMessage(), expected.getMessage().startsWith("Malformed CSV at byte "));
+            }
+        }
+    }
+
+    private static List<String> fields(String record) {
+        return fields(record, ',');
+    }
+
+    private static List<String> fields(String record, char delimiter) {
+        byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+        return Arrays.asList(FileValidator.fields(bytes, bytes.length, delimiter));
+    }
+
+    @Test
+    public void last_line_without_line_break_and_empty_files() throws IOException {
+        FileValidator validator = new FileValidator.Builder().ndjson(ORDERS).chunkSize(8).build();
+        Path input = newFile();
+        Files.write(input, "{\"id\":\"A\"}\n{\"id\":\"\"}".getBytes(StandardCharsets.UTF_8));
+        assertEquals(line(2, "id", "id cannot be blank"), report(validator, input, Env.empty()));
+
+        Path empty = newFile();
+        FileValidator.Summary summary = validator.validate(empty, new ByteArrayOutputStream(), Env.empty());
+        assertEquals(0, summary.getLines());
+        assertTrue(summary.isValid());
+    }
+
+    @Test
+    public void invalid_configuration_and_missing_files() throws IOException {
+        try {
+            new FileValidator.Builder().build();
+            fail();
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+        try {
+            new FileValidator.Builder().csv('"', FileValidatorTest::person, PEOPLE);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+        try {
+            new FileValidator.Builder().chunkSize(0);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+        try {
+            new FileValidator.Builder().ndjson(ORDERS).build()
+                    .validate(folder.resolve("missing"), new ByteArrayOutputStream(), Env.empty());
+            fail();
+        } catch (NoSuchFileException expected) {
+            // expected
+        }
+    }
+}
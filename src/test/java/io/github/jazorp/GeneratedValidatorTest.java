@@ -0,0 +1,245 @@
+package io.github.jazorp;
+
+import io.github.jazorp.annotation.*;
+import io.github.jazorp.processor.ValidatorProcessor;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.tools.*;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class GeneratedValidatorTest {
+
+    @Before
+    public void setup() {
+        ErrorFormatter.getInstance().reset();
+    }
+
+    static class Entity {
+
+        @NotNull
+        Long id;
+    }
+
+    static class Person extends Entity {
+
+        @NotBlank @MinLength(3)
+        String name;
+
+        @Positive @Less(150)
+        int age;
+
+        @GreaterEqual(0.5)
+        double weight;
+
+        @LessEqual(10)
+        Integer score;
+
+        @Positive
+        BigDecimal balance;
+
+        // io.github.jazorp.Email shadows the import in this package
+        @io.github.jazorp.annotation.Email
+        private String email;
+        public String getEmail() { return email; }
+
+        @Nested
+        Address address;
+
+        @Nested
+        List<Pet> pets;
+
+        Person(Long id, String name, int age, double weight, Integer score, BigDecimal balance, String email,
+               Address address, List<Pet> pets) {
+            this.id = id;
+            this.name = name;
+            this.age = age;
+            this.weight = weight;
+            this.score = score;
+            this.balance = balance;
+            this.email = email;
+            this.address = address;
+            this.pets = pets;
+        }
+    }
+
+    static class Address {
+
+        private String street;
+        @NotBlank
+        public String getStreet() { return street; }
+
+        @Length(5)
+        String zip;
+
+        Address(String street, String zip) {
+            this.street = street;
+            this.zip = zip;
+        }
+    }
+
+    static class Pet {
+
+        @NotBlank @MaxLength(8)
+        String name;
+
+        @Equal(1.5) @Greater(1)
+        float legs;
+
+        Pet(String name, float legs) {
+            this.name = name;
+            this.legs = legs;
+        }
+    }
+
+    private static final Validator<Address> addressValidator = a -> Aggregation.of(
+            Validators.notBlank("street", a.getStreet()),
+            Validators.length("zip", a.zip, 5));
+
+    private static final Validator<Pet> petValidator = p -> Aggregation.of(
+            Validators.notBlank("name", p.name),
+            Validators.maxLength("name", p.name, 8),
+            Validators.equal("legs", p.legs, 1.5),
+            Validators.greater("legs", p.legs, 1));
+
+    private static final Validator<Person> personValidator = p -> {
+        Aggregation aggregation = Aggregation.of(
+                Validators.notNull("id", p.id),
+                Validators.notBlank("name", p.name),
+                Validators.minLength("name", p.name, 3),
+                Validators.positive("age", p.age),
+                Validators.less("age", p.age, 150),
+                Validators.greaterEqual("weight", p.weight, 0.5),
+                Validators.lessEqual("score", p.score, 10),
+                Validators.positive("balance", p.balance),
+                Validators.email("email", p.getEmail()));
+        if (p.address != null) {
+            aggregation.nested("address", addressValidator, p.address);
+        }
+        return aggregation.nestedList("pets", petValidator, p.pets);
+    };
+
+    private static List<Person> people() {
+        return Arrays.asList(
+                new Person(1L, "Morty", 14, 45.2, 3, BigDecimal.ONE, "morty@smith.com",
+                        new Address("Hmmmm", "12345"), Arrays.asList(new Pet("Snuffles", 1.5f))),
+                new Person(null, "", 0, 0.5, 11, BigDecimal.ZERO, "morty",
+                        new Address("", "123456"), Arrays.asList(new Pet("Snuffles", 1.5f), new Pet("Snowball II", 1))),
+                new Person(2L, "Al", 150, 0.4999, null, null, null, null, null),
+                new Person(3L, null, -1, Double.NaN, 10, new BigDecimal("-0.1"), "rick@smith.com",
+                        new Address(null, null), Collections.emptyList()));
+    }
+
+    @Test
+    public void same_result_as_hand_written_validator() {
+        for (Person person : people()) {
+            Result expected = personValidator.validate(person);
+            Result actual = GeneratedValidatorTest_Person_Validator.INSTANCE.validate(person);
+            assertEquals(expected.isValid(), actual.isValid());
+            assertEquals(expected.getErrors(), actual.getErrors());
+            assertEquals(expected.errorCount(), actual.errorCount());
+        }
+        assertTrue(GeneratedValidatorTest_Person_Validator.INSTANCE.validate(people().get(0)).isValid());
+        assertEquals(12, GeneratedValidatorTest_Person_Validator.INSTANCE.validate(people().get(1)).errorCount());
+    }
+
+    @Test
+    public void same_result_through_aggregation() {
+        for (Person person : people()) {
+            Result expected = personValidator.validate(person);
+            Result actual = GeneratedValidatorTest_Person_Validator.INSTANCE.collect(person).validate(Env.empty());
+            assertEquals(expected.getErrors(), actual.getErrors());
+        }
+    }
+
+    @Test
+    public void messages() {
+        Result result = GeneratedValidatorTest_Person_Validator.INSTANCE.validate(people().get(1));
+        Map<String, Object> errors = result.getErrors();
+        assertEquals("[id cannot be null]", errors.get("id").toString());
+        assertEquals("[name must have at least 3 characters, name cannot be blank]", errors.get("name").toString());
+        assertEquals("[score must be less or equal to 10]", errors.get("score").toString());
+        assertEquals("{street=[street cannot be blank], zip=[zip must be exactly 5 characters long]}",
+                errors.get("address").toString());
+    }
+
+    @Test
+    public void error_budget() {
+        for (int maxErrors = 1; maxErrors <= 20; maxErrors++) {
+            Env env = new Env.Builder().maxErrors(maxErrors).build();
+            for (Person person : people()) {
+                Result expected = personValidator.validate(person, env);
+                Result actual = GeneratedValidatorTest_Person_Validator.INSTANCE.validate(person, env);
+                assertEquals(expected.getErrors(), actual.getErrors());
+            }
+        }
+    }
+
+    @Test
+    public void nested_in_hand_written_validators_and_batches() {
+        Validator<List<Person>> validator = people -> Aggregation.of()
+                .nestedList("people", GeneratedValidatorTest_Person_Validator.INSTANCE, people);
+        Validator<List<Person>> expected = people -> Aggregation.of()
+                .nestedList("people", personValidator, people);
+        assertEquals(expected.validate(people()).getErrors(), validator.validate(people()).getErrors());
+    }
+
+    @Test
+    public void reports_every_check_to_a_listener() {
+        ValidationMetrics metrics = new ValidationMetrics();
+        Env env = new Env.Builder().listener(metrics).build();
+        Result result = GeneratedValidatorTest_Person_Validator.INSTANCE.validate(people().get(1), env);
+        assertEquals(personValidator.validate(people().get(1)).getErrors(), result.getErrors());
+
+        ValidationMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.get("name", ErrorType.MIN_LENGTH).getFailures());
+        assertEquals(2, snapshot.get("legs", ErrorType.GREATER).getCount());
+        assertEquals(4, snapshot.getAggregations().getCount());
+    }
+
+    @Test
+    public void processor_reports_unsupported_members() {
+        String source = "package p;\n" +
+                "import io.github.jazorp.annotation.*;\n" +
+                "class Bad {\n" +
+                "    @NotBlank int count;\n" +
+                "    @MinLength(2) private String hidden;\n" +
+                "    @Nested Object plain;\n" +
+                "    @Positive String text;\n" +
+                "}\n";
+        List<String> errors = compile(source);
+        assertEquals(Arrays.asList(
+                "private field without an accessible getter",
+                "@NotBlank on a non String type",
+                "@Nested type java.lang.Object has no validation annotations",
+                "@Positive on a non numeric type"), errors);
+    }
+
+    private static List<String> compile(String source) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertNotNull("tests need a JDK", compiler);
+        JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///p/Bad.java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics,
+                Arrays.asList("-proc:only", "-classpath", System.getProperty("java.class.path")),
+                null, Collections.singletonList(file));
+        task.setProcessors(Collections.singletonList(new ValidatorProcessor()));
+        task.call();
+        List<String> errors = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                errors.add(diagnostic.getMessage(Locale.ROOT));
+            }
+        }
+        return errors;
+    }
+}
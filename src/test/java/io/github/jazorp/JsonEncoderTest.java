@@ -0,0 +1,213 @@
+package io.github.jazorp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static io.github.jazorp.Validators.*;
+import static org.junit.Assert.*;
+
+public class JsonEncoderTest {
+
+    @Before
+    public void setup() {
+        ErrorFormatter.getInstance().reset();
+    }
+
+    @After
+    public void tearDown() {
+        ErrorFormatter.getInstance().reset();
+    }
+
+    private static class Line {
+
+        private String sku;
+        public String getSku() { return sku; }
+
+        private int quantity;
+        public int getQuantity() { return quantity; }
+
+        public Line(String sku, int quantity) {
+            this.sku = sku;
+            this.quantity = quantity;
+        }
+    }
+
+    private static class Order {
+
+        private String email;
+        public String getEmail() { return email; }
+
+        private List<Line> lines;
+        public List<Line> getLines() { return lines; }
+
+        public Order(String email, List<Line> lines) {
+            this.email = email;
+            this.lines = lines;
+        }
+    }
+
+    private static final Validator<Line> lineValidator = l -> Aggregation.of(
+            notBlank("sku", l.getSku()),
+            maxLength("sku", l.getSku(), 8),
+            positive("quantity", l.getQuantity()));
+
+    private static final Validator<Order> orderValidator = o -> Aggregation.of(
+            email("email", o.getEmail()),
+            minLength("email", o.getEmail(), 20))
+            .nestedList("line", lineValidator, o.getLines());
+
+    private static Order order(int size) {
+        List<Line> lines = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            lines.add(new Line(i % 3 == 0 ? "" : "SKU-" + i, i % 4 == 0 ? 0 : i));
+        }
+        return new Order("not-an-email", lines);
+    }
+
+    /**
+     * A straightforward encoding of {@link Result#getErrors()}.
+     */
+    @SuppressWarnings("unchecked")
+    private static void reference(Object value, StringBuilder sb) {
+        if (value instanceof Map) {
+            sb.append('{');
+            boolean first = true;
+            for (Map.Entry<String, Object> entry : new TreeMap<>((Map<String, Object>) value).entrySet()) {
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+                reference(entry.getKey(), sb);
+                sb.append(':');
+                reference(entry.getValue(), sb);
+            }
+            sb.append('}');
+        } else if (value instanceof Collection) {
+            sb.append('[');
+            boolean first = true;
+            for (Object message : new TreeSet<>((Collection<String>) value)) {
+                if (!first) {
+                    sb.append(',');
+                }
+                first = false;
+                reference(message, sb);
+            }
+            sb.append(']');
+        } else {
+            sb.append('"');
+            for (char c : value.toString().toCharArray()) {
+                if (c == '"' || c == '\\') {
+                    sb.append('\\').append(c);
+                } else if (c == '\n') {
+                    sb.append("\\n");
+                } else if (c == '\t') {
+                    sb.append("\\t");
+                } else if (c < 0x20) {
+                    sb.append(String.format("\\u%04x", (int) c));
+                } else {
+                    sb.append(c);
+                }
+            }
+            sb.append('"');
+        }
+    }
+
+    private static String reference(Result result) {
+        StringBuilder sb = new StringBuilder();
+        reference(result.getErrors(), sb);
+        return sb.toString();
+    }
+
+    @Test
+    public void encodes_nested_errors() {
+        Result result = orderValidator.validate(order(2));
+        assertEquals("{\"email\":[\"email is not a valid e-mail address\",\"email must have at least 20 characters\"]," +
+                        "\"line[0]\":{\"quantity\":[\"quantity must be positive\"],\"sku\":[\"sku cannot be blank\"]}}",
+                JsonEncoder.toJson(result));
+    }
+
+    @Test
+    public void valid_result() {
+        assertEquals("{}", JsonEncoder.toJson(Result.valid()));
+        assertEquals("{}", JsonEncoder.toJson(Result.empty()));
+    }
+
+    @Test
+    public void same_as_map_view() {
+        for (int size : new int[]{0, 1, 5, 17, 100, 5000}) {
+            Result result = orderValidator.validate(order(size));
+            String expected = reference(result);
+            assertEquals(expected, JsonEncoder.toJson(orderValidator.validate(order(size))));
+            assertEquals(expected, JsonEncoder.toJson(result));
+            assertEquals(expected, JsonEncoder.toJson(new Result(result.getErrors())));
+        }
+    }
+
+    @Test
+    public void all_targets_produce_the_same_bytes() throws Exception {
+        Result result = orderValidator.validate(order(5000));
+        byte[] expected = JsonEncoder.toJson(result).getBytes(StandardCharsets.UTF_8);
+        assertTrue(expected.length > 8192);
+
+        assertArrayEquals(expected, JsonEncoder.toBytes(result));
+        assertArrayEquals(expected, JsonEncoder.toBytes(orderValidator.validate(order(5000))));
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        JsonEncoder.write(result, stream);
+        assertArrayEquals(expected, stream.toByteArray());
+
+        ByteBuffer buffer = ByteBuffer.allocate(expected.length + 10);
+        buffer.put((byte) 'x');
+        JsonEncoder.write(result, buffer);
+        assertEquals(expected.length + 1, buffer.position());
+        byte[] written = new byte[expected.length];
+        buffer.flip();
+        buffer.get();
+        buffer.get(written);
+        assertArrayEquals(expected, written);
+
+        StringWriter writer = new StringWriter();
+        JsonEncoder.write(result, writer);
+        assertArrayEquals(expected, writer.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void list_element_names_are_not_cached() {
+        JsonEncoder.toBytes(orderValidator.validate(order(5000)));
+        assertTrue(JsonEncoder.KEYS.containsKey("email"));
+        assertTrue(JsonEncoder.KEYS.containsKey("sku"));
+        for (String key : JsonEncoder.KEYS.keySet()) {
+            assertFalse(key, key.contains("["));
+        }
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void buffer_overflow() {
+        JsonEncoder.write(orderValidator.validate(order(10)), ByteBuffer.allocate(16));
+    }
+
+    @Test
+    public void escapes_and_encodes_messages() {
+        ErrorFormatter.getInstance().override(Collections.singletonMap(ErrorType.NOT_BLANK,
+                "\"%s\"\\ δεν\tμπορεί\n\u0001 \uD83D\uDE00 \uD800"));
+        Map<String, Object> errors = new TreeMap<>();
+        errors.put("ονομα \"x\"", Collections.singleton("\u001f"));
+        Result result = Aggregation.of(notBlank("name", "")).validate(Env.empty());
+
+        String json = "{\"name\":[\"\\\"name\\\"\\\\ δεν\\tμπορεί\\n\\u0001 \uD83D\uDE00 \uD800\"]}";
+        assertEquals(json, JsonEncoder.toJson(result));
+        assertArrayEquals(json.getBytes(StandardCharsets.UTF_8), JsonEncoder.toBytes(result));
+
+        json = "{\"ονομα \\\"x\\\"\":[\"\\u001f\"]}";
+        assertEquals(json, JsonEncoder.toJson(new Result(errors)));
+        assertArrayEquals(json.getBytes(StandardCharsets.UTF_8), JsonEncoder.toBytes(new Result(errors)));
+    }
+}
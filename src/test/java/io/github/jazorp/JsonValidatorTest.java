@@ -0,0 +1,268 @@
+package io.github.jazorp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class JsonValidatorTest {
+
+    @Before
+    public void setup() {
+        ErrorFormatter.getInstance().reset();
+    }
+
+    static class Order {
+
+        String id;
+        String status;
+        Customer customer;
+        List<Item> items;
+
+        Order(String id, String status, Customer customer, List<Item> items) {
+            this.id = id;
+            this.status = status;
+            this.customer = customer;
+            this.items = items;
+        }
+    }
+
+    static class Customer {
+
+        String name;
+        String email;
+
+        Customer(String name, String email) {
+            this.name = name;
+            this.email = email;
+        }
+    }
+
+    static class Item {
+
+        String sku;
+        int quantity;
+        Double price;
+
+        Item(String sku, int quantity, Double price) {
+            this.sku = sku;
+            this.quantity = quantity;
+            this.price = price;
+        }
+    }
+
+    private static final List<Rule> RULES = Arrays.asList(
+            Rule.of("id", ErrorType.NOT_BLANK),
+            Rule.of("status", ErrorType.MEMBER_OF, "NEW", "PAID"),
+            Rule.of("customer", ErrorType.NOT_NULL),
+            Rule.of("customer.name", ErrorType.MIN_LENGTH, 3),
+            Rule.of("customer.email", ErrorType.EMAIL).optional(),
+            Rule.of("items[].sku", ErrorType.LENGTH, 8),
+            Rule.of("items[].quantity", ErrorType.POSITIVE),
+            Rule.of("items[].quantity", ErrorType.LESS, 100),
+            Rule.of("items[].price", ErrorType.GREATER_EQUAL, 0.5).optional());
+
+    private static List<Order> orders() {
+        return Arrays.asList(
+                new Order("A-1", "NEW", new Customer("Rick", "rick@citadel.com"),
+                        Collections.singletonList(new Item("ABCDEFGH", 2, 9.5))),
+                new Order("", "LOST", new Customer("Al", "al"), Arrays.asList(
+                        new Item("ABCDEFGH", 2, 9.5),
+                        new Item("X", 0, 0.1),
+                        new Item("ABCDEFGH", 100, null))),
+                new Order(null, null, null, null));
+    }
+
+    /**
+     * Writes an order with a few properties that have no rules around the ones that do.
+     */
+    private static String json(Order order) {
+        StringBuilder json = new StringBuilder("{\"meta\":{\"tags\":[\"a\",{\"b\":[true,false,null]}],\"v\":-1.5e3}");
+        json.append(",\"id\":").append(string(order.id));
+        json.append(",\"status\":").append(string(order.status));
+        if (order.customer != null) {
+            json.append(",\"customer\":{\"name\":").append(string(order.customer.name))
+                    .append(", \"email\" : ").append(string(order.customer.email)).append('}');
+        }
+        if (order.items != null) {
+            json.append(",\n\"items\":[");
+            for (int i = 0; i < order.items.size(); i++) {
+                Item item = order.items.get(i);
+                json.append(i == 0 ? "" : ",").append("{\"sku\":").append(string(item.sku))
+                        .append(",\"note\":\"\\\"}\",\"quantity\":").append(item.quantity)
+                        .append(",\"price\":").append(item.price).append('}');
+            }
+            json.append(']');
+        }
+        return json.append('}').toString();
+    }
+
+    private static String string(String s) {
+        return s == null ? "null" : '"' + s + '"';
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns one byte per read, so that every token spans buffer refills.
+     */
+    private static InputStream trickle(byte[] bytes) {
+        return new FilterInputStream(new ByteArrayInputStream(bytes)) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+    }
+
+    @Test
+    public void same_result_as_rule_set() {
+        RuleSet<Order> rules = new RuleSet<>(Order.class, RULES);
+        JsonValidator validator = new JsonValidator(RULES);
+        for (Order order : orders()) {
+            assertEquals(json(order), rules.validate(order).getErrors(), validator.validate(bytes(json(order))).getErrors());
+        }
+        assertTrue(validator.validate(bytes(json(orders().get(0)))).isValid());
+        assertEquals(8, validator.validate(bytes(json(orders().get(1)))).errorCount());
+    }
+
+    @Test
+    public void same_result_from_every_source() throws IOException {
+        JsonValidator validator = new JsonValidator(RULES);
+        byte[] json = bytes(json(orders().get(1)));
+        Map<String, Object> expected = validator.validate(json).getErrors();
+
+        ByteBuffer heap = ByteBuffer.allocate(json.length + 10);
+        heap.position(5);
+        heap.put(json).put("}}}}}".getBytes(StandardCharsets.UTF_8));
+        heap.position(5).limit(5 + json.length);
+        assertEquals(expected, validator.validate(heap.slice(), Env.empty()).getErrors());
+        assertEquals(expected, validator.validate(heap, Env.empty()).getErrors());
+        assertEquals(5, heap.position());
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(json.length);
+        direct.put(json).flip();
+        assertEquals(expected, validator.validate(direct, Env.empty()).getErrors());
+        assertEquals(0, direct.position());
+
+        assertEquals(expected, validator.validate(new ByteArrayInputStream(json), Env.empty()).getErrors());
+        assertEquals(expected, validator.validate(trickle(json), Env.empty()).getErrors());
+    }
+
+    @Test
+    public void nested_paths() {
+        List<String> paths = new ArrayList<>();
+        new JsonValidator(RULES).validate(bytes(json(orders().get(1)))).forEachError((path, type, message) -> paths.add(path));
+        assertTrue(paths.toString(), paths.containsAll(Arrays.asList(
+                "customer.name", "items[1].sku", "items[1].quantity", "items[1].price", "items[2].quantity")));
+    }
+
+    @Test
+    public void values_of_the_wrong_type_fail_their_checks() {
+        JsonValidator validator = new JsonValidator(RULES);
+        Result result = validator.validate(bytes("{\"id\":7,\"status\":\"NEW\",\"customer\":[],"
+                + "\"items\":[{\"sku\":12345678,\"quantity\":\"2\"},null,3]}"));
+        assertEquals(new HashSet<>(Arrays.asList("id", "items[0]")), result.getErrors().keySet());
+        assertEquals(4, result.errorCount());
+        assertTrue(result.hasErrorAt("items[0]", "sku"));
+    }
+
+    @Test
+    public void escapes() {
+        JsonValidator validator = new JsonValidator(Arrays.asList(
+                Rule.of("name", ErrorType.MIN_LENGTH, 3),
+                Rule.of("size", ErrorType.MEMBER_OF, 1, 2.5)));
+        assertTrue(validator.validate(bytes("{\"n\\u0061me\":\"A\\ud83d\\ude00\",\"size\":1.0}")).isValid());
+        assertTrue(validator.validate(bytes("{\"name\":\"\\\"\\\\\\/\",\"size\":2.5e0}")).isValid());
+        assertEquals(2, validator.validate(bytes("{\"name\":\"\\u00e9\\n\",\"size\":2}")).errorCount());
+    }
+
+    @Test
+    public void fail_fast_stops_reading() throws IOException {
+        StringBuilder json = new StringBuilder("{\"id\":\"\",\"items\":[");
+        for (int i = 0; i < 10_000; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"sku\":\"ABCDEFGH\",\"quantity\":1}");
+        }
+        byte[] bytes = bytes(json.append("]}").toString());
+        int[] read = new int[1];
+        InputStream in = new FilterInputStream(new ByteArrayInputStream(bytes)) {
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = super.read(b, off, len);
+                read[0] += Math.max(n, 0);
+                return n;
+            }
+        };
+
+        JsonValidator validator = new JsonValidator(RULES);
+        Result result = validator.validate(in, new Env.Builder().failFast().build());
+        assertEquals(Collections.singleton("id"), result.getErrors().keySet());
+        assertTrue(read[0] + " of " + bytes.length, read[0] < bytes.length / 10);
+        assertEquals(3, validator.validate(bytes, new Env.Builder().maxErrors(3).build()).errorCount());
+        assertEquals(3, validator.validate(bytes).errorCount());
+    }
+
+    @Test
+    public void blocking_and_priority() {
+        JsonValidator validator = new JsonValidator(Arrays.asList(
+                Rule.of("age", ErrorType.POSITIVE).priority(200),
+                Rule.of("name", ErrorType.NOT_BLANK).blocking(),
+                Rule.of("name", ErrorType.MIN_LENGTH, 3).priority(1)));
+        Result result = validator.validate(bytes("{\"age\":0,\"name\":\"\"}"), new Env.Builder().failFast().build());
+        assertTrue(result.wasBlocked());
+        assertEquals(Collections.singleton("name"), result.getErrors().keySet());
+    }
+
+    @Test
+    public void rejects_malformed_documents() {
+        JsonValidator validator = new JsonValidator(RULES);
+        List<String> malformed = Arrays.asList("", "[]", "{", "{\"id\"}", "{\"id\":}", "{\"id\":\"a\",}",
+                "{\"id\":\"a\" \"status\":1}", "{\"id\":01}", "{\"id\":1.}", "{\"id\":tru}", "{\"id\":\"\\x\"}",
+                "{\"id\":\"a\"}x", "{\"meta\":[1,]}", "{\"meta\":{\"a\":1]}", "{\"id\":\"\t\"}");
+        for (String json : malformed) {
+            try {
+                validator.validate(bytes(json));
+                fail("accepted " + json);
+            } catch (IllegalArgumentException expected) {
+                assertTrue(expected.getMessage(), expected.getMessage().startsWith("Malformed JSON at byte "));
+            }
+        }
+        StringBuilder deep = new StringBuilder("{\"meta\":");
+        for (int i = 0; i < 1_000; i++) {
+            deep.append('[');
+        }
+        try {
+            validator.validate(bytes(deep.toString()));
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("nested deeper than"));
+        }
+    }
+
+    @Test
+    public void rejects_invalid_rules() {
+        List<List<Rule>> invalid = Arrays.asList(
+                Collections.singletonList(Rule.of("name", ErrorType.MIN_LENGTH)),
+                Collections.singletonList(Rule.of("name", ErrorType.EXISTS)),
+                Collections.singletonList(Rule.of("items[]", ErrorType.NOT_NULL)),
+                Arrays.asList(Rule.of("items.sku", ErrorType.NOT_NULL), Rule.of("items[].sku", ErrorType.NOT_NULL)));
+        for (List<Rule> rules : invalid) {
+            try {
+                new JsonValidator(rules);
+                fail("accepted " + rules);
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package io.github.jazorp;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class MembershipTest {
+
+    private Env env = Env.empty();
+
+    private enum Currency { EUR, USD, GBP, JPY }
+
+    private String getEvalError(ValidationThunk vt) {
+        return vt.validate(env).getError().getError();
+    }
+
+    private boolean isValid(ValidationThunk vt) {
+        return vt.validate(env).isValid();
+    }
+
+    @Test
+    public void objects() {
+        Membership<String> countries = Membership.of(Locale.getISOCountries());
+        assertEquals(Locale.getISOCountries().length, countries.size());
+        assertTrue(countries.contains("GR"));
+        assertFalse(countries.contains("XX"));
+        assertFalse(countries.contains(null));
+        assertTrue(isValid(Validators.memberOf("country", "GR", countries)));
+        assertFalse(isValid(Validators.memberOf("country", "XX", countries)));
+        assertFalse(isValid(Validators.memberOf("country", null, countries)));
+        assertTrue(isValid(Validators.memberOf("country", null, countries).optional()));
+    }
+
+    @Test
+    public void enums() {
+        Membership<Currency> currencies = Membership.of(Currency.EUR, Currency.USD);
+        assertTrue(currencies.contains(Currency.EUR));
+        assertFalse(currencies.contains(Currency.JPY));
+        assertFalse(currencies.contains("EUR"));
+        assertEquals("[EUR, USD]", currencies.toString());
+    }
+
+    @Test
+    public void dense_ints() {
+        int[] codes = new int[1000];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = 2 * i + 100;
+        }
+        Membership<Integer> membership = Membership.ofInts(codes);
+        assertEquals(1000, membership.size());
+        assertTrue(membership.contains(100));
+        assertTrue(membership.contains(2098L));
+        assertFalse(membership.contains(101));
+        assertFalse(membership.contains(99));
+        assertFalse(membership.contains(2100));
+        assertTrue(membership.contains(Integer.valueOf(102)));
+        assertFalse(membership.contains("102"));
+        assertTrue(isValid(Validators.memberOf("code", 102, membership)));
+        assertFalse(isValid(Validators.memberOf("code", 103, membership)));
+    }
+
+    @Test
+    public void sparse_longs() {
+        Membership<Long> membership = Membership.ofLongs(Long.MIN_VALUE, -7, 0, 42, 42, Long.MAX_VALUE);
+        assertEquals(5, membership.size());
+        assertTrue(membership.contains(Long.MIN_VALUE));
+        assertTrue(membership.contains(Long.MAX_VALUE));
+        assertTrue(membership.contains(42));
+        assertFalse(membership.contains(41));
+        assertEquals("code is not a member of [-9223372036854775808, -7, 0, 42, 9223372036854775807]",
+                getEvalError(Validators.memberOf("code", 1, membership)));
+    }
+
+    @Test
+    public void bounded_error_message() {
+        List<Object> skus = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            skus.add("SKU-" + i);
+        }
+        String expected = "sku is not a member of [SKU-0, SKU-1, SKU-2, SKU-3, SKU-4, SKU-5, SKU-6, SKU-7, SKU-8, SKU-9, ... (4990 more)]";
+        assertEquals(expected, getEvalError(Validators.memberOf("sku", "SKU-X", Membership.of(skus))));
+        assertEquals(expected, getEvalError(Validators.memberOf("sku", "SKU-X", skus)));
+        assertTrue(isValid(Validators.memberOf("sku", "SKU-4999", skus)));
+    }
+
+    @Test
+    public void plans() {
+        Plan<String> plan = new Plan.Builder<String>()
+                .memberOf("currency", s -> s, Membership.of("EUR", "USD"))
+                .build();
+        assertTrue(plan.validate("EUR").isValid());
+        assertEquals(Collections.singletonMap("currency", Collections.singleton("currency is not a member of [EUR, USD]")),
+                plan.validate("GBP").getErrors());
+    }
+
+    @Test
+    public void primitives_against_boxed_values() {
+        Membership<Integer> ints = Membership.of(1, 2, 3);
+        int i = 2;
+        short s = 3;
+        long l = 1;
+        assertTrue(isValid(Validators.memberOf("x", i, ints)));
+        assertTrue(isValid(Validators.memberOf("x", s, ints)));
+        assertTrue(isValid(Validators.memberOf("x", l, ints)));
+        assertTrue(isValid(Validators.memberOf("x", Integer.valueOf(i), ints)));
+        assertTrue(isValid(Validators.memberOf("x", Long.valueOf(l), ints)));
+        assertFalse(isValid(Validators.memberOf("x", 4, ints)));
+        assertEquals("[1, 2, 3]", ints.toString());
+
+        Membership<Long> longs = Membership.of(3L, 1L);
+        assertTrue(isValid(Validators.memberOf("x", i - 1, longs)));
+        assertTrue(isValid(Validators.memberOf("x", s, longs)));
+        assertTrue(isValid(Validators.memberOf("x", (Object) (short) 3, longs)));
+        assertFalse(isValid(Validators.memberOf("x", (Object) 2.0, longs)));
+        assertEquals("[3, 1]", longs.toString());
+
+        Membership<Object> mixed = Membership.of("a", (byte) 7, 8);
+        assertTrue(isValid(Validators.memberOf("x", 7L, mixed)));
+        assertTrue(isValid(Validators.memberOf("x", (short) 8, mixed)));
+        assertTrue(isValid(Validators.memberOf("x", "a", mixed)));
+        assertFalse(isValid(Validators.memberOf("x", 9, mixed)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void null_values() {
+        Membership.of("a", null);
+    }
+}
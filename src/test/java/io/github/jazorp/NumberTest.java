@@ -66,6 +66,28 @@ public class NumberTest {
             default:
                 throw new IllegalArgumentException("type not supported at this test " + ctx.type);
         }
+        if (ctx.epsilon == null) {
+            assertThat(info(ctx) + " (double)", isValid(primitive(ctx)), is(ctx.isValid));
+        }
+    }
+
+    private ValidationThunk primitive(TestContext ctx) {
+        double value = ctx.value.doubleValue();
+        double reference = ctx.reference.doubleValue();
+        switch (ctx.type) {
+            case EQUAL:
+                return Validators.equal("foo", value, reference);
+            case LESS:
+                return Validators.less("foo", value, reference);
+            case LESS_EQUAL:
+                return Validators.lessEqual("foo", value, reference);
+            case GREATER:
+                return Validators.greater("foo", value, reference);
+            case GREATER_EQUAL:
+                return Validators.greaterEqual("foo", value, reference);
+            default:
+                throw new IllegalArgumentException("type not supported at this test " + ctx.type);
+        }
     }
 
     private String info(TestContext ctx) {
@@ -0,0 +1,147 @@
+package io.github.jazorp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static io.github.jazorp.Validators.*;
+import static org.junit.Assert.*;
+
+public class ParallelTest {
+
+    private static final int THREADS = 8;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setup() {
+        ErrorFormatter.getInstance().reset();
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static class Line {
+
+        private String sku;
+        public String getSku() { return sku; }
+
+        private int quantity;
+        public int getQuantity() { return quantity; }
+
+        public Line(String sku, int quantity) {
+            this.sku = sku;
+            this.quantity = quantity;
+        }
+    }
+
+    private static class Batch {
+
+        private List<Line> lines;
+        public List<Line> getLines() { return lines; }
+
+        public Batch(List<Line> lines) {
+            this.lines = lines;
+        }
+    }
+
+    private static Batch batch(int size) {
+        List<Line> lines = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            lines.add(new Line(i % 7 == 0 ? "" : "SKU-" + i, i % 5 == 0 ? 0 : i));
+        }
+        return new Batch(lines);
+    }
+
+    private static final Validator<Line> lineValidator = l -> Aggregation.of(
+            notBlank("sku", l.getSku()),
+            positive("quantity", l.getQuantity()));
+
+    private static final Validator<Batch> batchValidator = b -> Aggregation.of()
+            .nestedList("line", lineValidator, b.getLines());
+
+    private static final Plan<Line> linePlan = new Plan.Builder<Line>()
+            .notBlank("sku", Line::getSku)
+            .positive("quantity", Line::getQuantity)
+            .build();
+
+    private static final Plan<Batch> batchPlan = new Plan.Builder<Batch>()
+            .nestedList("line", Batch::getLines, linePlan)
+            .build();
+
+    @Test
+    public void same_result_as_sequential() {
+        Batch batch = batch(10000);
+        Env parallel = new Env.Builder().parallel(executor, 100).build();
+
+        Result expected = batchValidator.validate(batch);
+        Result actual = batchValidator.validate(batch, parallel);
+        assertFalse(actual.isValid());
+        assertEquals(expected.getErrors(), actual.getErrors());
+        assertEquals(expected.toString(), actual.toString());
+
+        assertEquals(expected.getErrors(), batchPlan.validate(batch, parallel).getErrors());
+    }
+
+    @Test
+    public void common_pool() {
+        Batch batch = batch(1000);
+        Env parallel = new Env.Builder().parallel(10).build();
+        assertEquals(batchValidator.validate(batch).getErrors(), batchValidator.validate(batch, parallel).getErrors());
+    }
+
+    @Test
+    public void below_threshold_runs_on_caller_thread() {
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        Validator<Line> recording = l -> Aggregation.of(ValidationThunk.of((env, optional) -> {
+            threads.add(Thread.currentThread());
+            return Valid.valid();
+        }));
+        Validator<Batch> validator = b -> Aggregation.of().nestedList("line", recording, b.getLines());
+        validator.validate(batch(50), new Env.Builder().parallel(executor, 51).build());
+        assertEquals(Collections.singleton(Thread.currentThread()), threads);
+    }
+
+    @Test
+    public void exceptions_are_propagated() {
+        Validator<Line> failing = l -> Aggregation.of(ValidationThunk.of((env, optional) -> {
+            throw new IllegalStateException("boom");
+        }));
+        Validator<Batch> validator = b -> Aggregation.of().nestedList("line", failing, b.getLines());
+        try {
+            validator.validate(batch(100), new Env.Builder().parallel(executor, 10).build());
+            fail("expected an exception");
+        } catch (IllegalStateException e) {
+            assertEquals("boom", e.getMessage());
+        }
+    }
+
+    @Test
+    public void runs_on_pool_threads() {
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        Validator<Line> recording = l -> Aggregation.of(ValidationThunk.of((env, optional) -> {
+            threads.add(Thread.currentThread());
+            return Valid.valid();
+        }), notBlank("sku", l.getSku()), positive("quantity", l.getQuantity()));
+        Validator<Batch> validator = b -> Aggregation.of().nestedList("line", recording, b.getLines());
+        Batch batch = batch(200);
+
+        Result expected = validator.validate(batch);
+        threads.clear();
+        Result actual = validator.validate(batch, new Env.Builder().parallel(executor, 10).build());
+        assertFalse(actual.isValid());
+        assertEquals(expected.getErrors(), actual.getErrors());
+        assertEquals(expected.toString(), actual.toString());
+
+        assertFalse(threads.contains(Thread.currentThread()));
+        assertTrue(threads.toString(), threads.size() > 1);
+    }
+}
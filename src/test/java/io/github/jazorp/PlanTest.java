@@ -0,0 +1,174 @@
+package io.github.jazorp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static io.github.jazorp.Validators.*;
+import static org.junit.Assert.*;
+
+public class PlanTest {
+
+    @Before
+    public void setup() {
+        ErrorFormatter.getInstance().reset();
+    }
+
+    private static class Person {
+
+        private String name;
+        public String getName() { return name; }
+
+        private Integer age;
+        public Integer getAge() { return age; }
+
+        private Address address;
+        public Address getAddress() { return address; }
+
+        private List<Pet> pets;
+        public List<Pet> getPets() { return pets; }
+
+        public Person(String name, Integer age, Address address, List<Pet> pets) {
+            this.name = name;
+            this.age = age;
+            this.address = address;
+            this.pets = pets;
+        }
+    }
+
+    private static class Address {
+
+        private String street;
+        public String getStreet() { return street; }
+
+        private String zip;
+        public String getZip() { return zip; }
+
+        public Address(String street, String zip) {
+            this.street = street;
+            this.zip = zip;
+        }
+    }
+
+    private static class Pet {
+
+        private String name;
+        public String getName() { return name; }
+
+        public Pet(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final Validator<Address> addressValidator = a -> Aggregation.of(
+            notBlank("street", a.getStreet()),
+            length("zip", a.getZip(), 5));
+
+    private static final Validator<Pet> petValidator = p -> Aggregation.of(notBlank("name", p.getName()));
+
+    private static final Validator<Person> personValidator = p -> Aggregation.of(
+            notBlank("name", p.getName()),
+            notNull("name", p.getName()),
+            positive("age", p.getAge()))
+            .nested("address", addressValidator, p.getAddress())
+            .nestedList("pet", petValidator, p.getPets());
+
+    private static final Plan<Address> addressPlan = new Plan.Builder<Address>()
+            .notBlank("street", Address::getStreet)
+            .length("zip", Address::getZip, 5)
+            .build();
+
+    private static final Plan<Pet> petPlan = new Plan.Builder<Pet>()
+            .notBlank("name", Pet::getName)
+            .build();
+
+    private static final Plan<Person> personPlan = new Plan.Builder<Person>()
+            .notBlank("name", Person::getName)
+            .notNull("name", Person::getName)
+            .positive("age", Person::getAge)
+            .nested("address", Person::getAddress, addressPlan)
+            .nestedList("pet", Person::getPets, petPlan)
+            .build();
+
+    private static List<Person> people() {
+        return Arrays.asList(
+                new Person("Morty", 14, new Address("Hmmmm", "12345"), Arrays.asList(new Pet("Snuffles"))),
+                new Person(null, 0, new Address("", "123456"), Arrays.asList(new Pet("Snuffles"), new Pet(""))),
+                new Person("", -1, new Address("Foo", "123"), Collections.emptyList()));
+    }
+
+    @Test
+    public void same_result_as_hand_written_validator() {
+        for (Person person : people()) {
+            Result expected = personValidator.validate(person);
+            Result actual = personPlan.validate(person);
+            assertEquals(expected.isValid(), actual.isValid());
+            assertEquals(expected.getErrors(), actual.getErrors());
+        }
+    }
+
+    @Test
+    public void same_result_through_aggregation() {
+        for (Person person : people()) {
+            Result expected = personValidator.validate(person);
+            Result actual = personPlan.collect(person).validate(Env.empty());
+            assertEquals(expected.getErrors(), actual.getErrors());
+        }
+    }
+
+    @Test
+    public void plan_is_reusable() {
+        Person invalid = new Person("", 10, null, null);
+        Person valid = new Person("Morty", 10, null, null);
+        assertFalse(personPlan.validate(invalid).isValid());
+        assertTrue(personPlan.validate(valid).isValid());
+        assertFalse(personPlan.validate(invalid).isValid());
+    }
+
+    @Test
+    public void blocking() {
+        Plan<Person> plan = new Plan.Builder<Person>()
+                .positive("age", Person::getAge)
+                .notBlank("name", Person::getName).blocking()
+                .build();
+        Result result = plan.validate(new Person("", 0, null, null));
+        assertEquals(Collections.singletonMap("name",
+                Collections.singleton("name cannot be blank")), result.getErrors());
+        assertTrue(result.wasBlocked());
+    }
+
+    @Test
+    public void optional() {
+        Plan<Person> plan = new Plan.Builder<Person>()
+                .notBlank("name", Person::getName).optional()
+                .positive("age", Person::getAge)
+                .build();
+        Result result = plan.validate(new Person(null, 0, null, null));
+        assertEquals(Collections.singletonMap("age",
+                Collections.singleton("age must be positive")), result.getErrors());
+    }
+
+    @Test
+    public void custom_check() {
+        Plan<Person> plan = new Plan.Builder<Person>()
+                .check("name", Person::getName, n -> n.startsWith("M"), ErrorType.MEMBER_OF, "[M...]")
+                .build();
+        Result result = plan.validate(new Person("Rick", 70, null, null));
+        assertEquals(Collections.singletonMap("name",
+                Collections.singleton("name is not a member of [M...]")), result.getErrors());
+    }
+
+    @Test
+    public void composes_with_validators() {
+        Validator<Person> composed = personPlan.compose(p -> Aggregation.of(less("age", p.getAge(), 100)));
+        Result result = composed.validate(new Person("Rick", 120, null, null));
+        assertEquals(Collections.singletonMap("age",
+                Collections.singleton("age must be less than 100")), result.getErrors());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void modifier_without_check() {
+        new Plan.Builder<Person>().blocking();
+    }
+}
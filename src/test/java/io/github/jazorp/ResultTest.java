@@ -0,0 +1,171 @@
+package io.github.jazorp;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.github.jazorp.Validators.*;
+import static org.junit.Assert.*;
+
+public class ResultTest {
+
+    private final AtomicInteger formatted = new AtomicInteger();
+
+    @Before
+    public void setup() {
+        ErrorFormatter.getInstance().reset();
+        ErrorFormatter.getInstance().override((error, env, args) -> {
+            formatted.incrementAndGet();
+            return args[0] + " " + error.name().toLowerCase();
+        });
+    }
+
+    @After
+    public void tearDown() {
+        ErrorFormatter.getInstance().reset();
+    }
+
+    private static class Address {
+
+        private String street;
+        public String getStreet() { return street; }
+
+        private String zip;
+        public String getZip() { return zip; }
+
+        public Address(String street, String zip) {
+            this.street = street;
+            this.zip = zip;
+        }
+    }
+
+    private static class Person {
+
+        private String name;
+        public String getName() { return name; }
+
+        private Address address;
+        public Address getAddress() { return address; }
+
+        private List<Address> previous;
+        public List<Address> getPrevious() { return previous; }
+
+        public Person(String name, Address address, List<Address> previous) {
+            this.name = name;
+            this.address = address;
+            this.previous = previous;
+        }
+    }
+
+    private static final Validator<Address> addressValidator = a -> Aggregation.of(
+            notBlank("street", a.getStreet()),
+            length("zip", a.getZip(), 5));
+
+    private static final Validator<Person> personValidator = p -> Aggregation.of(
+            notBlank("name", p.getName()),
+            minLength("name", p.getName(), 2))
+            .nested("address", addressValidator, p.getAddress())
+            .nestedList("previous", addressValidator, p.getPrevious());
+
+    private static Result invalid() {
+        return personValidator.validate(new Person("", new Address("", "123"),
+                Arrays.asList(new Address("Foo", "12345"), new Address("", "12345"))));
+    }
+
+    @Test
+    public void queries_do_not_format_messages() {
+        Result result = invalid();
+        assertFalse(result.isValid());
+        assertEquals(5, result.errorCount());
+        assertTrue(result.hasErrorAt());
+        assertTrue(result.hasErrorAt("name"));
+        assertTrue(result.hasErrorAt("address"));
+        assertTrue(result.hasErrorAt("address", "zip"));
+        assertTrue(result.hasErrorAt("previous[1]", "street"));
+        assertFalse(result.hasErrorAt("previous[0]"));
+        assertFalse(result.hasErrorAt("previous[1]", "zip"));
+        assertFalse(result.hasErrorAt("zip"));
+        assertFalse(result.hasErrorAt("name", "zip"));
+        assertEquals(0, formatted.get());
+    }
+
+    @Test
+    public void map_view() {
+        Map<String, Object> address = new TreeMap<>();
+        address.put("street", Collections.singleton("street not_blank"));
+        address.put("zip", Collections.singleton("zip length"));
+        Map<String, Object> expected = new TreeMap<>();
+        expected.put("name", new HashSet<>(Arrays.asList("name not_blank", "name min_length")));
+        expected.put("address", address);
+        expected.put("previous[1]", Collections.singletonMap("street", Collections.singleton("street not_blank")));
+
+        Result result = invalid();
+        assertEquals(expected, result.getErrors());
+        assertSame(result.getErrors(), result.getErrors());
+        assertEquals(5, formatted.get());
+    }
+
+    @Test
+    public void visits_errors_in_collection_order() {
+        List<String> visited = new ArrayList<>();
+        invalid().forEachError((path, type, message) -> visited.add(path + " " + type + " " + message));
+        assertEquals(Arrays.asList(
+                "name NOT_BLANK name not_blank",
+                "name MIN_LENGTH name min_length",
+                "address.street NOT_BLANK street not_blank",
+                "address.zip LENGTH zip length",
+                "previous[1].street NOT_BLANK street not_blank"), visited);
+    }
+
+    @Test
+    public void valid_results() {
+        Result result = personValidator.validate(new Person("Morty", new Address("Foo", "12345"), null));
+        assertTrue(result.isValid());
+        assertEquals(0, result.errorCount());
+        assertFalse(result.hasErrorAt());
+        assertFalse(result.hasErrorAt("name"));
+        result.forEachError((path, type, message) -> fail(path));
+    }
+
+    @Test
+    public void map_results() {
+        Map<String, Object> errors = new TreeMap<>();
+        errors.put("name", Collections.singleton("name is bad"));
+        errors.put("address", Collections.singletonMap("zip", new HashSet<>(Arrays.asList("zip is bad", "zip is short"))));
+        Result result = new Result(errors);
+        assertEquals(3, result.errorCount());
+        assertTrue(result.hasErrorAt("address", "zip"));
+        assertFalse(result.hasErrorAt("address", "street"));
+        List<String> visited = new ArrayList<>();
+        result.forEachError((path, type, message) -> visited.add(path + " " + type));
+        assertEquals(Arrays.asList("address.zip null", "address.zip null", "name null"), visited);
+    }
+
+    @Test
+    public void nested_map_results() {
+        Map<String, Object> errors = new TreeMap<>();
+        errors.put("zip", new HashSet<>(Arrays.asList("zip is bad", "zip is short")));
+        errors.put("street", Collections.emptySet());
+        errors.put("geo", Collections.singletonMap("lat", Collections.emptySet()));
+        Result result = Result.of(ErrorTable.addNested(invalid().table(), "billing", new Result(errors)), false);
+        assertEquals(7, result.errorCount());
+        assertTrue(result.hasErrorAt("billing", "zip"));
+        assertFalse(result.hasErrorAt("billing", "street"));
+        assertFalse(result.hasErrorAt("billing", "geo"));
+        assertEquals(errors.get("zip"), ((Map<?, ?>) result.getErrors().get("billing")).get("zip"));
+
+        Result empty = new Result(Collections.singletonMap("street", Collections.emptySet()));
+        assertNull(ErrorTable.addNested(null, "billing", empty));
+    }
+
+    @Test
+    public void put_replaces_the_flat_errors() {
+        Result result = invalid();
+        result.put("extra", new Result(Collections.singletonMap("foo", Collections.singleton("foo is bad"))));
+        assertEquals(6, result.errorCount());
+        assertTrue(result.hasErrorAt("extra", "foo"));
+    }
+}
@@ -0,0 +1,336 @@
+package io.github.jazorp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static io.github.jazorp.Validators.*;
+import static org.junit.Assert.*;
+
+public class RevalidateTest {
+
+    private static final Env TRACED = new Env.Builder().trace().build();
+
+    private final List<String> runs = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        ErrorFormatter.getInstance().reset();
+    }
+
+    private static class Customer {
+
+        private String name;
+        public String getName() { return name; }
+
+        private String email;
+        public String getEmail() { return email; }
+
+        public Customer(String name, String email) {
+            this.name = name;
+            this.email = email;
+        }
+    }
+
+    private static class Line {
+
+        private String sku;
+        public String getSku() { return sku; }
+
+        private int quantity;
+        public int getQuantity() { return quantity; }
+
+        public Line(String sku, int quantity) {
+            this.sku = sku;
+            this.quantity = quantity;
+        }
+    }
+
+    private static class Order {
+
+        private String id;
+        public String getId() { return id; }
+
+        private Customer customer;
+        public Customer getCustomer() { return customer; }
+
+        private List<Line> lines;
+        public List<Line> getLines() { return lines; }
+
+        public Order(String id, Customer customer, List<Line> lines) {
+            this.id = id;
+            this.customer = customer;
+            this.lines = lines;
+        }
+    }
+
+    /**
+     * Records {@code path} every time {@code thunk} runs.
+     */
+    private ValidationThunk tracked(String path, ValidationThunk thunk) {
+        return ValidationThunk.of((env, optional) -> {
+            runs.add(path);
+            return thunk.validate(env);
+        }).reads(thunk.getReads());
+    }
+
+    private final Validator<Customer> customerValidator = c -> Aggregation.of(
+            tracked("customer.name", notBlank("name", c.getName()).reads("name")),
+            tracked("customer.email", email("email", c.getEmail()).reads("email")));
+
+    private final Validator<Line> lineValidator = l -> Aggregation.of(
+            tracked("line.sku", notBlank("sku", l.getSku()).reads("sku")),
+            tracked("line.quantity", positive("quantity", l.getQuantity()).reads("quantity")));
+
+    private final Validator<Order> orderValidator = o -> Aggregation.of(
+            tracked("id", length("id", o.getId(), 8).reads("id")))
+            .nested("customer", customerValidator, o.getCustomer())
+            .nestedList("lines", lineValidator, o.getLines());
+
+    private static Order order(String id, String name, String email, Line... lines) {
+        return new Order(id, new Customer(name, email), new ArrayList<>(Arrays.asList(lines)));
+    }
+
+    private Result revalidate(Result previous, Order order, String... changed) {
+        runs.clear();
+        Result result = orderValidator.revalidate(previous, Arrays.asList(changed), order);
+        int revalidated = runs.size();
+        assertEquals(orderValidator.validate(order).getErrors(), result.getErrors());
+        runs.subList(revalidated, runs.size()).clear();
+        return result;
+    }
+
+    @Test
+    public void only_thunks_reading_changed_fields_run() {
+        Order order = order("ORD", "", "rick@citadel.com", new Line("", 1), new Line("PG-1", 0));
+        Result previous = orderValidator.validate(order, TRACED);
+        assertEquals(4, previous.errorCount());
+
+        order.id = "ORD-0001";
+        Result result = revalidate(previous, order, "id");
+        assertEquals(Collections.singletonList("id"), runs);
+        assertEquals(3, result.errorCount());
+        assertFalse(result.hasErrorAt("id"));
+        assertSame(previous.trace().nested("customer"), result.trace().nested("customer"));
+        assertSame(previous.trace().nested("lines[0]"), result.trace().nested("lines[0]"));
+
+        order.customer.email = "rick";
+        result = revalidate(result, order, "customer.email");
+        assertEquals(Collections.singletonList("customer.email"), runs);
+        assertEquals(4, result.errorCount());
+        assertTrue(result.hasErrorAt("customer", "email"));
+        assertTrue(result.hasErrorAt("customer", "name"));
+    }
+
+    @Test
+    public void untraced_results_are_revalidated_in_full() {
+        Order order = order("ORD", "", "rick@citadel.com", new Line("", 1));
+        Result previous = orderValidator.validate(order);
+        assertNull(previous.trace());
+
+        order.id = "ORD-0001";
+        Result result = revalidate(previous, order, "id");
+        assertEquals(5, runs.size());
+        assertNotNull(result.trace());
+
+        order.customer.name = "Rick";
+        revalidate(result, order, "customer.name");
+        assertEquals(Collections.singletonList("customer.name"), runs);
+    }
+
+    @Test
+    public void only_changed_elements_run() {
+        Order order = order("ORD-0001", "Rick", "rick@citadel.com",
+                new Line("PG-1", 1), new Line("PG-2", 0), new Line("PG-3", 0), new Line("PG-4", 1));
+        Result previous = orderValidator.validate(order, TRACED);
+        assertEquals(2, previous.errorCount());
+
+        order.lines.get(1).quantity = 2;
+        order.lines.get(3).sku = "";
+        Result result = revalidate(previous, order, "lines[1].quantity", "lines[3].sku");
+        assertEquals(Arrays.asList("line.quantity", "line.sku"), runs);
+        assertFalse(result.hasErrorAt("lines[1]"));
+        assertTrue(result.hasErrorAt("lines[2]", "quantity"));
+        assertTrue(result.hasErrorAt("lines[3]", "sku"));
+
+        List<String> paths = new ArrayList<>();
+        result.forEachError((path, type, message) -> paths.add(path));
+        assertEquals(Arrays.asList("lines[2].quantity", "lines[3].sku"), paths);
+    }
+
+    @Test
+    public void changed_elements_of_non_list_iterables() {
+        Validator<Order> validator = o -> Aggregation.of()
+                .nestedList("lines", lineValidator, new LinkedList<>(o.getLines()));
+        Order order = order("ORD-0001", "Rick", "rick@citadel.com", new Line("PG-1", 0), new Line("PG-2", 0));
+        Result previous = validator.validate(order, TRACED);
+
+        order.lines.get(1).quantity = 1;
+        runs.clear();
+        Result result = validator.revalidate(previous, Collections.singleton("lines[1]"), order);
+        assertEquals(Arrays.asList("line.sku", "line.quantity"), runs);
+        assertEquals(validator.validate(order).getErrors(), result.getErrors());
+    }
+
+    @Test
+    public void changing_a_list_runs_every_element() {
+        Order order = order("ORD-0001", "Rick", "rick@citadel.com", new Line("PG-1", 0), new Line("PG-2", 1));
+        Result previous = orderValidator.validate(order, TRACED);
+
+        order.lines.remove(0);
+        revalidate(previous, order, "lines");
+        assertEquals(Arrays.asList("line.sku", "line.quantity"), runs);
+    }
+
+    @Test
+    public void changing_a_nested_value_runs_all_of_its_thunks() {
+        Order order = order("ORD-0001", "", "rick");
+        Result previous = orderValidator.validate(order, TRACED);
+
+        order.customer = new Customer("Rick", "rick@citadel.com");
+        Result result = revalidate(previous, order, "customer");
+        assertEquals(Arrays.asList("customer.name", "customer.email"), runs);
+        assertTrue(result.isValid());
+    }
+
+    @Test
+    public void nothing_changed() {
+        Order order = order("ORD", "", "rick@citadel.com", new Line("", 1));
+        Result previous = orderValidator.validate(order, TRACED);
+        Result result = revalidate(previous, order);
+        assertTrue(runs.isEmpty());
+        assertEquals(previous.errorCount(), result.errorCount());
+    }
+
+    @Test
+    public void thunks_without_reads_always_run() {
+        Validator<Order> validator = o -> Aggregation.of(
+                ValidationThunk.of((env, optional) -> {
+                    runs.add("unknown");
+                    return Valid.valid();
+                }),
+                tracked("id", length("id", o.getId(), 8).reads("id")));
+        Order order = order("ORD", "Rick", "rick@citadel.com");
+        Result previous = validator.validate(order, TRACED);
+        runs.clear();
+        validator.revalidate(previous, Collections.singleton("customer.name"), order);
+        assertEquals(Collections.singletonList("unknown"), runs);
+    }
+
+    private static class Range {
+
+        private long start;
+        private long end;
+
+        Range(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    @Test
+    public void stock_validators_without_reads_always_run() {
+        Validator<Range> validator = r -> Aggregation.of(
+                tracked("end", greater("end", r.end, r.start)),
+                tracked("label", notBlank("End value", r.end == 0 ? "" : "x")));
+        Range range = new Range(1, 5);
+        Result previous = validator.validate(range, TRACED);
+        assertTrue(previous.isValid());
+
+        range.start = 10;
+        runs.clear();
+        Result result = validator.revalidate(previous, Collections.singleton("start"), range);
+        assertEquals(Arrays.asList("end", "label"), runs);
+        assertFalse(result.isValid());
+        assertEquals(validator.validate(range).getErrors(), result.getErrors());
+
+        range.end = 0;
+        result = validator.revalidate(result, Collections.singleton("end"), range);
+        assertTrue(result.hasErrorAt("End value"));
+        assertEquals(validator.validate(range).getErrors(), result.getErrors());
+    }
+
+    @Test
+    public void declared_reads_of_cross_field_checks() {
+        Validator<Range> validator = r -> Aggregation.of(
+                tracked("end", greater("end", r.end, r.start).reads("start", "end")));
+        Range range = new Range(1, 5);
+        Result previous = validator.validate(range, TRACED);
+
+        range.start = 10;
+        runs.clear();
+        Result result = validator.revalidate(previous, Collections.singleton("start"), range);
+        assertEquals(Collections.singletonList("end"), runs);
+        assertFalse(result.isValid());
+
+        runs.clear();
+        validator.revalidate(result, Collections.singleton("other"), range);
+        assertTrue(runs.isEmpty());
+    }
+
+    @Test
+    public void reads_of_nested_paths() {
+        Validator<Order> validator = o -> Aggregation.of(
+                tracked("id", length("id", o.getId(), 8).reads("id")),
+                tracked("domain", validateImpl(c -> c.getEmail().endsWith("@citadel.com"), ErrorType.EMAIL,
+                        "customer", o.getCustomer()).reads("customer.email")));
+        Order order = order("ORD", "Rick", "rick@earth.com");
+        Result previous = validator.validate(order, TRACED);
+        assertEquals(2, previous.errorCount());
+
+        order.customer.email = "rick@citadel.com";
+        runs.clear();
+        Result result = validator.revalidate(previous, Collections.singleton("customer.email"), order);
+        assertEquals(Collections.singletonList("domain"), runs);
+        assertEquals(validator.validate(order).getErrors(), result.getErrors());
+
+        runs.clear();
+        validator.revalidate(result, Collections.singleton("customer"), order);
+        assertEquals(Collections.singletonList("domain"), runs);
+        runs.clear();
+        validator.revalidate(result, Collections.singleton("customer.name"), order);
+        assertTrue(runs.isEmpty());
+    }
+
+    @Test
+    public void untraced_results_are_validated_in_full() {
+        Order order = order("ORD", "", "rick", new Line("", 0));
+        Result previous = orderValidator.validate(order, new Env.Builder().failFast().build());
+        assertEquals(1, previous.errorCount());
+
+        Result result = revalidate(previous, order, "id");
+        assertEquals(5, runs.size());
+        assertEquals(5, result.errorCount());
+    }
+
+    @Test
+    public void blocked_results_are_validated_in_full() {
+        Validator<Order> validator = o -> Aggregation.of(
+                tracked("id", notBlank("id", o.getId()).reads("id")).blocking(),
+                tracked("id.length", length("id", o.getId(), 8).reads("id")));
+        Order order = order("", "Rick", "rick@citadel.com");
+        Result previous = validator.validate(order, TRACED);
+        assertTrue(previous.wasBlocked());
+
+        order.id = "ORD";
+        runs.clear();
+        Result result = validator.revalidate(previous, Collections.singleton("customer"), order);
+        assertEquals(Collections.singletonList("id"), runs);
+        assertEquals(validator.validate(order).getErrors(), result.getErrors());
+    }
+
+    @Test
+    public void plans_are_validated_in_full() {
+        Plan<Line> linePlan = new Plan.Builder<Line>()
+                .notBlank("sku", Line::getSku)
+                .positive("quantity", Line::getQuantity)
+                .build();
+        Line line = new Line("", 0);
+        Result previous = linePlan.validate(line);
+        line.sku = "PG-1";
+        Result result = linePlan.revalidate(previous, Collections.singleton("sku"), line);
+        assertEquals(linePlan.validate(line).getErrors(), result.getErrors());
+        assertEquals(1, result.errorCount());
+    }
+}
@@ -0,0 +1,203 @@
+package io.github.jazorp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class RuleSetTest {
+
+    @Before
+    public void setup() {
+        ErrorFormatter.getInstance().reset();
+    }
+
+    public static class Person {
+
+        private String name;
+        public String getName() { return name; }
+
+        private int age;
+        public int getAge() { return age; }
+
+        private String email;
+        public String getEmail() { return email; }
+
+        private Address address;
+        public Address getAddress() { return address; }
+
+        private List<Pet> pets;
+        public List<Pet> getPets() { return pets; }
+
+        public Person(String name, int age, String email, Address address, List<Pet> pets) {
+            this.name = name;
+            this.age = age;
+            this.email = email;
+            this.address = address;
+            this.pets = pets;
+        }
+    }
+
+    private static class Address {
+
+        private String street;
+        private String zip;
+
+        private Address(String street, String zip) {
+            this.street = street;
+            this.zip = zip;
+        }
+    }
+
+    private static class Pet {
+
+        private String name;
+        String name() { return name; }
+
+        private Pet(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final List<Rule> RULES = Arrays.asList(
+            Rule.of("name", ErrorType.NOT_BLANK),
+            Rule.of("name", ErrorType.MIN_LENGTH, 3),
+            Rule.of("age", ErrorType.POSITIVE),
+            Rule.of("age", ErrorType.LESS, 150),
+            Rule.of("email", ErrorType.EMAIL).optional(),
+            Rule.of("address.street", ErrorType.NOT_BLANK),
+            Rule.of("address.zip", ErrorType.LENGTH, 5),
+            Rule.of("pets[].name", ErrorType.MEMBER_OF, "Snuffles", "Snowball"));
+
+    private static final Validator<Person> personValidator = p -> Aggregation.of(
+            Validators.notBlank("name", p.getName()),
+            Validators.minLength("name", p.getName(), 3),
+            Validators.positive("age", (Number) p.getAge()),
+            Validators.less("age", (Number) p.getAge(), 150),
+            Validators.email("email", p.getEmail()).optional())
+            .nested("address", a -> Aggregation.of(
+                    Validators.notBlank("street", a.street),
+                    Validators.length("zip", a.zip, 5)), p.getAddress())
+            .nestedList("pets", pet -> Aggregation.of(
+                    Validators.memberOf("name", pet.name, "Snuffles", "Snowball")), p.getPets());
+
+    private static List<Person> people() {
+        return Arrays.asList(
+                new Person("Morty", 14, null, new Address("Hmmmm", "12345"), Arrays.asList(new Pet("Snuffles"))),
+                new Person("", 0, "morty", new Address("", "123456"), Arrays.asList(new Pet("Snowball"), new Pet("Rex"))),
+                new Person("Al", 150, "al@smith.com", new Address(null, null), Collections.emptyList()));
+    }
+
+    @Test
+    public void same_result_as_hand_written_validator() {
+        RuleSet<Person> rules = new RuleSet<>(Person.class, RULES);
+        for (Person person : people()) {
+            Result expected = personValidator.validate(person);
+            assertEquals(expected.getErrors(), rules.validate(person).getErrors());
+            assertEquals(expected.getErrors(), rules.collect(person).validate(Env.empty()).getErrors());
+        }
+        assertEquals(7, rules.validate(people().get(1)).errorCount());
+    }
+
+    @Test
+    public void blocking_and_priority() {
+        RuleSet<Person> rules = new RuleSet<>(Person.class, Arrays.asList(
+                Rule.of("age", ErrorType.POSITIVE).priority(200),
+                Rule.of("name", ErrorType.NOT_BLANK).blocking(),
+                Rule.of("name", ErrorType.MIN_LENGTH, 3).priority(1)));
+        Result result = rules.validate(new Person("", 0, null, null, null));
+        assertTrue(result.wasBlocked());
+        assertEquals(1, result.errorCount());
+
+        rules = new RuleSet<>(Person.class, Arrays.asList(
+                Rule.of("age", ErrorType.POSITIVE).priority(200),
+                Rule.of("name", ErrorType.MIN_LENGTH, 3).priority(1)));
+        result = rules.validate(new Person("Al", 0, null, null, null), new Env.Builder().failFast().build());
+        assertEquals(Collections.singleton("name"), result.getErrors().keySet());
+    }
+
+    @Test
+    public void update_swaps_the_rules() {
+        RuleSet<Person> rules = new RuleSet<>(Person.class, Collections.singletonList(Rule.of("name", ErrorType.NOT_BLANK)));
+        Person person = new Person("Al", 0, null, null, null);
+        assertTrue(rules.validate(person).isValid());
+
+        List<Rule> update = Arrays.asList(Rule.of("name", ErrorType.MIN_LENGTH, 3), Rule.of("age", ErrorType.POSITIVE));
+        rules.update(update);
+        assertEquals(update, rules.getRules());
+        assertEquals(2, rules.validate(person).errorCount());
+    }
+
+    @Test
+    public void invalid_rules_keep_the_current_ones() {
+        RuleSet<Person> rules = new RuleSet<>(Person.class, RULES);
+        List<List<Rule>> invalid = Arrays.asList(
+                Collections.singletonList(Rule.of("nickname", ErrorType.NOT_NULL)),
+                Collections.singletonList(Rule.of("age", ErrorType.NOT_BLANK)),
+                Collections.singletonList(Rule.of("name", ErrorType.POSITIVE)),
+                Collections.singletonList(Rule.of("name", ErrorType.MIN_LENGTH)),
+                Collections.singletonList(Rule.of("name", ErrorType.MIN_LENGTH, "three")),
+                Collections.singletonList(Rule.of("name", ErrorType.EXISTS)),
+                Collections.singletonList(Rule.of("email", ErrorType.EMAIL, "strict")),
+                Collections.singletonList(Rule.of("name.", ErrorType.NOT_NULL)),
+                Collections.singletonList(Rule.of("pets[]", ErrorType.NOT_NULL)),
+                Collections.singletonList(Rule.of("name[].length", ErrorType.NOT_NULL)));
+        for (List<Rule> update : invalid) {
+            try {
+                rules.update(update);
+                fail("accepted " + update);
+            } catch (IllegalArgumentException expected) {
+                assertEquals(RULES, rules.getRules());
+            }
+        }
+    }
+
+    @Test
+    public void accessors_are_created_once_per_class() {
+        assertSame(Accessors.of(Person.class, "name"), Accessors.of(Person.class, "name"));
+        assertSame(Accessors.of(Address.class, "zip"), Accessors.of(Address.class, "zip"));
+        assertEquals("Morty", Accessors.of(Person.class, "name").function.apply(people().get(0)));
+        assertEquals(14, Accessors.of(Person.class, "age").function.apply(people().get(0)));
+        assertEquals("12345", Accessors.of(Address.class, "zip").function.apply(new Address("", "12345")));
+        assertEquals("Rex", Accessors.of(Pet.class, "name").function.apply(new Pet("Rex")));
+    }
+
+    @Test
+    public void concurrent_updates() throws Exception {
+        List<Rule> lenient = Collections.singletonList(Rule.of("name", ErrorType.NOT_NULL));
+        List<Rule> strict = Arrays.asList(
+                Rule.of("name", ErrorType.MIN_LENGTH, 3),
+                Rule.of("age", ErrorType.POSITIVE),
+                Rule.of("address.zip", ErrorType.LENGTH, 5));
+        RuleSet<Person> rules = new RuleSet<>(Person.class, lenient);
+        Person person = new Person("Al", 0, null, new Address("", ""), null);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicBoolean done = new AtomicBoolean();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 3; t++) {
+                futures.add(executor.submit(() -> {
+                    while (!done.get()) {
+                        int errors = rules.validate(person).errorCount();
+                        assertTrue("saw " + errors + " errors", errors == 0 || errors == 3);
+                    }
+                }));
+            }
+            for (int i = 0; i < 2_000; i++) {
+                rules.update(i % 2 == 0 ? strict : lenient);
+            }
+            done.set(true);
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            done.set(true);
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package io.github.jazorp;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ScheduleTest {
+
+    private static ValidationThunk recording(List<String> log, String name) {
+        return ValidationThunk.of((env, optional) -> {
+            log.add(name);
+            return Valid.valid();
+        });
+    }
+
+    private static ValidationThunk failing(List<String> log, String name) {
+        return ValidationThunk.of((env, optional) -> {
+            log.add(name);
+            return Invalid.of(name, name + " failed");
+        });
+    }
+
+    @Test
+    public void equal_priorities_run_in_insertion_order() {
+        List<String> log = new ArrayList<>();
+        ValidationThunk[] thunks = new ValidationThunk[50];
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < thunks.length; i++) {
+            thunks[i] = recording(log, "t" + i);
+            expected.add("t" + i);
+        }
+        Aggregation.of(thunks).validate(Env.empty());
+        assertEquals(expected, log);
+    }
+
+    @Test
+    public void priorities() {
+        List<String> log = new ArrayList<>();
+        Aggregation.of(
+                recording(log, "a"),
+                recording(log, "b").priority(5),
+                recording(log, "c").priority(1000),
+                recording(log, "d").priority(5),
+                recording(log, "e").priority(-3))
+                .validate(Env.empty());
+        assertEquals(Arrays.asList("e", "b", "d", "a", "c"), log);
+    }
+
+    @Test
+    public void blocking_runs_first() {
+        List<String> log = new ArrayList<>();
+        Result result = Aggregation.of(
+                recording(log, "a").priority(-100),
+                failing(log, "b").blocking().priority(500))
+                .validate(Env.empty());
+        assertEquals(Collections.singletonList("b"), log);
+        assertTrue(result.wasBlocked());
+    }
+
+    @Test
+    public void compose_keeps_the_order() {
+        List<String> log = new ArrayList<>();
+        Aggregation first = Aggregation.of(recording(log, "a1"), recording(log, "a2").priority(1));
+        Aggregation second = Aggregation.of(recording(log, "b1"), recording(log, "b2").priority(1));
+        first.compose(second).validate(Env.empty());
+        assertEquals(Arrays.asList("a2", "b2", "a1", "b1"), log);
+    }
+
+    @Test
+    public void blocking_runs_first_after_compose() {
+        for (int i = 0; i < 20; i++) {
+            List<String> log = new ArrayList<>();
+            List<Aggregation> parts = new ArrayList<>();
+            for (int j = 0; j < 20; j++) {
+                parts.add(j == i
+                        ? Aggregation.of(recording(log, "x"), failing(log, "blocking").blocking())
+                        : Aggregation.of(recording(log, "p" + j).priority(-j)));
+            }
+            Aggregation composed = parts.get(0);
+            for (int j = 1; j < parts.size(); j++) {
+                composed = j % 2 == 0 ? composed.compose(parts.get(j)) : parts.get(j).compose(composed);
+            }
+            Result result = composed.validate(Env.empty());
+            assertEquals(Collections.singletonList("blocking"), log);
+            assertTrue(result.wasBlocked());
+        }
+    }
+
+    @Test
+    public void compose_does_not_change_the_parts() {
+        List<String> log = new ArrayList<>();
+        Aggregation first = Aggregation.of(recording(log, "a"));
+        Aggregation second = Aggregation.of(failing(log, "b").blocking());
+        first.compose(second).validate(Env.empty());
+        log.clear();
+        first.validate(Env.empty());
+        assertEquals(Collections.singletonList("a"), log);
+    }
+
+    @Test
+    public void long_composition_chains() {
+        List<String> log = new ArrayList<>();
+        Aggregation composed = Aggregation.of();
+        for (int i = 0; i < 100_000; i++) {
+            composed = composed.compose(Aggregation.of(recording(log, "t" + i)));
+        }
+        composed.validate(Env.empty());
+        assertEquals(100_000, log.size());
+        assertEquals("t0", log.get(0));
+        assertEquals("t99999", log.get(99_999));
+    }
+
+    @Test
+    public void plan_priorities() {
+        Plan<String> plan = new Plan.Builder<String>()
+                .check("a", s -> s, s -> false, ErrorType.NOT_BLANK)
+                .check("b", s -> s, s -> false, ErrorType.NOT_BLANK).priority(1)
+                .check("c", s -> s, s -> false, ErrorType.NOT_BLANK).priority(500).blocking()
+                .build();
+        Env env = new Env.Builder().failFast().build();
+        assertEquals(Collections.singleton("c"), plan.validate("", env).getErrors().keySet());
+        assertEquals(Collections.singleton("c"), plan.collect("").validate(env).getErrors().keySet());
+
+        plan = new Plan.Builder<String>()
+                .check("a", s -> s, s -> false, ErrorType.NOT_BLANK)
+                .check("b", s -> s, s -> false, ErrorType.NOT_BLANK).priority(1)
+                .build();
+        assertEquals(Collections.singleton("b"), plan.validate("", env).getErrors().keySet());
+        assertEquals(Collections.singleton("b"), plan.collect("").validate(env).getErrors().keySet());
+    }
+}
@@ -0,0 +1,214 @@
+package io.github.jazorp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static io.github.jazorp.Validators.*;
+import static org.junit.Assert.*;
+
+public class ValidationMetricsTest {
+
+    private ValidationMetrics metrics;
+    private Env env;
+
+    @Before
+    public void setup() {
+        ErrorFormatter.getInstance().reset();
+        metrics = new ValidationMetrics();
+        env = new Env.Builder().listener(metrics).build();
+    }
+
+    private static class Address {
+
+        private String zip;
+        public String getZip() { return zip; }
+
+        public Address(String zip) {
+            this.zip = zip;
+        }
+    }
+
+    private static class Person {
+
+        private String name;
+        public String getName() { return name; }
+
+        private long age;
+        public long getAge() { return age; }
+
+        private Address address;
+        public Address getAddress() { return address; }
+
+        public Person(String name, long age, Address address) {
+            this.name = name;
+            this.age = age;
+            this.address = address;
+        }
+    }
+
+    private static final Plan<Address> addressPlan = new Plan.Builder<Address>()
+            .length("zip", Address::getZip, 5)
+            .build();
+
+    private static final Validator<Person> personValidator = p -> Aggregation.of(
+            notBlank("name", p.getName()),
+            positive("age", p.getAge()))
+            .nested("address", addressPlan, p.getAddress());
+
+    @Test
+    public void counts_checks_by_field_and_type() {
+        personValidator.validate(new Person("Rick", 70, new Address("12345")), env);
+        personValidator.validate(new Person("", 70, new Address("1234")), env);
+        personValidator.validate(new Person("Morty", 14, new Address("12345")), env);
+
+        ValidationMetrics.Snapshot snapshot = metrics.snapshot();
+        ValidationMetrics.Stats name = snapshot.get("name", ErrorType.NOT_BLANK);
+        assertEquals(3, name.getCount());
+        assertEquals(1, name.getFailures());
+        assertEquals(0, name.getBlocking());
+        assertEquals(3, name.getLatency().getCount());
+        assertTrue(name.getMaxNanos() >= name.getMeanNanos());
+
+        assertEquals(3, snapshot.get("age", ErrorType.POSITIVE).getCount());
+        assertEquals(0, snapshot.get("age", ErrorType.POSITIVE).getFailures());
+        assertEquals(3, snapshot.get("zip", ErrorType.LENGTH).getCount());
+        assertEquals(1, snapshot.get("zip", ErrorType.LENGTH).getFailures());
+        assertNull(snapshot.get("zip", ErrorType.NOT_BLANK));
+
+        List<String> fields = new ArrayList<>();
+        for (ValidationMetrics.Stats stats : snapshot.getChecks()) {
+            fields.add(stats.getField());
+        }
+        assertEquals(Arrays.asList("age", "name", "zip"), fields);
+
+        // three people and their addresses
+        ValidationMetrics.Stats aggregations = snapshot.getAggregations();
+        assertEquals(6, aggregations.getCount());
+        assertEquals(2, aggregations.getFailures());
+        assertEquals(3, aggregations.getErrors());
+    }
+
+    @Test
+    public void blocking_checks() {
+        Validator<Person> validator = p -> Aggregation.of(
+                notBlank("name", p.getName()).blocking(),
+                positive("age", p.getAge()));
+        validator.validate(new Person("", 0, null), env);
+
+        ValidationMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.get("name", ErrorType.NOT_BLANK).getBlocking());
+        assertNull(snapshot.get("age", ErrorType.POSITIVE));
+        assertEquals(1, snapshot.getAggregations().getBlocking());
+    }
+
+    @Test
+    public void custom_thunks() {
+        Validator<Person> validator = p -> Aggregation.of(
+                ValidationThunk.of((env, optional) -> Valid.valid()),
+                ValidationThunk.of((env, optional) -> Invalid.of("name", "name is taken")),
+                ValidationThunk.of((env, optional) -> Valid.valid()).reads("age"));
+        validator.validate(new Person("Rick", 70, null), env);
+
+        ValidationMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.get(null, null).getCount());
+        assertEquals(1, snapshot.get("name", null).getFailures());
+        assertEquals(1, snapshot.get("age", null).getCount());
+        assertNull(snapshot.getChecks().get(0).getField());
+    }
+
+    @Test
+    public void asynchronous_thunks() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Validator<Person> validator = p -> Aggregation.of(
+                    ValidationThunk.async((env, optional) -> CompletableFuture.supplyAsync(
+                            () -> Invalid.of("name", "name is taken"), executor)),
+                    positive("age", p.getAge()));
+            Result result = validator.validateAsync(new Person("Rick", 70, null), env, executor)
+                    .toCompletableFuture().get(10, TimeUnit.SECONDS);
+            assertFalse(result.isValid());
+        } finally {
+            executor.shutdown();
+        }
+        ValidationMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(1, snapshot.get("name", null).getFailures());
+        assertEquals(1, snapshot.get("age", ErrorType.POSITIVE).getCount());
+        assertEquals(1, snapshot.getAggregations().getFailures());
+    }
+
+    @Test
+    public void nothing_is_recorded_without_a_listener() {
+        personValidator.validate(new Person("", 0, new Address("")));
+        assertTrue(metrics.snapshot().getChecks().isEmpty());
+        assertEquals(0, metrics.snapshot().getAggregations().getCount());
+    }
+
+    @Test
+    public void histogram() {
+        for (long nanos : new long[]{0, 1, 2, 3, 4, 1000, 1023, 1024, Long.MAX_VALUE}) {
+            metrics.onThunk("field", ErrorType.NOT_NULL, true, false, nanos);
+        }
+        ValidationMetrics.Histogram latency = metrics.snapshot().get("field", ErrorType.NOT_NULL).getLatency();
+        assertEquals(9, latency.getCount());
+        assertEquals(1, latency.getBucket(0));
+        assertEquals(1, latency.getBucket(1));
+        assertEquals(2, latency.getBucket(2));
+        assertEquals(1, latency.getBucket(3));
+        assertEquals(2, latency.getBucket(10));
+        assertEquals(1, latency.getBucket(11));
+        assertEquals(1, latency.getBucket(63));
+        assertEquals(1023, ValidationMetrics.Histogram.getUpperBound(10));
+
+        assertEquals(0, latency.getValueAtPercentile(0));
+        assertEquals(7, latency.getValueAtPercentile(50));
+        assertEquals(1023, latency.getValueAtPercentile(75));
+        assertEquals(Long.MAX_VALUE, latency.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void concurrent_recording() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        metrics.onThunk("field" + (i % 4), ErrorType.values()[i % 3], i % 2 == 0, false, i);
+                        metrics.onAggregation(thread, false, i);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        ValidationMetrics.Snapshot snapshot = metrics.snapshot();
+        long count = 0;
+        long failures = 0;
+        for (ValidationMetrics.Stats stats : snapshot.getChecks()) {
+            count += stats.getCount();
+            failures += stats.getFailures();
+            assertEquals(stats.getCount(), stats.getLatency().getCount());
+        }
+        assertEquals(12, snapshot.getChecks().size());
+        assertEquals(80_000, count);
+        assertEquals(40_000, failures);
+        assertEquals(80_000, snapshot.getAggregations().getCount());
+        assertEquals(70_000, snapshot.getAggregations().getFailures());
+        assertEquals(9999, snapshot.getAggregations().getMaxNanos());
+    }
+
+    @Test
+    public void reset() {
+        personValidator.validate(new Person("", 0, new Address("")), env);
+        metrics.reset();
+        assertTrue(metrics.snapshot().getChecks().isEmpty());
+        assertEquals(0, metrics.snapshot().getAggregations().getCount());
+    }
+}
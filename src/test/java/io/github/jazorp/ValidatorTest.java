@@ -247,6 +247,103 @@ public class ValidatorTest {
         assertEquals(errors, result.getErrors());
     }
 
+    @Test
+    public void fail_fast_test() {
+        MultiplePersonValidator validator = new MultiplePersonValidator();
+        Env env = new Env.Builder().failFast().build();
+        Result result = validator.validate(new Person(null, 0), env);
+        assertFalse(result.isValid());
+        assertEquals(1, result.getErrors().size());
+    }
+
+    @Test
+    public void error_budget_skips_remaining_list_elements() {
+        List<Pet> pets = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            pets.add(new Pet(""));
+        }
+        int[] collected = new int[1];
+        Validator<Pet> countingPetValidator = pet -> {
+            collected[0]++;
+            return petValidator.collect(pet);
+        };
+        Validator<Person> validator = p -> Aggregation.of(notBlank("name", p.getName()))
+                .nestedList("pet", countingPetValidator, p.getPets());
+        Env env = new Env.Builder().maxErrors(3).build();
+        Result result = validator.validate(new Person("Morty", 10, pets), env);
+        Map<String, Object> errors = new HashMap<>();
+        Map<String, Set<String>> nested = Collections.singletonMap("name", Collections.singleton("name cannot be blank"));
+        errors.put("pet[0]", nested);
+        errors.put("pet[1]", nested);
+        errors.put("pet[2]", nested);
+        assertEquals(errors, result.getErrors());
+        assertEquals(3, collected[0]);
+    }
+
+    @Test
+    public void nested_list_is_collected_lazily() {
+        int[] collected = new int[1];
+        Validator<Pet> countingPetValidator = pet -> {
+            collected[0]++;
+            return petValidator.collect(pet);
+        };
+        person = new Person("Morty", 10, Arrays.asList(new Pet("Snuffles"), new Pet("")));
+        Aggregation aggregation = Aggregation.of().nestedList("pet", countingPetValidator, person.getPets());
+        assertEquals(0, collected[0]);
+        Result result = aggregation.validate(Env.empty());
+        assertEquals(2, collected[0]);
+        assertEquals(Collections.singletonMap("pet[1]",
+                Collections.singletonMap("name", Collections.singleton("name cannot be blank"))), result.getErrors());
+    }
+
+    @Test
+    public void nested_iterables_and_streams() {
+        List<Pet> pets = Arrays.asList(new Pet(""), new Pet("Snuffles"), new Pet(""));
+        Map<String, Object> errors = new HashMap<>();
+        Map<String, Set<String>> nested = Collections.singletonMap("name", Collections.singleton("name cannot be blank"));
+        errors.put("pet[0]", nested);
+        errors.put("pet[2]", nested);
+
+        assertEquals(errors, Aggregation.of().nestedList("pet", petValidator, new LinkedList<>(pets))
+                .validate(Env.empty()).getErrors());
+        assertEquals(errors, Aggregation.of().nestedList("pet", petValidator, pets.stream())
+                .validate(Env.empty()).getErrors());
+        assertEquals(errors, Aggregation.of().nestedList("pet", petValidator, pets.spliterator())
+                .validate(Env.empty()).getErrors());
+        assertTrue(Aggregation.of().nestedList("pet", petValidator, (List<Pet>) null).validate(Env.empty()).isValid());
+    }
+
+    @Test
+    public void streams_are_validated_once() {
+        List<Pet> pets = Arrays.asList(new Pet(""), new Pet("Snuffles"));
+        List<Aggregation> aggregations = Arrays.asList(
+                Aggregation.of().nestedList("pet", petValidator, pets.stream()),
+                Aggregation.of().nestedList("pet", petValidator, pets.spliterator()));
+        for (Aggregation aggregation : aggregations) {
+            assertFalse(aggregation.validate(Env.empty()).isValid());
+            try {
+                aggregation.validate(Env.empty());
+                fail();
+            } catch (IllegalStateException expected) {
+                assertTrue(expected.getMessage(), expected.getMessage().contains("'pet'"));
+            }
+        }
+        Aggregation aggregation = Aggregation.of().nestedList("pet", petValidator, pets);
+        assertEquals(aggregation.validate(Env.empty()).getErrors(), aggregation.validate(Env.empty()).getErrors());
+    }
+
+    @Test
+    public void large_generated_nested_list() {
+        int size = 1_000_000;
+        Iterable<Pet> pets = () -> new Iterator<Pet>() {
+            private int i = 0;
+            public boolean hasNext() { return i < size; }
+            public Pet next() { return new Pet(i++ == size - 1 ? "" : "Snuffles"); }
+        };
+        Result result = Aggregation.of().nestedList("pet", petValidator, pets).validate(Env.empty());
+        assertEquals(Collections.singleton("pet[" + (size - 1) + "]"), result.getErrors().keySet());
+    }
+
     @Test
     public void top_level_valid_should_proceed_to_nested() {
         person = new Person("Morty", 10, "Foo", "123");
@@ -294,6 +391,26 @@ public class ValidatorTest {
                 Collections.singleton("Το name δεν μπορεί να είναι κενό")), result.getErrors());
     }
 
+    @Test
+    public void messages_are_formatted_on_first_read() {
+        int[] calls = new int[1];
+        ErrorFormatter.getInstance().override((error, env, args) -> {
+            calls[0]++;
+            return error.name();
+        });
+        PersonValidator validator = new PersonValidator();
+        Result result = validator.validate(new Person("", 0));
+        assertFalse(result.isValid());
+        assertEquals(0, calls[0]);
+        Map<String, Set<String>> errors = new HashMap<>();
+        errors.put("age", Collections.singleton("POSITIVE"));
+        errors.put("name", Collections.singleton("NOT_BLANK"));
+        assertEquals(errors, result.getErrors());
+        assertEquals(2, calls[0]);
+        result.getErrors();
+        assertEquals(2, calls[0]);
+    }
+
     @Test
     public void optional_test() {
         Validator<Person> validator = (p) -> Aggregation.of(notBlank("name", p.getName()).optional(),
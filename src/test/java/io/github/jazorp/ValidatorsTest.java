@@ -4,6 +4,8 @@ import org.junit.Test;
 
 import static org.junit.Assert.*;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.Arrays;
 
 public class ValidatorsTest {
@@ -114,6 +116,46 @@ public class ValidatorsTest {
         assertEquals("foo must be grater than 5", error);
     }
 
+    @Test
+    public void longs_are_compared_exactly() {
+        assertTrue(isValid(Validators.less("foo", Long.MAX_VALUE - 1, Long.MAX_VALUE)));
+        assertFalse(isValid(Validators.less("foo", (Number) (Long.MAX_VALUE - 1), (Number) Long.MAX_VALUE)));
+        assertFalse(isValid(Validators.equal("foo", Long.MAX_VALUE - 1, Long.MAX_VALUE)));
+        assertTrue(isValid(Validators.greaterEqual("foo", Long.MIN_VALUE, Long.MIN_VALUE)));
+        assertEquals("foo must be less than 9223372036854775807",
+                getEvalError(Validators.less("foo", Long.MAX_VALUE, Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void big_decimals_are_compared_exactly() {
+        BigDecimal price = new BigDecimal("0.1000000001");
+        BigDecimal ref = new BigDecimal("0.10");
+        assertFalse(isValid(Validators.equal("foo", price, ref)));
+        assertTrue(isValid(Validators.equal("foo", new BigDecimal("0.1"), ref)));
+        assertTrue(isValid(Validators.greater("foo", price, ref)));
+        assertFalse(isValid(Validators.lessEqual("foo", price, ref)));
+        assertFalse(isValid(Validators.positive("foo", BigDecimal.ZERO)));
+        assertFalse(isValid(Validators.less("foo", (BigDecimal) null, ref)));
+        assertTrue(isValid(Validators.less("foo", (BigDecimal) null, ref).optional()));
+        assertEquals("foo must be equal to 0.10", getEvalError(Validators.equal("foo", price, ref)));
+    }
+
+    @Test
+    public void big_integers_are_compared_exactly() {
+        BigInteger big = BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.TEN);
+        assertTrue(isValid(Validators.less("foo", big, big.add(BigInteger.ONE))));
+        assertFalse(isValid(Validators.greater("foo", big, big)));
+        assertTrue(isValid(Validators.positive("foo", big)));
+    }
+
+    @Test
+    public void mixed_boxed_and_primitive_arguments() {
+        Integer boxed = 8;
+        assertEquals("foo must be less than 5", getEvalError(Validators.less("foo", boxed, 5)));
+        assertEquals("foo must be less than 5", getEvalError(Validators.less("foo", 8, Integer.valueOf(5))));
+        assertFalse(isValid(Validators.positive("foo", (Integer) null)));
+    }
+
     @Test
     public void greaterEqual() {
         String error = getEvalError(Validators.greaterEqual("foo", 3, 5));